@@ -0,0 +1,599 @@
+package eu.digiwhist.server;
+
+import static spark.Spark.halt;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.dl.core.config.Config;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * Admission control of the expensive routes, so a single client can't saturate the database which the workers
+ * depend on. Each route class has its own limits (parameters {@code admission.<class>.<limit>}):
+ * <ul>
+ * <li>{@code concurrency} - number of requests of the class which run at once, the others wait in the queue</li>
+ * <li>{@code queue} - number of requests which wait, the request which finds the queue full ends with 503</li>
+ * <li>{@code queueTimeout} - number of milliseconds the request waits at most, then it ends with 503</li>
+ * <li>{@code rate} - number of requests of the class each client may start per second, the request over the rate
+ * ends with 429</li>
+ * <li>{@code burst} - number of requests the client may start at once after a pause, {@code rate} by default</li>
+ * </ul>
+ * Both the rejections tell the client when to try it again by the Retry-After header. The missing concurrency or
+ * rate means that the class isn't limited that way. The waiting requests get the released slots in the order of
+ * arrival. The properties are read again every {@code admission.reloadInterval} seconds, so the limits can be changed
+ * without restart in the copy of the properties file in the config directory (see {@link Config}).
+ *
+ * Each running request holds one pooled connection and the page requests share {@code populate.parallelism} spare
+ * connections of the parallel queries, so the sum of the concurrencies and the parallelism shouldn't exceed
+ * {@code jdbc.pool.size}. Otherwise the admitted requests wait for the connections instead of waiting in the queues.
+ *
+ * The rate of the unauthenticated requests is limited per client address. Behind a reverse proxy or a load balancer
+ * the addresses of the proxies are listed in {@code admission.trustedProxies} (comma separated), the address of the
+ * client is then taken from the X-Forwarded-For header: its addresses are walked from the right as long as the
+ * address they were received from is trusted. The header is ignored when the request doesn't come from a trusted
+ * proxy, so the clients can't choose their address. The clients behind a NAT share their address and so their rate.
+ */
+final class AdmissionControl {
+
+    /**
+     * Class of the routes which share the limits.
+     */
+    enum RouteClass {
+        /**
+         * Routes which return single entity by its id.
+         */
+        ENTITY("entity"),
+
+        /**
+         * Routes which return pages of entities.
+         */
+        PAGE("page"),
+
+        /**
+         * Routes which export all the entities since a timestamp or a cursor. An export runs for a long time, so the
+         * exports have their own slots and don't take the slots of the page routes.
+         */
+        EXPORT("export");
+
+        private final String name;
+
+        /**
+         * @param name
+         *            name of the class in the parameters
+         */
+        RouteClass(final String name) {
+            this.name = name;
+        }
+    }
+
+    private static final String PARAM_PREFIX = "admission.";
+
+    private static final String RELOAD_INTERVAL_PARAM = PARAM_PREFIX + "reloadInterval";
+
+    private static final String TRUSTED_PROXIES_PARAM = PARAM_PREFIX + "trustedProxies";
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControl.class);
+
+    private final Map<RouteClass, Gate> gates = new EnumMap<>(RouteClass.class);
+
+    private volatile Set<String> trustedProxies = Collections.emptySet();
+
+    private ScheduledExecutorService reloader;
+
+    /**
+     * Creates the gates and reads the limits.
+     */
+    AdmissionControl() {
+        this(System::nanoTime);
+        configure();
+    }
+
+    /**
+     * Creates the gates without any limits.
+     *
+     * @param clock
+     *            current time in nanoseconds (see {@link System#nanoTime()})
+     */
+    AdmissionControl(final LongSupplier clock) {
+        for (RouteClass routeClass : RouteClass.values()) {
+            gates.put(routeClass, new Gate(routeClass.name, clock));
+        }
+    }
+
+    /**
+     * Starts the periodic reload of the properties, unless {@code admission.reloadInterval} is missing.
+     */
+    void start() {
+        String interval = Config.getInstance().getParam(RELOAD_INTERVAL_PARAM);
+        if (interval == null || reloader != null) {
+            return;
+        }
+
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "admission-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long seconds = Long.parseLong(interval.trim());
+        reloader.scheduleWithFixedDelay(this::reload, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reads the properties again and applies the limits. The buckets of the clients which haven't sent any request
+     * for a while are dropped.
+     */
+    void reload() {
+        try {
+            Config.getInstance().reload();
+            configure();
+        } catch (IOException | RuntimeException e) {
+            // the exception would stop the periodic reload
+            logger.warn("Unable to reload admission limits, the current ones are kept, because of {}", e);
+            return;
+        }
+
+        for (Gate gate : gates.values()) {
+            gate.dropIdleBuckets();
+        }
+    }
+
+    /**
+     * Applies the current limits and trusted proxies.
+     */
+    void configure() {
+        Map<RouteClass, Limits> limits = new EnumMap<>(RouteClass.class);
+        for (RouteClass routeClass : RouteClass.values()) {
+            limits.put(routeClass, Limits.read(routeClass));
+        }
+
+        Set<String> proxies = new HashSet<>();
+        String param = Config.getInstance().getParam(TRUSTED_PROXIES_PARAM);
+        if (param != null) {
+            for (String proxy : param.split(",")) {
+                if (!proxy.trim().isEmpty()) {
+                    proxies.add(proxy.trim());
+                }
+            }
+        }
+
+        checkPoolSize(limits);
+        limits.forEach(this::setLimits);
+        setTrustedProxies(proxies);
+    }
+
+    /**
+     * @param routeClass
+     *            route class
+     * @param limits
+     *            limits of the route class
+     */
+    void setLimits(final RouteClass routeClass, final Limits limits) {
+        gates.get(routeClass).configure(limits);
+    }
+
+    /**
+     * @param proxies
+     *            addresses of the trusted proxies
+     */
+    void setTrustedProxies(final Set<String> proxies) {
+        trustedProxies = Collections.unmodifiableSet(new HashSet<>(proxies));
+    }
+
+    /**
+     * Wraps the route, so it's run only when the client is within its rate and the route class has a free slot. The
+     * slot is held until the route returns, including the streamed responses.
+     *
+     * @param routeClass
+     *            class of the route
+     * @param route
+     *            route to be run
+     * @return route with admission control
+     */
+    Route admit(final RouteClass routeClass, final Route route) {
+        Gate gate = gates.get(routeClass);
+        return (request, response) -> {
+            gate.throttle(getClient(request), response);
+            gate.enter(response);
+            try {
+                return route.handle(request, response);
+            } finally {
+                gate.leave();
+            }
+        };
+    }
+
+    /**
+     * Returns key of the client the rate is limited for, the authenticated user or the address of the client when the
+     * request isn't authenticated.
+     *
+     * @param request
+     *            request
+     * @return client key
+     */
+    String getClient(final Request request) {
+        String user = request.raw().getRemoteUser();
+        if (user != null) {
+            return "user:" + user;
+        }
+
+        StringBuilder forwardedFor = new StringBuilder();
+        Enumeration<String> headers = request.raw().getHeaders(FORWARDED_FOR_HEADER);
+        while (headers != null && headers.hasMoreElements()) {
+            forwardedFor.append(forwardedFor.length() == 0 ? "" : ",").append(headers.nextElement());
+        }
+
+        return "ip:" + getClientAddress(request.ip(), forwardedFor.toString(), trustedProxies);
+    }
+
+    /**
+     * Returns address of the client. The addresses of the X-Forwarded-For header are walked from the right (the last
+     * one has been added by the proxy closest to the server) as long as the request has been received from a trusted
+     * proxy.
+     *
+     * @param remoteAddress
+     *            address the request has been received from
+     * @param forwardedFor
+     *            comma separated addresses of the X-Forwarded-For headers, empty when there is none
+     * @param trusted
+     *            addresses of the trusted proxies
+     * @return address of the client
+     */
+    static String getClientAddress(final String remoteAddress, final String forwardedFor, final Set<String> trusted) {
+        String address = remoteAddress;
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0 && trusted.contains(address); i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                break;
+            }
+            address = hop;
+        }
+
+        return address;
+    }
+
+    /**
+     * Logs warning when the concurrencies and the parallelism of the populate queries need more connections than the
+     * pool has.
+     *
+     * @param limits
+     *            limits by route class
+     */
+    private static void checkPoolSize(final Map<RouteClass, Limits> limits) {
+        String poolSize = Config.getInstance().getParam("jdbc.pool.size");
+        String parallelism = Config.getInstance().getParam("populate.parallelism");
+        if (poolSize == null) {
+            return;
+        }
+
+        int connections = parallelism == null ? 0 : Integer.parseInt(parallelism.trim());
+        for (Limits classLimits : limits.values()) {
+            if (classLimits.concurrency <= 0) {
+                logger.warn("Concurrency of some routes isn't limited, the requests may wait for pooled connections");
+                return;
+            }
+            connections += classLimits.concurrency;
+        }
+
+        if (connections > Integer.parseInt(poolSize.trim())) {
+            logger.warn("Admitted requests and populate queries need {} connections, the pool has only {}",
+                connections, poolSize.trim());
+        }
+    }
+
+    /**
+     * Limits of one route class, zero concurrency or rate means no such limit.
+     */
+    static final class Limits {
+
+        private final int concurrency;
+
+        private final int queue;
+
+        private final long queueTimeout;
+
+        private final double rate;
+
+        private final int burst;
+
+        /**
+         * @param concurrency
+         *            number of requests which run at once
+         * @param queue
+         *            number of requests which wait
+         * @param queueTimeout
+         *            number of milliseconds the request waits at most
+         * @param rate
+         *            number of requests each client may start per second
+         * @param burst
+         *            number of requests each client may start at once
+         */
+        Limits(final int concurrency, final int queue, final long queueTimeout, final double rate, final int burst) {
+            this.concurrency = concurrency;
+            this.queue = queue;
+            this.queueTimeout = queueTimeout;
+            this.rate = rate;
+            this.burst = burst;
+        }
+
+        /**
+         * Reads the limits of the route class from the properties.
+         *
+         * @param routeClass
+         *            route class
+         * @return limits
+         */
+        static Limits read(final RouteClass routeClass) {
+            String prefix = PARAM_PREFIX + routeClass.name + ".";
+
+            String rateParam = Config.getInstance().getParam(prefix + "rate");
+            double rate = rateParam == null ? 0 : Double.parseDouble(rateParam.trim());
+
+            return new Limits(getInt(prefix + "concurrency", 0), getInt(prefix + "queue", 0),
+                getInt(prefix + "queueTimeout", 0), rate,
+                Math.max(1, getInt(prefix + "burst", (int) Math.ceil(rate))));
+        }
+
+        /**
+         * @param name
+         *            parameter name
+         * @param defaultValue
+         *            value of the missing parameter
+         * @return integer value of the parameter
+         */
+        private static int getInt(final String name, final int defaultValue) {
+            String value = Config.getInstance().getParam(name);
+            return value == null ? defaultValue : Integer.parseInt(value.trim());
+        }
+    }
+
+    /**
+     * Admission of one route class: the queue of the requests waiting for a slot and the token buckets of the
+     * clients. The released slot is handed over to the first waiting request, so the requests get the slots in the
+     * order of arrival and the request arriving later can't take the slot before it.
+     */
+    static final class Gate {
+
+        private final String name;
+
+        private final LongSupplier clock;
+
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+        private final ReentrantLock lock = new ReentrantLock(true);
+
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+        private volatile Limits limits = new Limits(0, 0, 0, 0, 1);
+
+        private int running;
+
+        /**
+         * @param name
+         *            name of the route class
+         * @param clock
+         *            current time in nanoseconds (see {@link System#nanoTime()})
+         */
+        Gate(final String name, final LongSupplier clock) {
+            this.name = name;
+            this.clock = clock;
+        }
+
+        /**
+         * Applies the limits, the waiting requests get the new slots right away. The other waiting requests check
+         * their deadlines.
+         *
+         * @param newLimits
+         *            limits
+         */
+        void configure(final Limits newLimits) {
+            lock.lock();
+            try {
+                limits = newLimits;
+                admitWaiters();
+                waiters.forEach(waiter -> waiter.admitted.signal());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Takes a token of the client, halts with 429 when the client is over its rate.
+         *
+         * @param client
+         *            client key
+         * @param response
+         *            response
+         */
+        void throttle(final String client, final Response response) {
+            Limits current = limits;
+            if (current.rate <= 0) {
+                return;
+            }
+
+            long now = clock.getAsLong();
+            long wait = buckets.computeIfAbsent(client, c -> new TokenBucket(current.burst, now))
+                .tryTake(current.rate, current.burst, now);
+            if (wait > 0) {
+                logger.info("Request of {} to {} routes refused, the client is over its rate", client, name);
+                response.header("Retry-After", String.valueOf(Math.max(1, (wait + 999999999) / 1000000000)));
+                halt(429, "<h1>Too many requests</h1><div>Request rate limit exceeded</div>");
+            }
+        }
+
+        /**
+         * Takes a slot, waits in the queue when all of them are taken. Halts with 503 when the queue is full or the
+         * request has waited too long.
+         *
+         * @param response
+         *            response
+         */
+        void enter(final Response response) {
+            lock.lock();
+            try {
+                Limits current = limits;
+                // the requests in the queue go first
+                if (waiters.isEmpty() && hasFreeSlot()) {
+                    running++;
+                    return;
+                }
+
+                if (waiters.size() >= current.queue) {
+                    reject(response, "the queue is full");
+                }
+
+                Waiter waiter = new Waiter(lock.newCondition());
+                waiters.addLast(waiter);
+                long deadline = clock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(current.queueTimeout);
+                try {
+                    while (!waiter.granted) {
+                        long remaining = deadline - clock.getAsLong();
+                        if (remaining <= 0) {
+                            waiters.remove(waiter);
+                            reject(response, "no slot has been released in time");
+                        }
+                        waiter.admitted.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (waiter.granted) {
+                        // the slot has been already handed over, it goes to the next request
+                        running--;
+                        admitWaiters();
+                    } else {
+                        waiters.remove(waiter);
+                    }
+                    reject(response, "the request has been interrupted");
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Releases the slot taken by {@link #enter(Response)}, hands it over to the first waiting request.
+         */
+        void leave() {
+            lock.lock();
+            try {
+                running--;
+                admitWaiters();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Drops the buckets which are full, their clients haven't sent any request for a while.
+         */
+        void dropIdleBuckets() {
+            Limits current = limits;
+            if (current.rate <= 0) {
+                buckets.clear();
+                return;
+            }
+
+            long now = clock.getAsLong();
+            buckets.values().removeIf(bucket -> bucket.isFull(current.rate, current.burst, now));
+        }
+
+        /**
+         * @return number of running requests
+         */
+        int getRunning() {
+            lock.lock();
+            try {
+                return running;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return number of waiting requests
+         */
+        int getWaiting() {
+            lock.lock();
+            try {
+                return waiters.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Hands over the free slots to the waiting requests in the order of arrival. Has to be called with the lock
+         * held.
+         */
+        private void admitWaiters() {
+            while (!waiters.isEmpty() && hasFreeSlot()) {
+                Waiter waiter = waiters.removeFirst();
+                waiter.granted = true;
+                running++;
+                waiter.admitted.signal();
+            }
+        }
+
+        /**
+         * @return whether a request can run right away, has to be called with the lock held
+         */
+        private boolean hasFreeSlot() {
+            return limits.concurrency <= 0 || running < limits.concurrency;
+        }
+
+        /**
+         * Halts with 503.
+         *
+         * @param response
+         *            response
+         * @param reason
+         *            reason of the rejection
+         */
+        private void reject(final Response response, final String reason) {
+            logger.warn("Request to {} routes refused, {}", name, reason);
+            response.header("Retry-After", "1");
+            halt(503, "<h1>Service unavailable</h1><div>Too many requests in progress</div>");
+        }
+    }
+
+    /**
+     * Request waiting for a slot.
+     */
+    private static final class Waiter {
+
+        private final Condition admitted;
+
+        private boolean granted;
+
+        /**
+         * @param admitted
+         *            condition signalled when the slot is handed over to the request
+         */
+        Waiter(final Condition admitted) {
+            this.admitted = admitted;
+        }
+    }
+}
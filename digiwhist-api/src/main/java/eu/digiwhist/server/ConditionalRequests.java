@@ -0,0 +1,93 @@
+package eu.digiwhist.server;
+
+import static spark.Spark.halt;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+import eu.dl.dataaccess.dto.PageVersion;
+import spark.Request;
+import spark.Response;
+
+/**
+ * Conditional requests of the pages. The page gets ETag and Last-Modified headers derived from its version and the
+ * client which repeats the request with If-None-Match gets 304 response without body when the page hasn't changed. The
+ * version is found by a query reading only ids and change timestamps, so the unchanged page is neither read,
+ * populated nor serialized.
+ *
+ * The pages are selected by offset, so they aren't validated by If-Modified-Since. When any earlier item of the result
+ * is modified the following items shift to the previous pages, the page then consists of other, older items and its
+ * latest timestamp may not change. The ETag covers the ids of the items, so it changes in that case. The Last-Modified
+ * header is only informative, the page is sent with "Cache-Control: no-cache", so the caches always revalidate it by
+ * the ETag instead of reusing it heuristically on the basis of its age.
+ */
+final class ConditionalRequests {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    /**
+     * Preferred format of HTTP date (IMF-fixdate), the two-digit day isn't guaranteed by RFC_1123_DATE_TIME.
+     */
+    private static final DateTimeFormatter HTTP_DATE_FORMAT =
+        DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+
+    /**
+     * This class shouldn't be instantiated.
+     */
+    private ConditionalRequests() {
+        // don't instantiate this class
+    }
+
+    /**
+     * Sets the validators of the page and evaluates the If-None-Match header of the request. In case that the page
+     * hasn't changed stops the execution with 304 response.
+     *
+     * @param request
+     *            request
+     * @param response
+     *            response
+     * @param version
+     *            current version of the requested page
+     */
+    static void haltWhenNotModified(final Request request, final Response response, final PageVersion version) {
+        // weak validator, the same page is sent either compressed or uncompressed
+        String etag = WEAK_PREFIX + "\"" + version.getTag() + "\"";
+        response.header("ETag", etag);
+        response.header("Cache-Control", "no-cache");
+
+        if (version.getLastModified() != null) {
+            ZonedDateTime lastModified = version.getLastModified().atZone(ZoneId.systemDefault())
+                .withZoneSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+            response.header("Last-Modified", HTTP_DATE_FORMAT.format(lastModified));
+        }
+
+        String ifNoneMatch = request.headers("If-None-Match");
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            halt(304);
+        }
+    }
+
+    /**
+     * @param ifNoneMatch
+     *            value of If-None-Match header, list of entity tags or "*"
+     * @param etag
+     *            entity tag of the page
+     * @return true in case that any entity tag of the header weakly matches the page's one
+     */
+    private static boolean matches(final String ifNoneMatch, final String etag) {
+        String opaque = etag.substring(WEAK_PREFIX.length());
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || (tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)
+                .equals(opaque)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
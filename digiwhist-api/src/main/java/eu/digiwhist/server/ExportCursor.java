@@ -0,0 +1,95 @@
+package eu.digiwhist.server;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.zip.CRC32;
+
+/**
+ * Position in the export of master items ordered by modification timestamp and id. The client gets the position as an
+ * opaque string and the next export continues right after it. The string carries a checksum, so the truncated or
+ * edited cursor is rejected instead of silently starting the export from another position. The cursor isn't a secret,
+ * any position can be requested by the timestamp as well.
+ */
+final class ExportCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime modified;
+
+    private final String id;
+
+    /**
+     * Creates cursor.
+     *
+     * @param modified
+     *            modification timestamp of the last exported item
+     * @param id
+     *            id of the last exported item, null before the first exported item
+     */
+    ExportCursor(final LocalDateTime modified, final String id) {
+        this.modified = modified;
+        this.id = id;
+    }
+
+    /**
+     * @return modification timestamp of the last exported item
+     */
+    LocalDateTime getModified() {
+        return modified;
+    }
+
+    /**
+     * @return id of the last exported item or null
+     */
+    String getId() {
+        return id;
+    }
+
+    /**
+     * @return opaque string representation of the cursor
+     */
+    String encode() {
+        String value = modified + SEPARATOR + (id == null ? "" : id);
+        value = value + SEPARATOR + checksum(value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses cursor returned by {@link #encode()}.
+     *
+     * @param cursor
+     *            opaque string representation of the cursor
+     * @return cursor
+     * @throws IllegalArgumentException
+     *             in case that the string isn't valid cursor
+     */
+    static ExportCursor decode(final String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int check = value.lastIndexOf(SEPARATOR);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator == check || !value.substring(check + 1).equals(checksum(value.substring(0, check)))) {
+                throw new IllegalArgumentException("Invalid export cursor " + cursor);
+            }
+            value = value.substring(0, check);
+
+            String id = value.substring(separator + 1);
+            return new ExportCursor(LocalDateTime.parse(value.substring(0, separator)), id.isEmpty() ? null : id);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid export cursor " + cursor, e);
+        }
+    }
+
+    /**
+     * @param value
+     *            string representation of the cursor
+     * @return checksum of the value
+     */
+    private static String checksum(final String value) {
+        CRC32 crc = new CRC32();
+        crc.update(value.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+}
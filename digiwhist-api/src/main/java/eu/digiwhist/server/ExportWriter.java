@@ -0,0 +1,182 @@
+package eu.digiwhist.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import eu.dl.dataaccess.dto.master.Masterable;
+import eu.dl.dataaccess.utils.JsonUtils;
+import spark.Request;
+import spark.Response;
+import spark.utils.GzipUtils;
+
+/**
+ * Writes exported master items to the response as newline-delimited JSON (one item per line) while they are being
+ * read from the database. The items are processed and written in chunks, each chunk is followed by a trailer record
+ * {@code {"cursor": "..."}} with the position after the chunk. The last record of the complete export is
+ * {@code {"cursor": "...", "complete": true}}. The client which gets interrupted continues from the last cursor it
+ * has received, the client which has received the whole export continues from the last cursor with the next
+ * changes.
+ *
+ * @param <T>
+ *            exported item
+ */
+final class ExportWriter<T extends Masterable> implements Consumer<T> {
+
+    /**
+     * Number of items processed and written at once.
+     */
+    static final int CHUNK_SIZE = 100;
+
+    private static final String CONTENT_TYPE = "application/x-ndjson; charset=utf-8";
+
+    private final Request request;
+
+    private final Response response;
+
+    private final Consumer<List<T>> preprocessor;
+
+    private final List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+
+    private ExportCursor read;
+
+    private ExportCursor written;
+
+    private int count;
+
+    private SequenceWriter writer;
+
+    private OutputStream output;
+
+    /**
+     * Creates writer.
+     *
+     * @param request
+     *            request, the response is compressed when the client accepts gzip
+     * @param response
+     *            response the items are written to
+     * @param cursor
+     *            position the export starts from
+     * @param preprocessor
+     *            processing of the items before they are written (eg. population)
+     */
+    ExportWriter(final Request request, final Response response, final ExportCursor cursor,
+        final Consumer<List<T>> preprocessor) {
+        this.request = request;
+        this.response = response;
+        this.preprocessor = preprocessor;
+        this.read = cursor;
+        this.written = cursor;
+    }
+
+    @Override
+    public void accept(final T item) {
+        chunk.add(item);
+        read = new ExportCursor(item.getModified(), item.getId());
+        count++;
+        if (chunk.size() == CHUNK_SIZE) {
+            writeChunk();
+        }
+    }
+
+    /**
+     * @return position after the last read item, the next batch of items is read from here
+     */
+    ExportCursor getPosition() {
+        return read;
+    }
+
+    /**
+     * @return number of read items
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Processes and writes the buffered items, so the next items can be read by another transaction.
+     */
+    void flush() {
+        writeChunk();
+    }
+
+    /**
+     * Writes the rest of the items, the final trailer and closes the response.
+     *
+     * @return empty body, the content has been already written
+     */
+    String finish() {
+        writeChunk();
+
+        try {
+            open();
+            Map<String, Object> trailer = trailer();
+            trailer.put("complete", true);
+            writer.write(trailer);
+            writer.flush();
+            output.write('\n');
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write response", e);
+        }
+
+        return "";
+    }
+
+    /**
+     * Processes and writes the buffered items followed by the trailer with the cursor.
+     */
+    private void writeChunk() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        preprocessor.accept(chunk);
+
+        try {
+            open();
+            for (T item : chunk) {
+                writer.write(item);
+            }
+            written = read;
+            writer.write(trailer());
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write response", e);
+        }
+
+        chunk.clear();
+    }
+
+    /**
+     * @return trailer record with the cursor after the written items
+     */
+    private Map<String, Object> trailer() {
+        Map<String, Object> trailer = new LinkedHashMap<>();
+        trailer.put("cursor", written.encode());
+        return trailer;
+    }
+
+    /**
+     * Opens the output. The response is committed with the first write, so the output isn't opened until the first
+     * chunk is ready and the failures of the first chunk still end with error response.
+     *
+     * @throws IOException
+     *             in case that output can't be opened
+     */
+    private void open() throws IOException {
+        if (writer == null) {
+            response.type(CONTENT_TYPE);
+            // compressed with sync flush, each chunk reaches the client as soon as it's written
+            output = GzipUtils.checkAndWrap(request.raw(), response.raw(), false);
+            writer = JsonUtils.getPublicApiWriter().withRootValueSeparator("\n").writeValues(output);
+        }
+    }
+}
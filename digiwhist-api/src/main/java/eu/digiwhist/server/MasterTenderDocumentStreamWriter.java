@@ -0,0 +1,84 @@
+package eu.digiwhist.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import eu.dl.dataaccess.utils.JsonUtils;
+import spark.Request;
+import spark.Response;
+import spark.utils.GzipUtils;
+
+/**
+ * Writes page of stored master tender documents to the response as JSON array while the documents are being read from
+ * the database. The documents are written as they are stored, no population nor serialization of the tenders is
+ * needed. The output is the same as the output of {@link MasterTenderStreamWriter} for the same tenders.
+ */
+final class MasterTenderDocumentStreamWriter implements Consumer<String> {
+
+    private final Request request;
+
+    private final Response response;
+
+    private SequenceWriter writer;
+
+    /**
+     * Creates writer.
+     *
+     * @param request
+     *            request, the response is compressed when the client accepts gzip
+     * @param response
+     *            response the documents are written to
+     */
+    MasterTenderDocumentStreamWriter(final Request request, final Response response) {
+        this.request = request;
+        this.response = response;
+    }
+
+    @Override
+    public void accept(final String document) {
+        try {
+            open();
+            writer.write(new RawValue(document));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write response", e);
+        }
+    }
+
+    /**
+     * Closes the array and the response.
+     *
+     * @return empty body, the content has been already written
+     */
+    String finish() {
+        try {
+            open();
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write response", e);
+        }
+
+        return "";
+    }
+
+    /**
+     * Opens the array on the response output stream.
+     *
+     * @throws IOException
+     *             in case that output can't be opened
+     */
+    private void open() throws IOException {
+        if (writer == null) {
+            // the same content type as Spark sets for the rendered responses
+            if (response.raw().getContentType() == null) {
+                response.type("text/html; charset=utf-8");
+            }
+            OutputStream output = GzipUtils.checkAndWrap(request.raw(), response.raw(), false);
+            writer = JsonUtils.getPublicApiWriter().writeValues(output).init(true);
+        }
+    }
+}
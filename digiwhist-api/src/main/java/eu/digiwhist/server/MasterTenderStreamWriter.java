@@ -0,0 +1,150 @@
+package eu.digiwhist.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import eu.digiwhist.dataaccess.utils.PopulateUtils;
+import eu.dl.dataaccess.dto.master.MasterTender;
+import eu.dl.dataaccess.utils.FieldProjection;
+import eu.dl.dataaccess.utils.JsonUtils;
+import spark.Request;
+import spark.Response;
+import spark.utils.GzipUtils;
+
+/**
+ * Writes page of master tenders to the response as JSON array while the tenders are being read from the database.
+ * The tenders are populated with bodies and indicators and written in chunks, so only one chunk of the page is held
+ * in memory and the first bytes are sent as soon as the first chunk is ready. The output is the same as the output
+ * of {@link JsonTransformer} for the whole page.
+ */
+final class MasterTenderStreamWriter implements Consumer<MasterTender> {
+
+    /**
+     * Number of tenders populated and written at once.
+     */
+    static final int CHUNK_SIZE = 100;
+
+    /**
+     * Paths of the properties populated with master bodies.
+     */
+    private static final List<String> BODY_PATHS = Arrays.asList("buyers", "onBehalfOf", "administrators",
+        "supervisors", "candidates", "approachedBidders", "bidsRecipient", "furtherInformationProvider",
+        "specificationsCreator", "specificationsProvider", "lots.bids.bidders");
+
+    private static final String INDICATORS_PATH = "indicators";
+
+    private final Request request;
+
+    private final Response response;
+
+    private final PopulateUtils populateUtils;
+
+    private final Consumer<List<MasterTender>> preprocessor;
+
+    private final FieldProjection projection;
+
+    private final List<MasterTender> chunk = new ArrayList<>(CHUNK_SIZE);
+
+    private SequenceWriter writer;
+
+    /**
+     * Creates writer.
+     *
+     * @param request
+     *            request, the response is compressed when the client accepts gzip
+     * @param response
+     *            response the tenders are written to
+     * @param populateUtils
+     *            populate utils used to add bodies and indicators
+     * @param preprocessor
+     *            processing of the tenders before their population
+     * @param projection
+     *            requested properties of the tenders, null for all the properties; the bodies and the indicators
+     *            are populated only when they are requested
+     */
+    MasterTenderStreamWriter(final Request request, final Response response, final PopulateUtils populateUtils,
+        final Consumer<List<MasterTender>> preprocessor, final FieldProjection projection) {
+        this.request = request;
+        this.response = response;
+        this.populateUtils = populateUtils;
+        this.preprocessor = preprocessor;
+        this.projection = projection;
+    }
+
+    @Override
+    public void accept(final MasterTender tender) {
+        chunk.add(tender);
+        if (chunk.size() == CHUNK_SIZE) {
+            writeChunk();
+        }
+    }
+
+    /**
+     * Writes the rest of the tenders and closes the array and the response.
+     *
+     * @return empty body, the content has been already written
+     */
+    String finish() {
+        writeChunk();
+
+        try {
+            open();
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write response", e);
+        }
+
+        return "";
+    }
+
+    /**
+     * Populates and writes the buffered tenders.
+     */
+    private void writeChunk() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        preprocessor.accept(chunk);
+        populateUtils.populate(chunk, projection == null || BODY_PATHS.stream().anyMatch(projection::includes),
+            projection == null || projection.includes(INDICATORS_PATH));
+
+        try {
+            open();
+            for (MasterTender tender : chunk) {
+                tender.setGroupId(null);
+                writer.write(tender);
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write response", e);
+        }
+
+        chunk.clear();
+    }
+
+    /**
+     * Opens the array on the response output stream. The response is committed with the first write, so the output
+     * isn't opened until the first chunk is ready and the failures of the first chunk still end with error response.
+     *
+     * @throws IOException
+     *             in case that output can't be opened
+     */
+    private void open() throws IOException {
+        if (writer == null) {
+            // the same content type as Spark sets for the rendered responses
+            if (response.raw().getContentType() == null) {
+                response.type("text/html; charset=utf-8");
+            }
+            OutputStream output = GzipUtils.checkAndWrap(request.raw(), response.raw(), false);
+            writer = JsonUtils.getPublicApiWriter(projection).writeValues(output).init(true);
+        }
+    }
+}
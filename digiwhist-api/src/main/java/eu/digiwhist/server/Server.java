@@ -1,5 +1,6 @@
 package eu.digiwhist.server;
 
+import static spark.Spark.after;
 import static spark.Spark.before;
 import static spark.Spark.exception;
 import static spark.Spark.get;
@@ -16,24 +17,33 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.digiwhist.dataaccess.dao.DAOFactory;
+import eu.digiwhist.dataaccess.utils.MasterTenderDocumentUtils;
 import eu.digiwhist.dataaccess.utils.PopulateUtils;
+import eu.digiwhist.server.AdmissionControl.RouteClass;
+import eu.dl.core.RecoverableException;
 import eu.dl.core.config.Config;
 import eu.dl.dataaccess.dao.CleanTenderDAO;
 import eu.dl.dataaccess.dao.IndicatorDAO;
 import eu.dl.dataaccess.dao.MasterBodyDAO;
+import eu.dl.dataaccess.dao.MasterDAO;
 import eu.dl.dataaccess.dao.MasterTenderDAO;
+import eu.dl.dataaccess.dao.MasterTenderDocumentDAO;
 import eu.dl.dataaccess.dao.ParsedTenderDAO;
 import eu.dl.dataaccess.dao.RawDataDAO;
 import eu.dl.dataaccess.dao.TransactionUtils;
+import eu.dl.dataaccess.dto.PageVersion;
 import eu.dl.dataaccess.dto.clean.CleanTender;
 import eu.dl.dataaccess.dto.clean.Cleanable;
-import eu.dl.dataaccess.dto.master.MasterBid;
 import eu.dl.dataaccess.dto.master.MasterBody;
 import eu.dl.dataaccess.dto.master.MasterTender;
-import eu.dl.dataaccess.dto.master.MasterTenderLot;
 import eu.dl.dataaccess.dto.master.Masterable;
 import eu.dl.dataaccess.dto.parsed.Parsable;
 import eu.dl.dataaccess.dto.raw.Raw;
+import eu.dl.dataaccess.utils.FieldProjection;
+import eu.dl.dataaccess.utils.PageUtils;
+import spark.Request;
+import spark.Response;
+import spark.Route;
 
 /**
  * Main class for API.
@@ -48,6 +58,16 @@ public final class Server {
 
     private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS";
 
+    /**
+     * Number of items the export reads by one query.
+     */
+    static final int EXPORT_BATCH_SIZE = 1000;
+
+    /**
+     * Header of the paged responses which tells whether there is a next page.
+     */
+    private static final String HAS_MORE_HEADER = "X-Has-More";
+
     private static TransactionUtils transactionUtils;
 
     private static RawDataDAO rawDao;
@@ -66,6 +86,15 @@ public final class Server {
 
     private static PopulateUtils populateUtils;
 
+    private static MasterTenderDocumentUtils documentUtils;
+
+    /**
+     * DAO of the stored master tender documents, null when the stored documents are disabled.
+     */
+    private static MasterTenderDocumentDAO documentDao;
+
+    private static AdmissionControl admissionControl;
+
     /**
      * This class shouldn't be instantiated.
      */
@@ -110,12 +139,10 @@ public final class Server {
     private static void registerRawTenderEndpoint() {
         // before("/*", new RequiresAuthenticationFilter(config,
         // "DirectBasicAuthClient"));
-        get("/raw_tender/:id", "application/json", (request, response) -> {
-            transactionUtils.begin();
+        get("/raw_tender/:id", "application/json", entityRoute((request, response) -> {
             Raw result = rawDao.getById(request.params(":id"));
-            transactionUtils.commit();
             return result;
-        }, new JsonTransformer());
+        }), new JsonTransformer());
     }
 
     /**
@@ -123,143 +150,315 @@ public final class Server {
      */
     private static void registerMaterBodyEndpoints() {
 
-        get("/master_body/:id", "application/json", (request, response) -> {
-            transactionUtils.begin();
+        get("/master_body/:id", "application/json", entityRoute((request, response) -> {
             Masterable result = masterBodyDao.getById(request.params(":id"));
-            transactionUtils.commit();
             return result;
-        }, new JsonTransformer());
+        }), new JsonTransformer());
 
-        get("/master_body/timestamp/:timestamp/page/:page", "application/json", (request, response) -> {
+        get("/master_body/timestamp/:timestamp/page/:page", "application/json", pageRoute((request, response) -> {
             LocalDateTime timestamp = getDate(request.params(":timestamp"));
-            Integer page = getInteger(request.params(":page"));
-            transactionUtils.begin();
-            List<MasterBody> result = masterBodyDao.getModifiedAfter(timestamp, page);
-            transactionUtils.commit();
+            Integer page = getPage(request.params(":page"));
+            Integer pageSize = getPageSize(request);
+            PageVersion version = masterBodyDao.getModifiedAfterVersion(timestamp, null, page, pageSize);
+            setHasMore(response, version.getHasMore());
+            ConditionalRequests.haltWhenNotModified(request, response, version);
+
+            List<MasterBody> result = masterBodyDao.getModifiedAfter(timestamp, null, page, pageSize);
+            PageUtils.trim(result, pageSize);
             return result;
-        }, new JsonTransformer());
+        }), new JsonTransformer());
 
-        get("/master_body/timestamp/:timestamp", "application/json", (request, response) -> {
+        get("/master_body/timestamp/:timestamp", "application/json", pageRoute((request, response) -> {
             LocalDateTime timestamp = getDate(request.params(":timestamp"));
-            transactionUtils.begin();
-            List<MasterBody> result = masterBodyDao.getModifiedAfter(timestamp, 1);
-            transactionUtils.commit();
+            Integer pageSize = getPageSize(request);
+            PageVersion version = masterBodyDao.getModifiedAfterVersion(timestamp, null, 1, pageSize);
+            setHasMore(response, version.getHasMore());
+            ConditionalRequests.haltWhenNotModified(request, response, version);
+
+            List<MasterBody> result = masterBodyDao.getModifiedAfter(timestamp, null, 1, pageSize);
+            PageUtils.trim(result, pageSize);
             return result;
-        }, new JsonTransformer());
+        }), new JsonTransformer());
+
+        Route export = admissionControl.admit(RouteClass.EXPORT, (request, response) -> export(
+            new ExportWriter<MasterBody>(request, response, getExportCursor(request), n -> { }), masterBodyDao,
+            transactionUtils));
+        get("/master_body/export/timestamp/:timestamp", export);
+        get("/master_body/export/cursor/:cursor", export);
     }
 
     /**
      * 
      */
     private static void registerMasterTenderEndpoints() {
-        get("/master_tender/timestamp/:timestamp/page/:page", "application/json", (request, response) -> {
+        // pages are streamed from the database cursor to the response, the transaction keeps the cursor open; the
+        // unchanged pages aren't read at all, see ConditionalRequests
+        get("/master_tender/timestamp/:timestamp/page/:page", "application/json", pageRoute((request, response) -> {
             LocalDateTime timestamp = getDate(request.params(":timestamp"));
-            Integer page = getInteger(request.params(":page"));
-            transactionUtils.begin();
-            List<MasterTender> result = masterDao.getModifiedAfter(timestamp, page);
-            transactionUtils.commit();
-            return populateUtils.populateIndicators(populateUtils.populateBodies(result));
-        }, new JsonTransformer());
+            Integer page = getPage(request.params(":page"));
+            Integer pageSize = getPageSize(request);
+            PageVersion version = masterDao.getModifiedAfterVersion(timestamp, null, page, pageSize);
+            setHasMore(response, version.getHasMore());
+            ConditionalRequests.haltWhenNotModified(request, response, version);
+
+            MasterTenderStreamWriter writer = new MasterTenderStreamWriter(request, response, populateUtils, n -> { },
+                getFieldProjection(request));
+            masterDao.streamModifiedAfter(timestamp, null, page, pageSize, writer);
+            String result = writer.finish();
+            return result;
+        }));
+
+        get("/master_tender/country/:country/page/:page", "application/json", pageRoute((request, response) -> {
+            Integer page = getPage(request.params(":page"));
+            String country = request.params(":country");
+            Integer pageSize = getPageSize(request);
+            FieldProjection projection = getFieldProjection(request);
+            // stored documents are complete, the projected pages are computed live
+            if (documentDao != null && projection == null) {
+                PageVersion version = documentDao.getByCountryVersion(country, page, pageSize);
+                setHasMore(response, version.getHasMore());
+                ConditionalRequests.haltWhenNotModified(request, response, version);
+
+                MasterTenderDocumentStreamWriter writer = new MasterTenderDocumentStreamWriter(request, response);
+                documentDao.streamByCountry(country, page, pageSize, writer);
+                return writer.finish();
+            }
 
-        get("/master_tender/country/:country/page/:page", "application/json", (request, response) -> {
-            transactionUtils.begin();
-            Integer page = getInteger(request.params(":page"));
-            List<MasterTender> result = masterDao.getByCountry(request.params(":country"), page);
-            hideSecretValues(result);
-            transactionUtils.commit();
-            return populateUtils.populateIndicators(populateUtils.populateBodies(result));
-        }, new JsonTransformer());
+            PageVersion version = masterDao.getByCountryVersion(country, page, pageSize);
+            setHasMore(response, version.getHasMore());
+            ConditionalRequests.haltWhenNotModified(request, response, version);
+
+            MasterTenderStreamWriter writer = new MasterTenderStreamWriter(request, response, populateUtils,
+                MasterTenderDocumentUtils::hideSecretValues, projection);
+            masterDao.streamByCountry(country, page, pageSize, writer);
+            String result = writer.finish();
+            return result;
+        }));
 
         get("/master_tender/timestamp/:timestamp/source/:source/page/:page", "application/json",
-                (request, response) -> {
+                pageRoute((request, response) -> {
                     LocalDateTime timestamp = getDate(request.params(":timestamp"));
-                    Integer page = getInteger(request.params(":page"));
+                    Integer page = getPage(request.params(":page"));
                     String source = request.params(":source");
-                    transactionUtils.begin();
-                    List<MasterTender> result = masterDao.getModifiedAfter(timestamp, source, page);
-                    hideSecretValues(result);
-                    transactionUtils.commit();
-                    return populateUtils.populateIndicators(populateUtils.populateBodies(result));
-                }, new JsonTransformer());
+                    Integer pageSize = getPageSize(request);
+                    FieldProjection projection = getFieldProjection(request);
+                    if (documentDao != null && projection == null) {
+                        PageVersion version = documentDao.getModifiedAfterVersion(timestamp, source, page, pageSize);
+                        setHasMore(response, version.getHasMore());
+                        ConditionalRequests.haltWhenNotModified(request, response, version);
+
+                        MasterTenderDocumentStreamWriter writer =
+                            new MasterTenderDocumentStreamWriter(request, response);
+                        documentDao.streamModifiedAfter(timestamp, source, page, pageSize, writer);
+                        return writer.finish();
+                    }
+
+                    PageVersion version = masterDao.getModifiedAfterVersion(timestamp, source, page, pageSize);
+                    setHasMore(response, version.getHasMore());
+                    ConditionalRequests.haltWhenNotModified(request, response, version);
+
+                    MasterTenderStreamWriter writer = new MasterTenderStreamWriter(request, response, populateUtils,
+                        MasterTenderDocumentUtils::hideSecretValues, projection);
+                    masterDao.streamModifiedAfter(timestamp, source, page, pageSize, writer);
+                    String result = writer.finish();
+                    return result;
+                }));
+
+        // all the tenders since the timestamp or the cursor in one response, see ExportWriter
+        Route export = admissionControl.admit(RouteClass.EXPORT, (request, response) -> export(
+            new ExportWriter<MasterTender>(request, response, getExportCursor(request), documentUtils::prepare),
+            masterDao, transactionUtils));
+        get("/master_tender/export/timestamp/:timestamp", export);
+        get("/master_tender/export/cursor/:cursor", export);
     }
 
     /**
-     * This methods hides specific values from public API.
-     * 
-     * @param result result set to be processed
+     * Exports all the items following the writer's cursor. The items are read by queries of
+     * {@link #EXPORT_BATCH_SIZE} items, each of them continues after the last read item. Each batch is read, processed
+     * and written in a short transaction of its own, so the export which takes minutes holds neither a connection nor
+     * a snapshot for the whole time. The batch continues after the last item of the previous one, so the changes
+     * committed in between don't make the export skip or repeat any item; the item modified in between is exported
+     * again at its new position.
+     *
+     * @param writer
+     *            export writer
+     * @param dao
+     *            DAO of the exported items
+     * @param transactionUtils
+     *            transaction utils which run the batches
+     * @param <T>
+     *            exported item
+     * @return empty body, the content has been already written
      */
-    private static void hideSecretValues(final List<MasterTender> result) {
-        for (MasterTender tender : result) {
-            if (tender.getLots() != null) {
-                for (MasterTenderLot lot : tender.getLots()) {
-                    lot.setRobustEstimatedPrice(null);
-                    if (lot.getBids() != null) {
-                        for (MasterBid bid : lot.getBids()) {
-                            bid.setRobustPrice(null);
-                        }
-                    }
-                }
+    static <T extends Masterable> String export(final ExportWriter<T> writer, final MasterDAO<T> dao,
+        final TransactionUtils transactionUtils) {
+        int count;
+        do {
+            count = writer.getCount();
+            ExportCursor position = writer.getPosition();
+            inTransaction(transactionUtils, () -> {
+                dao.streamAfter(position.getModified(), position.getId(), EXPORT_BATCH_SIZE, writer);
+                // the buffered items are processed (eg. populated) in the transaction of their batch
+                writer.flush();
+            });
+        } while (writer.getCount() - count == EXPORT_BATCH_SIZE);
+
+        return writer.finish();
+    }
+
+    /**
+     * Runs the task in a transaction, the transaction is rolled back when the task fails.
+     *
+     * @param transactionUtils
+     *            transaction utils
+     * @param task
+     *            task to be run
+     */
+    private static void inTransaction(final TransactionUtils transactionUtils, final Runnable task) {
+        transactionUtils.begin();
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            try {
+                transactionUtils.rollback();
+            } catch (RuntimeException ex) {
+                e.addSuppressed(ex);
             }
+            throw e;
         }
+        transactionUtils.commit();
     }
 
     /**
-     * 
+     * Returns the position the export starts from, either the cursor of the previous export or the timestamp. Stops
+     * the execution when the cursor or the timestamp cannot be parsed.
+     *
+     * @param request
+     *            export request
+     * @return export cursor or throws 400 with description
      */
-    private static void registerCleanTenderEndpoints() {
-        get("/clean_tender/:id", "application/json", (request, response) -> {
+    private static ExportCursor getExportCursor(final Request request) {
+        String cursor = request.params(":cursor");
+        if (cursor == null) {
+            return new ExportCursor(getDate(request.params(":timestamp")), null);
+        }
+
+        try {
+            return ExportCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            halt(400, "Unable to parse export cursor " + cursor);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the route which returns single entity in its own transaction, when admitted by the limits of the entity
+     * routes.
+     *
+     * @param route
+     *            route to be run
+     * @return route wrapped in admission control and transaction
+     */
+    private static Route entityRoute(final Route route) {
+        return admissionControl.admit(RouteClass.ENTITY, inTransaction(transactionUtils, route));
+    }
+
+    /**
+     * Runs the route which returns page of entities in its own transaction, when admitted by the limits of the page
+     * routes. The admission goes first, the waiting requests don't hold database connections.
+     *
+     * @param route
+     *            route to be run
+     * @return route wrapped in admission control and transaction
+     */
+    private static Route pageRoute(final Route route) {
+        return admissionControl.admit(RouteClass.PAGE, inTransaction(transactionUtils, route));
+    }
+
+    /**
+     * Runs the route in its own transaction. With the pooled JDBC connections each request gets its own connection
+     * for the duration of the transaction, so the concurrent requests don't interfere. The transaction is rolled back
+     * when the route fails, eg. when the statement times out or the client disconnects during streaming.
+     *
+     * @param transactionUtils
+     *            transaction utils which run the route
+     * @param route
+     *            route to be run
+     * @return route wrapped in transaction
+     */
+    static Route inTransaction(final TransactionUtils transactionUtils, final Route route) {
+        return (request, response) -> {
             transactionUtils.begin();
-            Cleanable result = cleanDao.getById(request.params(":id"));
+            Object result;
+            try {
+                result = route.handle(request, response);
+            } catch (Exception e) {
+                try {
+                    transactionUtils.rollback();
+                } catch (RuntimeException ex) {
+                    e.addSuppressed(ex);
+                }
+                throw e;
+            }
             transactionUtils.commit();
             return result;
-        }, new JsonTransformer());
+        };
+    }
 
-        get("/clean_tender/country/:country/page/:page", "application/json", (request, response) -> {
-            transactionUtils.begin();
-            Integer page = getInteger(request.params(":page"));
-            List<CleanTender> result = cleanDao.getByCountry(request.params(":country"), page);
-            transactionUtils.commit();
+    /**
+     * 
+     */
+    private static void registerCleanTenderEndpoints() {
+        get("/clean_tender/:id", "application/json", entityRoute((request, response) -> {
+            Cleanable result = cleanDao.getById(request.params(":id"));
             return result;
-        }, new JsonTransformer());
+        }), new JsonTransformer());
 
-        get("/clean_tender/timestamp/:timestamp/page/:page", "application/json", (request, response) -> {
-            LocalDateTime timestamp = getDate(request.params(":timestamp"));
-            Integer page = getInteger(request.params(":page"));
-            transactionUtils.begin();
-            List<CleanTender> result = cleanDao.getModifiedAfter(timestamp, page);
-            transactionUtils.commit();
+        get("/clean_tender/country/:country/page/:page", "application/json", pageRoute((request, response) -> {
+            Integer page = getPage(request.params(":page"));
+            Integer pageSize = getPageSize(request);
+            List<CleanTender> result = cleanDao.getByCountry(request.params(":country"), page, pageSize);
+            setHasMore(response, PageUtils.trim(result, pageSize));
             return result;
-        }, new JsonTransformer());
+        }), new JsonTransformer());
 
-        get("/clean_tender/timestamp/:timestamp/source/:source/page/:page", "application/json", (request, response) -> {
+        get("/clean_tender/timestamp/:timestamp/page/:page", "application/json", pageRoute((request, response) -> {
             LocalDateTime timestamp = getDate(request.params(":timestamp"));
-            Integer page = getInteger(request.params(":page"));
-            String source = request.params(":source");
-            transactionUtils.begin();
-            List<CleanTender> result = cleanDao.getModifiedAfter(timestamp, source, page);
-            transactionUtils.commit();
+            Integer page = getPage(request.params(":page"));
+            Integer pageSize = getPageSize(request);
+            List<CleanTender> result = cleanDao.getModifiedAfter(timestamp, null, page, pageSize);
+            setHasMore(response, PageUtils.trim(result, pageSize));
             return result;
-        }, new JsonTransformer());
+        }), new JsonTransformer());
+
+        get("/clean_tender/timestamp/:timestamp/source/:source/page/:page", "application/json",
+                pageRoute((request, response) -> {
+                    LocalDateTime timestamp = getDate(request.params(":timestamp"));
+                    Integer page = getPage(request.params(":page"));
+                    String source = request.params(":source");
+                    Integer pageSize = getPageSize(request);
+                    List<CleanTender> result = cleanDao.getModifiedAfter(timestamp, source, page, pageSize);
+                    setHasMore(response, PageUtils.trim(result, pageSize));
+                    return result;
+                }), new JsonTransformer());
 
-        get("/clean_tender/timestamp/:timestamp", "application/json", (request, response) -> {
+        get("/clean_tender/timestamp/:timestamp", "application/json", pageRoute((request, response) -> {
             LocalDateTime timestamp = getDate(request.params(":timestamp"));
-            transactionUtils.begin();
-            List<CleanTender> result = cleanDao.getModifiedAfter(timestamp, 1);
-            transactionUtils.commit();
+            Integer pageSize = getPageSize(request);
+            List<CleanTender> result = cleanDao.getModifiedAfter(timestamp, null, 1, pageSize);
+            setHasMore(response, PageUtils.trim(result, pageSize));
             return result;
-        }, new JsonTransformer());
+        }), new JsonTransformer());
     }
 
     /**
      * 
      */
     private static void registerParsedTenderEndpoints() {
-        get("/parsed_tender/:id", "application/json", (request, response) -> {
-            transactionUtils.begin();
+        get("/parsed_tender/:id", "application/json", entityRoute((request, response) -> {
             Parsable result = parsedDao.getById(request.params(":id"));
-            transactionUtils.commit();
             return result;
-        }, new JsonTransformer());
+        }), new JsonTransformer());
     }
 
     /**
@@ -282,18 +481,66 @@ public final class Server {
     }
 
     /**
-     * Formats the string to integer. Stops the execution when the int cannot be
-     * parsed.
-     * 
-     * @param integer
-     *            string date representation
-     * @return formatted integer or throws 400 with description
+     * Parses the page. Stops the execution when the page cannot be parsed or is negative.
+     *
+     * @param page
+     *            string page representation
+     * @return page or throws 400 with description
      */
-    private static Integer getInteger(final String integer) {
+    private static Integer getPage(final String page) {
         try {
-            return Integer.parseInt(integer);
-        } catch (NumberFormatException e) {
-            halt(400, "Unable to parse integer from " + integer);
+            return PageUtils.parsePage(page);
+        } catch (IllegalArgumentException e) {
+            halt(400, "Unable to parse page (expected non-negative integer) from " + page);
+            throw e;
+        }
+    }
+
+    /**
+     * Parses the "pageSize" query parameter, the default page size is used when it is missing. Stops the execution
+     * when the page size cannot be parsed or is out of the range, see {@link PageUtils#MAX_PAGE_SIZE}.
+     *
+     * @param request
+     *            request
+     * @return page size
+     */
+    private static Integer getPageSize(final Request request) {
+        String pageSize = request.queryParams("pageSize");
+        try {
+            return PageUtils.parsePageSize(pageSize);
+        } catch (IllegalArgumentException e) {
+            halt(400, "Unable to parse page size (expected 1-" + PageUtils.MAX_PAGE_SIZE + ") from " + pageSize);
+            throw e;
+        }
+    }
+
+    /**
+     * Tells the client whether there is a next page. The header keeps the body of the paged response a plain JSON
+     * array.
+     *
+     * @param response
+     *            response
+     * @param hasMore
+     *            whether there is a next page
+     */
+    private static void setHasMore(final Response response, final Boolean hasMore) {
+        response.header(HAS_MORE_HEADER, String.valueOf(Boolean.TRUE.equals(hasMore)));
+    }
+
+    /**
+     * Parses the "fields" query parameter, comma separated dotted paths of the requested properties (eg.
+     * "id,lots.bids.price"). Stops the execution when the parameter cannot be parsed.
+     *
+     * @param request
+     *            request
+     * @return requested properties or null when all the properties are requested
+     */
+    private static FieldProjection getFieldProjection(final Request request) {
+        String fields = request.queryParams("fields");
+        try {
+            return FieldProjection.parse(fields);
+        } catch (IllegalArgumentException e) {
+            halt(400, "Unable to parse fields " + fields);
             throw e;
         }
     }
@@ -316,7 +563,22 @@ public final class Server {
         
         indicatorDao = DAOFactory.getDAOFactory().getIndicatorDAO(NAME, VERSION);
 
-        populateUtils = new PopulateUtils(masterBodyDao, indicatorDao);
+        String populateParallelism = Config.getInstance().getParam("populate.parallelism");
+        if (populateParallelism == null) {
+            populateUtils = new PopulateUtils(masterBodyDao, indicatorDao);
+        } else {
+            populateUtils = new PopulateUtils(masterBodyDao, indicatorDao, transactionUtils,
+                Integer.parseInt(populateParallelism.trim()));
+        }
+
+        if (MasterTenderDocumentUtils.isEnabled()) {
+            documentDao = DAOFactory.getDAOFactory().getMasterTenderDocumentDAO(NAME, VERSION);
+        }
+
+        documentUtils = new MasterTenderDocumentUtils(populateUtils, documentDao);
+
+        admissionControl = new AdmissionControl();
+        admissionControl.start();
     }
 
     /**
@@ -342,13 +604,43 @@ public final class Server {
 
         before((request, response) -> {
             response.header("Access-Control-Allow-Origin", "*");
+            response.header("Access-Control-Expose-Headers", HAS_MORE_HEADER + ", Retry-After");
+            response.header("Vary", "Accept-Encoding");
         });
+
+        after(Server::compress);
+    }
+
+    /**
+     * Compresses the response when the client accepts gzip. The rendered responses are compressed by Spark when the
+     * Content-Encoding header is set, the streamed ones are compressed by their writers and are already committed
+     * here.
+     *
+     * @param request
+     *            request
+     * @param response
+     *            response
+     */
+    static void compress(final Request request, final Response response) {
+        String acceptEncoding = request.headers("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip") && !response.raw().isCommitted()) {
+            response.header("Content-Encoding", "gzip");
+        }
     }
 
     /**
      * Registers exception handling.
      */
     private static void registerExceptionHandling() {
+        // all the database connections are busy, the client should try it later
+        exception(RecoverableException.class, (exception, request, response) -> {
+            logger.warn("Execution of request {} was refused because of {}", request.pathInfo(),
+                exception.getMessage());
+            response.status(503);
+            response.header("Retry-After", "1");
+            response.body("<h1>Service unavailable</h1><div>" + exception.getMessage() + "</div>");
+        });
+
         exception(Exception.class, (exception, request, response) -> {
             logger.debug("Execution of request {} ended with an exception {}", request.queryString(), exception);
             response.status(500);
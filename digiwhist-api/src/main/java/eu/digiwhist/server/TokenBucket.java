@@ -0,0 +1,78 @@
+package eu.digiwhist.server;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket of one client. The bucket holds at most {@code burst} tokens and gets {@code rate} tokens per second,
+ * each request takes one token. The limits are handed over with each call, so the changed limits apply to the
+ * existing buckets right away.
+ */
+final class TokenBucket {
+
+    private double tokens;
+
+    private long refilled;
+
+    /**
+     * Creates full bucket.
+     *
+     * @param burst
+     *            number of tokens
+     * @param now
+     *            current time in nanoseconds (see {@link System#nanoTime()})
+     */
+    TokenBucket(final int burst, final long now) {
+        this.tokens = burst;
+        this.refilled = now;
+    }
+
+    /**
+     * Takes one token if there is any.
+     *
+     * @param rate
+     *            number of tokens added per second
+     * @param burst
+     *            maximum number of tokens
+     * @param now
+     *            current time in nanoseconds (see {@link System#nanoTime()})
+     * @return 0 when the token has been taken, otherwise number of nanoseconds until the next token is available
+     */
+    synchronized long tryTake(final double rate, final int burst, final long now) {
+        refill(rate, burst, now);
+        if (tokens >= 1) {
+            tokens--;
+            return 0;
+        }
+
+        return Math.max(1, (long) Math.ceil((1 - tokens) / rate * TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    /**
+     * @param rate
+     *            number of tokens added per second
+     * @param burst
+     *            maximum number of tokens
+     * @param now
+     *            current time in nanoseconds (see {@link System#nanoTime()})
+     * @return whether the bucket is full, ie. it is the same as a new one
+     */
+    synchronized boolean isFull(final double rate, final int burst, final long now) {
+        refill(rate, burst, now);
+        return tokens >= burst;
+    }
+
+    /**
+     * Adds the tokens for the time since the last refill.
+     *
+     * @param rate
+     *            number of tokens added per second
+     * @param burst
+     *            maximum number of tokens
+     * @param now
+     *            current time in nanoseconds (see {@link System#nanoTime()})
+     */
+    private void refill(final double rate, final int burst, final long now) {
+        tokens = Math.min(burst, tokens + (now - refilled) * rate / TimeUnit.SECONDS.toNanos(1));
+        refilled = now;
+    }
+}
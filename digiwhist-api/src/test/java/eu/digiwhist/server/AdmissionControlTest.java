@@ -0,0 +1,392 @@
+package eu.digiwhist.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import eu.digiwhist.server.AdmissionControl.Gate;
+import eu.digiwhist.server.AdmissionControl.Limits;
+import eu.digiwhist.server.AdmissionControl.RouteClass;
+import spark.HaltException;
+
+/**
+ * Tests for AdmissionControl class.
+ */
+public final class AdmissionControlTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * The request which finds the queue full ends with 503 right away, the waiting one gets the released slot.
+     *
+     * @throws InterruptedException
+     *             in case of interruption
+     */
+    @Test
+    public void queueFullTest() throws InterruptedException {
+        Gate gate = gate(new Limits(1, 1, 60000, 0, 1));
+        gate.enter(response().get());
+
+        Entering waiting = enter(gate, 1);
+        FakeHttp.FakeResponse response = response();
+        assertRejected(503, () -> gate.enter(response.get()));
+        assertEquals("1", response.header("Retry-After"));
+        assertEquals(1, gate.getWaiting());
+
+        gate.leave();
+        assertEquals(0, waiting.await());
+        assertEquals(1, gate.getRunning());
+        assertEquals(0, gate.getWaiting());
+    }
+
+    /**
+     * The waiting request ends with 503 after the queue timeout and leaves the queue.
+     *
+     * @throws InterruptedException
+     *             in case of interruption
+     */
+    @Test
+    public void queueTimeoutTest() throws InterruptedException {
+        Limits limits = new Limits(1, 2, 1000, 0, 1);
+        Gate gate = gate(limits);
+        gate.enter(response().get());
+
+        Entering waiting = enter(gate, 1);
+        clock.addAndGet(SECOND / 2);
+        Entering later = enter(gate, 2);
+
+        clock.addAndGet(SECOND / 2);
+        // wakes the waiting requests, so they check their deadlines
+        gate.configure(limits);
+        assertEquals(503, waiting.await());
+        assertEquals(1, gate.getWaiting());
+
+        gate.leave();
+        assertEquals(0, later.await());
+        assertEquals(1, gate.getRunning());
+    }
+
+    /**
+     * The released slots are handed over to the waiting requests in the order of arrival and the request arriving
+     * later doesn't take the slot before them.
+     *
+     * @throws InterruptedException
+     *             in case of interruption
+     */
+    @Test
+    public void handoffTest() throws InterruptedException {
+        Gate gate = gate(new Limits(1, 3, 60000, 0, 1));
+        gate.enter(response().get());
+
+        List<String> admitted = new CopyOnWriteArrayList<>();
+        Entering first = enter(gate, 1, () -> admitted.add("first"));
+        Entering second = enter(gate, 2, () -> admitted.add("second"));
+        Entering third = enter(gate, 3, () -> admitted.add("third"));
+
+        gate.leave();
+        assertEquals(0, first.await());
+        assertEquals(0, second.await());
+        assertEquals(0, third.await());
+        assertEquals(Arrays.asList("first", "second", "third"), admitted);
+        assertEquals(0, gate.getRunning());
+        assertEquals(0, gate.getWaiting());
+    }
+
+    /**
+     * The lowered concurrency applies to the requests entering after the reload, the running ones finish. The raised
+     * concurrency admits the waiting requests right away.
+     *
+     * @throws InterruptedException
+     *             in case of interruption
+     */
+    @Test
+    public void reloadTest() throws InterruptedException {
+        Gate gate = gate(new Limits(2, 2, 60000, 0, 1));
+        gate.enter(response().get());
+        gate.enter(response().get());
+
+        gate.configure(new Limits(1, 2, 60000, 0, 1));
+        Entering waiting = enter(gate, 1);
+        gate.leave();
+        assertEquals(1, gate.getWaiting());
+        gate.leave();
+        assertEquals(0, waiting.await());
+        assertEquals(1, gate.getRunning());
+
+        Entering raised = enter(gate, 1);
+        gate.configure(new Limits(2, 2, 60000, 0, 1));
+        assertEquals(0, raised.await());
+        assertEquals(2, gate.getRunning());
+
+        // without the concurrency limit nothing waits
+        gate.configure(new Limits(0, 0, 0, 0, 1));
+        gate.enter(response().get());
+        assertEquals(3, gate.getRunning());
+    }
+
+    /**
+     * The client over its rate ends with 429 and the time until its next token, the other clients aren't affected.
+     */
+    @Test
+    public void throttleTest() {
+        Gate gate = gate(new Limits(0, 0, 0, 1, 2));
+        gate.throttle("ip:a", response().get());
+        gate.throttle("ip:a", response().get());
+
+        FakeHttp.FakeResponse response = response();
+        assertRejected(429, () -> gate.throttle("ip:a", response.get()));
+        assertEquals("1", response.header("Retry-After"));
+        gate.throttle("ip:b", response().get());
+
+        clock.addAndGet(SECOND);
+        gate.throttle("ip:a", response().get());
+
+        // the rate isn't limited
+        gate.configure(new Limits(0, 0, 0, 0, 1));
+        for (int i = 0; i < 10; i++) {
+            gate.throttle("ip:a", response().get());
+        }
+    }
+
+    /**
+     * X-Forwarded-For is used only when the request comes from a trusted proxy, its addresses are walked from the
+     * right as long as they are trusted.
+     */
+    @Test
+    public void clientTest() {
+        AdmissionControl admissionControl = new AdmissionControl(clock::get);
+        assertEquals("ip:10.0.0.1", admissionControl.getClient(FakeHttp.request("10.0.0.1",
+            Collections.singletonMap("X-Forwarded-For", "192.168.1.1"))));
+
+        admissionControl.setTrustedProxies(new HashSet<>(Arrays.asList("10.0.0.1")));
+        assertEquals("ip:192.168.1.1", admissionControl.getClient(FakeHttp.request("10.0.0.1",
+            Collections.singletonMap("X-Forwarded-For", "192.168.1.1"))));
+        assertEquals("ip:10.0.0.1", admissionControl.getClient(FakeHttp.request("10.0.0.1")));
+        assertEquals("ip:10.0.0.2", admissionControl.getClient(FakeHttp.request("10.0.0.2",
+            Collections.singletonMap("X-Forwarded-For", "192.168.1.1"))));
+
+        Set<String> trusted = new HashSet<>(Arrays.asList("10.0.0.1", "10.0.0.2"));
+        assertEquals("192.168.1.1", AdmissionControl.getClientAddress("10.0.0.1", "192.168.1.1, 10.0.0.2", trusted));
+        // the addresses left of an untrusted one could be forged by the client
+        assertEquals("192.168.1.2",
+            AdmissionControl.getClientAddress("10.0.0.1", "1.1.1.1, 192.168.1.2, 10.0.0.2", trusted));
+        assertEquals("10.0.0.2", AdmissionControl.getClientAddress("10.0.0.1", "10.0.0.2", trusted));
+        assertEquals("10.0.0.1", AdmissionControl.getClientAddress("10.0.0.1", "", trusted));
+        assertEquals("10.0.0.1", AdmissionControl.getClientAddress("10.0.0.1", "192.168.1.1, ", trusted));
+    }
+
+    /**
+     * The routes served by Spark to concurrent clients: the client over its rate gets 429, the request which finds
+     * the queue full gets 503 right away, the one which waits too long gets 503 after the timeout, all of them with
+     * Retry-After. The waiting request gets the released slot.
+     *
+     * @throws InterruptedException
+     *             in case of interruption
+     */
+    @Test
+    public void embeddedServerTest() throws InterruptedException {
+        AdmissionControl admissionControl = new AdmissionControl(System::nanoTime);
+        admissionControl.setLimits(RouteClass.ENTITY, new Limits(0, 0, 0, 0.01, 2));
+        admissionControl.setLimits(RouteClass.PAGE, new Limits(1, 1, 60000, 0, 1));
+
+        AtomicReference<CountDownLatch> entered = new AtomicReference<>(new CountDownLatch(1));
+        AtomicReference<CountDownLatch> release = new AtomicReference<>(new CountDownLatch(1));
+        ExecutorService clients = Executors.newCachedThreadPool();
+        try (EmbeddedServer server = new EmbeddedServer()) {
+            server.service().get("/entity", admissionControl.admit(RouteClass.ENTITY, (request, response) -> "entity"));
+            server.service().get("/page", admissionControl.admit(RouteClass.PAGE, (request, response) -> {
+                entered.get().countDown();
+                release.get().await();
+                return "page";
+            }));
+            server.start();
+
+            assertEquals(200, server.get("/entity").status());
+            assertEquals(200, server.get("/entity").status());
+            EmbeddedServer.Reply reply = server.get("/entity");
+            assertEquals(429, reply.status());
+            assertTrue(Integer.parseInt(reply.header("Retry-After")) >= 1);
+
+            // the first request runs, one of the others waits in the queue and the other one finds the queue full
+            BlockingQueue<EmbeddedServer.Reply> replies = new LinkedBlockingQueue<>();
+            clients.submit(() -> replies.add(server.get("/page")));
+            assertTrue(entered.get().await(10, TimeUnit.SECONDS));
+            clients.submit(() -> replies.add(server.get("/page")));
+            clients.submit(() -> replies.add(server.get("/page")));
+
+            reply = replies.poll(10, TimeUnit.SECONDS);
+            assertEquals(503, reply.status());
+            assertEquals("1", reply.header("Retry-After"));
+
+            release.get().countDown();
+            for (int i = 0; i < 2; i++) {
+                reply = replies.poll(10, TimeUnit.SECONDS);
+                assertEquals(200, reply.status());
+                assertEquals("page", reply.text());
+            }
+
+            // the waiting request gives up after the queue timeout, the running one isn't affected
+            admissionControl.setLimits(RouteClass.PAGE, new Limits(1, 1, 200, 0, 1));
+            entered.set(new CountDownLatch(1));
+            release.set(new CountDownLatch(1));
+            clients.submit(() -> replies.add(server.get("/page")));
+            assertTrue(entered.get().await(10, TimeUnit.SECONDS));
+            reply = server.get("/page");
+            assertEquals(503, reply.status());
+            assertEquals("1", reply.header("Retry-After"));
+
+            release.get().countDown();
+            assertEquals(200, replies.poll(10, TimeUnit.SECONDS).status());
+        } finally {
+            release.get().countDown();
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * @param limits
+     *            limits
+     * @return gate with the fake clock
+     */
+    private Gate gate(final Limits limits) {
+        Gate gate = new Gate("test", clock::get);
+        gate.configure(limits);
+        return gate;
+    }
+
+    /**
+     * @return response
+     */
+    private static FakeHttp.FakeResponse response() {
+        return new FakeHttp.FakeResponse(new ByteArrayOutputStream());
+    }
+
+    /**
+     * Checks that the action halts with the status.
+     *
+     * @param status
+     *            expected status
+     * @param action
+     *            action
+     */
+    private static void assertRejected(final int status, final Runnable action) {
+        try {
+            action.run();
+            fail(status + " expected");
+        } catch (HaltException e) {
+            assertEquals(status, e.getStatusCode());
+        }
+    }
+
+    /**
+     * Starts request which waits in the queue.
+     *
+     * @param gate
+     *            gate
+     * @param waiting
+     *            number of waiting requests once the request is queued
+     * @return the request
+     * @throws InterruptedException
+     *             in case of interruption
+     */
+    private static Entering enter(final Gate gate, final int waiting) throws InterruptedException {
+        return enter(gate, waiting, null);
+    }
+
+    /**
+     * Starts request which waits in the queue. The admitted request runs the route and leaves.
+     *
+     * @param gate
+     *            gate
+     * @param waiting
+     *            number of waiting requests once the request is queued
+     * @param route
+     *            route run by the admitted request, the request stays in the gate when null
+     * @return the request
+     * @throws InterruptedException
+     *             in case of interruption
+     */
+    private static Entering enter(final Gate gate, final int waiting, final Runnable route)
+        throws InterruptedException {
+        Entering entering = new Entering(gate, route);
+        entering.start();
+        for (int i = 0; i < 500 && gate.getWaiting() < waiting && entering.isAlive(); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(waiting, gate.getWaiting());
+        assertTrue(entering.isAlive());
+        return entering;
+    }
+
+    /**
+     * Request entering the gate in its own thread.
+     */
+    private static final class Entering extends Thread {
+
+        private final Gate gate;
+
+        private final Runnable route;
+
+        private volatile Integer status;
+
+        /**
+         * @param gate
+         *            gate
+         * @param route
+         *            route run by the admitted request or null
+         */
+        Entering(final Gate gate, final Runnable route) {
+            this.gate = gate;
+            this.route = route;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                gate.enter(response().get());
+            } catch (HaltException e) {
+                status = e.getStatusCode();
+                return;
+            }
+
+            if (route != null) {
+                route.run();
+                gate.leave();
+            }
+            status = 0;
+        }
+
+        /**
+         * @return 0 when the request has been admitted, otherwise status of the rejection
+         * @throws InterruptedException
+         *             in case of interruption
+         */
+        int await() throws InterruptedException {
+            join(10000);
+            assertFalse("request still waits", isAlive());
+            return status;
+        }
+    }
+}
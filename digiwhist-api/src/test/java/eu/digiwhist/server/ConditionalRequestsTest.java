@@ -0,0 +1,197 @@
+package eu.digiwhist.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import eu.dl.dataaccess.dto.PageVersion;
+import spark.HaltException;
+
+/**
+ * Tests for ConditionalRequests class.
+ */
+public final class ConditionalRequestsTest {
+
+    private static final String TAG = "0123456789abcdef";
+
+    private static final String ETAG = "W/\"" + TAG + "\"";
+
+    /**
+     * Last modification with milliseconds, in the default zone as the timestamps read from the database.
+     */
+    private static final LocalDateTime MODIFIED = ZonedDateTime.of(2017, 3, 1, 12, 30, 15, 123000000, ZoneOffset.UTC)
+        .withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+
+    private static final String HTTP_MODIFIED = "Wed, 01 Mar 2017 12:30:15 GMT";
+
+    private static final String PAGE = "[{\"id\": \"1\"}, {\"id\": \"2\"}]";
+
+    /**
+     * The page gets weak ETag, Last-Modified truncated to seconds and has to be revalidated by the caches.
+     */
+    @Test
+    public void validatorsTest() {
+        FakeHttp.FakeResponse response = run(headers());
+        assertEquals(ETAG, response.header("ETag"));
+        assertEquals(HTTP_MODIFIED, response.header("Last-Modified"));
+        assertEquals("no-cache", response.header("Cache-Control"));
+
+        response = run(headers(), new PageVersion().setTag(TAG));
+        assertEquals(ETAG, response.header("ETag"));
+        assertNull(response.header("Last-Modified"));
+    }
+
+    /**
+     * The request with any matching entity tag (weak or strong) gets 304, the one with other tags doesn't.
+     */
+    @Test
+    public void ifNoneMatchTest() {
+        for (String matching : new String[]{ETAG, "\"" + TAG + "\"", "\"other\", " + ETAG, "*"}) {
+            assertNotModified(headers("If-None-Match", matching));
+        }
+
+        for (String other : new String[]{"W/\"other\"", "\"" + TAG + "0\"", TAG}) {
+            run(headers("If-None-Match", other));
+        }
+    }
+
+    /**
+     * The pages selected by offset ignore If-Modified-Since, the page may change without the change of its latest
+     * timestamp.
+     */
+    @Test
+    public void ifModifiedSinceTest() {
+        run(headers("If-Modified-Since", HTTP_MODIFIED));
+        run(headers("If-Modified-Since", "Wed, 01 Mar 2017 13:00:00 GMT"));
+        run(headers("If-None-Match", "W/\"other\"", "If-Modified-Since", HTTP_MODIFIED));
+        assertNotModified(headers("If-None-Match", ETAG, "If-Modified-Since", "Tue, 28 Feb 2017 00:00:00 GMT"));
+    }
+
+    /**
+     * The page served by Spark gets the validators, the request with the matching ETag gets 304 without body and the
+     * client which accepts gzip gets the page compressed.
+     *
+     * @throws IOException
+     *             in case of failed decompression
+     */
+    @Test
+    public void embeddedServerTest() throws IOException {
+        try (EmbeddedServer server = new EmbeddedServer()) {
+            server.service().get("/page", (request, response) -> {
+                ConditionalRequests.haltWhenNotModified(request, response, version());
+                return PAGE;
+            });
+            server.service().after(Server::compress);
+            server.start();
+
+            EmbeddedServer.Reply reply = server.get("/page");
+            assertEquals(200, reply.status());
+            assertEquals(PAGE, reply.text());
+            assertEquals(ETAG, reply.header("ETag"));
+            assertEquals(HTTP_MODIFIED, reply.header("Last-Modified"));
+            assertEquals("no-cache", reply.header("Cache-Control"));
+
+            reply = server.get("/page", "If-None-Match", ETAG);
+            assertEquals(304, reply.status());
+            assertEquals(0, reply.body().length);
+
+            reply = server.get("/page", "If-Modified-Since", HTTP_MODIFIED);
+            assertEquals(200, reply.status());
+            assertEquals(PAGE, reply.text());
+
+            reply = server.get("/page", "Accept-Encoding", "gzip");
+            assertEquals(200, reply.status());
+            assertEquals("gzip", reply.header("Content-Encoding"));
+            assertEquals(ETAG, reply.header("ETag"));
+            try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(reply.body()))) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                for (int n = input.read(buffer); n != -1; n = input.read(buffer)) {
+                    output.write(buffer, 0, n);
+                }
+                assertEquals(PAGE, new String(output.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Runs the conditional request of the page, which is expected to be sent.
+     *
+     * @param headers
+     *            request headers
+     * @return response
+     */
+    private static FakeHttp.FakeResponse run(final Map<String, String> headers) {
+        return run(headers, version());
+    }
+
+    /**
+     * Runs the conditional request of the page, which is expected to be sent.
+     *
+     * @param headers
+     *            request headers
+     * @param version
+     *            version of the page
+     * @return response
+     */
+    private static FakeHttp.FakeResponse run(final Map<String, String> headers, final PageVersion version) {
+        FakeHttp.FakeResponse response = new FakeHttp.FakeResponse(new ByteArrayOutputStream());
+        try {
+            ConditionalRequests.haltWhenNotModified(FakeHttp.request("127.0.0.1", headers), response.get(), version);
+        } catch (HaltException e) {
+            fail("request with " + headers + " halted with " + e.getStatusCode());
+        }
+        return response;
+    }
+
+    /**
+     * Checks that the request ends with 304.
+     *
+     * @param headers
+     *            request headers
+     */
+    private static void assertNotModified(final Map<String, String> headers) {
+        try {
+            ConditionalRequests.haltWhenNotModified(FakeHttp.request("127.0.0.1", headers),
+                new FakeHttp.FakeResponse(new ByteArrayOutputStream()).get(), version());
+            fail("request with " + headers + " not halted");
+        } catch (HaltException e) {
+            assertEquals(304, e.getStatusCode());
+        }
+    }
+
+    /**
+     * @return version of the page
+     */
+    private static PageVersion version() {
+        return new PageVersion().setTag(TAG).setLastModified(MODIFIED);
+    }
+
+    /**
+     * @param namesAndValues
+     *            header names followed by their values
+     * @return headers
+     */
+    private static Map<String, String> headers(final String... namesAndValues) {
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            headers.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return headers;
+    }
+}
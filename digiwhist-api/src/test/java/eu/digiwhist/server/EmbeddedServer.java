@@ -0,0 +1,149 @@
+package eu.digiwhist.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import spark.Service;
+
+/**
+ * Spark server on a free local port for the tests which go through HTTP, with a client sending plain GET requests.
+ * The routes are registered by {@link #service()}, the server starts with the first of them.
+ */
+final class EmbeddedServer implements AutoCloseable {
+
+    private final int port;
+
+    private final Service service;
+
+    /**
+     * Creates server on a free port.
+     */
+    EmbeddedServer() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        service = Service.ignite().port(port);
+    }
+
+    /**
+     * @return spark service, for registration of the routes and filters
+     */
+    Service service() {
+        return service;
+    }
+
+    /**
+     * Waits until the server accepts requests, the routes have to be registered before.
+     *
+     * @return this server
+     */
+    EmbeddedServer start() {
+        service.awaitInitialization();
+        return this;
+    }
+
+    /**
+     * Sends GET request.
+     *
+     * @param path
+     *            path of the request
+     * @param headers
+     *            request header names followed by their values
+     * @return reply
+     */
+    Reply get(final String path, final String... headers) {
+        try {
+            HttpURLConnection connection =
+                (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+            for (int i = 0; i < headers.length; i += 2) {
+                connection.setRequestProperty(headers[i], headers[i + 1]);
+            }
+
+            int status = connection.getResponseCode();
+            InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            if (input != null) {
+                try (InputStream in = input) {
+                    byte[] buffer = new byte[4096];
+                    for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+                        body.write(buffer, 0, n);
+                    }
+                }
+            }
+
+            return new Reply(status, connection, body.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        service.stop();
+    }
+
+    /**
+     * Status, headers and body of the response.
+     */
+    static final class Reply {
+
+        private final int status;
+
+        private final HttpURLConnection connection;
+
+        private final byte[] body;
+
+        /**
+         * @param status
+         *            response status
+         * @param connection
+         *            connection holding the response headers
+         * @param body
+         *            response body, as it was sent
+         */
+        private Reply(final int status, final HttpURLConnection connection, final byte[] body) {
+            this.status = status;
+            this.connection = connection;
+            this.body = body;
+        }
+
+        /**
+         * @return response status
+         */
+        int status() {
+            return status;
+        }
+
+        /**
+         * @param name
+         *            header name
+         * @return header value or null
+         */
+        String header(final String name) {
+            return connection.getHeaderField(name);
+        }
+
+        /**
+         * @return response body, as it was sent
+         */
+        byte[] body() {
+            return body;
+        }
+
+        /**
+         * @return response body as UTF-8 text
+         */
+        String text() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+}
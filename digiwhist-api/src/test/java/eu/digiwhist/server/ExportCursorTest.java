@@ -0,0 +1,64 @@
+package eu.digiwhist.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.junit.Test;
+
+/**
+ * Tests for ExportCursor class.
+ */
+public final class ExportCursorTest {
+
+    private static final LocalDateTime MODIFIED = LocalDateTime.of(2017, 3, 1, 12, 30, 15, 123000000);
+
+    /**
+     * The decoded cursor is the encoded one, with or without id.
+     */
+    @Test
+    public void roundTripTest() {
+        ExportCursor cursor = ExportCursor.decode(new ExportCursor(MODIFIED, "a|b").encode());
+        assertEquals(MODIFIED, cursor.getModified());
+        assertEquals("a|b", cursor.getId());
+
+        cursor = ExportCursor.decode(new ExportCursor(MODIFIED, null).encode());
+        assertEquals(MODIFIED, cursor.getModified());
+        assertNull(cursor.getId());
+    }
+
+    /**
+     * Malformed, truncated and edited cursors are rejected.
+     */
+    @Test
+    public void invalidCursorTest() {
+        String valid = new ExportCursor(MODIFIED, "id1").encode();
+        String value = new String(Base64.getUrlDecoder().decode(valid), StandardCharsets.UTF_8);
+        String check = value.substring(value.lastIndexOf('|'));
+
+        for (String invalid : Arrays.asList("", "not a cursor!", encode("garbage"), encode("2017-03-01T12:30|id1"),
+            valid.substring(0, valid.length() - 2), encode(value.replace("id1", "id2")),
+            encode(value.replace("12:30", "12:31")), encode("yesterday|id1" + check))) {
+            try {
+                ExportCursor.decode(invalid);
+                fail("cursor " + invalid + " accepted");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * @param value
+     *            raw value
+     * @return value encoded the same way as the cursor
+     */
+    private static String encode(final String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
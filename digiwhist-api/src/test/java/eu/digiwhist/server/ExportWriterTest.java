@@ -0,0 +1,289 @@
+package eu.digiwhist.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import eu.dl.dataaccess.dao.MasterDAO;
+import eu.dl.dataaccess.dao.TransactionUtils;
+import eu.dl.dataaccess.dto.master.MasterBody;
+
+/**
+ * Tests for ExportWriter class and the export of Server.
+ */
+public final class ExportWriterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2017, 1, 1, 0, 0);
+
+    private static final String TRAILER_PREFIX = "{\"cursor\"";
+
+    /**
+     * The items are written as NDJSON in chunks, each chunk is processed at once and followed by the trailer with the
+     * cursor after its last item, the export ends with the complete trailer.
+     *
+     * @throws IOException
+     *             in case of invalid output
+     */
+    @Test
+    public void writerTest() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        FakeHttp.FakeResponse response = new FakeHttp.FakeResponse(output);
+        List<Integer> chunks = new ArrayList<>();
+        ExportWriter<MasterBody> writer = new ExportWriter<>(FakeHttp.request("127.0.0.1"), response.get(),
+            new ExportCursor(START, null), chunk -> chunks.add(chunk.size()));
+
+        int count = ExportWriter.CHUNK_SIZE * 2 + 50;
+        for (int i = 0; i < count; i++) {
+            writer.accept(item(i));
+        }
+        assertEquals(Arrays.asList(ExportWriter.CHUNK_SIZE, ExportWriter.CHUNK_SIZE), chunks);
+        assertEquals(count, writer.getCount());
+        assertEquals(item(count - 1).getId(), writer.getPosition().getId());
+
+        assertEquals("", writer.finish());
+        assertEquals(Arrays.asList(ExportWriter.CHUNK_SIZE, ExportWriter.CHUNK_SIZE, 50), chunks);
+        assertTrue(response.header("Content-Type").startsWith("application/x-ndjson"));
+
+        String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals("", lines[lines.length - 1]);
+
+        ObjectMapper mapper = new ObjectMapper();
+        int line = 0;
+        int item = 0;
+        for (int chunk : chunks) {
+            for (int i = 0; i < chunk; i++, item++) {
+                assertEquals(item(item).getName(), mapper.readTree(lines[line++]).get("name").asText());
+            }
+
+            JsonNode trailer = mapper.readTree(lines[line++]);
+            assertEquals(1, trailer.size());
+            ExportCursor cursor = ExportCursor.decode(trailer.get("cursor").asText());
+            assertEquals(item(item - 1).getId(), cursor.getId());
+            assertEquals(item(item - 1).getModified(), cursor.getModified());
+        }
+
+        JsonNode last = mapper.readTree(lines[line++]);
+        assertTrue(last.get("complete").asBoolean());
+        assertEquals(item(count - 1).getId(), ExportCursor.decode(last.get("cursor").asText()).getId());
+        assertEquals(lines.length - 1, line);
+    }
+
+    /**
+     * The export without items writes just the complete trailer with the starting cursor.
+     *
+     * @throws IOException
+     *             in case of invalid output
+     */
+    @Test
+    public void emptyExportTest() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExportWriter<MasterBody> writer = new ExportWriter<>(FakeHttp.request("127.0.0.1"),
+            new FakeHttp.FakeResponse(output).get(), new ExportCursor(START, null), chunk -> { });
+        writer.finish();
+
+        JsonNode trailer = new ObjectMapper().readTree(new String(output.toByteArray(), StandardCharsets.UTF_8));
+        assertTrue(trailer.get("complete").asBoolean());
+        assertNull(ExportCursor.decode(trailer.get("cursor").asText()).getId());
+        assertEquals(START, ExportCursor.decode(trailer.get("cursor").asText()).getModified());
+    }
+
+    /**
+     * The export of many items reads them by batches, each in a transaction of its own, continuing after the last
+     * item of the previous batch. At most one chunk of items is held at once, the others are already written to the
+     * response, so the memory doesn't grow with the size of the export.
+     */
+    @Test
+    public void exportTest() {
+        int count = Server.EXPORT_BATCH_SIZE * 25 + 10;
+        LineCounter output = new LineCounter();
+        FakeTransactionUtils transactionUtils = new FakeTransactionUtils();
+        List<String> positions = new ArrayList<>();
+        int[] emitted = new int[1];
+
+        MasterDAO<MasterBody> dao = streamAfterDao((timestamp, id, limit, consumer) -> {
+            assertTrue(transactionUtils.open);
+            assertEquals(Server.EXPORT_BATCH_SIZE, (int) limit);
+            positions.add(id);
+
+            for (int i = 0, n = 0; i < count && n < limit; i++) {
+                MasterBody item = item(i);
+                int order = item.getModified().compareTo(timestamp);
+                if (order > 0 || (order == 0 && id != null && item.getId().compareTo(id) > 0)) {
+                    consumer.accept(item);
+                    n++;
+                    emitted[0]++;
+                    // the items read before the current chunk have been written out
+                    assertTrue(emitted[0] - output.items <= ExportWriter.CHUNK_SIZE);
+                }
+            }
+        });
+
+        List<Integer> chunks = new ArrayList<>();
+        ExportWriter<MasterBody> writer = new ExportWriter<>(FakeHttp.request("127.0.0.1"),
+            new FakeHttp.FakeResponse(output).get(), new ExportCursor(START.minusDays(1), null), chunk -> {
+                assertTrue(transactionUtils.open);
+                assertTrue(chunk.size() <= ExportWriter.CHUNK_SIZE);
+                chunks.add(chunk.size());
+            });
+
+        Server.export(writer, dao, transactionUtils);
+
+        // 25 full batches, the last one with the rest of the items
+        assertEquals(26, positions.size());
+        assertNull(positions.get(0));
+        for (int batch = 1; batch < positions.size(); batch++) {
+            assertEquals(item(batch * Server.EXPORT_BATCH_SIZE - 1).getId(), positions.get(batch));
+        }
+        assertEquals(26, transactionUtils.commits);
+        assertFalse(transactionUtils.open);
+
+        assertEquals(count, emitted[0]);
+        assertEquals(count, output.items);
+        assertEquals(chunks.size() + 1, output.trailers);
+        assertTrue(output.last.contains("\"complete\":true"));
+    }
+
+    /**
+     * @param i
+     *            order of the item
+     * @return item, three items share each modification timestamp
+     */
+    private static MasterBody item(final int i) {
+        MasterBody body = new MasterBody().setName("body " + i);
+        body.setId(String.format("b%06d", i));
+        body.setModified(START.plusSeconds(i / 3));
+        return body;
+    }
+
+    /**
+     * Stream of the fake DAO.
+     */
+    @FunctionalInterface
+    private interface StreamAfter {
+        /**
+         * See {@link MasterDAO#streamAfter(LocalDateTime, String, Integer, Consumer)}.
+         *
+         * @param timestamp
+         *            timestamp
+         * @param id
+         *            id or null
+         * @param limit
+         *            maximum number of items
+         * @param consumer
+         *            consumer of the items
+         */
+        void stream(LocalDateTime timestamp, String id, Integer limit, Consumer<MasterBody> consumer);
+    }
+
+    /**
+     * @param stream
+     *            implementation of streamAfter
+     * @return DAO which supports only streamAfter
+     */
+    @SuppressWarnings("unchecked")
+    private static MasterDAO<MasterBody> streamAfterDao(final StreamAfter stream) {
+        return (MasterDAO<MasterBody>) Proxy.newProxyInstance(MasterDAO.class.getClassLoader(),
+            new Class<?>[]{MasterDAO.class}, (proxy, method, args) -> {
+                if (!method.getName().equals("streamAfter")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                stream.stream((LocalDateTime) args[0], (String) args[1], (Integer) args[2],
+                    (Consumer<MasterBody>) args[3]);
+                return null;
+            });
+    }
+
+    /**
+     * Transaction utils which only check that the transactions don't overlap.
+     */
+    private static final class FakeTransactionUtils implements TransactionUtils {
+
+        private boolean open;
+
+        private int commits;
+
+        @Override
+        public void begin() {
+            assertFalse(open);
+            open = true;
+        }
+
+        @Override
+        public void commit() {
+            assertTrue(open);
+            open = false;
+            commits++;
+        }
+
+        @Override
+        public void rollback() {
+            assertTrue(open);
+            open = false;
+        }
+    }
+
+    /**
+     * Output which counts the written items and trailers instead of keeping them. The line is counted as soon as its
+     * beginning is written.
+     */
+    private static final class LineCounter extends OutputStream {
+
+        private final StringBuilder line = new StringBuilder();
+
+        private boolean counted;
+
+        private int items;
+
+        private int trailers;
+
+        private String last;
+
+        @Override
+        public void write(final int b) {
+            if (b == '\n') {
+                count();
+                last = line.toString();
+                line.setLength(0);
+                counted = false;
+                return;
+            }
+
+            line.append((char) b);
+            if (line.length() == TRAILER_PREFIX.length()) {
+                count();
+            }
+        }
+
+        /**
+         * Counts the current line, once.
+         */
+        private void count() {
+            if (counted || line.length() == 0) {
+                return;
+            }
+            counted = true;
+            if (line.toString().startsWith(TRAILER_PREFIX)) {
+                trailers++;
+            } else {
+                items++;
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package eu.digiwhist.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import spark.Request;
+import spark.RequestResponseFactory;
+import spark.Response;
+
+/**
+ * Requests and responses for the tests of the routes, backed by proxies of the servlet request and response. Only
+ * the headers, the client address and the output are supported.
+ */
+final class FakeHttp {
+
+    /**
+     * This class shouldn't be instantiated.
+     */
+    private FakeHttp() {
+        // don't instantiate this class
+    }
+
+    /**
+     * Creates request.
+     *
+     * @param ip
+     *            address of the client
+     * @param headers
+     *            request headers
+     * @return request
+     */
+    static Request request(final String ip, final Map<String, String> headers) {
+        HttpServletRequest raw = proxy(HttpServletRequest.class, (method, args) -> {
+            switch (method) {
+                case "getHeader":
+                    return headers.get(args[0]);
+                case "getHeaders":
+                    return Collections.enumeration(headers.containsKey(args[0])
+                        ? Collections.singletonList(headers.get(args[0])) : Collections.emptyList());
+                case "getRemoteAddr":
+                    return ip;
+                default:
+                    return null;
+            }
+        });
+
+        return new Request() {
+            @Override
+            public HttpServletRequest raw() {
+                return raw;
+            }
+
+            @Override
+            public String headers(final String header) {
+                return headers.get(header);
+            }
+
+            @Override
+            public String ip() {
+                return ip;
+            }
+        };
+    }
+
+    /**
+     * Creates request without headers.
+     *
+     * @param ip
+     *            address of the client
+     * @return request
+     */
+    static Request request(final String ip) {
+        return request(ip, Collections.emptyMap());
+    }
+
+    /**
+     * Response which keeps the headers and writes the body to the given output.
+     */
+    static final class FakeResponse {
+
+        private final Map<String, String> headers = new HashMap<>();
+
+        private final Response response;
+
+        /**
+         * @param output
+         *            output of the response body
+         */
+        FakeResponse(final OutputStream output) {
+            ServletOutputStream servletOutput = new ServletOutputStream() {
+                @Override
+                public void write(final int b) throws IOException {
+                    output.write(b);
+                }
+
+                @Override
+                public void write(final byte[] b, final int off, final int len) throws IOException {
+                    output.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    output.flush();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(final WriteListener writeListener) {
+                    // not needed
+                }
+            };
+
+            HttpServletResponse raw = proxy(HttpServletResponse.class, (method, args) -> {
+                switch (method) {
+                    case "addHeader":
+                    case "setHeader":
+                        headers.put((String) args[0], (String) args[1]);
+                        return null;
+                    case "setContentType":
+                        headers.put("Content-Type", (String) args[0]);
+                        return null;
+                    case "getHeader":
+                        return headers.get(args[0]);
+                    case "getHeaders":
+                        return headers.containsKey(args[0])
+                            ? Collections.singletonList(headers.get(args[0])) : new ArrayList<String>();
+                    case "getOutputStream":
+                        return servletOutput;
+                    default:
+                        return null;
+                }
+            });
+
+            response = RequestResponseFactory.create(raw);
+        }
+
+        /**
+         * @return spark response
+         */
+        Response get() {
+            return response;
+        }
+
+        /**
+         * @param name
+         *            header name
+         * @return header value or null
+         */
+        String header(final String name) {
+            return headers.get(name);
+        }
+    }
+
+    /**
+     * Handler of the proxied methods.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        /**
+         * @param method
+         *            method name
+         * @param args
+         *            method arguments
+         * @return result, null for the default value of the return type
+         */
+        Object handle(String method, Object[] args);
+    }
+
+    /**
+     * @param type
+     *            proxied interface
+     * @param handler
+     *            handler of the methods
+     * @param <T>
+     *            proxied interface
+     * @return proxy, the methods the handler doesn't support return default values
+     */
+    private static <T> T proxy(final Class<T> type, final Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object result = handler.handle(method.getName(), args);
+            if (result == null && method.getReturnType() == boolean.class) {
+                return false;
+            } else if (result == null && method.getReturnType() == int.class) {
+                return 0;
+            } else if (result == null && method.getReturnType() == long.class) {
+                return 0L;
+            }
+            return result;
+        }));
+    }
+}
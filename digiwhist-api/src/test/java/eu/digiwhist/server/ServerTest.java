@@ -0,0 +1,114 @@
+package eu.digiwhist.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import eu.dl.dataaccess.dao.jdbc.JdbcConnectionPool;
+import eu.dl.dataaccess.dao.jdbc.JdbcTransactionUtils;
+
+/**
+ * Tests for Server class.
+ */
+public final class ServerTest {
+
+    private static final int CLIENTS = 4;
+
+    private final AtomicInteger commits = new AtomicInteger();
+
+    private final AtomicInteger rollbacks = new AtomicInteger();
+
+    /**
+     * The concurrent requests served by Spark run in transactions with pooled connections of their own, the
+     * transaction of the failed request is rolled back and its connection returns to the pool.
+     *
+     * @throws Exception
+     *             in case of failure
+     */
+    @Test
+    public void inTransactionTest() throws Exception {
+        JdbcConnectionPool pool = new JdbcConnectionPool(this::open, CLIENTS, 5000);
+        JdbcTransactionUtils transactionUtils = new JdbcTransactionUtils(pool);
+        Set<Connection> lent = ConcurrentHashMap.newKeySet();
+        // all the requests are in their transactions at once
+        CyclicBarrier together = new CyclicBarrier(CLIENTS);
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try (EmbeddedServer server = new EmbeddedServer()) {
+            server.service().get("/concurrent", Server.inTransaction(transactionUtils, (request, response) -> {
+                Connection connection = transactionUtils.getConnection();
+                assertTrue("connection is shared by two requests", lent.add(connection));
+                together.await(10, TimeUnit.SECONDS);
+                lent.remove(connection);
+                return String.valueOf(System.identityHashCode(connection));
+            }));
+            server.service().get("/failing", Server.inTransaction(transactionUtils, (request, response) -> {
+                transactionUtils.getConnection();
+                throw new IllegalStateException("statement timeout");
+            }));
+            server.start();
+
+            List<Future<EmbeddedServer.Reply>> replies = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                replies.add(clients.submit(() -> server.get("/concurrent")));
+            }
+
+            Set<String> connections = new HashSet<>();
+            for (Future<EmbeddedServer.Reply> reply : replies) {
+                assertEquals(200, reply.get(10, TimeUnit.SECONDS).status());
+                connections.add(reply.get().text());
+            }
+            assertEquals(CLIENTS, connections.size());
+            assertEquals(CLIENTS, commits.get());
+            assertEquals(0, rollbacks.get());
+
+            assertEquals(500, server.get("/failing").status());
+            assertEquals(CLIENTS, commits.get());
+            assertEquals(1, rollbacks.get());
+            assertEquals(CLIENTS, pool.getAvailable());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * @return connection stub which counts the commits and rollbacks
+     */
+    private Connection open() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "commit":
+                        commits.incrementAndGet();
+                        return null;
+                    case "rollback":
+                        rollbacks.incrementAndGet();
+                        return null;
+                    case "getAutoCommit":
+                    case "isClosed":
+                        return false;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return null;
+                }
+            });
+    }
+}
@@ -0,0 +1,87 @@
+package eu.digiwhist.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for TokenBucket class.
+ */
+public final class TokenBucketTest {
+
+    private static final double RATE = 2;
+
+    private static final int BURST = 4;
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The new bucket is full, the request over the burst gets the time until the next token.
+     */
+    @Test
+    public void burstTest() {
+        TokenBucket bucket = new TokenBucket(BURST, 0);
+        assertTrue(bucket.isFull(RATE, BURST, 0));
+
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, bucket.tryTake(RATE, BURST, 0));
+        }
+        assertFalse(bucket.isFull(RATE, BURST, 0));
+
+        assertEquals(SECOND / 2, bucket.tryTake(RATE, BURST, 0));
+        // the refused request doesn't take anything
+        assertEquals(SECOND / 2, bucket.tryTake(RATE, BURST, 0));
+    }
+
+    /**
+     * The tokens are added continuously at the rate, the wait is shortened by the time passed.
+     */
+    @Test
+    public void refillTest() {
+        TokenBucket bucket = empty();
+
+        assertEquals(SECOND / 4, bucket.tryTake(RATE, BURST, SECOND / 4));
+        assertEquals(0, bucket.tryTake(RATE, BURST, SECOND / 2));
+        assertEquals(SECOND / 2, bucket.tryTake(RATE, BURST, SECOND / 2));
+
+        // two tokens in one second
+        assertEquals(0, bucket.tryTake(RATE, BURST, 3 * SECOND / 2));
+        assertEquals(0, bucket.tryTake(RATE, BURST, 3 * SECOND / 2));
+        assertEquals(SECOND / 2, bucket.tryTake(RATE, BURST, 3 * SECOND / 2));
+    }
+
+    /**
+     * The bucket holds at most burst tokens however long the client pauses.
+     */
+    @Test
+    public void burstCapTest() {
+        TokenBucket bucket = empty();
+        assertFalse(bucket.isFull(RATE, BURST, SECOND));
+        assertTrue(bucket.isFull(RATE, BURST, 2 * SECOND));
+
+        long later = 60 * SECOND;
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, bucket.tryTake(RATE, BURST, later));
+        }
+        assertEquals(SECOND / 2, bucket.tryTake(RATE, BURST, later));
+
+        // the lowered burst applies to the existing bucket
+        assertEquals(0, bucket.tryTake(RATE, 1, 2 * later));
+        assertEquals(SECOND / 2, bucket.tryTake(RATE, 1, 2 * later));
+    }
+
+    /**
+     * @return bucket emptied at time 0
+     */
+    private static TokenBucket empty() {
+        TokenBucket bucket = new TokenBucket(BURST, 0);
+        for (int i = 0; i < BURST; i++) {
+            bucket.tryTake(RATE, BURST, 0);
+        }
+        return bucket;
+    }
+}
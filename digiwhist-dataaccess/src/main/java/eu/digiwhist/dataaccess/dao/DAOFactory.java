@@ -11,6 +11,7 @@ import eu.dl.dataaccess.dao.IndicatorDAO;
 import eu.dl.dataaccess.dao.ManualMatchDAO;
 import eu.dl.dataaccess.dao.MasterBodyDAO;
 import eu.dl.dataaccess.dao.MasterTenderDAO;
+import eu.dl.dataaccess.dao.MasterTenderDocumentDAO;
 import eu.dl.dataaccess.dao.MatchedBodyDAO;
 import eu.dl.dataaccess.dao.MatchedTenderDAO;
 import eu.dl.dataaccess.dao.ParsedTenderDAO;
@@ -328,4 +329,16 @@ public abstract class DAOFactory {
      * @return DAO object for managing indicators
      */
     public abstract IndicatorDAO getIndicatorDAO(String workerName, String workerVersion);
+
+    /**
+     * Gets the DAO of public API documents of master tenders.
+     *
+     * @param workerName
+     *         name of the worker manipulating with data via this DAO
+     * @param workerVersion
+     *         version of the worker manipulating with data via this DAO
+     *
+     * @return DAO object for managing master tender documents
+     */
+    public abstract MasterTenderDocumentDAO getMasterTenderDocumentDAO(String workerName, String workerVersion);
 }
@@ -211,6 +211,11 @@ public final class HibernateBVDEtalonBodyDAO implements EtalonBodyDAO<BVDEtalonB
     public void updateDigestsAndBodyIdsAndNuts(final BVDEtalonBody body) {
         // TODO Auto-generated method stub
     }
+
+    @Override
+    public void updateDigestsAndBodyIdsAndNuts(final List<BVDEtalonBody> bodies) {
+        bodies.forEach(this::updateDigestsAndBodyIdsAndNuts);
+    }
     
     @Override
     public List<MatchedGroupInfo> getGroupsInfo(final List<String> groups) {
@@ -27,6 +27,12 @@ public class HibernateCleanTenderDAO extends GenericHibernateDAO<CleanTender> im
         return null;
     }
 
+    @Override
+    public final List<CleanTender> getByCountry(final String countryCode, final Integer page,
+        final Integer pageSize) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
     @Override
     public final List<String> getIncludedPublicationSourceIds(final LocalDate date) {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -15,6 +15,7 @@ import eu.dl.dataaccess.dao.IndicatorDAO;
 import eu.dl.dataaccess.dao.ManualMatchDAO;
 import eu.dl.dataaccess.dao.MasterBodyDAO;
 import eu.dl.dataaccess.dao.MasterTenderDAO;
+import eu.dl.dataaccess.dao.MasterTenderDocumentDAO;
 import eu.dl.dataaccess.dao.MatchedBodyDAO;
 import eu.dl.dataaccess.dao.MatchedTenderDAO;
 import eu.dl.dataaccess.dao.ParsedTenderDAO;
@@ -149,4 +150,9 @@ public final class HibernateDAOFactory extends DAOFactory {
     public IndicatorDAO getIndicatorDAO(final String workerName, final String workerVersion) {
         throw new UnsupportedOperationException("Operation not supported");
     }
+
+    @Override
+    public MasterTenderDocumentDAO getMasterTenderDocumentDAO(final String workerName, final String workerVersion) {
+        throw new UnsupportedOperationException("Operation not supported");
+    }
 }
@@ -1,12 +1,15 @@
 package eu.digiwhist.dataaccess.dao.hibernate;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.persistence.Query;
 
 import eu.dl.dataaccess.dao.MasterBodyDAO;
 import eu.dl.dataaccess.dao.hibernate.GenericHibernateDAO;
+import eu.dl.dataaccess.dto.PageVersion;
 import eu.dl.dataaccess.dto.master.MasterBody;
 
 /**
@@ -39,4 +42,16 @@ public class HibernateMasterBodyDAO extends GenericHibernateDAO<MasterBody> impl
     public final List<MasterBody> getByGroupIds(final Collection<String> groupIds) {
         return null;
     }
+
+    @Override
+    public final void streamAfter(final LocalDateTime timestamp, final String id, final Integer limit,
+        final Consumer<MasterBody> consumer) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public final PageVersion getModifiedAfterVersion(final LocalDateTime timestamp, final String modifiedBy,
+        final Integer page, final Integer pageSize) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
 }
@@ -2,11 +2,14 @@ package eu.digiwhist.dataaccess.dao.hibernate;
 
 import eu.dl.dataaccess.dao.MasterTenderDAO;
 import eu.dl.dataaccess.dao.hibernate.GenericHibernateDAO;
+import eu.dl.dataaccess.dto.PageVersion;
 import eu.dl.dataaccess.dto.master.MasterTender;
 
 import javax.persistence.Query;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Hibernate DAO implementation for tenders.
@@ -43,4 +46,40 @@ public class HibernateMasterTenderDAO extends GenericHibernateDAO<MasterTender>
     public final List<MasterTender> getByCountry(final String countryCode, final Integer page) {
         return null;
     }
+
+    @Override
+    public final void streamModifiedAfter(final LocalDateTime timestamp, final String modifiedBy, final Integer page,
+        final Integer pageSize, final Consumer<MasterTender> consumer) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public final void streamByCountry(final String countryCode, final Integer page, final Integer pageSize,
+        final Consumer<MasterTender> consumer) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public final void streamAfter(final LocalDateTime timestamp, final String id, final Integer limit,
+        final Consumer<MasterTender> consumer) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public final void streamByBodyGroupId(final String groupId, final String id, final Integer limit,
+        final Consumer<MasterTender> consumer) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public final PageVersion getModifiedAfterVersion(final LocalDateTime timestamp, final String modifiedBy,
+        final Integer page, final Integer pageSize) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public final PageVersion getByCountryVersion(final String countryCode, final Integer page,
+        final Integer pageSize) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
 }
@@ -0,0 +1,339 @@
+package eu.digiwhist.dataaccess.dao.jdbc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.digiwhist.dataaccess.dto.matched.BVDEtalonBody;
+import eu.dl.dataaccess.dao.EtalonBodyDAO;
+import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
+
+/**
+ * Compact in-memory index of the BvD etalon registry. It maps hashes of the standardized names, standardized
+ * addresses, digests and body identifiers to the etalon ids, so the candidates for matching can be found without
+ * querying the registry table. Full etalons are loaded only for the candidates.
+ *
+ * Each index entry is one long (hash in the upper and etalon id in the lower half) stored in a sorted array, which
+ * makes at most 6 entries (48 bytes) per etalon. Hashes can collide, so the candidates have to be checked with
+ * {@link #isExactMatch(BVDEtalonBody, String, String, List)} or
+ * {@link #isApproximateMatch(BVDEtalonBody, String, String, List, String)} once the etalons are loaded.
+ *
+ * The index is immutable once loaded and can be shared by threads.
+ */
+public final class BVDEtalonIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BVDEtalonIndex.class);
+
+    private static final long ID_MASK = 0xFFFFFFFFL;
+
+    private final SortedLongs names = new SortedLongs();
+
+    private final SortedLongs addresses = new SortedLongs();
+
+    private final SortedLongs digests = new SortedLongs();
+
+    private final SortedLongs bodyIds = new SortedLongs();
+
+    private int size;
+
+    /**
+     * Private constructor, use {@link #load(EtalonBodyDAO, int)} or {@link #of(Iterable)}.
+     */
+    private BVDEtalonIndex() {
+    }
+
+    /**
+     * Loads index of all the etalons. The etalons are read page by page ordered by id.
+     *
+     * @param dao
+     *      etalon body DAO
+     * @param pageSize
+     *      number of etalons read at once
+     * @return loaded index
+     */
+    public static BVDEtalonIndex load(final EtalonBodyDAO<BVDEtalonBody> dao, final int pageSize) {
+        long startTime = System.currentTimeMillis();
+        BVDEtalonIndex index = new BVDEtalonIndex();
+
+        List<BVDEtalonBody> page = dao.findAllById(Integer.MIN_VALUE, pageSize);
+        while (!page.isEmpty()) {
+            page.forEach(index::add);
+            page = dao.findAllById(Integer.parseInt(page.get(page.size() - 1).getId()), pageSize);
+        }
+
+        index.seal();
+
+        logger.info("BvD etalon index of {} etalons loaded in {} ms, it takes {} MB ({} MB per million etalons)",
+            index.size, System.currentTimeMillis() - startTime, index.getMemoryUsage() / (1024 * 1024),
+            index.size == 0 ? 0 : index.getMemoryUsage() * 1000000 / index.size / (1024 * 1024));
+
+        return index;
+    }
+
+    /**
+     * Creates index of the given etalons.
+     *
+     * @param etalons
+     *      etalons to be indexed
+     * @return index
+     */
+    public static BVDEtalonIndex of(final Iterable<BVDEtalonBody> etalons) {
+        BVDEtalonIndex index = new BVDEtalonIndex();
+        etalons.forEach(index::add);
+        index.seal();
+
+        return index;
+    }
+
+    /**
+     * Returns ids of the etalons which can match exactly, see
+     * {@link #isExactMatch(BVDEtalonBody, String, String, List)}. Null values of input parameters aren't taken into
+     * account.
+     *
+     * @param standardizedName
+     *      standardized name
+     * @param standardizedAddress
+     *      standardized address
+     * @param ids
+     *      list of body identifiers
+     * @return ordered list of etalon ids
+     */
+    public List<String> getExactMatchCandidates(final String standardizedName, final String standardizedAddress,
+        final List<BodyIdentifier> ids) {
+        TreeSet<Integer> candidates = new TreeSet<>();
+
+        if (standardizedName != null) {
+            names.collect(standardizedName.hashCode(), candidates);
+        }
+        if (standardizedAddress != null) {
+            addresses.collect(standardizedAddress.hashCode(), candidates);
+        }
+        if (ids != null) {
+            ids.stream()
+                .filter(id -> id.getId() != null && id.getScope() != null)
+                .forEach(id -> bodyIds.collect(bodyIdHash(id.getScope().toString(), id.getId()), candidates));
+        }
+
+        return toIds(candidates);
+    }
+
+    /**
+     * Returns ids of the etalons which can match approximately, see
+     * {@link #isApproximateMatch(BVDEtalonBody, String, String, List, String)}. Null values of input parameters aren't
+     * taken into account.
+     *
+     * @param standardizedName
+     *      standardized name
+     * @param standardizedAddress
+     *      standardized address
+     * @param ids
+     *      list of body identifiers
+     * @param digest
+     *      digest
+     * @return ordered list of etalon ids
+     */
+    public List<String> getApproximateMatchCandidates(final String standardizedName,
+        final String standardizedAddress, final List<BodyIdentifier> ids, final String digest) {
+        TreeSet<Integer> candidates = new TreeSet<>();
+        getExactMatchCandidates(standardizedName, standardizedAddress, ids).forEach(id -> candidates.add(
+            Integer.valueOf(id)));
+
+        if (digest != null) {
+            digests.collect(digest.hashCode(), candidates);
+        }
+
+        return toIds(candidates);
+    }
+
+    /**
+     * Checks whether the etalon matches exactly, it means that it has the same standardized name or standardized
+     * address or body identifier (vat, trade register or statistical number in the same country). Null values of input
+     * parameters aren't taken into account.
+     *
+     * @param etalon
+     *      checked etalon
+     * @param standardizedName
+     *      standardized name
+     * @param standardizedAddress
+     *      standardized address
+     * @param ids
+     *      list of body identifiers
+     * @return true if the etalon matches
+     */
+    public static boolean isExactMatch(final BVDEtalonBody etalon, final String standardizedName,
+        final String standardizedAddress, final List<BodyIdentifier> ids) {
+        if (standardizedName != null && standardizedName.equals(etalon.getStandardizedName())) {
+            return true;
+        }
+        if (standardizedAddress != null && standardizedAddress.equals(etalon.getStandardizedAddress())) {
+            return true;
+        }
+        if (ids != null) {
+            return ids.stream()
+                .filter(id -> id.getId() != null && id.getScope() != null)
+                .filter(id -> id.getScope().toString().equals(etalon.getCountryIsoCode()))
+                .anyMatch(id -> id.getId().equals(etalon.getVatTaxNumber())
+                    || id.getId().equals(etalon.getTradeRegisterNumber())
+                    || id.getId().equals(etalon.getStatisticalNumber()));
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether the etalon matches approximately, it means that it matches exactly or has the same digest. Null
+     * values of input parameters aren't taken into account.
+     *
+     * @param etalon
+     *      checked etalon
+     * @param standardizedName
+     *      standardized name
+     * @param standardizedAddress
+     *      standardized address
+     * @param ids
+     *      list of body identifiers
+     * @param digest
+     *      digest
+     * @return true if the etalon matches
+     */
+    public static boolean isApproximateMatch(final BVDEtalonBody etalon, final String standardizedName,
+        final String standardizedAddress, final List<BodyIdentifier> ids, final String digest) {
+        return isExactMatch(etalon, standardizedName, standardizedAddress, ids)
+            || (digest != null && digest.equals(etalon.getDigest()));
+    }
+
+    /**
+     * @return number of indexed etalons
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return approximate memory used by the index in bytes
+     */
+    public long getMemoryUsage() {
+        return 8L * (names.size + addresses.size + digests.size + bodyIds.size);
+    }
+
+    /**
+     * Adds etalon to the index.
+     *
+     * @param etalon
+     *      etalon to be added
+     */
+    private void add(final BVDEtalonBody etalon) {
+        int id = Integer.parseInt(etalon.getId());
+
+        if (etalon.getStandardizedName() != null) {
+            names.add(etalon.getStandardizedName().hashCode(), id);
+        }
+        if (etalon.getStandardizedAddress() != null) {
+            addresses.add(etalon.getStandardizedAddress().hashCode(), id);
+        }
+        if (etalon.getDigest() != null) {
+            digests.add(etalon.getDigest().hashCode(), id);
+        }
+        if (etalon.getCountryIsoCode() != null) {
+            for (String number : Arrays.asList(etalon.getVatTaxNumber(), etalon.getTradeRegisterNumber(),
+                etalon.getStatisticalNumber())) {
+                if (number != null) {
+                    bodyIds.add(bodyIdHash(etalon.getCountryIsoCode(), number), id);
+                }
+            }
+        }
+
+        size++;
+    }
+
+    /**
+     * Sorts all the entries, the index can't be modified afterwards.
+     */
+    private void seal() {
+        names.seal();
+        addresses.seal();
+        digests.seal();
+        bodyIds.seal();
+    }
+
+    /**
+     * @param country
+     *      country ISO code
+     * @param number
+     *      body identifier
+     * @return hash of body identifier in the given country
+     */
+    private static int bodyIdHash(final String country, final String number) {
+        return Objects.hash(country, number);
+    }
+
+    /**
+     * @param candidates
+     *      ordered etalon ids
+     * @return list of ids as strings
+     */
+    private static List<String> toIds(final TreeSet<Integer> candidates) {
+        List<String> result = new ArrayList<>(candidates.size());
+        candidates.forEach(n -> result.add(n.toString()));
+
+        return result;
+    }
+
+    /**
+     * Growable sorted array of entries. Entry has hash in the upper and etalon id in the lower 32 bits, so the entries
+     * with the same hash are stored next to each other.
+     */
+    private static final class SortedLongs {
+        private long[] values = new long[1024];
+
+        private int size;
+
+        /**
+         * Adds entry.
+         *
+         * @param hash
+         *      hash
+         * @param id
+         *      etalon id
+         */
+        void add(final int hash, final int id) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = ((long) hash << 32) | (id & ID_MASK);
+        }
+
+        /**
+         * Sorts the entries and releases unused capacity.
+         */
+        void seal() {
+            values = Arrays.copyOf(values, size);
+            Arrays.sort(values);
+        }
+
+        /**
+         * Adds ids of all entries with the given hash to the result.
+         *
+         * @param hash
+         *      searched hash
+         * @param result
+         *      result set
+         */
+        void collect(final int hash, final TreeSet<Integer> result) {
+            int i = Arrays.binarySearch(values, (long) hash << 32);
+            if (i < 0) {
+                i = -i - 1;
+            }
+
+            while (i < size && (int) (values[i] >> 32) == hash) {
+                result.add((int) values[i]);
+                i++;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package eu.digiwhist.dataaccess.dao.jdbc;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of the BvD etalon registry shared by the DAOs of one process. The index is loaded on the first use and loaded
+ * again once the digests of the etalons have been recalculated (see BVDEtalonDigestsWorker), which is detected by the
+ * change of the digests checkpoints. The checkpoints are checked at most once per check interval, so a long running
+ * matcher uses the recalculated digests and names after at most one interval.
+ *
+ * The index is loaded again by the thread which has detected the change, the other threads wait for it the same as for
+ * the first load.
+ */
+public final class BVDEtalonIndexCache implements Supplier<BVDEtalonIndex> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BVDEtalonIndexCache.class);
+
+    private final Supplier<BVDEtalonIndex> loader;
+
+    private final Supplier<String> version;
+
+    private final long checkInterval;
+
+    private final LongSupplier clock;
+
+    private BVDEtalonIndex index;
+
+    private String loadedVersion;
+
+    private long checked;
+
+    /**
+     * @param loader
+     *      loads index of the current registry
+     * @param version
+     *      returns version of the etalon digests, it changes whenever the digests are recalculated
+     * @param checkInterval
+     *      minimal number of milliseconds between two checks of the version
+     * @param clock
+     *      current time in nanoseconds (see {@link System#nanoTime()})
+     */
+    public BVDEtalonIndexCache(final Supplier<BVDEtalonIndex> loader, final Supplier<String> version,
+        final long checkInterval, final LongSupplier clock) {
+        this.loader = loader;
+        this.version = version;
+        this.checkInterval = TimeUnit.MILLISECONDS.toNanos(checkInterval);
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the current index, loads it when it hasn't been loaded yet or the digests have been recalculated since
+     * it was loaded.
+     *
+     * @return etalon index
+     */
+    @Override
+    public synchronized BVDEtalonIndex get() {
+        if (index != null && clock.getAsLong() - checked < checkInterval) {
+            return index;
+        }
+
+        // the version is read before the load, so the recalculation running during the load is detected next time
+        String current = version.get();
+        if (index == null || !Objects.equals(current, loadedVersion)) {
+            if (index != null) {
+                logger.info("BvD etalon digests have been recalculated, the etalon index is loaded again");
+            }
+            index = loader.get();
+            loadedVersion = current;
+        }
+
+        checked = clock.getAsLong();
+        return index;
+    }
+}
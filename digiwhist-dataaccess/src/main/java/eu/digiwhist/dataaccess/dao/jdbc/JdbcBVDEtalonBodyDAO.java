@@ -5,15 +5,16 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import eu.digiwhist.dataaccess.dto.matched.BVDEtalonBody;
 import eu.dl.core.UnrecoverableException;
 import eu.dl.dataaccess.dao.EtalonBodyDAO;
 import eu.dl.dataaccess.dao.jdbc.BaseJdbcDAO;
+import eu.dl.dataaccess.dao.jdbc.JdbcQuery;
 import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
 import eu.dl.dataaccess.dto.matched.MatchedGroupInfo;
 
@@ -26,33 +27,56 @@ public class JdbcBVDEtalonBodyDAO extends BaseJdbcDAO<BVDEtalonBody> implements
 
     private static final int DIGEST_LENGTH_THRESHOLD = 3;
 
+    private final Supplier<BVDEtalonIndex> index;
+
     /**
      * Initializes connection etc.
      */
     public JdbcBVDEtalonBodyDAO() {
+        this(null);
+    }
+
+    /**
+     * Initializes connection etc. The matching pools are searched in the index returned by the given supplier (see
+     * {@link BVDEtalonIndexCache}) and only the candidates are loaded from the database.
+     *
+     * @param index
+     *      supplier of the current index of the etalon registry or null
+     */
+    public JdbcBVDEtalonBodyDAO(final Supplier<BVDEtalonIndex> index) {
         super();
+        this.index = index;
     }
 
     @Override
     public final List<BVDEtalonBody> getExactMatchBodiesPool(final String standardizedName,
         final String standardizedAddress, final List<BodyIdentifier> bodyIds) {
 
-        StringBuilder restriction = exactMatchRestrictionBuilder(standardizedName, standardizedAddress, bodyIds);
+        if (index != null) {
+            return getByIds(index.get().getExactMatchCandidates(standardizedName, standardizedAddress, bodyIds))
+                .stream()
+                .filter(n -> BVDEtalonIndex.isExactMatch(n, standardizedName, standardizedAddress, bodyIds))
+                .collect(Collectors.toList());
+        }
 
-        if (restriction.length() == 0) {
+        List<String> numbers = getBodyIdNumbers(bodyIds);
+        if (standardizedName == null && standardizedAddress == null && numbers.isEmpty()) {
             return Collections.emptyList();
         }
 
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM bvd.registry_information WHERE " + restriction.toString() + ";");
+            PreparedStatement statement =
+                exactMatchQuery(standardizedName, standardizedAddress, numbers).prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
 
             List<BVDEtalonBody> result = new ArrayList<>();
 
             while (rs.next()) {
-                result.add(createFromResultSet(rs));
+                BVDEtalonBody etalon = createFromResultSet(rs);
+                if (BVDEtalonIndex.isExactMatch(etalon, standardizedName, standardizedAddress, bodyIds)) {
+                    result.add(etalon);
+                }
             }
 
             rs.close();
@@ -73,16 +97,17 @@ public class JdbcBVDEtalonBodyDAO extends BaseJdbcDAO<BVDEtalonBody> implements
             return Collections.emptyList();
         }
 
-        StringBuilder restriction =
-            approximateMatchRestrictionBuilder(standardizedName, standardizedAddress, bodyIds, digest);
-
-        if (restriction.length() == 0) {
-            return Collections.emptyList();
+        if (index != null) {
+            return getByIds(index.get().getApproximateMatchCandidates(standardizedName, standardizedAddress, bodyIds,
+                digest)).stream()
+                .filter(n -> BVDEtalonIndex.isApproximateMatch(n, standardizedName, standardizedAddress, bodyIds,
+                    digest))
+                .collect(Collectors.toList());
         }
 
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM bvd.registry_information WHERE " + restriction.toString() + ";");
+            PreparedStatement statement = exactMatchQuery(standardizedName, standardizedAddress,
+                getBodyIdNumbers(bodyIds)).append(" OR digest = ").value(digest).prepare(getConnection());
             long pluginStartTime = System.currentTimeMillis();
             ResultSet rs = statement.executeQuery();
             long pluginEndTime = System.currentTimeMillis();
@@ -92,7 +117,11 @@ public class JdbcBVDEtalonBodyDAO extends BaseJdbcDAO<BVDEtalonBody> implements
             List<BVDEtalonBody> result = new ArrayList<>();
 
             while (rs.next()) {
-                result.add(createFromResultSet(rs));
+                BVDEtalonBody etalon = createFromResultSet(rs);
+                if (BVDEtalonIndex.isApproximateMatch(etalon, standardizedName, standardizedAddress, bodyIds,
+                    digest)) {
+                    result.add(etalon);
+                }
             }
 
             rs.close();
@@ -108,7 +137,7 @@ public class JdbcBVDEtalonBodyDAO extends BaseJdbcDAO<BVDEtalonBody> implements
     @Override
     public final BVDEtalonBody getById(final String id) {
         try {
-            PreparedStatement statement = connection
+            PreparedStatement statement = getConnection()
                     .prepareStatement("SELECT * FROM bvd.registry_information  WHERE id = ?;");
 
             statement.setInt(1, Integer.valueOf(id));
@@ -129,6 +158,43 @@ public class JdbcBVDEtalonBodyDAO extends BaseJdbcDAO<BVDEtalonBody> implements
         }
     }
 
+    /**
+     * Returns etalons with the given ids ordered by id.
+     *
+     * @param ids
+     *      etalon ids
+     * @return list of etalons or empty list
+     */
+    private List<BVDEtalonBody> getByIds(final List<String> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        try {
+            PreparedStatement statement = getConnection().prepareStatement(
+                    "SELECT * FROM bvd.registry_information WHERE id = ANY(?) ORDER BY id;");
+
+            statement.setArray(1, getConnection().createArrayOf("integer",
+                ids.stream().map(Integer::valueOf).toArray(Integer[]::new)));
+
+            ResultSet rs = statement.executeQuery();
+
+            List<BVDEtalonBody> result = new ArrayList<>();
+
+            while (rs.next()) {
+                result.add(createFromResultSet(rs));
+            }
+
+            rs.close();
+            statement.close();
+
+            return result;
+        } catch (Exception e) {
+            logger.error("Unable to generate result set, because of {}", e);
+            throw new UnrecoverableException("Unable to generate result set.", e);
+        }
+    }
+
     @Override
     public final List<BVDEtalonBody> findAll(final int pageNumber, final int pageSize) {
         return findAll(pageNumber, pageSize, 0);
@@ -137,7 +203,7 @@ public class JdbcBVDEtalonBodyDAO extends BaseJdbcDAO<BVDEtalonBody> implements
     @Override
     public final List<BVDEtalonBody> findAll(final int pageNumber, final int pageSize, final int offset) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
+            PreparedStatement statement = getConnection().prepareStatement(
                     "SELECT * FROM bvd.registry_information ORDER BY id LIMIT ? OFFSET ?;");
             
             statement.setInt(1, pageSize);
@@ -164,20 +230,149 @@ public class JdbcBVDEtalonBodyDAO extends BaseJdbcDAO<BVDEtalonBody> implements
     @Override
     public final void updateDigestsAndBodyIdsAndNuts(final BVDEtalonBody body) {
         try {
-            PreparedStatement statement = connection.prepareStatement("UPDATE bvd.registry_information SET "
-                + "digest = ?, standardizedname = ?, standardizedaddress = ?, nuts3 = ?, european_vat_number = ?,"
-                + " statistical_number = ?, trade_register_number = ?, vattax_number = ?, digest2 = ? WHERE id = ?;");
-
-            statement.setString(1, body.getDigest());
-            statement.setString(2, body.getStandardizedName());
-            statement.setString(3, body.getStandardizedAddress());
-            statement.setString(4, body.getNuts3());
-            statement.setString(5, body.getEuropeanVatNumber());
-            statement.setString(6, body.getStatisticalNumber());
-            statement.setString(7, body.getTradeRegisterNumber());
-            statement.setString(8, body.getVatTaxNumber());
-            statement.setString(9, body.getDigest2());
-            statement.setInt(10, Integer.valueOf(body.getId()));
+            PreparedStatement statement = prepareDigestsUpdate();
+            setDigestsUpdateParameters(statement, body);
+            statement.executeUpdate();
+
+            statement.close();
+        } catch (Exception e) {
+            logger.error("Unable to perform query, because of of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    @Override
+    public final void updateDigestsAndBodyIdsAndNuts(final List<BVDEtalonBody> bodies) {
+        if (bodies.isEmpty()) {
+            return;
+        }
+
+        try {
+            PreparedStatement statement = prepareDigestsUpdate();
+            for (BVDEtalonBody body : bodies) {
+                setDigestsUpdateParameters(statement, body);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+
+            statement.close();
+        } catch (Exception e) {
+            logger.error("Unable to perform query, because of of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    /**
+     * @return statement that updates digests, body ids and nuts of one etalon
+     * @throws SQLException
+     *      in case that the statement can't be prepared
+     */
+    private PreparedStatement prepareDigestsUpdate() throws SQLException {
+        return getConnection().prepareStatement("UPDATE bvd.registry_information SET "
+            + "digest = ?, standardizedname = ?, standardizedaddress = ?, nuts3 = ?, european_vat_number = ?,"
+            + " statistical_number = ?, trade_register_number = ?, vattax_number = ?, digest2 = ? WHERE id = ?;");
+    }
+
+    /**
+     * Sets parameters of the statement prepared by {@link #prepareDigestsUpdate()}.
+     *
+     * @param statement
+     *      update statement
+     * @param body
+     *      updated etalon
+     * @throws SQLException
+     *      in case that the parameters can't be set
+     */
+    private static void setDigestsUpdateParameters(final PreparedStatement statement, final BVDEtalonBody body)
+        throws SQLException {
+        statement.setString(1, body.getDigest());
+        statement.setString(2, body.getStandardizedName());
+        statement.setString(3, body.getStandardizedAddress());
+        statement.setString(4, body.getNuts3());
+        statement.setString(5, body.getEuropeanVatNumber());
+        statement.setString(6, body.getStatisticalNumber());
+        statement.setString(7, body.getTradeRegisterNumber());
+        statement.setString(8, body.getVatTaxNumber());
+        statement.setString(9, body.getDigest2());
+        statement.setInt(10, Integer.valueOf(body.getId()));
+    }
+
+    /**
+     * Returns id of the last etalon processed by digests recalculation of the given id range.
+     *
+     * @param rangeKey
+     *      key of the processed id range
+     * @return id of the last processed etalon or null if the range hasn't been started yet
+     */
+    public final Integer getDigestsCheckpoint(final String rangeKey) {
+        try {
+            PreparedStatement statement = getConnection().prepareStatement(
+                    "SELECT last_id FROM bvd.digests_checkpoint WHERE range_key = ?;");
+
+            statement.setString(1, rangeKey);
+            ResultSet rs = statement.executeQuery();
+
+            Integer lastId = null;
+            if (rs.next()) {
+                lastId = rs.getInt("last_id");
+            }
+
+            rs.close();
+            statement.close();
+
+            return lastId;
+        } catch (Exception e) {
+            logger.error("Unable to perform query, because of of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    /**
+     * Returns version of the etalon digests. It changes whenever a page of etalons is recalculated by
+     * BVDEtalonDigestsWorker, because the page is committed together with its checkpoint.
+     *
+     * @return version of the digests, the number of the checkpoints and the time of the last one
+     */
+    public final String getDigestsVersion() {
+        try {
+            PreparedStatement statement = getConnection().prepareStatement(
+                    "SELECT count(*) || '@' || coalesce(max(modified)::text, '') AS version"
+                    + " FROM bvd.digests_checkpoint;");
+
+            ResultSet rs = statement.executeQuery();
+
+            String version = null;
+            if (rs.next()) {
+                version = rs.getString("version");
+            }
+
+            rs.close();
+            statement.close();
+
+            return version;
+        } catch (Exception e) {
+            logger.error("Unable to perform query, because of of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    /**
+     * Stores id of the last etalon processed by digests recalculation of the given id range. The checkpoint is a part
+     * of the current transaction, so it is committed together with the updated etalons.
+     *
+     * @param rangeKey
+     *      key of the processed id range
+     * @param lastId
+     *      id of the last processed etalon
+     */
+    public final void saveDigestsCheckpoint(final String rangeKey, final int lastId) {
+        try {
+            PreparedStatement statement = getConnection().prepareStatement(
+                    "INSERT INTO bvd.digests_checkpoint (range_key, last_id, modified) VALUES (?, ?, now())"
+                    + " ON CONFLICT (range_key) DO UPDATE SET last_id = EXCLUDED.last_id, modified = now();");
+
+            statement.setString(1, rangeKey);
+            statement.setInt(2, lastId);
             statement.executeUpdate();
 
             statement.close();
@@ -227,81 +422,43 @@ public class JdbcBVDEtalonBodyDAO extends BaseJdbcDAO<BVDEtalonBody> implements
     }
 
     /**
-     * Returns restriction for BvD etalon database query that returns etalons for exact matching. Null values of input
-     * parameters aren't taken into account.
+     * Returns query for etalons which can match exactly. The query has the same text for any values, null values
+     * don't match anything. The body identifiers are searched regardless of the country, so the result has to be
+     * checked with {@link BVDEtalonIndex#isExactMatch(BVDEtalonBody, String, String, List)}.
      *
      * @param standardizedName
      *      standardized name
      * @param standardizedAddress
      *      standardized address
-     * @param bodyIds
-     *      list of body identifiers
-     * @return restriction as StringBuilder instance
+     * @param numbers
+     *      body identifier numbers
+     * @return query
      */
-    private StringBuilder exactMatchRestrictionBuilder(final String standardizedName,
-        final String standardizedAddress, final List<BodyIdentifier> bodyIds) {
-
-        StringBuilder restriction = new StringBuilder();
-        if (standardizedName != null) {
-            restriction.append("standardizedname = '").append(sanitize(standardizedName)).append("'");
-        }
-        if (standardizedAddress != null) {
-            restriction
-                .append(restriction.length() > 0 ? " OR " : "")
-                .append("standardizedaddress = '").append(sanitize(standardizedAddress)).append("'");
-        }
-        if (bodyIds != null) {
-            StringBuilder bodyIdsRestriction = new StringBuilder();
-
-            bodyIds.stream().forEach((id) -> {
-                if (id.getId() != null && id.getScope() != null) {
-                    StringBuilder fieldRestriction = new StringBuilder("=")
-                        .append("'").append(sanitize(id.getId())).append("'")
-                        .append(" AND country_iso_code='").append(id.getScope()).append("'");
-
-                    Arrays.asList("vattax_number", "trade_register_number", "statistical_number").stream()
-                        .forEach(f -> { bodyIdsRestriction
-                            .append(bodyIdsRestriction.length() > 0 ? " OR " : "")
-                            .append("(").append(f).append(fieldRestriction).append(")");
-                    });
-                }
-            });
-
-            if (bodyIdsRestriction.length() > 0) {
-                restriction
-                    .append(restriction.length() > 0 ? " OR " : "").append(bodyIdsRestriction);
-            }
-        }
-
-        return restriction;
+    private static JdbcQuery exactMatchQuery(final String standardizedName, final String standardizedAddress,
+        final List<String> numbers) {
+        return new JdbcQuery("SELECT * FROM bvd.registry_information")
+            .append(" WHERE standardizedname = ").value(standardizedName)
+            .append(" OR standardizedaddress = ").value(standardizedAddress)
+            .append(" OR vattax_number = ANY(").array(numbers).append(")")
+            .append(" OR trade_register_number = ANY(").array(numbers).append(")")
+            .append(" OR statistical_number = ANY(").array(numbers).append(")");
     }
 
     /**
-     * Returns restriction for BvD etalon database query that returns etalons for approximate matching. Null values of
-     * input parameters aren't taken into account.
-     *
-     * @param standardizedName
-     *      standardized name
-     * @param standardizedAddress
-     *      standardized address
      * @param bodyIds
-     *      list of body identifiers
-     * @param digest
-     *      digest
-     * @return restriction as StringBuilder instance
+     *      list of body identifiers or null
+     * @return distinct numbers of the body identifiers with scope
      */
-    private StringBuilder approximateMatchRestrictionBuilder(final String standardizedName,
-        final String standardizedAddress, final List<BodyIdentifier> bodyIds, final String digest) {
-
-        StringBuilder restriction = exactMatchRestrictionBuilder(standardizedName, standardizedAddress, bodyIds);
-
-        if (digest != null) {
-            restriction
-                .append(restriction.length() > 0 ? " OR " : "")
-                .append("digest = '").append(sanitize(digest)).append("'");
+    private static List<String> getBodyIdNumbers(final List<BodyIdentifier> bodyIds) {
+        if (bodyIds == null) {
+            return Collections.emptyList();
         }
 
-        return restriction;
+        return bodyIds.stream()
+            .filter(id -> id.getId() != null && id.getScope() != null)
+            .map(BodyIdentifier::getId)
+            .distinct()
+            .collect(Collectors.toList());
     }
 
     @Override
@@ -314,7 +471,7 @@ public class JdbcBVDEtalonBodyDAO extends BaseJdbcDAO<BVDEtalonBody> implements
 	@Override
 	public final List<BVDEtalonBody> findAllById(final int id, final int amount) {
 		try {
-            PreparedStatement statement = connection.prepareStatement(
+            PreparedStatement statement = getConnection().prepareStatement(
                     "SELECT * FROM bvd.registry_information WHERE id > ? ORDER BY id LIMIT ?;");
             
             statement.setInt(1, id);
@@ -6,6 +6,7 @@ import eu.digiwhist.dataaccess.dao.ParsedBudgetItemDAO;
 import eu.digiwhist.dataaccess.dao.ParsedContractingAuthorityDAO;
 import eu.digiwhist.dataaccess.dao.ParsedPublicOfficialDAO;
 import eu.digiwhist.dataaccess.dao.RawAssetDeclarationDAO;
+import eu.dl.core.config.Config;
 import eu.dl.dataaccess.dao.CleanTenderDAO;
 import eu.dl.dataaccess.dao.CrawlerAuditDAO;
 import eu.dl.dataaccess.dao.EtalonBodyDAO;
@@ -13,6 +14,7 @@ import eu.dl.dataaccess.dao.IndicatorDAO;
 import eu.dl.dataaccess.dao.ManualMatchDAO;
 import eu.dl.dataaccess.dao.MasterBodyDAO;
 import eu.dl.dataaccess.dao.MasterTenderDAO;
+import eu.dl.dataaccess.dao.MasterTenderDocumentDAO;
 import eu.dl.dataaccess.dao.MatchedBodyDAO;
 import eu.dl.dataaccess.dao.MatchedTenderDAO;
 import eu.dl.dataaccess.dao.ParsedTenderDAO;
@@ -26,12 +28,22 @@ import eu.dl.dataaccess.dto.parsed.ParsedPublicOfficial;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * DAO factory implementation for JDBC data sources.
  */
 public final class JdbcDAOFactory extends DAOFactory {
 
+    private static final int BVD_ETALON_INDEX_PAGE_SIZE = 10000;
+
+    /**
+     * Default number of seconds between two checks whether the etalon digests have been recalculated.
+     */
+    private static final long DEFAULT_BVD_ETALON_INDEX_CHECK_INTERVAL = 60;
+
+    private static BVDEtalonIndexCache bvdEtalonIndex;
+
     @Override
     public CrawlerAuditDAO getCrawlerAuditDAO(final String workerName, final String workerVersion) {
         return (CrawlerAuditDAO) new JdbcCrawlerAuditDAO().populateWithWorkerMetadata(workerName, workerVersion);
@@ -133,11 +145,40 @@ public final class JdbcDAOFactory extends DAOFactory {
 
     @Override
     public EtalonBodyDAO getBVDEtalonBodyDAO() {
+        if ("true".equals(Config.getInstance().getParam("bvd.etalonIndex.enabled"))) {
+            return new JdbcBVDEtalonBodyDAO(getBVDEtalonIndex());
+        }
+
         return new JdbcBVDEtalonBodyDAO();
     }
 
+    /**
+     * Returns index of the BvD etalon registry shared by all the DAOs. The index is loaded on the first use and
+     * loaded again after the digests are recalculated, the recalculation is checked every
+     * "bvd.etalonIndex.checkInterval" seconds.
+     *
+     * @return etalon index
+     */
+    private static synchronized BVDEtalonIndexCache getBVDEtalonIndex() {
+        if (bvdEtalonIndex == null) {
+            String interval = Config.getInstance().getParam("bvd.etalonIndex.checkInterval");
+            JdbcBVDEtalonBodyDAO dao = new JdbcBVDEtalonBodyDAO();
+            bvdEtalonIndex = new BVDEtalonIndexCache(() -> BVDEtalonIndex.load(dao, BVD_ETALON_INDEX_PAGE_SIZE),
+                dao::getDigestsVersion, TimeUnit.SECONDS.toMillis(interval == null
+                    ? DEFAULT_BVD_ETALON_INDEX_CHECK_INTERVAL : Long.parseLong(interval.trim())), System::nanoTime);
+        }
+
+        return bvdEtalonIndex;
+    }
+
     @Override
     public IndicatorDAO getIndicatorDAO(final String workerName, final String workerVersion) {
         return (IndicatorDAO) new JdbcEntityRelatedIndicatorDAO().populateWithWorkerMetadata(workerName, workerVersion);
     }
+
+    @Override
+    public MasterTenderDocumentDAO getMasterTenderDocumentDAO(final String workerName, final String workerVersion) {
+        return (MasterTenderDocumentDAO) new JdbcMasterTenderDocumentDAO().populateWithWorkerMetadata(workerName,
+            workerVersion);
+    }
 }
@@ -4,11 +4,14 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import eu.dl.core.UnrecoverableException;
 import eu.dl.dataaccess.dao.ManualMatchDAO;
 import eu.dl.dataaccess.dao.jdbc.BaseJdbcDAO;
+import eu.dl.dataaccess.dao.jdbc.JdbcQuery;
 import eu.dl.dataaccess.dto.matched.ManualMatch;
 
 /**
@@ -29,16 +32,18 @@ public class JdbcManualMatchDAO<T extends ManualMatch> extends BaseJdbcDAO<Manua
         }
 
         try {
-            String query;
+            Map<String, String> searched = new LinkedHashMap<>();
+            searched.put("hash", hash);
+
+            JdbcQuery query = new JdbcQuery("SELECT * FROM " + getTableWithSchema() + " WHERE data @> ");
             if (flag != null) {
-                query = "data @> '{\"hash\":\"" + sanitizeForJsonString(hash) + "\","
-                    + "\"flag\":\"" + sanitizeForJsonString(flag) + "\"}'";
+                searched.put("flag", flag);
+                query.json(searched);
             } else {
-                query = "data @> '{\"hash\":\"" + sanitizeForJsonString(hash) + "\"}' AND data->'flag' IS NULL";
+                query.json(searched).append(" AND data->'flag' IS NULL");
             }
 
-            PreparedStatement statement =
-                connection.prepareStatement("SELECT * FROM " + getTableWithSchema() + " WHERE " + query);
+            PreparedStatement statement = query.prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
 
@@ -78,10 +83,9 @@ public class JdbcManualMatchDAO<T extends ManualMatch> extends BaseJdbcDAO<Manua
         }
         
         try {
-            String query = "data @> '{\"flag\":\"" + sanitizeForJsonString(flag) + "\"}'";
-
-            PreparedStatement statement =
-                connection.prepareStatement("SELECT * FROM " + getTableWithSchema() + " WHERE " + query);
+            PreparedStatement statement = new JdbcQuery("SELECT * FROM " + getTableWithSchema())
+                .append(" WHERE data @> ").json(Collections.singletonMap("flag", flag))
+                .prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
 
@@ -20,4 +20,9 @@ public class JdbcMasterBodyDAO extends GenericJdbcDAO<MasterBody> implements Mas
     protected final String getTableWithSchema() {
         return schema + "." + TABLE_NAME;
     }
+
+    @Override
+    protected final boolean hasGroupIdColumn() {
+        return true;
+    }
 }
@@ -1,7 +1,15 @@
 package eu.digiwhist.dataaccess.dao.jdbc;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
 import eu.dl.dataaccess.dao.MasterTenderDAO;
 import eu.dl.dataaccess.dao.jdbc.GenericJdbcDAO;
+import eu.dl.dataaccess.dao.jdbc.JdbcQuery;
 import eu.dl.dataaccess.dto.master.MasterTender;
 
 /**
@@ -11,6 +19,22 @@ public class JdbcMasterTenderDAO extends GenericJdbcDAO<MasterTender> implements
 
     private static final String TABLE_NAME = "master_tender";
 
+    private static final String BODY_TABLE_NAME = "master_body";
+
+    private static final String INDICATOR_TABLE_NAME = "indicator";
+
+    /**
+     * Tender properties which hold list of bodies.
+     */
+    private static final List<String> BODY_LISTS = Arrays.asList("administrators", "approachedBidders",
+        "candidates", "supervisors", "buyers", "onBehalfOf");
+
+    /**
+     * Tender properties which hold single body.
+     */
+    private static final List<String> BODY_FIELDS = Arrays.asList("bidsRecipient", "furtherInformationProvider",
+        "specificationsCreator", "specificationsProvider");
+
     @Override
     public final MasterTender getEmptyInstance() {
         return new MasterTender();
@@ -20,4 +44,72 @@ public class JdbcMasterTenderDAO extends GenericJdbcDAO<MasterTender> implements
     protected final String getTableWithSchema() {
         return schema + "." + TABLE_NAME;
     }
+
+    @Override
+    protected final boolean hasGroupIdColumn() {
+        return true;
+    }
+
+    /**
+     * The tender is served populated with its master bodies and indicators (see PopulateUtils), so the time of its
+     * last change is the latest modification timestamp of the tender, the master bodies it references and its
+     * indicators. The bodies are found by the groupid index, the indicators by the GIN index of the data column. The
+     * expression is evaluated only for the rows of the page (see GenericJdbcDAO).
+     *
+     * @return SQL expression of the time of the last change
+     */
+    @Override
+    protected final String getChangedExpression() {
+        String data = TABLE_NAME + ".data";
+
+        List<String> groupIds = new ArrayList<>();
+        groupIds.add("SELECT bidder ->> 'groupId' FROM " + elements(data + " -> 'lots'") + " lots(lot), "
+            + elements("lot -> 'bids'") + " bids(bid), " + elements("bid -> 'bidders'") + " bidders(bidder)");
+        BODY_LISTS.forEach(n -> groupIds.add("SELECT body ->> 'groupId' FROM " + elements(data + " -> '" + n + "'")
+            + " bodies(body)"));
+        BODY_FIELDS.forEach(n -> groupIds.add("SELECT " + data + " #>> '{" + n + ",groupId}'"));
+
+        return "greatest(" + TABLE_NAME + ".modified,"
+            + " (SELECT max(b.modified) FROM " + schema + "." + BODY_TABLE_NAME + " b WHERE b.groupid IN ("
+            + String.join(" UNION ALL ", groupIds) + ")),"
+            + " (SELECT max(i.modified) FROM " + schema + "." + INDICATOR_TABLE_NAME + " i"
+            + " WHERE i.data @> jsonb_build_object('relatedEntityId', " + TABLE_NAME + ".id)))";
+    }
+
+    /**
+     * @param json
+     *         SQL expression of JSON value
+     *
+     * @return SQL expression of the elements of the value, no elements if the value isn't array
+     */
+    private static String elements(final String json) {
+        return "jsonb_array_elements(CASE jsonb_typeof(" + json + ") WHEN 'array' THEN " + json + " END)";
+    }
+
+    /**
+     * Each body property of the tender has its own containment condition, so the conditions are resolved by the GIN
+     * index of the data column and combined by bitmap OR.
+     */
+    @Override
+    public final void streamByBodyGroupId(final String groupId, final String id, final Integer limit,
+        final Consumer<MasterTender> consumer) {
+        Map<String, String> body = Collections.singletonMap("groupId", groupId);
+
+        JdbcQuery query = new JdbcQuery("SELECT * FROM " + getTableWithSchema() + " WHERE (data @> ")
+            .json(Collections.singletonMap("lots", Collections.singletonList(Collections.singletonMap("bids",
+                Collections.singletonList(Collections.singletonMap("bidders", Collections.singletonList(body)))))));
+        for (String property : BODY_LISTS) {
+            query.append(" OR data @> ").json(Collections.singletonMap(property, Collections.singletonList(body)));
+        }
+        for (String property : BODY_FIELDS) {
+            query.append(" OR data @> ").json(Collections.singletonMap(property, body));
+        }
+        query.append(")");
+
+        if (id != null) {
+            query.append(" AND id > ").value(id);
+        }
+
+        stream(query.append(" ORDER BY id ASC LIMIT ").value(limit), consumer);
+    }
 }
@@ -0,0 +1,254 @@
+package eu.digiwhist.dataaccess.dao.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import eu.dl.core.UnrecoverableException;
+import eu.dl.dataaccess.dao.MasterTenderDocumentDAO;
+import eu.dl.dataaccess.dao.jdbc.BaseJdbcDAO;
+import eu.dl.dataaccess.dao.jdbc.JdbcQuery;
+import eu.dl.dataaccess.dto.PageVersion;
+import eu.dl.dataaccess.utils.PageUtils;
+
+/**
+ * JDBC implementation of master tender document DAO. The modification timestamp, author and country are copied from
+ * the master tender row when the document is saved, so the documents are filtered and ordered exactly as the master
+ * tenders.
+ */
+public class JdbcMasterTenderDocumentDAO extends BaseJdbcDAO<String> implements MasterTenderDocumentDAO {
+
+    private static final String TABLE_NAME = "master_tender_document";
+
+    private static final String TENDER_TABLE_NAME = "master_tender";
+
+    private static final int STREAM_FETCH_SIZE = 100;
+
+    /**
+     * Columns read by the version queries: id, time of the last rebuild and position of the document in the result.
+     */
+    private static final String VERSION_COLUMNS = "id, updated, row_number() OVER (ORDER BY modified ASC) AS n";
+
+    @Override
+    public final void save(final String tenderId, final String document) {
+        try {
+            PreparedStatement statement = getConnection().prepareStatement(
+                    "INSERT INTO " + getTableWithSchema() + " (id, document, modified, modifiedby, country, updated)"
+                    + " SELECT id, ?, modified, modifiedby, data ->> 'country', now() FROM " + schema + "."
+                    + TENDER_TABLE_NAME + " WHERE id = ?"
+                    + " ON CONFLICT (id) DO UPDATE SET document = EXCLUDED.document, modified = EXCLUDED.modified,"
+                    + " modifiedby = EXCLUDED.modifiedby, country = EXCLUDED.country, updated = EXCLUDED.updated");
+
+            statement.setString(1, document);
+            statement.setString(2, tenderId);
+            statement.executeUpdate();
+
+            statement.close();
+        } catch (Exception e) {
+            logger.error("Unable to perform query, because of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    @Override
+    public final Map<String, String> getByIds(final Collection<String> tenderIds) {
+        try {
+            PreparedStatement statement = new JdbcQuery("SELECT id, document FROM " + getTableWithSchema())
+                    .append(" WHERE id = ANY(").array(tenderIds).append(")")
+                    .prepare(getConnection());
+
+            ResultSet rs = statement.executeQuery();
+
+            Map<String, String> documents = new HashMap<>();
+            while (rs.next()) {
+                documents.put(rs.getString("id"), rs.getString("document"));
+            }
+
+            rs.close();
+            statement.close();
+
+            return documents;
+        } catch (Exception e) {
+            logger.error("Unable to perform query, because of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    @Override
+    public final List<String> getOrphanIds(final LocalDateTime timestamp, final String id, final Integer limit) {
+        JdbcQuery query = new JdbcQuery("SELECT d.id FROM " + getTableWithSchema() + " d")
+            .append(" WHERE d.modified > ").value(Timestamp.valueOf(timestamp));
+        if (id != null) {
+            query.append(" AND d.id > ").value(id);
+        }
+        query.append(" AND NOT EXISTS (SELECT 1 FROM " + schema + "." + TENDER_TABLE_NAME + " t WHERE t.id = d.id)")
+            .append(" ORDER BY d.id ASC LIMIT ").value(limit);
+
+        try (PreparedStatement statement = query.prepare(getConnection()); ResultSet rs = statement.executeQuery()) {
+            List<String> ids = new ArrayList<>();
+            while (rs.next()) {
+                ids.add(rs.getString("id"));
+            }
+
+            return ids;
+        } catch (SQLException e) {
+            logger.error("Unable to perform query, because of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    @Override
+    public final void removeByIds(final Collection<String> tenderIds) {
+        try (PreparedStatement statement = new JdbcQuery("DELETE FROM " + getTableWithSchema())
+                .append(" WHERE id = ANY(").array(tenderIds).append(")")
+                .prepare(getConnection())) {
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Unable to perform query, because of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    @Override
+    public final void streamModifiedAfter(final LocalDateTime timestamp, final String modifiedBy, final Integer page,
+                                          final Integer pageSize, final Consumer<String> consumer) {
+        long offset = PageUtils.getOffset(page, pageSize);
+        stream(modifiedAfterQuery("document", timestamp, modifiedBy, offset, pageSize), consumer);
+    }
+
+    @Override
+    public final void streamByCountry(final String countryCode, final Integer page, final Integer pageSize,
+                                      final Consumer<String> consumer) {
+        long offset = PageUtils.getOffset(page, pageSize);
+        stream(byCountryQuery("document", countryCode, offset, pageSize), consumer);
+    }
+
+    @Override
+    public final PageVersion getModifiedAfterVersion(final LocalDateTime timestamp, final String modifiedBy,
+                                                     final Integer page, final Integer pageSize) {
+        long offset = PageUtils.getOffset(page, pageSize);
+        return getVersion(modifiedAfterQuery(VERSION_COLUMNS, timestamp, modifiedBy, offset, pageSize + 1),
+            offset + pageSize);
+    }
+
+    @Override
+    public final PageVersion getByCountryVersion(final String countryCode, final Integer page,
+                                                 final Integer pageSize) {
+        long offset = PageUtils.getOffset(page, pageSize);
+        return getVersion(byCountryQuery(VERSION_COLUMNS, countryCode, offset, pageSize + 1),
+            offset + pageSize);
+    }
+
+    /**
+     * Returns version of the page selected by the query. The version is derived from the ids and the timestamps of the
+     * last rebuilds of the documents, only these columns are read. The query selects one row more than the page, the
+     * row only tells that there is a next page.
+     *
+     * @param page
+     *         query selecting {@link #VERSION_COLUMNS} of the page and the first row of the next page
+     * @param last
+     *         row number of the last row of the page
+     *
+     * @return version of the page
+     */
+    private PageVersion getVersion(final JdbcQuery page, final long last) {
+        JdbcQuery query = new JdbcQuery("SELECT max(updated) FILTER (WHERE n <= ").value(last).append(") AS updated,"
+            + " md5(coalesce(string_agg(id || '@' || updated, ',' ORDER BY id) FILTER (WHERE n <= ").value(last)
+            .append("), '')) AS tag, bool_or(n > ").value(last).append(") AS hasmore FROM (")
+            .append(page).append(") page");
+
+        try (PreparedStatement statement = query.prepare(getConnection()); ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            Timestamp updated = rs.getTimestamp("updated");
+            return new PageVersion()
+                .setLastModified(updated == null ? null : updated.toLocalDateTime())
+                .setTag(rs.getString("tag"))
+                .setHasMore(rs.getBoolean("hasmore"));
+        } catch (SQLException e) {
+            logger.error("Unable to perform query, because of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    /**
+     * @param columns
+     *         selected columns
+     * @param timestamp
+     *         documents of tenders modified after this timestamp will be returned
+     * @param modifiedBy
+     *         "author" of the change or null for any author
+     * @param offset
+     *         number of skipped documents
+     * @param limit
+     *         maximum number of documents
+     *
+     * @return query of the page of documents of tenders modified after timestamp
+     */
+    private JdbcQuery modifiedAfterQuery(final String columns, final LocalDateTime timestamp, final String modifiedBy,
+                                         final long offset, final Integer limit) {
+        JdbcQuery query = new JdbcQuery("SELECT " + columns + " FROM " + getTableWithSchema())
+            .append(" WHERE modified > ").value(Timestamp.valueOf(timestamp));
+        if (modifiedBy != null) {
+            query.append(" AND modifiedby = ").value(modifiedBy);
+        }
+
+        return query.append(" ORDER BY modified ASC LIMIT ").value(limit).append(" OFFSET ").value(offset);
+    }
+
+    /**
+     * @param columns
+     *         selected columns
+     * @param countryCode
+     *         country code
+     * @param offset
+     *         number of skipped documents
+     * @param limit
+     *         maximum number of documents
+     *
+     * @return query of the page of documents of tenders for the country
+     */
+    private JdbcQuery byCountryQuery(final String columns, final String countryCode, final long offset,
+                                     final Integer limit) {
+        return new JdbcQuery("SELECT " + columns + " FROM " + getTableWithSchema())
+            .append(" WHERE country = ").value(countryCode)
+            .append(" ORDER BY modified ASC LIMIT ").value(limit).append(" OFFSET ").value(offset);
+    }
+
+    /**
+     * Executes the query and hands over the documents to the consumer one by one, as they are read.
+     *
+     * @param query
+     *         query selecting the document column
+     * @param consumer
+     *         consumer of the documents
+     */
+    private void stream(final JdbcQuery query, final Consumer<String> consumer) {
+        try (PreparedStatement statement = query.prepare(getConnection())) {
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getString("document"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Unable to perform query, because of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    /**
+     * @return table name with schema
+     */
+    private String getTableWithSchema() {
+        return schema + "." + TABLE_NAME;
+    }
+}
@@ -12,6 +12,7 @@ import java.util.Map;
 import eu.dl.core.UnrecoverableException;
 import eu.dl.dataaccess.dao.MatchedBodyDAO;
 import eu.dl.dataaccess.dao.jdbc.GenericJdbcDAO;
+import eu.dl.dataaccess.dao.jdbc.JdbcQuery;
 import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
 import eu.dl.dataaccess.dto.matched.MatchedBody;
 import eu.dl.dataaccess.dto.matched.MatchedGroupInfo;
@@ -24,6 +25,11 @@ public class JdbcMatchedBodyDAO extends GenericJdbcDAO<MatchedBody> implements M
 
     private static final String TABLE_NAME = "matched_body";
 
+    /**
+     * Aggregates of the groups maintained by triggers of the matched body table (see 006_matched_body_group.sql).
+     */
+    private static final String GROUP_TABLE_NAME = "matched_body_group";
+
     private static final int SELECT_DURATION_THRESHOLD = 50;
 
     @Override
@@ -36,30 +42,34 @@ public class JdbcMatchedBodyDAO extends GenericJdbcDAO<MatchedBody> implements M
         return schema + "." + TABLE_NAME;
     }
 
+    @Override
+    protected final boolean hasHashColumn() {
+        return true;
+    }
+
+    @Override
+    protected final boolean hasGroupIdColumn() {
+        return true;
+    }
+
     @Override
     public final List<MatchedBody> getExactMatchBodiesPool(final String standardizedName,
             final String standardizedAddress, final List<BodyIdentifier> bodyIds) {
 
-        StringBuilder restriction = exactMatchRestrictionBuilder(standardizedName, standardizedAddress, bodyIds);
-        String additionalMatchersRestriction = prepareAdditionalWorkersCondition();
-
-        if (restriction.length() == 0) {
+        List<Object> bodyIdValues = bodyIdValues(bodyIds);
+        if (standardizedName == null && standardizedAddress == null && bodyIdValues.isEmpty()) {
             return Collections.emptyList();
         }
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE ((modifiedBy = ? AND modifiedByVersion = ?) " +
-                            additionalMatchersRestriction + ") AND (" + restriction
-                            .toString() + ")");
-
-            statement.setString(1, workerName);
-            statement.setString(2, workerVersion);
+            PreparedStatement statement = poolQuery(
+                    exactMatchRestriction(standardizedName, standardizedAddress, bodyIdValues))
+                    .prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
 
             List<MatchedBody> result = new ArrayList<MatchedBody>();
             while (rs.next()) {
-                result.add(createFromResultSet(rs));
+                result.add(createPoolBodyFromResultSet(rs));
             }
 
             rs.close();
@@ -76,23 +86,14 @@ public class JdbcMatchedBodyDAO extends GenericJdbcDAO<MatchedBody> implements M
     public final List<MatchedBody> getApproximateMatchBodiesPool(final String standardizedName,
             final String standardizedAddress, final List<BodyIdentifier> bodyIds, final String digest) {
 
-        StringBuilder restriction = approximateMatchRestrictionBuilder(standardizedName, standardizedAddress, bodyIds,
-                digest);
-        String additionalMatchersRestriction = prepareAdditionalWorkersCondition();
-
-        if (restriction.length() == 0) {
+        List<Object> bodyIdValues = bodyIdValues(bodyIds);
+        if (standardizedName == null && standardizedAddress == null && bodyIdValues.isEmpty() && digest == null) {
             return Collections.emptyList();
         }
 
         try {
-
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE ((modifiedBy = ? AND modifiedByVersion = ?) " +
-                            additionalMatchersRestriction + ") AND (" + restriction
-                            .toString() + ")");
-
-            statement.setString(1, workerName);
-            statement.setString(2, workerVersion);
+            PreparedStatement statement = poolQuery(exactMatchRestriction(standardizedName, standardizedAddress,
+                    bodyIdValues).append(" OR digest = ").value(digest)).prepare(getConnection());
 
             long selectStartTime = System.currentTimeMillis();
             ResultSet rs = statement.executeQuery();
@@ -104,7 +105,7 @@ public class JdbcMatchedBodyDAO extends GenericJdbcDAO<MatchedBody> implements M
 
             List<MatchedBody> result = new ArrayList<MatchedBody>();
             while (rs.next()) {
-                result.add(createFromResultSet(rs));
+                result.add(createPoolBodyFromResultSet(rs));
             }
 
             rs.close();
@@ -117,33 +118,61 @@ public class JdbcMatchedBodyDAO extends GenericJdbcDAO<MatchedBody> implements M
         }
     }
 
+    /**
+     * Prepares query which selects bodies of the pool together with the information about their groups, the same as
+     * {@link #getGroupsInfo(List)} returns. Thanks to it the ties of the best matches can be resolved without
+     * another query. The group aggregates are maintained by triggers, so the query doesn't count the group members.
+     *
+     * @param restriction
+     *         restriction of the pool bodies
+     *
+     * @return pool query
+     */
+    private JdbcQuery poolQuery(final JdbcQuery restriction) {
+        return new JdbcQuery("WITH pool AS (SELECT * FROM " + getTableWithSchema() + " WHERE ")
+            .workers(workerName, workerVersion, additionalWorkers)
+            .append(" AND (").append(restriction).append("))")
+            .append(" SELECT pool.*, g.etalons > 0 AS group_has_etalon, g.size AS group_size FROM pool")
+            .append(" LEFT JOIN " + schema + "." + GROUP_TABLE_NAME + " g ON g.groupid = pool.groupid")
+            .append(" AND g.modifiedby = ").value(workerName).append(" AND g.modifiedbyversion = ").value(workerVersion)
+            .append(" AND g.size > 0");
+    }
+
+    /**
+     * Creates pool body from the row of the pool query, including information about its group.
+     *
+     * @param rs
+     *         result set
+     *
+     * @return pool body
+     * @throws SQLException
+     *         when retrieving of values fail
+     */
+    private MatchedBody createPoolBodyFromResultSet(final ResultSet rs) throws SQLException {
+        MatchedBody body = createFromResultSet(rs);
+
+        int size = rs.getInt("group_size");
+        if (!rs.wasNull()) {
+            body.setGroupInfo(new MatchedGroupInfo()
+                .setGroupId(body.getGroupId())
+                .setSize(size)
+                .setHasEtalon(rs.getBoolean("group_has_etalon")));
+        }
+
+        return body;
+    }
+
     @Override
     public final MatchedBody getByEtalonId(final String id) {
         if (id == null) {
             return null;
         }
 
-        StringBuilder bodyIdsRestriction = new StringBuilder();
-        bodyIdsRestriction.append("data @> ")
-                .append("'{\"bodyIds\":[{")
-                .append("\"id\":\"")
-                .append(sanitizeForJsonString(id))
-                .append("\",")
-                .append("\"scope\":\"")
-                .append(BodyIdentifier.Scope.ETALON_ID)
-                .append("\"")
-                .append("}]}'");
-
-        String additionalMatchersRestriction = prepareAdditionalWorkersCondition();
-
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE ((modifiedBy = ? AND modifiedByVersion = ?) " +
-                            additionalMatchersRestriction + ") AND " + bodyIdsRestriction
-                            .toString());
-
-            statement.setString(1, workerName);
-            statement.setString(2, workerVersion);
+            PreparedStatement statement = new JdbcQuery("SELECT * FROM " + getTableWithSchema() + " WHERE ")
+                    .workers(workerName, workerVersion, additionalWorkers)
+                    .append(" AND data @> ").json(bodyIdValue(id, BodyIdentifier.Scope.ETALON_ID))
+                    .prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
 
@@ -166,7 +195,7 @@ public class JdbcMatchedBodyDAO extends GenericJdbcDAO<MatchedBody> implements M
     @Override
     public final List<MatchedBody> getForResend(final String name, final String version) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
+            PreparedStatement statement = getConnection().prepareStatement(
                     "SELECT DISTINCT data->>'groupId' AS groupId FROM " + getTableWithSchema() + " WHERE modifiedby "
                             + "=" + " ? AND modifiedbyversion = ?");
 
@@ -194,86 +223,63 @@ public class JdbcMatchedBodyDAO extends GenericJdbcDAO<MatchedBody> implements M
 
     /**
      * Returns restriction for matched body database query that returns etalons
-     * for exact matching. Null values of input parameters aren't taken into
-     * account.
+     * for exact matching. The restriction has the same text for any values,
+     * null values don't match anything.
      *
      * @param standardizedName
      *         standardized name
      * @param standardizedAddress
      *         standardized address
+     * @param bodyIdValues
+     *         containment values of the body identifiers, see {@link #bodyIdValues(List)}
+     *
+     * @return restriction
+     */
+    private static JdbcQuery exactMatchRestriction(final String standardizedName, final String standardizedAddress,
+            final List<Object> bodyIdValues) {
+        return new JdbcQuery("md5(data ->>'standardizedName') = md5(").value(standardizedName).append(")")
+            .append(" OR md5(data ->>'standardizedAddress') = md5(").value(standardizedAddress).append(")")
+            .append(" OR data @> ANY(").jsonArray(bodyIdValues).append(")");
+    }
+
+    /**
+     * Returns jsonb containment values which match bodies with the given body identifiers. Identifiers without id
+     * or scope are omitted.
+     *
      * @param bodyIds
-     *         list of body identifiers
+     *         list of body identifiers or null
      *
-     * @return restriction as StringBuilder instance
+     * @return list of containment values
      */
-    private StringBuilder exactMatchRestrictionBuilder(final String standardizedName, final String standardizedAddress,
-            final List<BodyIdentifier> bodyIds) {
-
-        StringBuilder restriction = new StringBuilder();
-        if (standardizedName != null) {
-            restriction.append(" md5(data ->>'standardizedName') = md5('")
-            		.append(sanitizeForJsonString(standardizedName))
-                .append("')");
-        }
-        if (standardizedAddress != null) {
-            restriction.append(restriction.length() > 0 ? " OR " : "");
-            restriction.append(" md5(data ->>'standardizedAddress') = md5('")
-            			.append(sanitizeForJsonString(standardizedAddress))
-                    .append("')");
-        }
+    private static List<Object> bodyIdValues(final List<BodyIdentifier> bodyIds) {
+        List<Object> values = new ArrayList<>();
         if (bodyIds != null) {
-            StringBuilder bodyIdsRestriction = new StringBuilder();
-            bodyIds.stream().forEach((id) -> {
+            for (BodyIdentifier id : bodyIds) {
                 if (id.getId() != null && id.getScope() != null) {
-                    bodyIdsRestriction.append(bodyIdsRestriction.length() > 0 ? " OR " : "")
-                            .append("data @> '{\"bodyIds\": ")
-                            .append("[{")
-                            .append("\"id\":\"")
-                            .append(sanitizeForJsonString(id.getId()))
-                            .append("\",")
-                            .append("\"scope\":\"")
-                            .append(id.getScope())
-                            .append("\"")
-                            .append("}]}'");
+                    values.add(bodyIdValue(id.getId(), id.getScope()));
                 }
-            });
-
-            if (bodyIdsRestriction.length() > 0) {
-                restriction.append(restriction.length() > 0 ? " OR " : "").append(bodyIdsRestriction);
             }
         }
 
-        return restriction;
+        return values;
     }
 
     /**
-     * Returns restriction for matched body database query that returns etalons
-     * for approximate matching. Null values of input parameters aren't taken
-     * into account.
+     * Returns jsonb containment value which matches bodies with the given body identifier.
      *
-     * @param standardizedName
-     *         standardized name
-     * @param standardizedAddress
-     *         standardized address
-     * @param bodyIds
-     *         list of body identifiers
-     * @param digest
-     *         digest
+     * @param id
+     *         body identifier value
+     * @param scope
+     *         body identifier scope
      *
-     * @return restriction as StringBuilder instance
+     * @return containment value
      */
-    private StringBuilder approximateMatchRestrictionBuilder(final String standardizedName,
-            final String standardizedAddress, final List<BodyIdentifier> bodyIds, final String digest) {
-
-        StringBuilder restriction = exactMatchRestrictionBuilder(standardizedName, standardizedAddress, bodyIds);
+    private static Object bodyIdValue(final String id, final BodyIdentifier.Scope scope) {
+        Map<String, String> bodyId = new HashMap<>();
+        bodyId.put("id", id);
+        bodyId.put("scope", scope.toString());
 
-        if (digest != null) {
-            restriction.append(restriction.length() > 0 ? " OR " : "");
-            restriction.append(" data ->>'digest' = '").append(sanitizeForJsonString(digest))
-                    .append("'");
-        }
-
-        return restriction;
+        return Collections.singletonMap("bodyIds", Collections.singletonList(bodyId));
     }
 
     @Override
@@ -283,21 +289,13 @@ public class JdbcMatchedBodyDAO extends GenericJdbcDAO<MatchedBody> implements M
         }
        
         try {
-            final StringBuilder gidStm = new StringBuilder();
-            groups.forEach((gid) -> {
-                if (gidStm.length() > 0) {
-                    gidStm.append(" or ");
-                }
-                gidStm.append("data @> '{\"groupId\":\"").append(sanitizeForJsonString(gid)).append("\"}'");
-            });
-
-            PreparedStatement statement = connection.prepareStatement("select data#>>'{groupId}' as gid,"
-                + "SUM((data @> '{\"bodyIds\": [{\"type\": \"ETALON_ID\"}]}')::int) > 0 as hasEtalon,"
-                + "COUNT(*) as size"
-                + " FROM " + getTableWithSchema()
-                + " WHERE modifiedby = '" + workerName + "' AND modifiedbyversion = '" + workerVersion + "'"
-                + " AND (" + gidStm.toString() + ")"
-                + " GROUP BY gid ORDER BY size DESC");
+            PreparedStatement statement = new JdbcQuery("SELECT groupid AS gid, etalons > 0 AS hasEtalon, size")
+                .append(" FROM " + schema + "." + GROUP_TABLE_NAME)
+                .append(" WHERE modifiedby = ").value(workerName)
+                .append(" AND modifiedbyversion = ").value(workerVersion)
+                .append(" AND groupid = ANY(").array(groups).append(") AND size > 0")
+                .append(" ORDER BY size DESC, gid")
+                .prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
             List<MatchedGroupInfo> result = new ArrayList<>();
@@ -323,25 +321,15 @@ public class JdbcMatchedBodyDAO extends GenericJdbcDAO<MatchedBody> implements M
 	public final List<String> getEtalonGroupIds() {
 		ArrayList<String> result = new ArrayList<String>();
 		
-		StringBuilder bodyIdsRestriction = new StringBuilder();
-		bodyIdsRestriction.append("data @> ")
-                .append("'{\"bodyIds\":[{")
-                .append("\"scope\":\"")
-                .append(BodyIdentifier.Scope.ETALON_ID)
-                .append("\"")
-                .append("}]}'");
-
-        String additionalMatchersRestriction = prepareAdditionalWorkersCondition();
-
-        try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT data->'groupId' as groupId FROM " + getTableWithSchema() 
-                    			+ " WHERE ((modifiedBy = ? AND modifiedByVersion = ?) " 
-                    			+ additionalMatchersRestriction + ") AND " + bodyIdsRestriction
-                            .toString());
-
-            statement.setString(1, workerName);
-            statement.setString(2, workerVersion);
+		try {
+            PreparedStatement statement = getConnection().prepareStatement(
+                    "SELECT data->'groupId' as groupId FROM " + getTableWithSchema() + " WHERE "
+                            + prepareWorkersCondition() + " AND data @> ?::jsonb");
+
+            int index = setWorkersParameters(statement, 1);
+            statement.setString(index, toJsonParameter(Collections.singletonMap("bodyIds",
+                    Collections.singletonList(Collections.singletonMap("scope",
+                            BodyIdentifier.Scope.ETALON_ID.toString())))));
 
             ResultSet rs = statement.executeQuery();
 
@@ -11,6 +11,7 @@ import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * JDBC implemenation of MatchedTenderDAO.
@@ -31,6 +32,16 @@ public class JdbcMatchedTenderDAO extends GenericJdbcDAO<MatchedTender> implemen
         return schema + "." + TABLE_NAME;
     }
 
+    @Override
+    protected final boolean hasHashColumn() {
+        return true;
+    }
+
+    @Override
+    protected final boolean hasGroupIdColumn() {
+        return true;
+    }
+
     @Override
     public final List<MatchedTender> getByPublicationSourceIds(final List<String> publicationSourceIds) {
         if (publicationSourceIds == null || publicationSourceIds.isEmpty()) {
@@ -54,31 +65,20 @@ public class JdbcMatchedTenderDAO extends GenericJdbcDAO<MatchedTender> implemen
             inputIds = inputIds.subList(queriesIds.get(queriesIds.size() - 1).size(), inputIds.size());
         }
 
-        final String additionalMatchersRestriction = prepareAdditionalWorkersCondition();
+        final String workersRestriction = prepareWorkersCondition();
 
         for (List<String> queryIds : queriesIds) {
             assert queryIds.size() <= maxIdCountInOneQuery;
-            StringBuilder idRestriction = new StringBuilder();
-            for (String publicationSourceId : queryIds) {
-                if (idRestriction.length() > 0) {
-                    idRestriction.append(" or ");
-                }
-                idRestriction.append("data @> ")
-                        .append("'{\"publications\":[{")
-                        .append("\"sourceId\":\"")
-                        .append(publicationSourceId)
-                        .append("\"")
-                        .append("}]}'");
-            }
-
             try {
-                PreparedStatement statement = connection.prepareStatement(
-                        "SELECT * FROM " + getTableWithSchema() + " WHERE ((modifiedBy = ? AND modifiedByVersion = ?)"
-                                + "" + " " + additionalMatchersRestriction + ") AND (" + idRestriction
-                                .toString() + ")");
-
-                statement.setString(1, workerName);
-                statement.setString(2, workerVersion);
+                PreparedStatement statement = getConnection().prepareStatement(
+                        "SELECT * FROM " + getTableWithSchema() + " WHERE " + workersRestriction + " AND ("
+                                + String.join(" OR ", Collections.nCopies(queryIds.size(), "data @> ?::jsonb")) + ")");
+
+                int index = setWorkersParameters(statement, 1);
+                for (String publicationSourceId : queryIds) {
+                    statement.setString(index++,
+                            toJsonParameter(publicationRestriction("sourceId", publicationSourceId)));
+                }
 
                 disableSeqScan();
                 disableIndexScan();
@@ -137,31 +137,20 @@ public class JdbcMatchedTenderDAO extends GenericJdbcDAO<MatchedTender> implemen
             inputUrls = inputUrls.subList(queriesUrls.get(queriesUrls.size() - 1).size(), inputUrls.size());
         }
 
-        final String additionalMatchersRestriction = prepareAdditionalWorkersCondition();
+        final String workersRestriction = prepareWorkersCondition();
 
         for (List<URL> queryUrls : queriesUrls) {
             assert queryUrls.size() <= maxUrlCountInOneQuery;
-            StringBuilder urlRestriction = new StringBuilder();
-            for (URL url : queryUrls) {
-                if (urlRestriction.length() > 0) {
-                    urlRestriction.append(" or ");
-                }
-                urlRestriction.append("data @> ")
-                        .append("'{\"publications\":[{")
-                        .append("\"humanReadableUrl\":\"")
-                        .append(url)
-                        .append("\"")
-                        .append("}]}'");
-            }
-
             try {
-                PreparedStatement statement = connection.prepareStatement(
-                        "SELECT * FROM " + getTableWithSchema() + " WHERE ((modifiedBy = ? AND modifiedByVersion = ?)"
-                                + "" + " " + additionalMatchersRestriction + ") AND (" + urlRestriction
-                                .toString() + ")");
-
-                statement.setString(1, workerName);
-                statement.setString(2, workerVersion);
+                PreparedStatement statement = getConnection().prepareStatement(
+                        "SELECT * FROM " + getTableWithSchema() + " WHERE " + workersRestriction + " AND ("
+                                + String.join(" OR ", Collections.nCopies(queryUrls.size(), "data @> ?::jsonb")) + ")");
+
+                int index = setWorkersParameters(statement, 1);
+                for (URL url : queryUrls) {
+                    statement.setString(index++,
+                            toJsonParameter(publicationRestriction("humanReadableUrl", url.toString())));
+                }
 
                 disableSeqScan();
                 disableIndexScan();
@@ -213,31 +202,20 @@ public class JdbcMatchedTenderDAO extends GenericJdbcDAO<MatchedTender> implemen
             inputUrls = inputUrls.subList(queriesUrls.get(queriesUrls.size() - 1).size(), inputUrls.size());
         }
 
-        final String additionalMatchersRestriction = prepareAdditionalWorkersCondition();
+        final String workersRestriction = prepareWorkersCondition();
 
         for (List<URL> queryUrls : queriesUrls) {
             assert queryUrls.size() <= maxUrlCountInOneQuery;
-            StringBuilder urlRestriction = new StringBuilder();
-            for (URL url : queryUrls) {
-                if (urlRestriction.length() > 0) {
-                    urlRestriction.append(" or ");
-                }
-                urlRestriction.append("data @> ")
-                        .append("'{\"publications\":[{")
-                        .append("\"machineReadableUrl\":\"")
-                        .append(url)
-                        .append("\"")
-                        .append("}]}'");
-            }
-
             try {
-                PreparedStatement statement = connection.prepareStatement(
-                        "SELECT * FROM " + getTableWithSchema() + " WHERE ((modifiedBy = ? AND modifiedByVersion = ?)"
-                                + "" + " " + additionalMatchersRestriction + ") AND (" + urlRestriction
-                                .toString() + ")");
-
-                statement.setString(1, workerName);
-                statement.setString(2, workerVersion);
+                PreparedStatement statement = getConnection().prepareStatement(
+                        "SELECT * FROM " + getTableWithSchema() + " WHERE " + workersRestriction + " AND ("
+                                + String.join(" OR ", Collections.nCopies(queryUrls.size(), "data @> ?::jsonb")) + ")");
+
+                int index = setWorkersParameters(statement, 1);
+                for (URL url : queryUrls) {
+                    statement.setString(index++,
+                            toJsonParameter(publicationRestriction("machineReadableUrl", url.toString())));
+                }
 
                 disableSeqScan();
                 disableIndexScan();
@@ -273,24 +251,16 @@ public class JdbcMatchedTenderDAO extends GenericJdbcDAO<MatchedTender> implemen
 
         List<MatchedTender> result = new ArrayList<>();
 
-        final String additionalMatchersRestriction = prepareAdditionalWorkersCondition();
-
-        StringBuilder urlRestriction = new StringBuilder();
-        urlRestriction
-                .append("data @> ")
-                .append("'{\"documentsLocation\":{")
-                .append("\"url\":\"")
-                .append(documentsUrl.toString())
-                .append("\"")
-                .append("}}'");
+        final String workersRestriction = prepareWorkersCondition();
 
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE ((modifiedBy = ? AND modifiedByVersion = ?) "
-                            + additionalMatchersRestriction + ") AND (" + urlRestriction.toString() + ")");
+            PreparedStatement statement = getConnection().prepareStatement(
+                    "SELECT * FROM " + getTableWithSchema() + " WHERE " + workersRestriction
+                            + " AND data @> ?::jsonb");
 
-            statement.setString(1, workerName);
-            statement.setString(2, workerVersion);
+            int index = setWorkersParameters(statement, 1);
+            statement.setString(index, toJsonParameter(Collections.singletonMap("documentsLocation",
+                    Collections.singletonMap("url", documentsUrl.toString()))));
 
             ResultSet rs = statement.executeQuery();
 
@@ -314,7 +284,7 @@ public class JdbcMatchedTenderDAO extends GenericJdbcDAO<MatchedTender> implemen
     @Override
     public final List<MatchedTender> getForResend(final String name, final String version) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
+            PreparedStatement statement = getConnection().prepareStatement(
                     "SELECT DISTINCT data->>'groupId' AS groupId FROM " + getTableWithSchema() + " WHERE modifiedby "
                             + "=" + " ? AND modifiedbyversion = ?");
 
@@ -339,4 +309,19 @@ public class JdbcMatchedTenderDAO extends GenericJdbcDAO<MatchedTender> implemen
             throw new UnrecoverableException("Unable to perform query.", e);
         }
     }
+
+    /**
+     * Returns jsonb containment value which matches tenders with publication of the given property value.
+     *
+     * @param property
+     *         publication property
+     * @param value
+     *         property value
+     *
+     * @return containment value
+     */
+    private static Map<String, Object> publicationRestriction(final String property, final String value) {
+        return Collections.singletonMap("publications",
+                Collections.singletonList(Collections.singletonMap(property, value)));
+    }
 }
@@ -33,6 +33,12 @@ public class MongoCleanTenderDAO extends GenericMongoDAO<CleanTender> implements
         return null;
     }
 
+    @Override
+    public final List<CleanTender> getByCountry(final String countryCode, final Integer page,
+        final Integer pageSize) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
     @Override
     public final List<String> getIncludedPublicationSourceIds(final LocalDate date) {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -4,15 +4,18 @@ import eu.digiwhist.dataaccess.dao.DAOFactory;
 import eu.dl.dataaccess.dao.MasterBodyDAO;
 import eu.dl.dataaccess.dao.MasterTenderDAO;
 import eu.dl.dataaccess.dao.mongo.GenericMongoDAO;
+import eu.dl.dataaccess.dto.PageVersion;
 import eu.dl.dataaccess.dto.master.MasterBid;
 import eu.dl.dataaccess.dto.master.MasterBody;
 import eu.dl.dataaccess.dto.master.MasterTender;
 import eu.dl.dataaccess.dto.master.MasterTenderLot;
 import org.mongojack.DBQuery;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Mastered tender DAO implementation for MongoDB.
@@ -107,4 +110,40 @@ class MongoMasterTenderDAO extends GenericMongoDAO<MasterTender> implements Mast
     public final List<String> getIdsBySourceAndVersion(final String name, final String version) {
         throw new UnsupportedOperationException("Not supported yet.");
     }
+
+    @Override
+    public final void streamModifiedAfter(final LocalDateTime timestamp, final String modifiedBy, final Integer page,
+        final Integer pageSize, final Consumer<MasterTender> consumer) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public final void streamByCountry(final String countryCode, final Integer page, final Integer pageSize,
+        final Consumer<MasterTender> consumer) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public final void streamAfter(final LocalDateTime timestamp, final String id, final Integer limit,
+        final Consumer<MasterTender> consumer) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public final void streamByBodyGroupId(final String groupId, final String id, final Integer limit,
+        final Consumer<MasterTender> consumer) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public final PageVersion getModifiedAfterVersion(final LocalDateTime timestamp, final String modifiedBy,
+        final Integer page, final Integer pageSize) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public final PageVersion getByCountryVersion(final String countryCode, final Integer page,
+        final Integer pageSize) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
 }
@@ -0,0 +1,210 @@
+package eu.digiwhist.dataaccess.utils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import eu.dl.core.UnrecoverableException;
+import eu.dl.core.config.Config;
+import eu.dl.dataaccess.dao.MasterTenderDocumentDAO;
+import eu.dl.dataaccess.dto.master.MasterBid;
+import eu.dl.dataaccess.dto.master.MasterTender;
+import eu.dl.dataaccess.dto.master.MasterTenderLot;
+import eu.dl.dataaccess.utils.JsonUtils;
+
+/**
+ * Builds the public API documents of master tenders and keeps the stored documents up to date. The document is the
+ * master tender with the secret values hidden, populated with master bodies and indicators, serialized by the public
+ * API writer. The stored documents are served by the API instead of the live computation when
+ * {@link #ENABLED_PARAM} is "true".
+ */
+public class MasterTenderDocumentUtils {
+
+    /**
+     * Configuration parameter which enables the stored documents.
+     */
+    public static final String ENABLED_PARAM = "masterTenderDocument.enabled";
+
+    private final PopulateUtils populateUtils;
+
+    private final MasterTenderDocumentDAO documentDao;
+
+    /**
+     * Initialisation.
+     *
+     * @param populateUtils
+     *            populate utils with both master body and indicator DAO
+     * @param documentDao
+     *            document dao
+     */
+    public MasterTenderDocumentUtils(final PopulateUtils populateUtils, final MasterTenderDocumentDAO documentDao) {
+        this.populateUtils = populateUtils;
+        this.documentDao = documentDao;
+    }
+
+    /**
+     * @return whether the stored documents are enabled
+     */
+    public static boolean isEnabled() {
+        return "true".equals(Config.getInstance().getParam(ENABLED_PARAM));
+    }
+
+    /**
+     * This methods hides specific values from public API.
+     *
+     * @param tenders
+     *            tenders to be processed
+     */
+    public static void hideSecretValues(final List<MasterTender> tenders) {
+        for (MasterTender tender : tenders) {
+            if (tender.getLots() != null) {
+                for (MasterTenderLot lot : tender.getLots()) {
+                    lot.setRobustEstimatedPrice(null);
+                    if (lot.getBids() != null) {
+                        for (MasterBid bid : lot.getBids()) {
+                            bid.setRobustPrice(null);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Prepares the tenders for the public API. The tenders are modified in place.
+     *
+     * @param tenders
+     *            stored master tenders
+     * @return the same tenders ready to be serialized
+     */
+    public final List<MasterTender> prepare(final List<MasterTender> tenders) {
+        hideSecretValues(tenders);
+        populateUtils.populate(tenders, true, true);
+        for (MasterTender tender : tenders) {
+            tender.setGroupId(null);
+        }
+
+        return tenders;
+    }
+
+    /**
+     * @param tender
+     *            tender prepared by {@link #prepare(List)}
+     * @return JSON document of the tender
+     */
+    public static String toDocument(final MasterTender tender) {
+        try {
+            return JsonUtils.getPublicApiWriter().writeValueAsString(tender);
+        } catch (JsonProcessingException e) {
+            throw new UnrecoverableException("Unable to serialize master tender document", e);
+        }
+    }
+
+    /**
+     * Builds and stores the document of the stored master tender. Has to be called after each change of the tender
+     * or its indicators, in the same transaction. The document is built from a copy, the tender isn't modified.
+     *
+     * @param tender
+     *            stored master tender
+     */
+    public final void update(final MasterTender tender) {
+        update(Collections.singletonList(tender));
+    }
+
+    /**
+     * Builds and stores the documents of the stored master tenders, the bodies and indicators of all the tenders are
+     * read at once. Has to be called after each change of the tenders, their indicators or the master bodies they
+     * reference, in the same transaction. The documents are built from copies, the tenders aren't modified.
+     *
+     * @param tenders
+     *            stored master tenders
+     */
+    public final void update(final List<MasterTender> tenders) {
+        if (tenders.isEmpty()) {
+            return;
+        }
+
+        List<MasterTender> copies = new ArrayList<>(tenders.size());
+        for (MasterTender tender : tenders) {
+            copies.add(copy(tender));
+        }
+
+        for (MasterTender tender : prepare(copies)) {
+            documentDao.save(tender.getId(), toDocument(tender));
+        }
+    }
+
+    /**
+     * Compares the stored documents with the live computation. The tenders are modified in place.
+     *
+     * @param tenders
+     *            stored master tenders
+     * @param repair
+     *            whether the missing and outdated documents should be replaced by the live ones
+     * @return ids of the tenders whose document is missing or differs from the live one
+     */
+    public final List<String> check(final List<MasterTender> tenders, final boolean repair) {
+        List<String> inconsistent = new ArrayList<>();
+        if (tenders.isEmpty()) {
+            return inconsistent;
+        }
+
+        Map<String, String> stored =
+            documentDao.getByIds(tenders.stream().map(MasterTender::getId).collect(Collectors.toList()));
+        for (MasterTender tender : prepare(tenders)) {
+            String live = toDocument(tender);
+            if (!live.equals(stored.get(tender.getId()))) {
+                inconsistent.add(tender.getId());
+                if (repair) {
+                    documentDao.save(tender.getId(), live);
+                }
+            }
+        }
+
+        return inconsistent;
+    }
+
+    /**
+     * Finds the stored documents whose master tender doesn't exist anymore. The document isn't removed together
+     * with its tender, the API would serve it until it is removed here.
+     *
+     * @param timestamp
+     *            only the documents of tenders modified after this timestamp are checked
+     * @param id
+     *            last id of the previous batch, null for the first batch
+     * @param limit
+     *            maximum number of documents
+     * @param repair
+     *            whether the orphan documents should be removed
+     * @return ids of the orphan documents in the order of id
+     */
+    public final List<String> checkOrphans(final LocalDateTime timestamp, final String id, final int limit,
+                                           final boolean repair) {
+        List<String> orphans = documentDao.getOrphanIds(timestamp, id, limit);
+        if (repair && !orphans.isEmpty()) {
+            documentDao.removeByIds(orphans);
+        }
+
+        return orphans;
+    }
+
+    /**
+     * @param tender
+     *            master tender
+     * @return deep copy of the tender
+     */
+    private static MasterTender copy(final MasterTender tender) {
+        try {
+            return JsonUtils.getStorageReader(MasterTender.class)
+                .readValue(JsonUtils.getApiWriter().writeValueAsString(tender));
+        } catch (IOException e) {
+            throw new UnrecoverableException("Unable to copy master tender", e);
+        }
+    }
+}
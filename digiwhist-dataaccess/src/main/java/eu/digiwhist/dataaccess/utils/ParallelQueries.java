@@ -0,0 +1,170 @@
+package eu.digiwhist.dataaccess.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import eu.dl.core.UnrecoverableException;
+import eu.dl.dataaccess.dao.TransactionUtils;
+
+/**
+ * Runs independent read-only queries in parallel, each in a transaction with a spare connection of its own (see
+ * {@link TransactionUtils#tryBegin()}). The number of queries running at once is bounded by the number of threads
+ * shared by all the callers. The query which doesn't get a thread and a spare connection right away is run by the
+ * caller in its current transaction, so the caller never waits for a connection held by another caller.
+ */
+final class ParallelQueries {
+
+    private final TransactionUtils transactionUtils;
+
+    private final ExecutorService executor;
+
+    /**
+     * Creates the threads.
+     *
+     * @param transactionUtils
+     *            transaction utils which begin the transactions of the queries
+     * @param parallelism
+     *            maximum number of queries run by the threads at once
+     */
+    ParallelQueries(final TransactionUtils transactionUtils, final int parallelism) {
+        this.transactionUtils = transactionUtils;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "parallel-query-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the queries and waits for all of them.
+     *
+     * @param queries
+     *            queries to be run
+     * @param <T>
+     *            query result
+     * @return results in order of the queries
+     * @throws RuntimeException
+     *             the exception of the first failed query (in order of the queries)
+     */
+    <T> List<T> run(final List<Supplier<T>> queries) {
+        List<Query<T>> tasks = new ArrayList<>();
+        for (Supplier<T> query : queries) {
+            tasks.add(new Query<>(query));
+        }
+
+        // the first query is left to the caller, it's busy with it while the others are being started
+        for (Query<T> task : tasks.subList(Math.min(1, tasks.size()), tasks.size())) {
+            executor.execute(task::runInOwnTransaction);
+        }
+
+        for (Query<T> task : tasks) {
+            task.runInCallerTransaction();
+        }
+
+        List<T> results = new ArrayList<>();
+        for (Query<T> task : tasks) {
+            results.add(task.get());
+        }
+
+        return results;
+    }
+
+    /**
+     * Query which is run either by one of the threads or by the caller, whoever claims it first.
+     *
+     * @param <T>
+     *            query result
+     */
+    private final class Query<T> {
+
+        private final Supplier<T> query;
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        /**
+         * @param query
+         *            query to be run
+         */
+        Query(final Supplier<T> query) {
+            this.query = query;
+        }
+
+        /**
+         * Runs the query in its own transaction, unless it has been claimed or no spare connection is available.
+         */
+        void runInOwnTransaction() {
+            if (claimed.get() || !transactionUtils.tryBegin()) {
+                return;
+            }
+
+            if (!claimed.compareAndSet(false, true)) {
+                transactionUtils.commit();
+                return;
+            }
+
+            try {
+                T value;
+                try {
+                    value = query.get();
+                } catch (RuntimeException e) {
+                    try {
+                        transactionUtils.rollback();
+                    } catch (RuntimeException ex) {
+                        e.addSuppressed(ex);
+                    }
+                    throw e;
+                }
+
+                transactionUtils.commit();
+                result.complete(value);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Runs the query in the caller's transaction, unless it has been claimed by one of the threads.
+         */
+        void runInCallerTransaction() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                result.complete(query.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Waits for the query.
+         *
+         * @return query result
+         */
+        T get() {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UnrecoverableException("Interrupted while waiting for query.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new UnrecoverableException("Query failed.", e.getCause());
+            }
+        }
+    }
+}
@@ -3,10 +3,12 @@ package eu.digiwhist.dataaccess.utils;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import eu.dl.dataaccess.dao.IndicatorDAO;
 import eu.dl.dataaccess.dao.MasterBodyDAO;
+import eu.dl.dataaccess.dao.TransactionUtils;
 import eu.dl.dataaccess.dto.indicator.EntitySpecificIndicator;
 import eu.dl.dataaccess.dto.master.MasterBid;
 import eu.dl.dataaccess.dto.master.MasterBody;
@@ -17,13 +19,22 @@ import eu.dl.dataaccess.dto.master.MasterTenderLot;
  * This class is able to "populate" master tenders with master bodies. Its handy
  * for cases such a API endpoints etc.
  *
+ * The bodies are read in chunks of group ids. With parallelism the chunks and the indicators are read at once, see
+ * {@link ParallelQueries}; the results are merged in the same order as without it, so the output is the same.
  */
 public class PopulateUtils {
 
+    /**
+     * Number of group ids read by one query, the same as the page size of {@link MasterBodyDAO#getByGroupIds}.
+     */
+    private static final int BODY_CHUNK_SIZE = 200;
+
     private MasterBodyDAO<MasterBody> masterBodyDao;
     
     private IndicatorDAO indicatorDao;
 
+    private ParallelQueries parallelQueries;
+
     /**
      * Initialisation.
      * 
@@ -38,6 +49,66 @@ public class PopulateUtils {
         this.indicatorDao = indicatorDao;
     }
 
+    /**
+     * Initialisation of utils which run the queries in parallel. Each query runs in a transaction of its own when a
+     * spare connection is available, in the caller's transaction otherwise.
+     *
+     * @param masterBodyDAO
+     *            master body dao
+     * @param indicatorDao
+     *            indicator dao
+     * @param transactionUtils
+     *            transaction utils which begin the transactions of the queries
+     * @param parallelism
+     *            maximum number of queries run in parallel by all the callers
+     */
+    public PopulateUtils(final MasterBodyDAO<MasterBody> masterBodyDAO, final IndicatorDAO indicatorDao,
+        final TransactionUtils transactionUtils, final int parallelism) {
+        this(masterBodyDAO, indicatorDao);
+        this.parallelQueries = new ParallelQueries(transactionUtils, parallelism);
+    }
+
+    /**
+     * Populates the master tenders with master bodies and/or indicators. The bodies and the indicators are read at
+     * once when the utils run queries in parallel.
+     *
+     * @param tenders
+     *            list of tenders
+     * @param withBodies
+     *            whether the tenders are populated with master bodies
+     * @param withIndicators
+     *            whether the tenders are populated with indicators
+     * @return populated tenders
+     */
+    public final List<MasterTender> populate(final List<MasterTender> tenders, final boolean withBodies,
+        final boolean withIndicators) {
+        HashMap<String, MasterBody> bodies = new HashMap<String, MasterBody>();
+
+        // each query returns the step which merges its result, the steps are done in order of the queries
+        List<Supplier<Runnable>> queries = new ArrayList<>();
+        if (withBodies) {
+            collectBodies(tenders, bodies);
+            queries.addAll(bodySetQueries(bodies));
+        }
+        if (withIndicators) {
+            queries.add(indicatorsQuery(tenders));
+        }
+
+        List<Runnable> merges;
+        if (parallelQueries == null || queries.size() < 2) {
+            merges = queries.stream().map(Supplier::get).collect(Collectors.toList());
+        } else {
+            merges = parallelQueries.run(queries);
+        }
+        merges.forEach(Runnable::run);
+
+        if (withBodies) {
+            replaceBodies(tenders, bodies);
+        }
+
+        return tenders;
+    }
+
     /**
      * Populates the master tender with all possible master bodies.
      * 
@@ -46,9 +117,18 @@ public class PopulateUtils {
      * @return tenders with master bodies
      */
     public final List<MasterTender> populateBodies(final List<MasterTender> tenders) {
-        HashMap<String, MasterBody> bodies = new HashMap<String, MasterBody>(); 
-        
-        // get all bodies from tenders first
+        return populate(tenders, true, false);
+    }
+
+    /**
+     * Collects bodies referenced by the tenders.
+     *
+     * @param tenders
+     *            list of tenders
+     * @param bodies
+     *            bodies by group id, the bodies are added here
+     */
+    private void collectBodies(final List<MasterTender> tenders, final HashMap<String, MasterBody> bodies) {
         for (MasterTender tender : tenders) {            
             addBodies(bodies, tender.getAdministrators());
             addBodies(bodies, tender.getApproachedBidders());
@@ -74,9 +154,17 @@ public class PopulateUtils {
                 }
             }
         }
-        
-        populateBodySet(bodies);
-                
+    }
+
+    /**
+     * Replaces the bodies referenced by the tenders with the populated ones.
+     *
+     * @param tenders
+     *            list of tenders
+     * @param bodies
+     *            populated bodies by group id
+     */
+    private void replaceBodies(final List<MasterTender> tenders, final HashMap<String, MasterBody> bodies) {
         for (MasterTender tender : tenders) {
             tender.setAdministrators(getBodies(bodies, tender.getAdministrators()));
             tender.setApproachedBidders(getBodies(bodies, tender.getApproachedBidders()));
@@ -104,8 +192,6 @@ public class PopulateUtils {
                 tender.setLots(lots);
             }
         }
-
-        return tenders;
     }
 
     /**
@@ -171,18 +257,40 @@ public class PopulateUtils {
     }
     
     /**
-     * Populates the master tender with all possible master bodies.
+     * Populates the master tender with indicators.
      * 
      * @param tenders
      *            list of tenders
-     * @return tenders with master bodies
+     * @return tenders with indicators
      */
     public final List<MasterTender> populateIndicators(final List<MasterTender> tenders) {
+        return populate(tenders, false, true);
+    }
+
+    /**
+     * @param tenders
+     *            list of tenders
+     * @return query of the indicators, its result sets the indicators of the tenders
+     */
+    private Supplier<Runnable> indicatorsQuery(final List<MasterTender> tenders) {
         List<String> tenderIds = tenders.stream().map(MasterTender::getId).collect(Collectors.toList());
-        List<EntitySpecificIndicator> indicators = indicatorDao.getByEntityIds(tenderIds);
-        
+        return () -> {
+            List<EntitySpecificIndicator> indicators = indicatorDao.getByEntityIds(tenderIds);
+            return () -> setIndicators(tenders, indicators);
+        };
+    }
+
+    /**
+     * Sets the indicators of the tenders.
+     *
+     * @param tenders
+     *            list of tenders
+     * @param indicators
+     *            indicators of the tenders
+     */
+    private void setIndicators(final List<MasterTender> tenders, final List<EntitySpecificIndicator> indicators) {
         if (indicators == null || indicators.isEmpty()) {
-            return tenders;
+            return;
         }
         
         HashMap<String, List<EntitySpecificIndicator>> indicatorStorage = 
@@ -199,36 +307,36 @@ public class PopulateUtils {
         }
         
         for (MasterTender tender : tenders) {
-            if (indicators != null && !indicators.isEmpty()) {
-                tender.setIndicators(indicatorStorage.get(tender.getId()));
-            }
+            tender.setIndicators(indicatorStorage.get(tender.getId()));
         }
-
-        return tenders;
     }
 
     /**
-     * Populates list of master bodies with just group ids filled in with
-     * relevant data.
+     * Returns queries which populate list of master bodies with just group ids filled in with relevant data. Each
+     * query reads one chunk of the group ids.
      * 
      * @param bodies
      *            list to be populated
-     * 
+     * @return queries, their results put the stored bodies to the list
      */
-    private void populateBodySet(final HashMap<String, MasterBody> bodies) {
-        if (bodies == null) {
-            return;
-        }
-
+    private List<Supplier<Runnable>> bodySetQueries(final HashMap<String, MasterBody> bodies) {
         List<String> ids = bodies.values().stream().map(MasterBody::getGroupId).collect(Collectors.toList());
-        
-        List<MasterBody> storedBodies = masterBodyDao.getByGroupIds(ids);
-        
-        if (storedBodies != null && !storedBodies.isEmpty()) {
-            for (MasterBody storedBody: storedBodies) {
-                bodies.put(storedBody.getGroupId(), storedBody);
-            }
+
+        List<Supplier<Runnable>> queries = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += BODY_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(i, Math.min(ids.size(), i + BODY_CHUNK_SIZE));
+            queries.add(() -> {
+                List<MasterBody> storedBodies = masterBodyDao.getByGroupIds(chunk);
+                return () -> {
+                    if (storedBodies != null) {
+                        for (MasterBody storedBody : storedBodies) {
+                            bodies.put(storedBody.getGroupId(), storedBody);
+                        }
+                    }
+                };
+            });
         }
-        
+
+        return queries;
     }
 }
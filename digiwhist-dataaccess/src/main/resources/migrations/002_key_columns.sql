@@ -0,0 +1,105 @@
+SET search_path TO digiwhist_perf;
+
+-- Dedicated hash, groupid and digest columns for the matched and master tables. The columns are copies of the
+-- corresponding json properties maintained by triggers, so the DAOs can filter with plain B-tree indexes and bind
+-- parameters instead of jsonb containment.
+--
+-- The script must not run in a transaction block (CREATE INDEX CONCURRENTLY, COMMIT in procedure), run it with
+-- psql -f 002_key_columns.sql. Requires PostgreSQL 11+.
+
+
+CREATE OR REPLACE FUNCTION set_key_columns() RETURNS trigger AS $$
+BEGIN
+    NEW.hash := NEW.data ->> 'hash';
+    NEW.groupid := NEW.data ->> 'groupId';
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION set_matched_body_key_columns() RETURNS trigger AS $$
+BEGIN
+    NEW.hash := NEW.data ->> 'hash';
+    NEW.groupid := NEW.data ->> 'groupId';
+    NEW.digest := NEW.data ->> 'digest';
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION set_group_column() RETURNS trigger AS $$
+BEGIN
+    NEW.groupid := NEW.data ->> 'groupId';
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+
+-- adding of nullable column without default is only a catalog change, the tables aren't rewritten
+ALTER TABLE matched_tender ADD COLUMN IF NOT EXISTS hash character varying(255);
+ALTER TABLE matched_tender ADD COLUMN IF NOT EXISTS groupid character varying(255);
+DROP TRIGGER IF EXISTS matched_tender_key_columns ON matched_tender;
+CREATE TRIGGER matched_tender_key_columns BEFORE INSERT OR UPDATE OF data ON matched_tender
+    FOR EACH ROW EXECUTE PROCEDURE set_key_columns();
+
+ALTER TABLE matched_body ADD COLUMN IF NOT EXISTS hash character varying(255);
+ALTER TABLE matched_body ADD COLUMN IF NOT EXISTS groupid character varying(255);
+ALTER TABLE matched_body ADD COLUMN IF NOT EXISTS digest text;
+DROP TRIGGER IF EXISTS matched_body_key_columns ON matched_body;
+CREATE TRIGGER matched_body_key_columns BEFORE INSERT OR UPDATE OF data ON matched_body
+    FOR EACH ROW EXECUTE PROCEDURE set_matched_body_key_columns();
+
+ALTER TABLE master_tender ADD COLUMN IF NOT EXISTS groupid character varying(255);
+DROP TRIGGER IF EXISTS master_tender_key_columns ON master_tender;
+CREATE TRIGGER master_tender_key_columns BEFORE INSERT OR UPDATE OF data ON master_tender
+    FOR EACH ROW EXECUTE PROCEDURE set_group_column();
+
+ALTER TABLE master_body ADD COLUMN IF NOT EXISTS groupid character varying(255);
+DROP TRIGGER IF EXISTS master_body_key_columns ON master_body;
+CREATE TRIGGER master_body_key_columns BEFORE INSERT OR UPDATE OF data ON master_body
+    FOR EACH ROW EXECUTE PROCEDURE set_group_column();
+
+
+-- Backfills the key columns of the existing rows. Rows are updated in chunks ordered by id and each chunk is
+-- committed separately, so only the rows of the current chunk are locked and the tables stay fully available. The
+-- update of data column fires the trigger which fills the columns. Already filled rows are skipped, so the backfill
+-- can be interrupted and started again.
+CREATE OR REPLACE PROCEDURE backfill_key_columns(table_name text, key_column text, chunk_size integer DEFAULT 5000)
+LANGUAGE plpgsql AS $$
+DECLARE
+    last_id character varying(255) := '';
+    chunk_last_id character varying(255);
+BEGIN
+    LOOP
+        EXECUTE format('SELECT max(id) FROM (SELECT id FROM %I WHERE id > $1 ORDER BY id LIMIT $2) chunk',
+            table_name) INTO chunk_last_id USING last_id, chunk_size;
+
+        EXIT WHEN chunk_last_id IS NULL;
+
+        EXECUTE format('UPDATE %I SET data = data WHERE id > $1 AND id <= $2 AND %I IS NULL AND data ? %L',
+            table_name, key_column, CASE key_column WHEN 'groupid' THEN 'groupId' ELSE key_column END)
+            USING last_id, chunk_last_id;
+
+        COMMIT;
+        last_id := chunk_last_id;
+    END LOOP;
+END;
+$$;
+
+CALL backfill_key_columns('matched_tender', 'groupid');
+CALL backfill_key_columns('matched_body', 'groupid');
+CALL backfill_key_columns('master_tender', 'groupid');
+CALL backfill_key_columns('master_body', 'groupid');
+
+
+-- indexes are built without blocking of writes
+CREATE INDEX CONCURRENTLY IF NOT EXISTS matched_tender_hash_idx ON matched_tender (hash);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS matched_tender_groupid_idx ON matched_tender (groupid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS matched_body_hash_idx ON matched_body (hash);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS matched_body_groupid_idx ON matched_body (groupid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS matched_body_digest_column_idx ON matched_body (digest);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS master_tender_groupid_idx ON master_tender (groupid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS master_body_groupid_idx ON master_body (groupid);
+
+ANALYZE matched_tender;
+ANALYZE matched_body;
+ANALYZE master_tender;
+ANALYZE master_body;
@@ -0,0 +1,10 @@
+SET search_path TO bvd;
+
+-- Progress of BVDEtalonDigestsWorker. For each worker version and processed id range (version:startId-endId) holds id
+-- of the last etalon whose digests have been recalculated. The row is updated in the same transaction as the etalons, so the worker can resume
+-- the range exactly where it has stopped.
+CREATE TABLE IF NOT EXISTS digests_checkpoint (
+    range_key character varying(255) PRIMARY KEY,
+    last_id integer NOT NULL,
+    modified timestamp without time zone NOT NULL
+);
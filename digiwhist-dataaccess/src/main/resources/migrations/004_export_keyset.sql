@@ -0,0 +1,10 @@
+SET search_path TO digiwhist_perf;
+
+-- Indexes for the export of master tenders and bodies. The export reads the rows ordered by (modified, id) and
+-- continues after the last exported row, so each batch is found by the index regardless of how far the export is.
+--
+-- The script must not run in a transaction block (CREATE INDEX CONCURRENTLY), run it with
+-- psql -f 004_export_keyset.sql.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS master_tender_modified_id_idx ON master_tender (modified, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS master_body_modified_id_idx ON master_body (modified, id);
@@ -0,0 +1,18 @@
+SET search_path TO digiwhist_perf;
+
+-- Public API documents of master tenders. The document is the final JSON the API serves, it's rebuilt in the same
+-- transaction as the master tender and its indicators. The modification timestamp, author and country are copied from
+-- the master tender row, so the API pages read the documents exactly as it would read the master tenders.
+CREATE TABLE IF NOT EXISTS master_tender_document (
+    id character varying(255) PRIMARY KEY,
+    document text NOT NULL,
+    modified timestamp without time zone,
+    modifiedby character varying(255),
+    country character varying(255),
+    updated timestamp without time zone NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS master_tender_document_modified_idx ON master_tender_document (modified);
+CREATE INDEX IF NOT EXISTS master_tender_document_modifiedby_modified_idx
+    ON master_tender_document (modifiedby, modified);
+CREATE INDEX IF NOT EXISTS master_tender_document_country_modified_idx ON master_tender_document (country, modified);
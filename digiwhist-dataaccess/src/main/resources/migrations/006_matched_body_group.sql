@@ -0,0 +1,77 @@
+SET search_path TO digiwhist_perf;
+
+-- Aggregates of the matched body groups (number of bodies and number of bodies created from etalons) for each worker
+-- and version. The matching reads them for each group of the body pool (see JdbcMatchedBodyDAO), so they are
+-- maintained by triggers instead of being counted over all the group members on every pool query.
+--
+-- The triggers are statement level, each statement adds the changes of its rows at once with the groups sorted by id,
+-- so the concurrent matchers lock the shared group rows in the same order. Changes of the whole matched_body table
+-- are blocked while the existing rows are counted, run the script when the matchers are stopped. Requires
+-- PostgreSQL 10+ (transition tables).
+
+CREATE TABLE IF NOT EXISTS matched_body_group (
+    groupid character varying(255) NOT NULL,
+    modifiedby character varying(255) NOT NULL,
+    modifiedbyversion character varying(255) NOT NULL,
+    size integer NOT NULL,
+    etalons integer NOT NULL,
+    PRIMARY KEY (groupid, modifiedby, modifiedbyversion)
+);
+
+CREATE OR REPLACE FUNCTION update_matched_body_group() RETURNS trigger AS $$
+BEGIN
+    -- transition tables are available only for the events they are declared for
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO matched_body_group AS g (groupid, modifiedby, modifiedbyversion, size, etalons)
+        SELECT groupid, modifiedby, modifiedbyversion, -count(*),
+            -count(*) FILTER (WHERE data @> '{"bodyIds": [{"type": "ETALON_ID"}]}')
+        FROM old_rows WHERE groupid IS NOT NULL AND modifiedby IS NOT NULL AND modifiedbyversion IS NOT NULL
+        GROUP BY groupid, modifiedby, modifiedbyversion ORDER BY groupid, modifiedby, modifiedbyversion
+        ON CONFLICT (groupid, modifiedby, modifiedbyversion)
+        DO UPDATE SET size = g.size + EXCLUDED.size, etalons = g.etalons + EXCLUDED.etalons;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO matched_body_group AS g (groupid, modifiedby, modifiedbyversion, size, etalons)
+        SELECT groupid, modifiedby, modifiedbyversion, count(*),
+            count(*) FILTER (WHERE data @> '{"bodyIds": [{"type": "ETALON_ID"}]}')
+        FROM new_rows WHERE groupid IS NOT NULL AND modifiedby IS NOT NULL AND modifiedbyversion IS NOT NULL
+        GROUP BY groupid, modifiedby, modifiedbyversion ORDER BY groupid, modifiedby, modifiedbyversion
+        ON CONFLICT (groupid, modifiedby, modifiedbyversion)
+        DO UPDATE SET size = g.size + EXCLUDED.size, etalons = g.etalons + EXCLUDED.etalons;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+BEGIN;
+
+LOCK TABLE matched_body IN SHARE MODE;
+
+DROP TRIGGER IF EXISTS matched_body_group_insert ON matched_body;
+CREATE TRIGGER matched_body_group_insert AFTER INSERT ON matched_body
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE update_matched_body_group();
+
+DROP TRIGGER IF EXISTS matched_body_group_update ON matched_body;
+CREATE TRIGGER matched_body_group_update AFTER UPDATE ON matched_body
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE update_matched_body_group();
+
+DROP TRIGGER IF EXISTS matched_body_group_delete ON matched_body;
+CREATE TRIGGER matched_body_group_delete AFTER DELETE ON matched_body
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE update_matched_body_group();
+
+-- the groupid column has to be filled (see 002_key_columns.sql)
+TRUNCATE matched_body_group;
+INSERT INTO matched_body_group (groupid, modifiedby, modifiedbyversion, size, etalons)
+SELECT groupid, modifiedby, modifiedbyversion, count(*),
+    count(*) FILTER (WHERE data @> '{"bodyIds": [{"type": "ETALON_ID"}]}')
+FROM matched_body WHERE groupid IS NOT NULL AND modifiedby IS NOT NULL AND modifiedbyversion IS NOT NULL
+GROUP BY groupid, modifiedby, modifiedbyversion;
+
+COMMIT;
+
+ANALYZE matched_body_group;
@@ -0,0 +1,64 @@
+SET search_path TO digiwhist_perf;
+
+-- Checks that the queries of the JDBC DAOs can use the indexes of the key columns (see 002_key_columns.sql). Each
+-- query is written the same way as the DAO builds it, with sample values in place of the bound parameters. The
+-- script fails on the first query whose plan doesn't use the expected index, run it after the migrations with
+-- psql -v ON_ERROR_STOP=1 -f check_query_plans.sql.
+--
+-- Sequential scans are disabled, so the check doesn't depend on the size of the tables: a small table would be
+-- scanned sequentially even though the index is usable. Nothing is written, the function is dropped with the session.
+
+SET enable_seqscan TO off;
+
+CREATE FUNCTION pg_temp.assert_index_used(query text, index_name text) RETURNS void AS $$
+DECLARE
+    plan json;
+BEGIN
+    EXECUTE 'EXPLAIN (FORMAT JSON) ' || query INTO plan;
+    IF position('"Index Name": "' || index_name || '"' IN plan::text) = 0 THEN
+        RAISE EXCEPTION 'Index % is not used by query %, the plan is %', index_name, query, plan;
+    END IF;
+    RAISE NOTICE 'Index % is used by query %', index_name, query;
+END;
+$$ LANGUAGE plpgsql;
+
+
+-- GenericJdbcDAO.getByGroupId, getByHash and getMineByHash
+SELECT pg_temp.assert_index_used($q$SELECT * FROM matched_body WHERE groupid = 'group_1'$q$,
+    'matched_body_groupid_idx');
+SELECT pg_temp.assert_index_used($q$SELECT * FROM matched_tender WHERE groupid = 'group_1'$q$,
+    'matched_tender_groupid_idx');
+SELECT pg_temp.assert_index_used($q$SELECT * FROM master_body WHERE groupid = 'group_1'$q$,
+    'master_body_groupid_idx');
+SELECT pg_temp.assert_index_used($q$SELECT * FROM master_tender WHERE groupid = 'group_1'$q$,
+    'master_tender_groupid_idx');
+SELECT pg_temp.assert_index_used($q$SELECT * FROM matched_body WHERE hash = 'hash_1'
+    AND (modifiedBy, modifiedByVersion) IN (SELECT * FROM unnest('{worker}'::text[], '{1.0}'::text[]))$q$,
+    'matched_body_hash_idx');
+SELECT pg_temp.assert_index_used($q$SELECT * FROM matched_tender WHERE hash = 'hash_1'
+    AND modifiedBy = 'worker' AND modifiedByVersion = '1.0'$q$,
+    'matched_tender_hash_idx');
+
+-- GenericJdbcDAO.getByGroupIds
+SELECT pg_temp.assert_index_used($q$SELECT * FROM master_body WHERE groupid = ANY('{group_1,group_2}'::text[])$q$,
+    'master_body_groupid_idx');
+
+-- JdbcMatchedBodyDAO.getGroupsInfo and the group aggregates of the pool (see 006_matched_body_group.sql)
+SELECT pg_temp.assert_index_used($q$SELECT groupid AS gid, etalons > 0 AS hasEtalon, size FROM matched_body_group
+    WHERE modifiedby = 'worker' AND modifiedbyversion = '1.0' AND groupid = ANY('{group_1,group_2}'::text[])
+    AND size > 0$q$,
+    'matched_body_group_pkey');
+
+-- JdbcMatchedBodyDAO.getApproximateMatchBodiesPool, each condition of the pool is resolved by its own index and the
+-- results are combined by bitmap OR
+SELECT pg_temp.assert_index_used(q, index_name) FROM (VALUES
+    ('matched_body_std_name_idx'), ('matched_body_std_address_idx'), ('matched_body_data_idx'),
+    ('matched_body_digest_column_idx')) AS indexes(index_name),
+    (VALUES ($q$SELECT * FROM matched_body
+        WHERE (modifiedBy, modifiedByVersion) IN (SELECT * FROM unnest('{worker}'::text[], '{1.0}'::text[]))
+        AND (md5(data ->> 'standardizedName') = md5('ministry')
+        OR md5(data ->> 'standardizedAddress') = md5('main street')
+        OR data @> ANY(ARRAY['{"bodyIds": [{"id": "123", "scope": "CZ"}]}']::jsonb[])
+        OR digest = 'digest_1')$q$)) AS queries(q);
+
+RESET enable_seqscan;
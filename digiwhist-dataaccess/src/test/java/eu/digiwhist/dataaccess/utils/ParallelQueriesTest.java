@@ -0,0 +1,220 @@
+package eu.digiwhist.dataaccess.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import eu.dl.dataaccess.dao.TransactionUtils;
+
+/**
+ * Tests for ParallelQueries class.
+ */
+public final class ParallelQueriesTest {
+
+    /**
+     * The results are in order of the queries, whichever query finishes first. The queries run by the threads have
+     * transactions of their own.
+     */
+    @Test
+    public void orderTest() {
+        FakeTransactionUtils transactionUtils = new FakeTransactionUtils(true);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        List<Supplier<Integer>> queries = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int n = i;
+            queries.add(() -> {
+                threads.add(Thread.currentThread());
+                if (Thread.currentThread() != transactionUtils.caller) {
+                    assertTrue(transactionUtils.isOpen());
+                }
+                // the later queries finish first
+                sleep(10 * (8 - n));
+                return n;
+            });
+        }
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7), new ParallelQueries(transactionUtils, 4).run(queries));
+        assertTrue(threads.size() > 1);
+        transactionUtils.awaitEnded();
+        assertEquals(0, transactionUtils.rollbacks.get());
+    }
+
+    /**
+     * Without a spare connection the caller runs all the queries in its current transaction.
+     */
+    @Test
+    public void noSpareConnectionTest() {
+        FakeTransactionUtils transactionUtils = new FakeTransactionUtils(false);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        List<Supplier<Integer>> queries = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int n = i;
+            queries.add(() -> {
+                threads.add(Thread.currentThread());
+                sleep(5);
+                return n;
+            });
+        }
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7), new ParallelQueries(transactionUtils, 4).run(queries));
+        assertEquals(1, threads.size());
+        assertTrue(threads.contains(transactionUtils.caller));
+        assertEquals(0, transactionUtils.begins.get());
+    }
+
+    /**
+     * The failed query run by a thread rolls its transaction back. The exception of the first failed query in order
+     * of the queries is thrown, even though the later one fails first.
+     */
+    @Test
+    public void failureTest() {
+        FakeTransactionUtils transactionUtils = new FakeTransactionUtils(true);
+        RuntimeException first = new IllegalStateException("first");
+        RuntimeException second = new IllegalArgumentException("second");
+        AtomicInteger failedInThreads = new AtomicInteger();
+
+        List<Supplier<Integer>> queries = Arrays.asList(
+            () -> {
+                // keeps the caller busy, so the threads claim the other queries
+                sleep(200);
+                return 0;
+            },
+            () -> {
+                sleep(50);
+                throw failInThread(first, transactionUtils, failedInThreads);
+            },
+            () -> 2,
+            () -> {
+                throw failInThread(second, transactionUtils, failedInThreads);
+            });
+
+        try {
+            new ParallelQueries(transactionUtils, 4).run(queries);
+            fail("exception expected");
+        } catch (RuntimeException e) {
+            assertSame(first, e);
+        }
+
+        transactionUtils.awaitEnded();
+        assertTrue(failedInThreads.get() > 0);
+        assertEquals(failedInThreads.get(), transactionUtils.rollbacks.get());
+    }
+
+    /**
+     * @param exception
+     *            exception of the query
+     * @param transactionUtils
+     *            transaction utils
+     * @param failedInThreads
+     *            counter of the queries failed in threads
+     * @return the exception
+     */
+    private static RuntimeException failInThread(final RuntimeException exception,
+        final FakeTransactionUtils transactionUtils, final AtomicInteger failedInThreads) {
+        if (Thread.currentThread() != transactionUtils.caller) {
+            failedInThreads.incrementAndGet();
+        }
+        return exception;
+    }
+
+    /**
+     * @param millis
+     *            number of milliseconds to sleep
+     */
+    static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Transaction utils which count the transactions and check that each thread has at most one open transaction.
+     */
+    static final class FakeTransactionUtils implements TransactionUtils {
+
+        private final Thread caller = Thread.currentThread();
+
+        private final boolean spareConnections;
+
+        private final ThreadLocal<Boolean> open = ThreadLocal.withInitial(() -> false);
+
+        private final AtomicInteger begins = new AtomicInteger();
+
+        private final AtomicInteger commits = new AtomicInteger();
+
+        private final AtomicInteger rollbacks = new AtomicInteger();
+
+        /**
+         * @param spareConnections
+         *            whether {@link #tryBegin()} succeeds
+         */
+        FakeTransactionUtils(final boolean spareConnections) {
+            this.spareConnections = spareConnections;
+        }
+
+        @Override
+        public void begin() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean tryBegin() {
+            if (!spareConnections) {
+                return false;
+            }
+            assertFalse(open.get());
+            open.set(true);
+            begins.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public void commit() {
+            assertTrue(open.get());
+            open.set(false);
+            commits.incrementAndGet();
+        }
+
+        @Override
+        public void rollback() {
+            assertTrue(open.get());
+            open.set(false);
+            rollbacks.incrementAndGet();
+        }
+
+        /**
+         * Waits until all the begun transactions are ended. The thread which has begun a transaction for a query
+         * claimed by the caller in the meantime commits it right away, possibly after the caller got the results.
+         */
+        void awaitEnded() {
+            for (int i = 0; i < 100 && begins.get() != commits.get() + rollbacks.get(); i++) {
+                sleep(10);
+            }
+            assertEquals(begins.get(), commits.get() + rollbacks.get());
+        }
+
+        /**
+         * @return whether the current thread has open transaction
+         */
+        boolean isOpen() {
+            return open.get();
+        }
+    }
+}
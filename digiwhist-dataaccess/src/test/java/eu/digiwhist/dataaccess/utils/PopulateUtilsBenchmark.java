@@ -0,0 +1,65 @@
+package eu.digiwhist.dataaccess.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import eu.digiwhist.dataaccess.utils.ParallelQueriesTest.FakeTransactionUtils;
+
+/**
+ * Benchmark of the page population with simulated latency of the database, the DAOs are the fakes of
+ * PopulateUtilsTest. The three body queries and the indicator query are run at once with parallelism, so the page is
+ * populated in about one latency instead of four. It isn't run as a test, the times depend on the load of the host;
+ * run it by its main method.
+ */
+public final class PopulateUtilsBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 5;
+
+    private static final int ROUNDS = 20;
+
+    /**
+     * This class shouldn't be instantiated.
+     */
+    private PopulateUtilsBenchmark() {
+        // don't instantiate this class
+    }
+
+    /**
+     * Prints average times of the sequential and the parallel population of the page.
+     *
+     * @param args
+     *            not used
+     */
+    public static void main(final String[] args) {
+        AtomicInteger queries = new AtomicInteger();
+        PopulateUtils sequential = new PopulateUtils(PopulateUtilsTest.bodyDao(PopulateUtilsTest.LATENCY, queries),
+            PopulateUtilsTest.indicatorDao(PopulateUtilsTest.LATENCY, queries));
+        PopulateUtils parallel = new PopulateUtils(PopulateUtilsTest.bodyDao(PopulateUtilsTest.LATENCY, queries),
+            PopulateUtilsTest.indicatorDao(PopulateUtilsTest.LATENCY, queries), new FakeTransactionUtils(true), 4);
+
+        long sequentialTime = measure(sequential);
+        long parallelTime = measure(parallel);
+
+        System.out.printf("latency %d ms, sequential %d ms, parallel %d ms, speedup %.1f%n", PopulateUtilsTest.LATENCY,
+            TimeUnit.NANOSECONDS.toMillis(sequentialTime), TimeUnit.NANOSECONDS.toMillis(parallelTime),
+            (double) sequentialTime / parallelTime);
+    }
+
+    /**
+     * @param populateUtils
+     *            populate utils
+     * @return average time of the page population in nanoseconds, after the warm up
+     */
+    private static long measure(final PopulateUtils populateUtils) {
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            populateUtils.populate(PopulateUtilsTest.tenders(), true, true);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            populateUtils.populate(PopulateUtilsTest.tenders(), true, true);
+        }
+
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+}
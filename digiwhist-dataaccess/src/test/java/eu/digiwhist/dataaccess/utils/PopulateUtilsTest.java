@@ -0,0 +1,197 @@
+package eu.digiwhist.dataaccess.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import eu.digiwhist.dataaccess.utils.ParallelQueriesTest.FakeTransactionUtils;
+import eu.dl.dataaccess.dao.IndicatorDAO;
+import eu.dl.dataaccess.dao.MasterBodyDAO;
+import eu.dl.dataaccess.dto.indicator.BasicEntityRelatedIndicator;
+import eu.dl.dataaccess.dto.indicator.EntitySpecificIndicator;
+import eu.dl.dataaccess.dto.master.MasterBid;
+import eu.dl.dataaccess.dto.master.MasterBody;
+import eu.dl.dataaccess.dto.master.MasterTender;
+import eu.dl.dataaccess.dto.master.MasterTenderLot;
+import eu.dl.dataaccess.utils.JsonUtils;
+
+/**
+ * Tests for PopulateUtils class.
+ */
+public final class PopulateUtilsTest {
+
+    /**
+     * Number of tenders, each of them references one buyer and four bidders of its own, so the bodies are read by
+     * three queries (see PopulateUtils.BODY_CHUNK_SIZE).
+     */
+    private static final int TENDER_COUNT = 100;
+
+    /**
+     * Simulated latency of each query in milliseconds.
+     */
+    static final long LATENCY = 50;
+
+    /**
+     * The tenders populated with parallelism are the same as the ones populated without it.
+     *
+     * @throws JsonProcessingException
+     *             in case of serialization failure
+     */
+    @Test
+    public void sameOutputTest() throws JsonProcessingException {
+        AtomicInteger queries = new AtomicInteger();
+        PopulateUtils sequential = new PopulateUtils(bodyDao(0, queries), indicatorDao(0, queries));
+        PopulateUtils parallel = new PopulateUtils(bodyDao(0, queries), indicatorDao(0, queries),
+            new FakeTransactionUtils(true), 4);
+
+        for (boolean[] flags : new boolean[][]{{true, true}, {true, false}, {false, true}}) {
+            String expected = toJson(sequential.populate(tenders(), flags[0], flags[1]));
+            String actual = toJson(parallel.populate(tenders(), flags[0], flags[1]));
+            assertEquals(expected, actual);
+        }
+
+        List<MasterTender> populated = parallel.populate(tenders(), true, true);
+        assertEquals("Bidder s3", populated.get(0).getLots().get(0).getBids().get(0).getBidders().get(3).getName());
+        assertEquals("Buyer b99", populated.get(99).getBuyers().get(0).getName());
+        assertEquals("99", populated.get(99).getIndicators().get(0).getRelatedEntityId());
+    }
+
+    /**
+     * The tenders populated by the parallel queries with latency are the same as the ones populated sequentially and
+     * the parallelism doesn't change the number of queries: three body queries and one indicator query. The time is
+     * measured by PopulateUtilsBenchmark, which isn't run as a test.
+     *
+     * @throws JsonProcessingException
+     *             in case of serialization failure
+     */
+    @Test
+    public void latencyTest() throws JsonProcessingException {
+        AtomicInteger sequentialQueries = new AtomicInteger();
+        PopulateUtils sequential = new PopulateUtils(bodyDao(LATENCY, sequentialQueries),
+            indicatorDao(LATENCY, sequentialQueries));
+        AtomicInteger parallelQueries = new AtomicInteger();
+        PopulateUtils parallel = new PopulateUtils(bodyDao(LATENCY, parallelQueries),
+            indicatorDao(LATENCY, parallelQueries), new FakeTransactionUtils(true), 4);
+
+        List<MasterTender> expected = sequential.populate(tenders(), true, true);
+        List<MasterTender> actual = parallel.populate(tenders(), true, true);
+
+        assertEquals(4, sequentialQueries.get());
+        assertEquals(4, parallelQueries.get());
+        assertEquals(toJson(expected), toJson(actual));
+    }
+
+    /**
+     * @return stored tenders referencing bodies by group ids, each tender has one buyer and four bidders
+     */
+    static List<MasterTender> tenders() {
+        List<MasterTender> tenders = new ArrayList<>();
+        for (int i = 0; i < TENDER_COUNT; i++) {
+            List<MasterBody> bidders = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                bidders.add(new MasterBody().setGroupId("s" + (i * 4 + j)));
+            }
+
+            MasterTender tender = new MasterTender()
+                .setBuyers(Arrays.asList(new MasterBody().setGroupId("b" + i)))
+                .setLots(Arrays.asList(new MasterTenderLot().setBids(Arrays.asList(new MasterBid()
+                    .setBidders(bidders)))));
+            tender.setId(String.valueOf(i));
+            tenders.add(tender);
+        }
+        return tenders;
+    }
+
+    /**
+     * @param latency
+     *            latency of the query in milliseconds
+     * @param queries
+     *            counter of the queries
+     * @return master body DAO which supports only getByGroupIds, the body "b1" is named "Buyer b1", "s1" is
+     *         "Bidder s1"
+     */
+    @SuppressWarnings("unchecked")
+    static MasterBodyDAO<MasterBody> bodyDao(final long latency, final AtomicInteger queries) {
+        return proxy(MasterBodyDAO.class, "getByGroupIds", latency, queries, groupIds -> {
+            List<MasterBody> bodies = new ArrayList<>();
+            for (String groupId : groupIds) {
+                bodies.add(new MasterBody().setGroupId(groupId)
+                    .setName((groupId.startsWith("b") ? "Buyer " : "Bidder ") + groupId));
+            }
+            return bodies;
+        });
+    }
+
+    /**
+     * @param latency
+     *            latency of the query in milliseconds
+     * @param queries
+     *            counter of the queries
+     * @return indicator DAO which supports only getByEntityIds, each entity has one indicator
+     */
+    @SuppressWarnings("unchecked")
+    static IndicatorDAO<EntitySpecificIndicator> indicatorDao(final long latency,
+        final AtomicInteger queries) {
+        return proxy(IndicatorDAO.class, "getByEntityIds", latency, queries, ids -> {
+            List<EntitySpecificIndicator> indicators = new ArrayList<>();
+            for (String id : ids) {
+                BasicEntityRelatedIndicator indicator = new BasicEntityRelatedIndicator();
+                indicator.setId("i" + id);
+                indicator.setType("TEST_INDICATOR");
+                indicator.setRelatedEntityId(id);
+                indicators.add(indicator);
+            }
+            return indicators;
+        });
+    }
+
+    /**
+     * @param type
+     *            DAO interface
+     * @param method
+     *            the only supported method, it has one collection parameter
+     * @param latency
+     *            latency of the method in milliseconds
+     * @param queries
+     *            counter of the calls
+     * @param result
+     *            result of the method for the given ids
+     * @param <T>
+     *            DAO interface
+     * @return DAO
+     */
+    private static <T> T proxy(final Class<T> type, final String method, final long latency,
+        final AtomicInteger queries, final Function<Collection<String>, List<?>> result) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, m, args) -> {
+            if (!m.getName().equals(method)) {
+                throw new UnsupportedOperationException(m.getName());
+            }
+            queries.incrementAndGet();
+            ParallelQueriesTest.sleep(latency);
+            @SuppressWarnings("unchecked")
+            Collection<String> ids = (Collection<String>) args[0];
+            return result.apply(ids);
+        }));
+    }
+
+    /**
+     * @param tenders
+     *            tenders
+     * @return JSON of the tenders
+     * @throws JsonProcessingException
+     *             in case of serialization failure
+     */
+    private static String toJson(final List<MasterTender> tenders) throws JsonProcessingException {
+        return JsonUtils.getApiWriter().writeValueAsString(tenders);
+    }
+}
@@ -2,8 +2,8 @@ package eu.digiwhist.worker.bg.matched;
 
 import eu.digiwhist.worker.matched.BaseDigiwhistTenderMatcher;
 import eu.dl.core.UnrecoverableException;
-import eu.dl.dataaccess.dto.matched.MatchedBody;
 import eu.dl.dataaccess.dto.matched.MatchedTender;
+import eu.dl.dataaccess.utils.StandardizedBody;
 import org.apache.commons.codec.digest.DigestUtils;
 
 import java.io.UnsupportedEncodingException;
@@ -31,8 +31,8 @@ public class AOPTenderMatcher extends BaseDigiwhistTenderMatcher {
     }
 
     @Override
-    protected final String generateBodyHash(final MatchedBody matchedBody) {
-        return bodyHash(matchedBody);
+    protected final String generateBodyHash(final StandardizedBody standardizedBody) {
+        return bodyHash(standardizedBody);
     }
 
     @Override
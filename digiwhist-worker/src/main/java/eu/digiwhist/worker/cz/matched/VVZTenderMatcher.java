@@ -1,8 +1,8 @@
 package eu.digiwhist.worker.cz.matched;
 
 import eu.digiwhist.worker.matched.BaseDigiwhistTenderMatcher;
-import eu.dl.dataaccess.dto.matched.MatchedBody;
 import eu.dl.dataaccess.dto.matched.MatchedTender;
+import eu.dl.dataaccess.utils.StandardizedBody;
 import eu.dl.dataaccess.utils.TenderUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -43,8 +43,8 @@ public class VVZTenderMatcher extends BaseDigiwhistTenderMatcher {
     }
 
     @Override
-    protected final String generateBodyHash(final MatchedBody matchedBody) {
-        return bodyHash(matchedBody);
+    protected final String generateBodyHash(final StandardizedBody standardizedBody) {
+        return bodyHash(standardizedBody);
     }
 
     @Override
@@ -2,9 +2,9 @@ package eu.digiwhist.worker.ee.matched;
 
 import eu.digiwhist.worker.matched.BaseDigiwhistTenderMatcher;
 import eu.digiwhist.worker.matched.TenderPublicationHumanReadableUrlsMatchingPlugin;
-import eu.dl.dataaccess.dto.matched.MatchedBody;
 import eu.dl.dataaccess.dto.matched.MatchedTender;
 import static eu.dl.dataaccess.utils.DigestUtils.bodyHash;
+import eu.dl.dataaccess.utils.StandardizedBody;
 import eu.dl.dataaccess.utils.TenderUtils;
 
 /**
@@ -33,8 +33,8 @@ public class EPETenderMatcher extends BaseDigiwhistTenderMatcher {
     }
 
     @Override
-    protected final String generateBodyHash(final MatchedBody matchedBody) {
-        return bodyHash(matchedBody);
+    protected final String generateBodyHash(final StandardizedBody standardizedBody) {
+        return bodyHash(standardizedBody);
     }
 
     @Override
@@ -3,8 +3,8 @@ package eu.digiwhist.worker.es.matched;
 import eu.digiwhist.worker.matched.BaseDigiwhistTenderMatcher;
 import eu.digiwhist.worker.matched.TenderPublicationMachineReadableUrlsMatchingPlugin;
 import eu.dl.core.UnrecoverableException;
-import eu.dl.dataaccess.dto.matched.MatchedBody;
 import eu.dl.dataaccess.dto.matched.MatchedTender;
+import eu.dl.dataaccess.utils.StandardizedBody;
 import static eu.dl.dataaccess.utils.DigestUtils.bodyHash;
 import java.io.UnsupportedEncodingException;
 import java.util.UUID;
@@ -35,8 +35,8 @@ public class PCETenderMatcher extends BaseDigiwhistTenderMatcher {
     }
 
     @Override
-    protected final String generateBodyHash(final MatchedBody matchedBody) {
-        return bodyHash(matchedBody);
+    protected final String generateBodyHash(final StandardizedBody standardizedBody) {
+        return bodyHash(standardizedBody);
     }
 
     @Override
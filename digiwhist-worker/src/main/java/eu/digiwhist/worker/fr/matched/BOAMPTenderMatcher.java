@@ -5,8 +5,8 @@ import eu.digiwhist.worker.matched.BaseDigiwhistTenderMatcher;
 import eu.digiwhist.worker.matched.TenderPublicationSourceIdsMatchingPlugin;
 import eu.dl.core.UnrecoverableException;
 import eu.dl.dataaccess.dto.generic.Publication;
-import eu.dl.dataaccess.dto.matched.MatchedBody;
 import eu.dl.dataaccess.dto.matched.MatchedTender;
+import eu.dl.dataaccess.utils.StandardizedBody;
 import static eu.dl.dataaccess.utils.DigestUtils.bodyHash;
 import java.io.UnsupportedEncodingException;
 import java.util.UUID;
@@ -39,8 +39,8 @@ public class BOAMPTenderMatcher extends BaseDigiwhistTenderMatcher {
     }
 
     @Override
-    protected final String generateBodyHash(final MatchedBody matchedBody) {
-        return bodyHash(matchedBody);
+    protected final String generateBodyHash(final StandardizedBody standardizedBody) {
+        return bodyHash(standardizedBody);
     }
 
     @Override
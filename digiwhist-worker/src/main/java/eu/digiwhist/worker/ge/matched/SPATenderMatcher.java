@@ -1,9 +1,9 @@
 package eu.digiwhist.worker.ge.matched;
 
 import eu.digiwhist.worker.matched.BaseDigiwhistTenderMatcher;
-import eu.dl.dataaccess.dto.matched.MatchedBody;
 import eu.dl.dataaccess.dto.matched.MatchedTender;
 import eu.dl.dataaccess.utils.DigestUtils;
+import eu.dl.dataaccess.utils.StandardizedBody;
 import eu.dl.dataaccess.utils.TenderUtils;
 
 /**
@@ -29,8 +29,8 @@ public class SPATenderMatcher extends BaseDigiwhistTenderMatcher {
     }
 
     @Override
-    protected final String generateBodyHash(final MatchedBody matchedBody) {
-        return DigestUtils.bodyHash(matchedBody);
+    protected final String generateBodyHash(final StandardizedBody standardizedBody) {
+        return DigestUtils.bodyHash(standardizedBody);
     }
 
     @Override
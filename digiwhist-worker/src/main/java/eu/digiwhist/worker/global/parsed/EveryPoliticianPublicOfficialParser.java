@@ -5,13 +5,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import eu.digiwhist.worker.parser.BasePublicOfficialParser;
 import eu.dl.core.UnrecoverableException;
 import eu.dl.dataaccess.dto.parsed.ParsedParty;
 import eu.dl.dataaccess.dto.parsed.ParsedPublicOfficial;
 import eu.dl.dataaccess.dto.raw.RawData;
+import eu.dl.dataaccess.utils.JsonUtils;
 
 /**
  * Public official parsed for Every Politician.
@@ -26,9 +26,8 @@ public class EveryPoliticianPublicOfficialParser extends BasePublicOfficialParse
     public final List<ParsedPublicOfficial> parse(final RawData rawPublicOfficial) {
         List<ParsedPublicOfficial> parsedPublicOfficials = new ArrayList<>();
 
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            JsonNode jsonData = mapper.readTree(rawPublicOfficial.getSourceData());
+            JsonNode jsonData = JsonUtils.getMessageReader(JsonNode.class).readValue(rawPublicOfficial.getSourceData());
             JsonNode arrayOfPublicOfficials = jsonData.get("persons");
 
             for (JsonNode publicOfficial : arrayOfPublicOfficials) {
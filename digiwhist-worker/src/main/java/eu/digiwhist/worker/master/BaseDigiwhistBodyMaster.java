@@ -1,11 +1,18 @@
 package eu.digiwhist.worker.master;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import eu.digiwhist.dataaccess.dao.DAOFactory;
+import eu.digiwhist.dataaccess.utils.MasterTenderDocumentUtils;
+import eu.digiwhist.dataaccess.utils.PopulateUtils;
 import eu.dl.dataaccess.dao.IndicatorDAO;
 import eu.dl.dataaccess.dao.MasterDAO;
+import eu.dl.dataaccess.dao.MasterTenderDAO;
 import eu.dl.dataaccess.dao.MatchedDAO;
 import eu.dl.dataaccess.dao.TransactionUtils;
 import eu.dl.dataaccess.dto.master.MasterBody;
+import eu.dl.dataaccess.dto.master.MasterTender;
 import eu.dl.dataaccess.dto.matched.MatchedBody;
 import eu.dl.worker.master.BaseBodyMaster;
 
@@ -13,6 +20,15 @@ import eu.dl.worker.master.BaseBodyMaster;
  * Base class for Digiwhist body masters.
  */
 public abstract class BaseDigiwhistBodyMaster extends BaseBodyMaster<MatchedBody, MasterBody> {
+    /**
+     * Number of tenders whose documents are rebuilt at once.
+     */
+    private static final int DOCUMENT_BATCH_SIZE = 100;
+
+    private MasterTenderDAO<MasterTender> tenderDao;
+
+    private MasterTenderDocumentUtils documentUtils;
+
     @Override
     protected final MatchedDAO getMatchedDAO() {
         return DAOFactory.getDAOFactory().getMatchedBodyDAO(getName(), getVersion(), null);
@@ -28,6 +44,41 @@ public abstract class BaseDigiwhistBodyMaster extends BaseBodyMaster<MatchedBody
         return DAOFactory.getDAOFactory().getIndicatorDAO(getName(), getVersion());
     }
 
+    /**
+     * Rebuilds the stored documents of the master tenders which reference the body, the documents contain the body
+     * and its indicators. The body is mastered again only when its matched bodies change, so the documents aren't
+     * rebuilt needlessly.
+     *
+     * @param item
+     *            stored master body
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    protected final void postProcessStoredRecord(final MasterBody item) {
+        if (!MasterTenderDocumentUtils.isEnabled() || item.getGroupId() == null) {
+            return;
+        }
+
+        if (documentUtils == null) {
+            DAOFactory factory = DAOFactory.getDAOFactory();
+            tenderDao = factory.getMasterTenderDAO(getName(), getVersion());
+            documentUtils = new MasterTenderDocumentUtils(
+                    new PopulateUtils(factory.getMasterBodyDAO(getName(), getVersion()), getIndicatorDAO()),
+                    factory.getMasterTenderDocumentDAO(getName(), getVersion()));
+        }
+
+        List<MasterTender> tenders = new ArrayList<>(DOCUMENT_BATCH_SIZE);
+        String id = null;
+        do {
+            tenders.clear();
+            tenderDao.streamByBodyGroupId(item.getGroupId(), id, DOCUMENT_BATCH_SIZE, tenders::add);
+            if (!tenders.isEmpty()) {
+                documentUtils.update(tenders);
+                id = tenders.get(tenders.size() - 1).getId();
+            }
+        } while (tenders.size() == DOCUMENT_BATCH_SIZE);
+    }
+
     @Override
     protected final void registerIndicatorPlugins() {
 
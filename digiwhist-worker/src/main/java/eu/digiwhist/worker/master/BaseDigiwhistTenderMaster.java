@@ -3,6 +3,8 @@ package eu.digiwhist.worker.master;
 import java.util.Arrays;
 
 import eu.digiwhist.dataaccess.dao.DAOFactory;
+import eu.digiwhist.dataaccess.utils.MasterTenderDocumentUtils;
+import eu.digiwhist.dataaccess.utils.PopulateUtils;
 import eu.digiwhist.worker.master.plugin.DigiwhistDocumentPlugin;
 import eu.digiwhist.worker.master.plugin.DigiwhistTenderLotPlugin;
 import eu.dl.dataaccess.dao.IndicatorDAO;
@@ -41,6 +43,8 @@ import eu.dl.worker.master.plugin.specific.FundingsPlugin;
  * Base class for Digiwhist body masters.
  */
 public abstract class BaseDigiwhistTenderMaster extends BaseTenderMaster<MatchedTender, MasterTender> {
+    private MasterTenderDocumentUtils documentUtils;
+
     @Override
     protected final MatchedDAO getMatchedDAO() {
         return DAOFactory.getDAOFactory().getMatchedTenderDAO(getName(), getVersion(), null);
@@ -61,6 +65,22 @@ public abstract class BaseDigiwhistTenderMaster extends BaseTenderMaster<Matched
         return DAOFactory.getDAOFactory().getIndicatorDAO(getName(), getVersion());
     }
 
+    @Override
+    protected final void postProcessStoredRecord(final MasterTender item) {
+        if (!MasterTenderDocumentUtils.isEnabled()) {
+            return;
+        }
+
+        if (documentUtils == null) {
+            DAOFactory factory = DAOFactory.getDAOFactory();
+            documentUtils = new MasterTenderDocumentUtils(
+                    new PopulateUtils(factory.getMasterBodyDAO(getName(), getVersion()), getIndicatorDAO()),
+                    factory.getMasterTenderDocumentDAO(getName(), getVersion()));
+        }
+
+        documentUtils.update(item);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     protected final void registerProjectSpecificPlugins() {
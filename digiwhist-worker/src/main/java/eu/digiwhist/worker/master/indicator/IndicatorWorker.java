@@ -1,9 +1,12 @@
 package eu.digiwhist.worker.master.indicator;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map.Entry;
 
 import eu.digiwhist.dataaccess.dao.DAOFactory;
+import eu.digiwhist.dataaccess.utils.MasterTenderDocumentUtils;
 import eu.digiwhist.dataaccess.utils.PopulateUtils;
 import eu.dl.dataaccess.dao.IndicatorDAO;
 import eu.dl.dataaccess.dao.MasterBodyDAO;
@@ -50,6 +53,8 @@ public class IndicatorWorker extends BaseWorker {
 
     private static PopulateUtils populateUtils;
 
+    private static MasterTenderDocumentUtils documentUtils;
+
     protected PluginRegistry<IndicatorPlugin<MasterTender>> indicatorPluginRegistry = new BasicPluginRegistry();
 
     private final IndicatorDAO indicatorDao;
@@ -68,6 +73,11 @@ public class IndicatorWorker extends BaseWorker {
         indicatorDao = DAOFactory.getDAOFactory().getIndicatorDAO(getName(), VERSION);
 
         populateUtils = new PopulateUtils(masterBodyDao, null);
+
+        if (MasterTenderDocumentUtils.isEnabled()) {
+            documentUtils = new MasterTenderDocumentUtils(new PopulateUtils(masterBodyDao, indicatorDao),
+                DAOFactory.getDAOFactory().getMasterTenderDocumentDAO(getName(), VERSION));
+        }
         
         registerIndicatorPlugins();
     }
@@ -103,17 +113,24 @@ public class IndicatorWorker extends BaseWorker {
         if (tender != null) {
             MasterTender populatedTender = populateUtils.populateBodies(Arrays.asList(tender)).get(0);
             
-            // iterate over all indicator plugins and execute them in a proper order
+            // iterate over all indicator plugins and execute them in a proper order, the indicators are stored at once
+            final List<String> indicatorTypes = new ArrayList<>();
+            final List<EntitySpecificIndicator> indicators = new ArrayList<>();
             for (Entry<String, IndicatorPlugin<MasterTender>> entry : indicatorPluginRegistry.getPlugins().entrySet()) {
                 IndicatorPlugin<MasterTender> plugin = entry.getValue();
                 EntitySpecificIndicator indicator = (EntitySpecificIndicator) plugin.evaulate(tender);
-                indicatorDao.delete(tender.getId(), plugin.getType());
+                indicatorTypes.add(plugin.getType());
                 if (indicator != null) {
                     // set entity id for which was the indicator calculated
                     indicator.setRelatedEntityId(tender.getId());
-                    indicatorDao.save(indicator);
+                    indicators.add(indicator);
                 }
             }
+            indicatorDao.replace(tender.getId(), indicatorTypes, indicators);
+
+            if (documentUtils != null) {
+                documentUtils.update(tender);
+            }
         }
         
         transactionUtils.commit();
@@ -1,8 +1,8 @@
 package eu.digiwhist.worker.nl.matched;
 
 import eu.digiwhist.worker.matched.BaseDigiwhistTenderMatcher;
-import eu.dl.dataaccess.dto.matched.MatchedBody;
 import eu.dl.dataaccess.dto.matched.MatchedTender;
+import eu.dl.dataaccess.utils.StandardizedBody;
 import eu.dl.dataaccess.utils.TenderUtils;
 import eu.dl.dataaccess.utils.DigestUtils;
 
@@ -29,8 +29,8 @@ public class TenderNedTenderMatcher extends BaseDigiwhistTenderMatcher {
     }
 
     @Override
-    protected final String generateBodyHash(final MatchedBody matchedBody) {
-        return DigestUtils.bodyHash(matchedBody);
+    protected final String generateBodyHash(final StandardizedBody standardizedBody) {
+        return DigestUtils.bodyHash(standardizedBody);
     }
 
     @Override
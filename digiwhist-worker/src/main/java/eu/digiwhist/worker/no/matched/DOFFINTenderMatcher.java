@@ -3,9 +3,9 @@ package eu.digiwhist.worker.no.matched;
 import eu.digiwhist.worker.matched.BaseDigiwhistTenderMatcher;
 import eu.digiwhist.worker.matched.TenderDocumentsUrlMatchingPlugin;
 import eu.digiwhist.worker.matched.TenderPublicationSourceIdsMatchingPlugin;
-import eu.dl.dataaccess.dto.matched.MatchedBody;
 import eu.dl.dataaccess.dto.matched.MatchedTender;
 import eu.dl.dataaccess.utils.DigestUtils;
+import eu.dl.dataaccess.utils.StandardizedBody;
 import eu.dl.dataaccess.utils.TenderUtils;
 
 /**
@@ -35,8 +35,8 @@ public class DOFFINTenderMatcher extends BaseDigiwhistTenderMatcher {
     }
 
     @Override
-    protected final String generateBodyHash(final MatchedBody matchedBody) {
-        return DigestUtils.bodyHash(matchedBody);
+    protected final String generateBodyHash(final StandardizedBody standardizedBody) {
+        return DigestUtils.bodyHash(standardizedBody);
     }
 
     @Override
@@ -8,7 +8,6 @@ import java.util.Optional;
 import eu.digiwhist.dataaccess.dao.jdbc.JdbcBVDEtalonBodyDAO;
 import eu.digiwhist.dataaccess.dto.matched.BVDEtalonBody;
 import eu.dl.core.UnrecoverableException;
-import eu.dl.dataaccess.dao.EtalonBodyDAO;
 import eu.dl.dataaccess.dao.TransactionUtils;
 import eu.dl.dataaccess.dao.jdbc.JdbcTransactionUtils;
 import eu.dl.dataaccess.dto.generic.Address;
@@ -21,6 +20,12 @@ import eu.dl.worker.clean.utils.StringUtils;
 /**
  * This worker generates standardizedname, standardizedaddress, digests for BvD
  * etalons that have any of these fields null.
+ *
+ * Etalons of one page are processed in parallel and updated at once. After each page the id of the last processed
+ * etalon is committed as checkpoint of the processed id range and the worker version, so the repeated message with
+ * the same range resumes the work. Once the range is finished the repeated message does nothing, the digests are
+ * recalculated again by the worker of a new version. So the version has to be raised whenever the computation of the
+ * digests (see DigestUtils) changes.
  * 
  * @author Tomas Mrazek
  */
@@ -32,7 +37,7 @@ public final class BVDEtalonDigestsWorker extends BaseWorker {
     
     private static final String VERSION = "1.0";
     
-    private EtalonBodyDAO<BVDEtalonBody> etalonBodyDao;
+    private JdbcBVDEtalonBodyDAO etalonBodyDao;
 
     private static final Integer PAGE_SIZE = 50000;
 
@@ -75,10 +80,21 @@ public final class BVDEtalonDigestsWorker extends BaseWorker {
     public void doWork(final Message message) {
         Integer startId = Integer.valueOf(message.getValue("startId"));
         Integer endId = Integer.valueOf(message.getValue("endId"));
-        
-        logger.error("Process {} bodies with id > {}", startId);
+        String checkpointKey = VERSION + ":" + startId + "-" + endId;
+
         Integer actualId = startId;
-        
+        Integer checkpoint = etalonBodyDao.getDigestsCheckpoint(checkpointKey);
+        if (checkpoint != null && checkpoint >= endId) {
+            logger.error("Bodies with id > {} have been already processed until id {} by version {}, raise the"
+                + " version to process them again", startId, checkpoint, VERSION);
+            return;
+        } else if (checkpoint != null && checkpoint > startId) {
+            logger.error("Resume processing of bodies with id > {} from id {}", startId, checkpoint);
+            actualId = checkpoint;
+        } else {
+            logger.error("Process bodies with id > {}", startId);
+        }
+
         do {
             // get bodies to be processd
             List<BVDEtalonBody> bodies = etalonBodyDao.findAllById(actualId, PAGE_SIZE);
@@ -88,43 +104,61 @@ public final class BVDEtalonDigestsWorker extends BaseWorker {
                 break;
             }
             logger.debug("Processing {} bodies", bodies.size());
-            // go through the result set and update entries
-            for (BVDEtalonBody etalon : bodies) {
-                MatchedBody matchedEtalon = etalon.getAsMatchedBody();
-                Address addr = matchedEtalon.getAddress();
-                etalon
-                    // data cleaninig
-                    .setEuropeanVatNumber(StringUtils.cleanShortString(etalon.getEuropeanVatNumber()))
-                    .setStatisticalNumber(StringUtils.cleanShortString(etalon.getStatisticalNumber()))
-                    .setTradeRegisterNumber(StringUtils.cleanShortString(etalon.getTradeRegisterNumber()))
-                    .setVatTaxNumber(StringUtils.cleanShortString(etalon.getVatTaxNumber()))
-                    .setNuts3((addr != null && addr.getNuts() != null) ? addr.getNuts().get(0) : null)
-                    // digests calculation
-                    .setStandardizedName(DigestUtils.standardizeName(matchedEtalon.getName()))
-                    .setStandardizedAddress(DigestUtils.standardizeAddress(matchedEtalon.getAddress()))
-                    .setDigest(DigestUtils.digest(matchedEtalon))
-                    .setDigest2(digest2(matchedEtalon));
-
-                // data updates
-                etalonBodyDao.updateDigestsAndBodyIdsAndNuts(etalon);
-
-                if (etalon.getDigest() == null) {
-                    logger.error("Digest is null for id {}", etalon.getId());
-                }
-                
-                actualId = Integer.valueOf(etalon.getId());
-            }
+
+            recalculateDigests(bodies);
+
+            // data updates
+            etalonBodyDao.updateDigestsAndBodyIdsAndNuts(bodies);
+
+            bodies.stream()
+                .filter(etalon -> etalon.getDigest() == null)
+                .forEach(etalon -> logger.error("Digest is null for id {}", etalon.getId()));
+
+            actualId = Integer.valueOf(bodies.get(bodies.size() - 1).getId());
+            etalonBodyDao.saveDigestsCheckpoint(checkpointKey, actualId);
 
             JdbcTransactionUtils.getInstance().commit();
 
-            // increase page size
             logger.error("Processed bodies until id {}.", actualId);
-
         } while (actualId < endId);
 
         logger.error("Bodies processing finished, waiting for next work...");
     }
 
+    /**
+     * Cleans body ids and nuts and calculates standardized name, standardized address and digests of the given
+     * etalons. Etalons are processed in parallel.
+     *
+     * @param bodies
+     *      etalons to be processed
+     */
+    static void recalculateDigests(final List<BVDEtalonBody> bodies) {
+        bodies.parallelStream().forEach(BVDEtalonDigestsWorker::recalculateDigests);
+    }
+
+    /**
+     * Cleans body ids and nuts and calculates standardized name, standardized address and digests of the given etalon.
+     *
+     * @param etalon
+     *      etalon to be processed
+     */
+    static void recalculateDigests(final BVDEtalonBody etalon) {
+        MatchedBody matchedEtalon = etalon.getAsMatchedBody();
+        Address addr = matchedEtalon.getAddress();
+        etalon
+            // data cleaninig
+            .setEuropeanVatNumber(StringUtils.cleanShortString(etalon.getEuropeanVatNumber()))
+            .setStatisticalNumber(StringUtils.cleanShortString(etalon.getStatisticalNumber()))
+            .setTradeRegisterNumber(StringUtils.cleanShortString(etalon.getTradeRegisterNumber()))
+            .setVatTaxNumber(StringUtils.cleanShortString(etalon.getVatTaxNumber()))
+            .setNuts3((addr != null && addr.getNuts() != null) ? addr.getNuts().get(0) : null)
+            // digests calculation
+            .setStandardizedName(DigestUtils.standardizeName(matchedEtalon.getName()))
+            .setStandardizedAddress(DigestUtils.standardizeAddress(matchedEtalon.getAddress()))
+            .setDigest(DigestUtils.digest(matchedEtalon))
+            .setDigest2(digest2(matchedEtalon));
+    }
+
     @Override
     protected void resend(final String version, final String dateFrom, final String dateTo) {
         throw new UnsupportedOperationException("Not supported yet.");
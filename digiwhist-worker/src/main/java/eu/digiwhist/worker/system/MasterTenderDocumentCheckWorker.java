@@ -0,0 +1,161 @@
+package eu.digiwhist.worker.system;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import eu.digiwhist.dataaccess.dao.DAOFactory;
+import eu.digiwhist.dataaccess.utils.MasterTenderDocumentUtils;
+import eu.digiwhist.dataaccess.utils.PopulateUtils;
+import eu.dl.dataaccess.dao.MasterTenderDAO;
+import eu.dl.dataaccess.dao.TransactionUtils;
+import eu.dl.dataaccess.dto.master.MasterTender;
+import eu.dl.worker.BaseWorker;
+import eu.dl.worker.Message;
+
+/**
+ * This worker compares the stored public API documents of master tenders with the live computation and logs the ids
+ * of the tenders whose document is missing or outdated, as well as the orphan documents whose tender doesn't exist
+ * anymore. With the "repair" parameter set to "true" the inconsistent documents are replaced by the live ones and the
+ * orphan documents are removed.
+ *
+ * The message contains "timestamp" (ISO date time), the tenders modified after it are checked in the order of
+ * modification. Each batch is committed separately.
+ */
+public final class MasterTenderDocumentCheckWorker extends BaseWorker {
+
+    private static final String INCOMING_EXCHANGE_NAME = "init";
+
+    private static final String OUTGOING_EXCHANGE_NAME = "system";
+
+    private static final String VERSION = "1.0";
+
+    /**
+     * Number of tenders read by one query.
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Number of tenders populated and compared at once.
+     */
+    private static final int CHUNK_SIZE = 100;
+
+    private final TransactionUtils transactionUtils;
+
+    private final MasterTenderDAO<MasterTender> masterDao;
+
+    private final MasterTenderDocumentUtils documentUtils;
+
+    /**
+     * Initialization of everythong.
+     */
+    @SuppressWarnings("unchecked")
+    public MasterTenderDocumentCheckWorker() {
+        super();
+        DAOFactory factory = DAOFactory.getDAOFactory();
+        transactionUtils = factory.getTransactionUtils();
+        masterDao = factory.getMasterTenderDAO(getName(), VERSION);
+        PopulateUtils populateUtils = new PopulateUtils(factory.getMasterBodyDAO(getName(), VERSION),
+            factory.getIndicatorDAO(getName(), VERSION));
+        documentUtils = new MasterTenderDocumentUtils(populateUtils,
+            factory.getMasterTenderDocumentDAO(getName(), VERSION));
+    }
+
+    @Override
+    protected String getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    protected String getIncomingExchangeName() {
+        return INCOMING_EXCHANGE_NAME;
+    }
+
+    @Override
+    protected String getIncomingQueueName() {
+        return getIncomingQueueNameFromConfig();
+    }
+
+    @Override
+    protected String getOutgoingExchangeName() {
+        return OUTGOING_EXCHANGE_NAME;
+    }
+
+    @Override
+    public void doWork(final Message message) {
+        LocalDateTime start = LocalDateTime.parse(message.getValue("timestamp"));
+        LocalDateTime modified = start;
+        boolean repair = "true".equals(message.getValue("repair"));
+        String id = null;
+
+        int checked = 0;
+        int inconsistent = 0;
+        List<MasterTender> tenders = new ArrayList<>(BATCH_SIZE);
+        do {
+            tenders.clear();
+            transactionUtils.begin();
+            masterDao.streamAfter(modified, id, BATCH_SIZE, tenders::add);
+            if (!tenders.isEmpty()) {
+                MasterTender last = tenders.get(tenders.size() - 1);
+                modified = last.getModified();
+                id = last.getId();
+
+                for (int i = 0; i < tenders.size(); i += CHUNK_SIZE) {
+                    List<String> ids = documentUtils.check(
+                        tenders.subList(i, Math.min(i + CHUNK_SIZE, tenders.size())), repair);
+                    ids.forEach(n -> logger.error("Document of master tender {} is inconsistent", n));
+                    inconsistent += ids.size();
+                }
+                checked += tenders.size();
+            }
+            transactionUtils.commit();
+
+            logger.info("Checked {} master tenders until {}, {} inconsistent documents found", checked, modified,
+                inconsistent);
+        } while (tenders.size() == BATCH_SIZE);
+
+        int orphaned = checkOrphans(start, repair);
+
+        logger.info("Check of master tender documents finished, {} of {} documents {}, {} orphan documents {}",
+            inconsistent, checked, repair ? "repaired" : "inconsistent", orphaned, repair ? "removed" : "found");
+    }
+
+    /**
+     * Logs (and removes on request) the documents whose master tender doesn't exist anymore. Each batch is committed
+     * separately.
+     *
+     * @param timestamp
+     *         only the documents of tenders modified after this timestamp are checked
+     * @param repair
+     *         whether the orphan documents should be removed
+     * @return number of orphan documents
+     */
+    private int checkOrphans(final LocalDateTime timestamp, final boolean repair) {
+        String id = null;
+        int orphaned = 0;
+        List<String> ids;
+        do {
+            transactionUtils.begin();
+            ids = documentUtils.checkOrphans(timestamp, id, BATCH_SIZE, repair);
+            transactionUtils.commit();
+
+            ids.forEach(n -> logger.error("Document of master tender {} is orphan, the tender doesn't exist", n));
+            if (!ids.isEmpty()) {
+                id = ids.get(ids.size() - 1);
+            }
+            orphaned += ids.size();
+        } while (ids.size() == BATCH_SIZE);
+
+        return orphaned;
+    }
+
+    @Override
+    protected void resend(final String version, final String dateFrom, final String dateTo) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    protected TransactionUtils getTransactionUtils() {
+        return DAOFactory.getDAOFactory().getTransactionUtils();
+    }
+}
@@ -0,0 +1,246 @@
+package eu.digiwhist.worker.matched;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import eu.digiwhist.dataaccess.dao.jdbc.BVDEtalonIndex;
+import eu.digiwhist.dataaccess.dao.jdbc.BVDEtalonIndexCache;
+import eu.digiwhist.dataaccess.dto.matched.BVDEtalonBody;
+import eu.dl.dataaccess.dao.EtalonBodyDAO;
+import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
+
+/**
+ * Tests of the BvD etalon registry index.
+ */
+public final class BVDEtalonIndexTest {
+
+    /**
+     * @return fixture registry
+     */
+    private static List<BVDEtalonBody> registry() {
+        List<BVDEtalonBody> registry = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            registry.add(new BVDEtalonBody()
+                .setId(String.valueOf(i))
+                .setStandardizedName("company " + (i % 50))
+                .setStandardizedAddress(i % 3 == 0 ? null : "street " + (i % 70))
+                .setDigest("co|st" + (i % 20))
+                .setCountryIsoCode(i % 2 == 0 ? "CZ" : "SK")
+                .setVatTaxNumber("CZ" + (i % 90))
+                .setTradeRegisterNumber(i % 4 == 0 ? "T" + i : null)
+                .setStatisticalNumber(String.valueOf(i % 110)));
+        }
+
+        return registry;
+    }
+
+    /**
+     * @param registry
+     *      registry
+     * @param ids
+     *      etalon ids
+     * @param filter
+     *      match check
+     * @return ids of the etalons that match
+     */
+    private static List<String> matching(final List<BVDEtalonBody> registry, final List<String> ids,
+        final Predicate<BVDEtalonBody> filter) {
+        return registry.stream()
+            .filter(n -> ids.contains(n.getId()))
+            .filter(filter)
+            .map(BVDEtalonBody::getId)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @param first
+     *      first id
+     * @param step
+     *      difference of the following ids
+     * @return ids of the registry from first to 500 with the given step
+     */
+    private static List<String> ids(final int first, final int step) {
+        List<String> ids = new ArrayList<>();
+        for (int i = first; i <= 500; i += step) {
+            ids.add(String.valueOf(i));
+        }
+
+        return ids;
+    }
+
+    /**
+     * @param ids
+     *      lists of ids
+     * @return sorted union of the ids
+     */
+    @SafeVarargs
+    private static List<String> union(final List<String>... ids) {
+        return Arrays.stream(ids).flatMap(List::stream).map(Integer::valueOf).distinct().sorted()
+            .map(String::valueOf).collect(Collectors.toList());
+    }
+
+    /**
+     * The verified candidates from the index are the etalons which the registry query returns, the expected etalons
+     * are derived from the fixture registry.
+     */
+    @Test
+    public void sameMatchesTest() {
+        List<BVDEtalonBody> registry = registry();
+        BVDEtalonIndex index = BVDEtalonIndex.of(registry);
+
+        // the name is in every 50th etalon
+        List<String> name = ids(7, 50);
+        // the address is in every 70th etalon, except the ones divisible by 3 which have no address
+        List<String> address = Arrays.asList("11", "151", "221", "361", "431");
+        // VAT number CZ12 of the etalons in CZ (even ids)
+        List<BodyIdentifier> vat = Arrays.asList(new BodyIdentifier().setId("CZ12").setScope(BodyIdentifier.Scope.CZ));
+        List<String> vatIds = ids(12, 90);
+        // trade register number T40 in CZ, statistical number 17 in SK (odd ids), the id without scope is ignored
+        List<BodyIdentifier> others = Arrays.asList(
+            new BodyIdentifier().setId("T40").setScope(BodyIdentifier.Scope.CZ),
+            new BodyIdentifier().setId("17").setScope(BodyIdentifier.Scope.SK),
+            new BodyIdentifier().setId("17").setScope(null));
+        List<String> othersIds = union(Arrays.asList("40"), ids(17, 110));
+        // the digest is in every 20th etalon
+        List<String> digest = ids(4, 20);
+
+        assertEquals(name, exact(registry, index, "company 7", null, null));
+        assertEquals(address, exact(registry, index, null, "street 11", null));
+        assertEquals(vatIds, exact(registry, index, null, null, vat));
+        assertEquals(othersIds, exact(registry, index, null, null, others));
+        assertEquals(union(name, address, othersIds), exact(registry, index, "company 7", "street 11", others));
+        assertEquals(Collections.emptyList(), exact(registry, index, "unknown", "street 99", Collections.emptyList()));
+        assertEquals(Collections.emptyList(), exact(registry, index, null, null, null));
+        // the same identifier in other country doesn't match
+        assertEquals(Collections.emptyList(), exact(registry, index, null, null,
+            Arrays.asList(new BodyIdentifier().setId("CZ12").setScope(BodyIdentifier.Scope.SK))));
+
+        assertEquals(digest, approximate(registry, index, null, null, null, "co|st4"));
+        assertEquals(union(name, vatIds, digest), approximate(registry, index, "company 7", null, vat, "co|st4"));
+        assertEquals(address, approximate(registry, index, null, "street 11", null, "xx|yy"));
+        assertEquals(Collections.emptyList(), approximate(registry, index, "unknown", null, null, null));
+
+        assertEquals(Arrays.asList("7", "57", "107"),
+            index.getExactMatchCandidates("company 7", null, null).subList(0, 3));
+        assertTrue(index.getExactMatchCandidates(null, null, null).isEmpty());
+    }
+
+    /**
+     * @param registry
+     *      registry
+     * @param index
+     *      index of the registry
+     * @param name
+     *      standardized name
+     * @param address
+     *      standardized address
+     * @param bodyIds
+     *      body identifiers
+     * @return ids of the verified exact match candidates
+     */
+    private static List<String> exact(final List<BVDEtalonBody> registry, final BVDEtalonIndex index,
+        final String name, final String address, final List<BodyIdentifier> bodyIds) {
+        return matching(registry, index.getExactMatchCandidates(name, address, bodyIds),
+            n -> BVDEtalonIndex.isExactMatch(n, name, address, bodyIds));
+    }
+
+    /**
+     * @param registry
+     *      registry
+     * @param index
+     *      index of the registry
+     * @param name
+     *      standardized name
+     * @param address
+     *      standardized address
+     * @param bodyIds
+     *      body identifiers
+     * @param digest
+     *      digest
+     * @return ids of the verified approximate match candidates
+     */
+    private static List<String> approximate(final List<BVDEtalonBody> registry, final BVDEtalonIndex index,
+        final String name, final String address, final List<BodyIdentifier> bodyIds, final String digest) {
+        return matching(registry, index.getApproximateMatchCandidates(name, address, bodyIds, digest),
+            n -> BVDEtalonIndex.isApproximateMatch(n, name, address, bodyIds, digest));
+    }
+
+    /**
+     * The shared index is loaded again only when the digests version has changed, the version is checked at most once
+     * per interval.
+     */
+    @Test
+    public void reloadTest() {
+        AtomicLong clock = new AtomicLong();
+        AtomicReference<String> version = new AtomicReference<>("1@2017-01-01");
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger checks = new AtomicInteger();
+
+        BVDEtalonIndexCache cache = new BVDEtalonIndexCache(() -> {
+            loads.incrementAndGet();
+            return BVDEtalonIndex.of(registry());
+        }, () -> {
+            checks.incrementAndGet();
+            return version.get();
+        }, 1000, clock::get);
+
+        BVDEtalonIndex first = cache.get();
+        assertSame(first, cache.get());
+        assertEquals(1, loads.get());
+        assertEquals(1, checks.get());
+
+        // the version isn't checked within the interval
+        version.set("2@2017-01-02");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertSame(first, cache.get());
+        assertEquals(1, checks.get());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        BVDEtalonIndex second = cache.get();
+        assertNotSame(first, second);
+        assertEquals(2, loads.get());
+
+        // the same version keeps the index
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertSame(second, cache.get());
+        assertEquals(3, checks.get());
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Index is loaded from the registry page by page.
+     */
+    @Test
+    public void loadTest() {
+        List<BVDEtalonBody> registry = registry();
+
+        EtalonBodyDAO<BVDEtalonBody> dao = mock(EtalonBodyDAO.class);
+        when(dao.findAllById(Integer.MIN_VALUE, 200)).thenReturn(registry.subList(0, 200));
+        when(dao.findAllById(200, 200)).thenReturn(registry.subList(200, 400));
+        when(dao.findAllById(400, 200)).thenReturn(registry.subList(400, 500));
+        when(dao.findAllById(500, 200)).thenReturn(Collections.emptyList());
+
+        BVDEtalonIndex index = BVDEtalonIndex.load(dao, 200);
+        assertEquals(500, index.size());
+        assertEquals(BVDEtalonIndex.of(registry).getApproximateMatchCandidates("company 1", null, null, "co|st1"),
+            index.getApproximateMatchCandidates("company 1", null, null, "co|st1"));
+        assertTrue(index.getMemoryUsage() <= 500 * 6 * 8);
+    }
+}
@@ -1,5 +1,8 @@
 package eu.digiwhist.worker.system;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -64,4 +67,52 @@ public class BVDEtalonTest {
         Assert.assertNull(
             new BVDEtalonBody().setNuts3("UK12lorem impsum").getAsMatchedBody().getAddress());
     }
+
+    /**
+     * Test of parallel recalculation of etalon digests, the results are the same as of the recalculation of each etalon
+     * separately.
+     */
+    @Test
+    public final void parallelDigestsRecalculationTest() {
+        List<BVDEtalonBody> parallel = new ArrayList<>();
+        List<BVDEtalonBody> sequential = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            parallel.add(etalon(i));
+            sequential.add(etalon(i));
+        }
+
+        BVDEtalonDigestsWorker.recalculateDigests(parallel);
+        sequential.forEach(BVDEtalonDigestsWorker::recalculateDigests);
+
+        for (int i = 0; i < sequential.size(); i++) {
+            BVDEtalonBody expected = sequential.get(i);
+            BVDEtalonBody actual = parallel.get(i);
+
+            Assert.assertNotNull(actual.getDigest());
+            Assert.assertEquals(expected.getDigest(), actual.getDigest());
+            Assert.assertEquals(expected.getDigest2(), actual.getDigest2());
+            Assert.assertEquals(expected.getStandardizedName(), actual.getStandardizedName());
+            Assert.assertEquals(expected.getStandardizedAddress(), actual.getStandardizedAddress());
+            Assert.assertEquals(expected.getNuts3(), actual.getNuts3());
+            Assert.assertEquals(expected.getVatTaxNumber(), actual.getVatTaxNumber());
+        }
+    }
+
+    /**
+     * @param i
+     *      etalon number
+     * @return etalon with raw data only
+     */
+    private static BVDEtalonBody etalon(final int i) {
+        return new BVDEtalonBody()
+            .setId(String.valueOf(i))
+            .setName("Company " + i + " s.r.o.")
+            .setCity(i % 2 == 0 ? "Praha" : "Brno")
+            .setStreet("Street " + (i % 17))
+            .setPostcode("1100" + (i % 10))
+            .setNuts3(i % 3 == 0 ? null : "CZ0" + (i % 9) + " lorem")
+            .setCountry("Czech Republic")
+            .setCountryIsoCode("CZ")
+            .setVatTaxNumber(" CZ" + i + " ");
+    }
 }
@@ -0,0 +1,191 @@
+package eu.digiwhist.worker.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import eu.digiwhist.dataaccess.utils.MasterTenderDocumentUtils;
+import eu.digiwhist.dataaccess.utils.PopulateUtils;
+import eu.dl.dataaccess.dao.IndicatorDAO;
+import eu.dl.dataaccess.dao.MasterBodyDAO;
+import eu.dl.dataaccess.dao.MasterTenderDocumentDAO;
+import eu.dl.dataaccess.dto.master.MasterBody;
+import eu.dl.dataaccess.dto.generic.Price;
+import eu.dl.dataaccess.dto.master.MasterTender;
+import eu.dl.dataaccess.dto.master.MasterTenderLot;
+
+/**
+ * Tests of the consistency check of stored master tender documents.
+ */
+public final class MasterTenderDocumentCheckTest {
+
+    private MasterBodyDAO<MasterBody> masterBodyDao;
+
+    private MasterTenderDocumentDAO documentDao;
+
+    private MasterTenderDocumentUtils documentUtils;
+
+    /**
+     * Prepares the DAO mocks, the master body "b1" is named "Buyer".
+     */
+    @Before
+    @SuppressWarnings("unchecked")
+    public void init() {
+        masterBodyDao = mock(MasterBodyDAO.class);
+        when(masterBodyDao.getByGroupIds(any())).thenReturn(Arrays.asList(body("Buyer")));
+
+        IndicatorDAO indicatorDao = mock(IndicatorDAO.class);
+        when(indicatorDao.getByEntityIds(any())).thenReturn(Collections.emptyList());
+
+        documentDao = mock(MasterTenderDocumentDAO.class);
+        documentUtils = new MasterTenderDocumentUtils(new PopulateUtils(masterBodyDao, indicatorDao), documentDao);
+    }
+
+    /**
+     * The stored documents equal to the live ones are consistent.
+     */
+    @Test
+    public void consistentTest() {
+        mockStoredDocuments(live("1"), live("2"));
+
+        assertTrue(documentUtils.check(tenders("1", "2"), true).isEmpty());
+        verify(documentDao, never()).save(anyString(), anyString());
+    }
+
+    /**
+     * The missing document and the document stored before the change of the master body are reported and repaired
+     * only on request.
+     */
+    @Test
+    public void inconsistentTest() {
+        Map<String, String> stored = mockStoredDocuments(live("1"), live("2"));
+        // master body "b1" has been renamed after the document "2" was stored, document "3" is missing
+        when(masterBodyDao.getByGroupIds(any())).thenReturn(Arrays.asList(body("Renamed buyer")));
+        stored.put("1", live("1"));
+
+        assertEquals(Arrays.asList("2", "3"), documentUtils.check(tenders("1", "2", "3"), false));
+        verify(documentDao, never()).save(anyString(), anyString());
+
+        assertEquals(Arrays.asList("2", "3"), documentUtils.check(tenders("1", "2", "3"), true));
+        verify(documentDao).save("2", live("2"));
+        verify(documentDao).save("3", live("3"));
+        verify(documentDao, never()).save("1", live("1"));
+    }
+
+    /**
+     * The documents are built from copies, the secret values and group ids of the given tenders are kept.
+     */
+    @Test
+    public void updateTest() {
+        List<MasterTender> tenders = tenders("1", "2");
+        MasterTenderLot lot = new MasterTenderLot().setRobustEstimatedPrice(new Price().setNetAmount(BigDecimal.TEN));
+        tenders.get(0).setLots(Arrays.asList(lot));
+
+        documentUtils.update(tenders);
+        ArgumentCaptor<String> document = ArgumentCaptor.forClass(String.class);
+        verify(documentDao).save(eq("1"), document.capture());
+        assertFalse(document.getValue().contains("robustEstimatedPrice"));
+        assertTrue(document.getValue().contains("Buyer"));
+        verify(documentDao).save("2", live("2"));
+
+        assertEquals("group1", tenders.get(0).getGroupId());
+        assertEquals(BigDecimal.TEN, tenders.get(0).getLots().get(0).getRobustEstimatedPrice().getNetAmount());
+        assertNull(tenders.get(0).getBuyers().get(0).getName());
+        assertNull(tenders.get(0).getIndicators());
+
+        documentUtils.update(tenders.get(1));
+        verify(documentDao, times(2)).save("2", live("2"));
+        assertEquals("group2", tenders.get(1).getGroupId());
+    }
+
+    /**
+     * The orphan documents are reported and removed only on request.
+     */
+    @Test
+    public void orphansTest() {
+        LocalDateTime timestamp = LocalDateTime.of(2017, 1, 1, 0, 0);
+        when(documentDao.getOrphanIds(timestamp, "1", 2)).thenReturn(Arrays.asList("4", "5"));
+
+        assertEquals(Arrays.asList("4", "5"), documentUtils.checkOrphans(timestamp, "1", 2, false));
+        verify(documentDao, never()).removeByIds(any());
+
+        assertEquals(Arrays.asList("4", "5"), documentUtils.checkOrphans(timestamp, "1", 2, true));
+        verify(documentDao).removeByIds(Arrays.asList("4", "5"));
+
+        assertTrue(documentUtils.checkOrphans(timestamp, "5", 2, true).isEmpty());
+        verify(documentDao, times(1)).removeByIds(any());
+    }
+
+    /**
+     * Mocks the stored documents.
+     *
+     * @param documents
+     *         documents of the tenders "1", "2", ...
+     * @return stored documents by tender id, can be modified
+     */
+    private Map<String, String> mockStoredDocuments(final String... documents) {
+        Map<String, String> stored = new HashMap<>();
+        for (int i = 0; i < documents.length; i++) {
+            stored.put(String.valueOf(i + 1), documents[i]);
+        }
+        when(documentDao.getByIds(any())).thenReturn(stored);
+        return stored;
+    }
+
+    /**
+     * @param id
+     *         tender id
+     * @return live document of the tender with the current master body mock
+     */
+    private String live(final String id) {
+        return MasterTenderDocumentUtils.toDocument(documentUtils.prepare(tenders(id)).get(0));
+    }
+
+    /**
+     * @param ids
+     *         tender ids
+     * @return stored master tenders bought by the body "b1"
+     */
+    private static List<MasterTender> tenders(final String... ids) {
+        List<MasterTender> tenders = new ArrayList<>();
+        for (String id : ids) {
+            MasterTender tender = new MasterTender()
+                .setGroupId("group" + id)
+                .setBuyers(Arrays.asList(new MasterBody().setGroupId("b1")));
+            tender.setId(id);
+            tenders.add(tender);
+        }
+        return tenders;
+    }
+
+    /**
+     * @param name
+     *         body name
+     * @return master body "b1"
+     */
+    private static MasterBody body(final String name) {
+        return new MasterBody().setGroupId("b1").setName(name);
+    }
+}
@@ -3,12 +3,18 @@ package eu.dl.core.config;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -17,7 +23,14 @@ import org.slf4j.LoggerFactory;
 /**
  * Basic configuration class of the project. Technically singleton allowing easy
  * access to properties file. Reads configuration data just once during
- * initialization and provides access later on via public method.
+ * initialization and provides access later on via public method. Long running
+ * processes may read the files again by {@link #reload()}.
+ *
+ * The files are read from the classpath, ie. from the jar of the application. The files which have to be changed on
+ * the deployed host are copied to a config directory given by the system property {@value #CONFIG_DIR_PROPERTY} or
+ * the environment variable {@value #CONFIG_DIR_ENV} (eg. {@code JAVA_OPTS="-Dconfig.dir=/etc/digiwhist"}), the file
+ * found in the directory is read instead of the one from the classpath. Only the edits of those files are applied by
+ * {@link #reload()}.
  *
  * @author Kuba Krafka
  */
@@ -27,11 +40,21 @@ public enum Config {
      */
     INSTANCE;
 
-    private Properties properties;
+    private volatile Properties properties;
 
     private List<String> configFiles;
     
     private static final String BASE_CONFIG_FILE = "base.properties";
+
+    /**
+     * System property with the path of the config directory.
+     */
+    public static final String CONFIG_DIR_PROPERTY = "config.dir";
+
+    /**
+     * Environment variable with the path of the config directory, the system property takes precedence.
+     */
+    public static final String CONFIG_DIR_ENV = "DL_CONFIG_DIR";
     
     protected final Logger logger = LoggerFactory.getLogger(this.getClass().getName());
     
@@ -58,6 +81,49 @@ public enum Config {
      * @return value from configuration
      */
     public String getParam(final String paramName) {
+        return getProperties().getProperty(paramName);
+    }
+
+    /**
+     * Returns all parameters which names match the given {@code pattern}. Useful for the components which need to
+     * read a whole family of parameters (eg. "indicator.CZ.taxHaven.2017", "indicator.SK.taxHaven.2016") once during
+     * initialization instead of building the parameter names and looking them up for each processed item.
+     *
+     * @param pattern
+     *      pattern that whole parameter name has to match
+     * @return map of matching parameter names and their values, empty map if no parameter matches
+     */
+    public Map<String, String> getParamsMatching(final Pattern pattern) {
+        Properties props = getProperties();
+
+        Map<String, String> result = new HashMap<>();
+        for (String name : props.stringPropertyNames()) {
+            if (pattern.matcher(name).matches()) {
+                result.put(name, props.getProperty(name));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the configuration files again, the changes of the files in the config directory are applied. The readers
+     * get either the old or the new properties, never a mix of them. The components which have read their parameters
+     * during initialization keep using the old values.
+     *
+     * @throws IOException
+     *      in case that config file isn't set or properties loading from this file fails, the old properties are kept
+     */
+    public void reload() throws IOException {
+        loadProperties();
+    }
+
+    /**
+     * Returns loaded properties, loads them in case that it wasn't done yet.
+     *
+     * @return properties
+     */
+    private Properties getProperties() {
         if (properties == null) {
             try {
                 loadProperties();
@@ -66,7 +132,7 @@ public enum Config {
             }
         }
 
-        return properties.getProperty(paramName);
+        return properties;
     }
 
     /**
@@ -134,41 +200,51 @@ public enum Config {
             throw new IOException("Config files aren't set");
         }
 
-        properties = new Properties();
+        Properties loaded = new Properties();
 
-        // load base - shared properties file from classpath
-        InputStream baseInputStream = getClass().getClassLoader().getResourceAsStream(BASE_CONFIG_FILE);
+        // load base - shared properties file from config directory or classpath
+        InputStream baseInputStream = openConfigFile(BASE_CONFIG_FILE);
         
         if (baseInputStream != null) {
-            properties.load(baseInputStream);
+            loaded.load(baseInputStream);
             baseInputStream.close();
         } else {
             logger.info("Property file '{}' not found in the classpath", BASE_CONFIG_FILE);
         }
         
         // load properties files from classpath, for each file is necessary to append extension ".properties"
-        loadConfigurationFiles(configFiles.stream().map(n -> n + ".properties").collect(Collectors.toList()));
+        loadConfigurationFiles(loaded,
+            configFiles.stream().map(n -> n + ".properties").collect(Collectors.toList()));
 
         // load additional property files,
-        Set<String> additionalPropFiles = getParamValueAsList("additionalPropertyFiles", ",", HashSet.class);
-        loadConfigurationFiles(new ArrayList<>(additionalPropFiles));
+        // (read from the properties being loaded, getParamValueAsList would read the current ones)
+        String additionalPropFiles = loaded.getProperty("additionalPropertyFiles");
+        if (additionalPropFiles != null) {
+            Set<String> files = new HashSet<>(Arrays.asList(additionalPropFiles.split(",")).stream()
+                .map(n -> n.trim()).collect(Collectors.toList()));
+            loadConfigurationFiles(loaded, new ArrayList<>(files));
+        }
+
+        properties = loaded;
     }
 
     /**
      * Loads properties from the given list of configuration files.
      *
+     * @param loaded
+     *      properties the files are loaded to
      * @param files
      *      list of configuration files
      * @throws IOException
      *      in case that configuration file isn't set or properties loading from this file fails
      */
-    private void loadConfigurationFiles(final List<String> files) throws IOException {
+    private void loadConfigurationFiles(final Properties loaded, final List<String> files) throws IOException {
         for (String f : files) {
-		    // load properties file from classpath
-		    InputStream inputStream = getClass().getClassLoader().getResourceAsStream(f);
+		    // load properties file from config directory or classpath
+		    InputStream inputStream = openConfigFile(f);
 
 		    if (inputStream != null) {
-		        properties.load(inputStream);
+		        loaded.load(inputStream);
 		    } else {
 		        throw new FileNotFoundException("Property file '" + f + "' not found in the classpath");
 		    }
@@ -176,4 +252,27 @@ public enum Config {
 		    inputStream.close();
         }
     }
+
+    /**
+     * Opens the configuration file, the file from the config directory takes precedence over the one from the
+     * classpath.
+     *
+     * @param name
+     *      name of the file
+     * @return input stream of the file or null in case that the file isn't found
+     * @throws IOException
+     *      in case that the file from the config directory can't be opened
+     */
+    private InputStream openConfigFile(final String name) throws IOException {
+        String dir = System.getProperty(CONFIG_DIR_PROPERTY, System.getenv(CONFIG_DIR_ENV));
+        if (dir != null) {
+            Path file = Paths.get(dir, name);
+            if (Files.isRegularFile(file)) {
+                logger.debug("Property file '{}' read from {}", name, file);
+                return Files.newInputStream(file);
+            }
+        }
+
+        return getClass().getClassLoader().getResourceAsStream(name);
+    }
 }
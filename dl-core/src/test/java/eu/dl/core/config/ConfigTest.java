@@ -0,0 +1,89 @@
+package eu.dl.core.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for Config class.
+ */
+public final class ConfigTest {
+
+    private Path dir;
+
+    /**
+     * Creates empty config directory.
+     *
+     * @throws IOException
+     *      in case of failure
+     */
+    @Before
+    public void init() throws IOException {
+        dir = Files.createTempDirectory("config");
+        Config.getInstance().setConfigFile(Arrays.asList("unit_test"));
+    }
+
+    /**
+     * Removes the config directory and reads the files from the classpath again.
+     *
+     * @throws IOException
+     *      in case of failure
+     */
+    @After
+    public void clean() throws IOException {
+        System.clearProperty(Config.CONFIG_DIR_PROPERTY);
+        Files.deleteIfExists(dir.resolve("unit_test.properties"));
+        Files.deleteIfExists(dir);
+        Config.getInstance().reload();
+    }
+
+    /**
+     * The file from the config directory takes precedence over the one from the classpath and its changes are
+     * applied by reload. The files missing in the directory are read from the classpath.
+     *
+     * @throws IOException
+     *      in case of failure
+     */
+    @Test
+    public void configDirTest() throws IOException {
+        System.setProperty(Config.CONFIG_DIR_PROPERTY, dir.toString());
+        Config.getInstance().reload();
+        assertEquals("/tmp/storage", Config.getInstance().getParam("filesystemstorageservice.path"));
+
+        write("filesystemstorageservice.path = /tmp/external");
+        Config.getInstance().reload();
+        assertEquals("/tmp/external", Config.getInstance().getParam("filesystemstorageservice.path"));
+        assertNull(Config.getInstance().getParam("project.name"));
+
+        write("filesystemstorageservice.path = /tmp/edited");
+        Config.getInstance().reload();
+        assertEquals("/tmp/edited", Config.getInstance().getParam("filesystemstorageservice.path"));
+
+        System.clearProperty(Config.CONFIG_DIR_PROPERTY);
+        Config.getInstance().reload();
+        assertEquals("/tmp/storage", Config.getInstance().getParam("filesystemstorageservice.path"));
+        assertEquals("core", Config.getInstance().getParam("project.name"));
+    }
+
+    /**
+     * Writes the config file to the config directory.
+     *
+     * @param line
+     *      content of the file
+     * @throws IOException
+     *      in case of failure
+     */
+    private void write(final String line) throws IOException {
+        Files.write(dir.resolve("unit_test.properties"), Collections.singletonList(line), StandardCharsets.UTF_8);
+    }
+}
@@ -25,6 +25,21 @@ public interface CleanTenderDAO<T extends CleanTender> extends CleanDAO<T> {
      */
     List<T> getByCountry(String countryCode, Integer page);
 
+    /**
+     * Returns paged list of clean items for a specific country. The first item of the next page follows the page, see
+     * {@link CleanDAO#getModifiedAfter(java.time.LocalDateTime, String, Integer, Integer)}.
+     *
+     * @param countryCode
+     *            ISO country code
+     * @param page
+     *            page number
+     * @param pageSize
+     *            number of items per page, at most {@link eu.dl.dataaccess.utils.PageUtils#MAX_PAGE_SIZE}
+     *
+     * @return clean items of the page followed by the first item of the next page, if there is any
+     */
+    List<T> getByCountry(String countryCode, Integer page, Integer pageSize);
+
     /**
      * Gets list of publication source IDs which are included.
      *
@@ -1,9 +1,11 @@
 package eu.dl.dataaccess.dao;
 
+import eu.dl.dataaccess.dto.PageVersion;
 import eu.dl.dataaccess.dto.master.MasterTender;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * DAO for mastered body.
@@ -74,6 +76,73 @@ public interface MasterTenderDAO<T extends MasterTender> extends MasterDAO<T> {
      */
     List<T> getByCountry(String countryCode, Integer page);
 
+    /**
+     * Hands over the page of objects modified after timestamp to the consumer one by one, as they are read, so the
+     * whole page doesn't have to be held in memory. Unlike
+     * {@link #getModifiedAfter(LocalDateTime, String, Integer, Integer)} only the objects of the page are handed over,
+     * {@link #getModifiedAfterVersion(LocalDateTime, String, Integer, Integer)} tells whether there is a next page.
+     *
+     * @param timestamp
+     *         objects modified after this timestamp will be returned
+     * @param modifiedBy
+     *         "author" of the change, null for any author
+     * @param page
+     *         order of the page in the result
+     * @param pageSize
+     *         number of objects per page
+     * @param consumer
+     *         consumer of the objects
+     */
+    void streamModifiedAfter(LocalDateTime timestamp, String modifiedBy, Integer page, Integer pageSize,
+                             Consumer<T> consumer);
+
+    /**
+     * Hands over the page of objects for a specific country to the consumer one by one, as they are read, so the
+     * whole page doesn't have to be held in memory. {@link #getByCountryVersion(String, Integer, Integer)} tells
+     * whether there is a next page.
+     *
+     * @param countryCode
+     *            ISO country code
+     * @param page
+     *            page number
+     * @param pageSize
+     *            number of objects per page
+     * @param consumer
+     *            consumer of the objects
+     */
+    void streamByCountry(String countryCode, Integer page, Integer pageSize, Consumer<T> consumer);
+
+    /**
+     * Returns version of the page handed over by {@link #streamByCountry(String, Integer, Integer, Consumer)}. Only
+     * the ids and modification timestamps of the objects are read.
+     *
+     * @param countryCode
+     *            ISO country code
+     * @param page
+     *            page number
+     * @param pageSize
+     *            number of objects per page
+     *
+     * @return version of the page
+     */
+    PageVersion getByCountryVersion(String countryCode, Integer page, Integer pageSize);
+
+    /**
+     * Hands over the tenders which reference the master body group (as buyer, bidder or any other body of the tender)
+     * to the consumer one by one, in the order of id. The next batch continues after the id of the last tender of the
+     * previous one.
+     *
+     * @param groupId
+     *         group id of the master body
+     * @param id
+     *         id of the last tender of the previous batch, null for the first batch
+     * @param limit
+     *         maximum number of tenders
+     * @param consumer
+     *         consumer of the tenders
+     */
+    void streamByBodyGroupId(String groupId, String id, Integer limit, Consumer<T> consumer);
+
     /**
      * Returns list of tender ids modified by source and version. The IDs are sorted.
      *
@@ -0,0 +1,127 @@
+package eu.dl.dataaccess.dao;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import eu.dl.dataaccess.dto.PageVersion;
+
+/**
+ * DAO for public API documents of master tenders. The document is the final JSON of the master tender as the API
+ * serves it (populated with bodies and indicators, with the secret values hidden). The documents are selected the
+ * same way as the master tenders by {@link MasterTenderDAO}, the modification timestamp, author and country of the
+ * document are the ones of its master tender.
+ */
+public interface MasterTenderDocumentDAO extends BaseDAO<String> {
+    /**
+     * Saves document of the stored master tender, replaces the previous one.
+     *
+     * @param tenderId
+     *         id of the master tender
+     * @param document
+     *         JSON document
+     */
+    void save(String tenderId, String document);
+
+    /**
+     * Returns documents of the master tenders.
+     *
+     * @param tenderIds
+     *         ids of the master tenders
+     *
+     * @return JSON documents by tender id, the tenders without document are missing
+     */
+    Map<String, String> getByIds(Collection<String> tenderIds);
+
+    /**
+     * Returns ids of the documents whose master tender doesn't exist anymore, in the order of id. The next batch
+     * continues after the last id of the previous one.
+     *
+     * @param timestamp
+     *         only the documents of tenders modified after this timestamp are checked
+     * @param id
+     *         last id of the previous batch, null for the first batch
+     * @param limit
+     *         maximum number of ids
+     *
+     * @return ids of the orphan documents
+     */
+    List<String> getOrphanIds(LocalDateTime timestamp, String id, Integer limit);
+
+    /**
+     * Removes the documents.
+     *
+     * @param tenderIds
+     *         ids of the master tenders
+     */
+    void removeByIds(Collection<String> tenderIds);
+
+    /**
+     * Hands over the documents of {@link MasterTenderDAO#streamModifiedAfter(LocalDateTime, String, Integer, Integer,
+     * Consumer)} to the consumer one by one, as they are read.
+     *
+     * @param timestamp
+     *         documents of tenders modified after this timestamp will be returned
+     * @param modifiedBy
+     *         "author" of the change, null for any author
+     * @param page
+     *         order of the page in the result
+     * @param pageSize
+     *         number of documents per page
+     * @param consumer
+     *         consumer of the JSON documents
+     */
+    void streamModifiedAfter(LocalDateTime timestamp, String modifiedBy, Integer page, Integer pageSize,
+                             Consumer<String> consumer);
+
+    /**
+     * Hands over the documents of {@link MasterTenderDAO#streamByCountry(String, Integer, Integer, Consumer)} to the
+     * consumer one by one, as they are read.
+     *
+     * @param countryCode
+     *         ISO country code
+     * @param page
+     *         page number
+     * @param pageSize
+     *         number of documents per page
+     * @param consumer
+     *         consumer of the JSON documents
+     */
+    void streamByCountry(String countryCode, Integer page, Integer pageSize, Consumer<String> consumer);
+
+    /**
+     * Returns version of the page of documents returned by
+     * {@link #streamModifiedAfter(LocalDateTime, String, Integer, Integer, Consumer)}. The version changes whenever
+     * any document of the page is rebuilt.
+     *
+     * @param timestamp
+     *         documents of tenders modified after this timestamp will be returned
+     * @param modifiedBy
+     *         "author" of the change, null for any author
+     * @param page
+     *         order of the page in the result
+     * @param pageSize
+     *         number of documents per page
+     *
+     * @return version of the page
+     */
+    PageVersion getModifiedAfterVersion(LocalDateTime timestamp, String modifiedBy, Integer page, Integer pageSize);
+
+    /**
+     * Returns version of the page of documents returned by
+     * {@link #streamByCountry(String, Integer, Integer, Consumer)}. The version changes whenever any document of the
+     * page is rebuilt.
+     *
+     * @param countryCode
+     *         ISO country code
+     * @param page
+     *         page number
+     * @param pageSize
+     *         number of documents per page
+     *
+     * @return version of the page
+     */
+    PageVersion getByCountryVersion(String countryCode, Integer page, Integer pageSize);
+}
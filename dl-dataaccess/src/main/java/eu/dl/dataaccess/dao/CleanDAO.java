@@ -77,6 +77,24 @@ public interface CleanDAO<T extends Cleanable> {
      */
     List<T> getModifiedAfter(LocalDateTime timestamp, String modifiedBy, Integer page);
 
+    /**
+     * Returns objects which has been modified after timestamp (by certain source). The result is paged with the
+     * requested page size and the first object of the next page follows the page, so the caller knows whether there is
+     * a next page (see {@link eu.dl.dataaccess.utils.PageUtils#trim(List, int)}).
+     *
+     * @param timestamp
+     *            objects modified after this timestamp will be returned
+     * @param modifiedBy
+     *            "author" of the change, null for any author
+     * @param page
+     *            order of the page in the result
+     * @param pageSize
+     *            number of objects per page, at most {@link eu.dl.dataaccess.utils.PageUtils#MAX_PAGE_SIZE}
+     *
+     * @return objects of the page followed by the first object of the next page, if there is any
+     */
+    List<T> getModifiedAfter(LocalDateTime timestamp, String modifiedBy, Integer page, Integer pageSize);
+
     /**
      * Returns new instance of T.
      *
@@ -66,4 +66,12 @@ public interface EtalonBodyDAO<T extends PoolBody> extends ExactMatchBodyDAO<T>,
      *      etalon body
      */
     void updateDigestsAndBodyIdsAndNuts(T body);
+
+    /**
+     * Updates etalon entries in database at once.
+     *
+     * @param bodies
+     *      etalon bodies
+     */
+    void updateDigestsAndBodyIdsAndNuts(List<T> bodies);
 }
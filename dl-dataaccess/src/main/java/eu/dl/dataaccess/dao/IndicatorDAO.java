@@ -33,6 +33,22 @@ public interface IndicatorDAO<T> {
      */
     String save(T indicator);
 
+    /**
+     * Replaces indicators of the given types for item with given id. All the existing indicators of the given types
+     * are deleted and the given indicators are saved. The whole replacement takes one delete statement and one batched
+     * insert statement.
+     *
+     * @param itemId
+     *            for which item should be indicators replaced
+     *
+     * @param indicatorTypes
+     *            which indicator types should be replaced
+     *
+     * @param indicators
+     *            new indicators, they have to be related to the item
+     */
+    void replace(String itemId, Collection<String> indicatorTypes, List<T> indicators);
+
     /**
      * Returns list of indicators related to entity.
      * @param id entity id
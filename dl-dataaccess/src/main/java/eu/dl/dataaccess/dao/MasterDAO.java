@@ -3,6 +3,9 @@ package eu.dl.dataaccess.dao;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+
+import eu.dl.dataaccess.dto.PageVersion;
 
 /**
  * Shared methods for master DAOs.
@@ -69,6 +72,57 @@ public interface MasterDAO<T> {
      */
     List<T> getModifiedAfter(LocalDateTime timestamp, String modifiedBy, Integer page);
 
+    /**
+     * Returns objects which has been modified after timestamp (by certain source). The result is paged with the
+     * requested page size and the first object of the next page follows the page, so the caller knows whether there is
+     * a next page (see {@link eu.dl.dataaccess.utils.PageUtils#trim(List, int)}).
+     *
+     * @param timestamp
+     *            objects modified after this timestamp will be returned
+     * @param modifiedBy
+     *            "author" of the change, null for any author
+     * @param page
+     *            order of the page in the result
+     * @param pageSize
+     *            number of objects per page, at most {@link eu.dl.dataaccess.utils.PageUtils#MAX_PAGE_SIZE}
+     *
+     * @return objects of the page followed by the first object of the next page, if there is any
+     */
+    List<T> getModifiedAfter(LocalDateTime timestamp, String modifiedBy, Integer page, Integer pageSize);
+
+    /**
+     * Hands over objects ordered by modification timestamp and id to the consumer one by one, as they are read. The
+     * objects follow the given position, so the next call can continue from the timestamp and id of the last object
+     * (keyset paging, the position is found by index instead of skipping of all the previous objects).
+     *
+     * @param timestamp
+     *            objects modified after this timestamp (or at this timestamp with greater id) will be returned
+     * @param id
+     *            id of the last object modified at the timestamp, null for objects modified after the timestamp
+     * @param limit
+     *            maximum number of the objects
+     * @param consumer
+     *            consumer of the objects
+     */
+    void streamAfter(LocalDateTime timestamp, String id, Integer limit, Consumer<T> consumer);
+
+    /**
+     * Returns version of the page returned by {@link #getModifiedAfter(LocalDateTime, String, Integer, Integer)}. Only
+     * the ids and modification timestamps of the objects are read.
+     *
+     * @param timestamp
+     *            objects modified after this timestamp will be returned
+     * @param modifiedBy
+     *            "author" of the change, null for any author
+     * @param page
+     *            order of the page in the result
+     * @param pageSize
+     *            number of objects per page
+     *
+     * @return version of the page
+     */
+    PageVersion getModifiedAfterVersion(LocalDateTime timestamp, String modifiedBy, Integer page, Integer pageSize);
+
     /**
      * Returns new instance of T.
      *
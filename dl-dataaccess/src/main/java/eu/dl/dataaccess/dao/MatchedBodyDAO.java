@@ -25,6 +25,16 @@ public interface MatchedBodyDAO<T extends MatchedBody>
      */
     String save(T matchedBody);
 
+    /**
+     * Saves all the given bodies to persistent storage at once.
+     *
+     * @param matchedBodies
+     *            matched bodies to be saved
+     *
+     * @return ids of saved matched bodies in the order of the given bodies
+     */
+    List<String> saveAll(List<T> matchedBodies);
+
     /**
      * Returns the object by given id.
      *
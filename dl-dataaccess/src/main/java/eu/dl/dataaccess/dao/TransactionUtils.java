@@ -10,6 +10,18 @@ public interface TransactionUtils {
      */
     void begin();
 
+    /**
+     * Begins new transaction in the current thread only if it gets a connection of its own without waiting, so it
+     * is isolated from the transactions of the other threads. Used for the optional parallel work, which is done in
+     * the caller's transaction otherwise. By default no such transaction can be begun.
+     *
+     * @return true in case that the transaction has been begun, it has to be ended by {@link #commit()} or
+     *         {@link #rollback()}
+     */
+    default boolean tryBegin() {
+        return false;
+    }
+
     /**
      * Commits trnasaction.
      */
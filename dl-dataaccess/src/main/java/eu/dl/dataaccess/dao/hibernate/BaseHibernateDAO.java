@@ -1,14 +1,11 @@
 package eu.dl.dataaccess.dao.hibernate;
 
-import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import eu.dl.core.UnrecoverableException;
 import eu.dl.core.config.Config;
 import eu.dl.dataaccess.dao.GenericDAO;
 import eu.dl.dataaccess.dto.StorableDTO;
+import eu.dl.dataaccess.utils.JsonUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +13,6 @@ import org.slf4j.LoggerFactory;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -47,21 +43,12 @@ public abstract class BaseHibernateDAO<T extends StorableDTO> implements Generic
      */
     public static final Integer PAGE_SIZE = 100;
 
-    protected ObjectMapper mapper;
-
     /**
      * Initialize connection to db.
      */
     protected BaseHibernateDAO() {
         config = Config.getInstance();
         entityManager = HibernateTransactionUtils.getInstance().getEntityManager();
-
-        mapper = new ObjectMapper();
-        mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
-        mapper.registerModule(new JavaTimeModule());
-        mapper.setDateFormat(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"));
-        mapper.setSerializationInclusion(Include.NON_NULL);
-        mapper.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
     }
 
     /**
@@ -155,7 +142,10 @@ public abstract class BaseHibernateDAO<T extends StorableDTO> implements Generic
      */
     protected final T deserialize(final T t) {
         try {
-            mapper.readerForUpdating(t).readValue(t.getData().getData());
+            JsonUtils.getStorageReader(t.getClass())
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .withValueToUpdate(t)
+                .readValue(t.getData().getData());
             logger.debug("Deserialized object {} with id {}", t, t.getId());
         } catch (IOException e) {
             logger.error("Unable to deserialize data from json exception {}", e);
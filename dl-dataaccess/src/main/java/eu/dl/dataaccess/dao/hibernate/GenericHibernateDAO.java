@@ -5,6 +5,7 @@ import eu.dl.core.UnrecoverableException;
 import eu.dl.dataaccess.dao.GenericDAO;
 import eu.dl.dataaccess.dto.JsonData;
 import eu.dl.dataaccess.dto.StorableDTO;
+import eu.dl.dataaccess.utils.JsonUtils;
 
 import javax.persistence.Query;
 import java.time.LocalDateTime;
@@ -30,7 +31,6 @@ public abstract class GenericHibernateDAO<T extends StorableDTO> extends BaseHib
      */
     protected GenericHibernateDAO() {
         super();
-        mapper.registerModule(new HibernateJacksonModule());
     }
 
     @Override
@@ -43,7 +43,7 @@ public abstract class GenericHibernateDAO<T extends StorableDTO> extends BaseHib
         t.setData(null);
 
         try {
-            ObjectWriter objectWriter = mapper.writerWithDefaultPrettyPrinter();
+            ObjectWriter objectWriter = JsonUtils.getStorageWriter(t.getClass());
             byte[] tWritten = objectWriter.writeValueAsBytes(t);
             // Written json
             jsonData = new String(tWritten, "UTF-8");
@@ -62,6 +62,25 @@ public abstract class GenericHibernateDAO<T extends StorableDTO> extends BaseHib
         return t.getId();
     }
 
+    /**
+     * Saves all the given objects. The objects are persisted one by one, the session flushes them together.
+     *
+     * @param items
+     *            objects to be saved
+     *
+     * @return list of saved ids in the order of the given objects
+     */
+    public final List<String> saveAll(final List<T> items) {
+        List<String> ids = new ArrayList<>();
+        if (items != null) {
+            for (T t : items) {
+                ids.add(save(t));
+            }
+        }
+
+        return ids;
+    }
+
     @Override
     public final T getById(final String id) {
         T t = entityManager.find(getDTOClass(), id);
@@ -156,6 +175,25 @@ public abstract class GenericHibernateDAO<T extends StorableDTO> extends BaseHib
         return result;
     }
 
+    /**
+     * Paging with the requested page size isn't supported yet.
+     *
+     * @param timestamp
+     *         items modified after this timestamp will be returned
+     * @param modifiedBy
+     *         "author" of the change or null for any author
+     * @param page
+     *         order of the page in the result
+     * @param pageSize
+     *         number of items per page
+     *
+     * @return nothing, always throws {@link UnsupportedOperationException}
+     */
+    public final List<T> getModifiedAfter(final LocalDateTime timestamp, final String modifiedBy, final Integer page,
+            final Integer pageSize) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
     @Override
     public final List<String> getIdsBySourceAndVersion(final String name, final String version) {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -1,7 +1,6 @@
 package eu.dl.dataaccess.dao.jdbc;
 
 import java.sql.Connection;
-import java.text.SimpleDateFormat;
 import java.util.List;
 
 import org.apache.commons.lang3.StringEscapeUtils;
@@ -9,12 +8,6 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-
 import eu.dl.core.config.Config;
 import eu.dl.dataaccess.dao.BaseDAO;
 
@@ -37,10 +30,6 @@ public abstract class BaseJdbcDAO<T> implements BaseDAO<T> {
 
     protected List<Pair<String, String>> additionalWorkers;
 
-    protected final Connection connection;
-
-    protected final ObjectMapper mapper;
-
     protected final String schema;
 
     /**
@@ -55,17 +44,16 @@ public abstract class BaseJdbcDAO<T> implements BaseDAO<T> {
         config = Config.getInstance();
 
         schema = config.getParam("jdbc.schema");
+    }
 
-        connection = JdbcTransactionUtils.getInstance().getConnection();
-
-        mapper = new ObjectMapper();
-        mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
-        mapper.registerModule(new JavaTimeModule());
-        mapper.setDateFormat(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"));
-        mapper.setSerializationInclusion(Include.NON_NULL);
-        mapper.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
-
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    /**
+     * Returns connection of the current transaction, see {@link JdbcTransactionUtils#getConnection()}. The connection
+     * mustn't be kept, it can differ for each transaction.
+     *
+     * @return connection
+     */
+    protected final Connection getConnection() {
+        return JdbcTransactionUtils.getInstance().getConnection();
     }
 
     /**
@@ -9,14 +9,20 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectWriter;
 
 import eu.dl.core.UnrecoverableException;
 import eu.dl.dataaccess.dao.GenericDAO;
+import eu.dl.dataaccess.dto.PageVersion;
 import eu.dl.dataaccess.dto.StorableDTO;
+import eu.dl.dataaccess.utils.JsonUtils;
+import eu.dl.dataaccess.utils.PageUtils;
 
 /**
  * Generic DAO implementation for Jdbc connection.
@@ -26,6 +32,15 @@ import eu.dl.dataaccess.dto.StorableDTO;
  */
 public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<T> implements GenericDAO<T> {
 
+    private static final String HASH = "hash";
+
+    private static final String GROUP_ID = "groupId";
+
+    /**
+     * Number of rows fetched from the database cursor at once by the streaming methods.
+     */
+    private static final int STREAM_FETCH_SIZE = 100;
+
     /**
      * Gets tenders for a specific country.
      *
@@ -35,13 +50,9 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
      */
     public final List<T> getByCountry(final String countryCode, final Integer page) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE data ->> 'country' = '" +
-                            sanitizeForJsonString(countryCode) + "' ORDER BY modified ASC LIMIT ? " +
-                            "OFFSET ?");
+            PreparedStatement statement = byCountryQuery("*", countryCode, page * PAGE_SIZE, PAGE_SIZE)
+                .prepare(getConnection());
 
-            statement.setInt(1, PAGE_SIZE);
-            statement.setInt(2, page * PAGE_SIZE);
             ResultSet rs = statement.executeQuery();
 
             List<T> result = new ArrayList<T>();
@@ -60,6 +71,23 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
         }
     }
 
+    /**
+     * Gets page of tenders for a specific country followed by the first tender of the next page, if there is any.
+     *
+     * @param countryCode country code
+     * @param page page
+     * @param pageSize number of tenders per page
+     * @return page with tenders followed by the first tender of the next page
+     */
+    public final List<T> getByCountry(final String countryCode, final Integer page, final Integer pageSize) {
+        long offset = PageUtils.getOffset(page, pageSize);
+
+        List<T> result = new ArrayList<T>();
+        stream(byCountryQuery("*", countryCode, offset, pageSize + 1), result::add);
+
+        return result;
+    }
+
     /**
      * Returns items with the group id.
      *
@@ -70,10 +98,10 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
      */
     public final List<T> getByGroupId(final String groupId) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE data @> '{ \"groupId\":\"" +
-                            sanitizeForJsonString(
-                            groupId) + "\"}' ");
+            PreparedStatement statement = getConnection().prepareStatement(
+                    "SELECT * FROM " + getTableWithSchema() + " WHERE " + keyCondition(GROUP_ID));
+
+            statement.setString(1, keyValue(GROUP_ID, groupId));
 
             ResultSet rs = statement.executeQuery();
 
@@ -114,20 +142,28 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
             ArrayList<String> list = new ArrayList<String>(groupIds);
 
             while (counter < size) {
-                String condition = new String();
-
+                List<String> page = new ArrayList<>();
                 for (String groupId : list.subList(counter, Integer.min(size, counter + pageSize))) {
                     if (groupId != null) {
-                        if (!condition.isEmpty()) {
-                            condition = condition + " OR ";
-                        }
-
-                        condition = condition + "data @> '{ \"groupId\":\"" + sanitizeForJsonString(groupId) + "\"}' ";
+                        page.add(groupId);
                     }
                 }
 
-                PreparedStatement statement = connection.prepareStatement(
-                        "SELECT * FROM " + getTableWithSchema() + " WHERE " + condition + ";");
+                if (page.isEmpty()) {
+                    counter = counter + pageSize;
+                    continue;
+                }
+
+                JdbcQuery query = new JdbcQuery("SELECT * FROM " + getTableWithSchema() + " WHERE ");
+                if (hasGroupIdColumn()) {
+                    query.append("groupid = ANY(").array(page).append(")");
+                } else {
+                    List<Object> values = new ArrayList<>();
+                    page.forEach(n -> values.add(Collections.singletonMap(GROUP_ID, n)));
+                    query.append("data @> ANY(").jsonArray(values).append(")");
+                }
+
+                PreparedStatement statement = query.prepare(getConnection());
 
                 ResultSet rs = statement.executeQuery();
 
@@ -153,37 +189,13 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
     public final String save(final T t) {
         if (t != null) {
             try {
-                PreparedStatement statement = null;
-
                 // generate now stamp
-                LocalDateTime now = LocalDateTime.now();
-                Timestamp timestamp = Timestamp.valueOf(now);
+                Timestamp timestamp = Timestamp.valueOf(LocalDateTime.now());
 
                 if (t.getId() == null) {
                     // insert
-                    statement = connection.prepareStatement(
-                            "INSERT INTO " + getTableWithSchema() + " (id, created, createdBy, createdByVersion, " +
-                                    "modified, modifiedBy, modifiedByVersion, data)" + " VALUES (?, ?, ?, ?, ?, ?, ?,"
-                                    + "" + "" + "" + "" + "" + "" + "" + "" + " ?)",
-                            Statement.RETURN_GENERATED_KEYS);
-
-                    // generate id and populate data
-                    t.setId(UUID.randomUUID().toString());
-                    t.setCreatedBy(getWorkerName());
-                    t.setCreatedByVersion(getWorkerVersion());
-                    t.setCreated(timestamp.toLocalDateTime());
-                    t.setModifiedBy(getWorkerName());
-                    t.setModifiedByVersion(getWorkerVersion());
-                    t.setModified(timestamp.toLocalDateTime());
-
-                    statement.setString(1, t.getId());
-                    statement.setTimestamp(2, timestamp);
-                    statement.setString(3, getWorkerName());
-                    statement.setString(4, getWorkerVersion());
-                    statement.setTimestamp(5, timestamp);
-                    statement.setString(6, getWorkerName());
-                    statement.setString(7, getWorkerVersion());
-                    statement.setString(8, serializeToJson(t));
+                    PreparedStatement statement = prepareInsert(Statement.RETURN_GENERATED_KEYS);
+                    setInsertParameters(statement, t, timestamp);
 
                     // execute insert ad get primary key returned
                     statement.executeUpdate();
@@ -193,20 +205,8 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
                     }
                 } else {
                     // update
-                    statement = connection.prepareStatement(
-                            "UPDATE " + getTableWithSchema() + " SET modified = ? , modifiedBy = ?, " +
-                                    "modifiedByVersion" + " = ?, data = ? WHERE id = ?;");
-
-                    // populate data for json
-                    t.setModifiedBy(getWorkerName());
-                    t.setModifiedByVersion(getWorkerVersion());
-                    t.setModified(timestamp.toLocalDateTime());
-
-                    statement.setTimestamp(1, timestamp);
-                    statement.setString(2, getWorkerName());
-                    statement.setString(3, getWorkerVersion());
-                    statement.setString(4, serializeToJson(t));
-                    statement.setString(5, t.getId());
+                    PreparedStatement statement = prepareUpdate();
+                    setUpdateParameters(statement, t, timestamp);
 
                     // execute insert ad get primary key returned
                     statement.executeUpdate();
@@ -222,10 +222,160 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
         }
     }
 
+    /**
+     * Saves all the given objects at once. New objects are inserted with one batched statement, already stored
+     * objects are updated with another one. All the objects get the same modification timestamp.
+     *
+     * @param items
+     *         objects to be saved
+     *
+     * @return list of saved ids in the order of the given objects
+     */
+    public final List<String> saveAll(final List<T> items) {
+        List<String> ids = new ArrayList<>();
+        if (items == null || items.isEmpty()) {
+            return ids;
+        }
+
+        if (items.contains(null)) {
+            logger.error("Unable to save null");
+            throw new UnrecoverableException("Unable to save null!");
+        }
+
+        try {
+            // generate now stamp
+            Timestamp timestamp = Timestamp.valueOf(LocalDateTime.now());
+
+            PreparedStatement insert = null;
+            PreparedStatement update = null;
+            for (T t : items) {
+                if (t.getId() == null) {
+                    if (insert == null) {
+                        insert = prepareInsert(Statement.NO_GENERATED_KEYS);
+                    }
+                    setInsertParameters(insert, t, timestamp);
+                    insert.addBatch();
+                } else {
+                    if (update == null) {
+                        update = prepareUpdate();
+                    }
+                    setUpdateParameters(update, t, timestamp);
+                    update.addBatch();
+                }
+
+                ids.add(t.getId());
+            }
+
+            if (insert != null) {
+                insert.executeBatch();
+                insert.close();
+            }
+
+            if (update != null) {
+                update.executeBatch();
+                update.close();
+            }
+
+            return ids;
+        } catch (SQLException e) {
+            logger.error("Unable to perform query, because of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    /**
+     * Prepares statement used to insert new object.
+     *
+     * @param autoGeneratedKeys
+     *         whether the auto-generated keys should be returned
+     *
+     * @return insert statement
+     * @throws SQLException
+     *         in case that statement preparation fails
+     */
+    private PreparedStatement prepareInsert(final int autoGeneratedKeys) throws SQLException {
+        return getConnection().prepareStatement(
+                "INSERT INTO " + getTableWithSchema() + " (id, created, createdBy, createdByVersion, " +
+                        "modified, modifiedBy, modifiedByVersion, data)" + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                autoGeneratedKeys);
+    }
+
+    /**
+     * Generates id, populates metadata of the new object and sets them as parameters of the insert statement.
+     *
+     * @param statement
+     *         insert statement
+     * @param t
+     *         object to be inserted
+     * @param timestamp
+     *         creation timestamp
+     * @throws SQLException
+     *         in case that parameter can't be set
+     */
+    private void setInsertParameters(final PreparedStatement statement, final T t, final Timestamp timestamp)
+            throws SQLException {
+        // generate id and populate data
+        t.setId(UUID.randomUUID().toString());
+        t.setCreatedBy(getWorkerName());
+        t.setCreatedByVersion(getWorkerVersion());
+        t.setCreated(timestamp.toLocalDateTime());
+        t.setModifiedBy(getWorkerName());
+        t.setModifiedByVersion(getWorkerVersion());
+        t.setModified(timestamp.toLocalDateTime());
+
+        statement.setString(1, t.getId());
+        statement.setTimestamp(2, timestamp);
+        statement.setString(3, getWorkerName());
+        statement.setString(4, getWorkerVersion());
+        statement.setTimestamp(5, timestamp);
+        statement.setString(6, getWorkerName());
+        statement.setString(7, getWorkerVersion());
+        statement.setString(8, serializeToJson(t));
+    }
+
+    /**
+     * Prepares statement used to update already stored object.
+     *
+     * @return update statement
+     * @throws SQLException
+     *         in case that statement preparation fails
+     */
+    private PreparedStatement prepareUpdate() throws SQLException {
+        return getConnection().prepareStatement(
+                "UPDATE " + getTableWithSchema() + " SET modified = ? , modifiedBy = ?, " +
+                        "modifiedByVersion" + " = ?, data = ? WHERE id = ?;");
+    }
+
+    /**
+     * Populates metadata of the stored object and sets them as parameters of the update statement.
+     *
+     * @param statement
+     *         update statement
+     * @param t
+     *         object to be updated
+     * @param timestamp
+     *         modification timestamp
+     * @throws SQLException
+     *         in case that parameter can't be set
+     */
+    private void setUpdateParameters(final PreparedStatement statement, final T t, final Timestamp timestamp)
+            throws SQLException {
+        // populate data for json
+        t.setModifiedBy(getWorkerName());
+        t.setModifiedByVersion(getWorkerVersion());
+        t.setModified(timestamp.toLocalDateTime());
+
+        statement.setTimestamp(1, timestamp);
+        statement.setString(2, getWorkerName());
+        statement.setString(3, getWorkerVersion());
+        statement.setString(4, serializeToJson(t));
+        statement.setString(5, t.getId());
+    }
+
     @Override
     public final T getById(final String id) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
+            PreparedStatement statement = getConnection().prepareStatement(
                     "SELECT * FROM " + getTableWithSchema() + " WHERE id = ?");
 
             statement.setString(1, id);
@@ -252,30 +402,17 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
     @Override
     public final List<T> getMine(final String name, final String version, final String fromDate, final String toDate) {
         try {
-            PreparedStatement statement;
-            if (fromDate != null && toDate != null) {
-                statement = connection.prepareStatement(
-                        "SELECT id FROM " + getTableWithSchema() + " WHERE modifiedby = ? AND modifiedbyversion = ? "
-                                + "AND modified >= ? AND modified <= ?");
-                statement.setString(3, fromDate);
-                statement.setString(4, toDate);
-            } else if (fromDate != null) {
-                statement = connection.prepareStatement(
-                        "SELECT id FROM " + getTableWithSchema() + " WHERE modifiedby = ? AND modifiedbyversion = ? "
-                                + "AND modified >= ?");
-                statement.setString(3, fromDate);
-            } else if (toDate != null) {
-                statement = connection.prepareStatement(
-                        "SELECT id FROM " + getTableWithSchema() + " WHERE modifiedby = ? AND modifiedbyversion = ? "
-                                + "modified <= ?");
-                statement.setString(3, toDate);
-            } else {
-                statement = connection.prepareStatement(
-                        "SELECT id FROM " + getTableWithSchema() + " WHERE modifiedby = ? AND modifiedbyversion = ?");
+            JdbcQuery query = new JdbcQuery("SELECT id FROM " + getTableWithSchema())
+                .append(" WHERE modifiedby = ").value(name)
+                .append(" AND modifiedbyversion = ").value(version);
+            if (fromDate != null) {
+                query.append(" AND modified >= ").value(fromDate);
+            }
+            if (toDate != null) {
+                query.append(" AND modified <= ").value(toDate);
             }
 
-            statement.setString(1, name);
-            statement.setString(2, version);
+            PreparedStatement statement = query.prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
 
@@ -307,12 +444,13 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
      */
     public final List<T> getMineByHash(final String hash) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE data @> '{ \"hash\":\"" + sanitize(
-                            hash) + "\"}' AND modifiedBy = ? AND modifiedByVersion = ?");
+            PreparedStatement statement = getConnection().prepareStatement(
+                    "SELECT * FROM " + getTableWithSchema() + " WHERE " + keyCondition(HASH)
+                        + " AND modifiedBy = ? AND modifiedByVersion = ?");
 
-            statement.setString(1, workerName);
-            statement.setString(2, workerVersion);
+            statement.setString(1, keyValue(HASH, hash));
+            statement.setString(2, workerName);
+            statement.setString(3, workerVersion);
 
             ResultSet rs = statement.executeQuery();
 
@@ -343,16 +481,13 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
      */
     public final List<T> getMine(final Integer page) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() 
-                    + " WHERE ((modifiedBy = ? AND modifiedByVersion = ?) " 
-        				+ prepareAdditionalWorkersCondition() + ")" 
+            PreparedStatement statement = getConnection().prepareStatement(
+                    "SELECT * FROM " + getTableWithSchema() + " WHERE " + prepareWorkersCondition()
                     + " ORDER BY created ASC LIMIT ? OFFSET ?");
 
-            statement.setString(1, workerName);
-            statement.setString(2, workerVersion);
-            statement.setInt(3, PAGE_SIZE);
-            statement.setInt(4, page * PAGE_SIZE);
+            int index = setWorkersParameters(statement, 1);
+            statement.setInt(index++, PAGE_SIZE);
+            statement.setInt(index, page * PAGE_SIZE);
             
             ResultSet rs = statement.executeQuery();
 
@@ -381,17 +516,13 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
      * @return list of objects with the same hash and stored be one of the specified workers
      */
     public final List<T> getByHash(final String hash) {
-        // prepare sql condition part for additional workers
-        String additionalWorkersCondition = prepareAdditionalWorkersCondition();
-
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE data @> '{ \"hash\":\"" + sanitize(
-                            hash) + "\"}' AND ( (modifiedBy = ? AND modifiedByVersion = ?) " +
-                            additionalWorkersCondition + ")");
+            PreparedStatement statement = getConnection().prepareStatement(
+                    "SELECT * FROM " + getTableWithSchema() + " WHERE " + keyCondition(HASH) + " AND "
+                        + prepareWorkersCondition());
 
-            statement.setString(1, workerName);
-            statement.setString(2, workerVersion);
+            statement.setString(1, keyValue(HASH, hash));
+            setWorkersParameters(statement, 2);
 
             ResultSet rs = statement.executeQuery();
 
@@ -414,13 +545,8 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
     @Override
     public final List<T> getModifiedAfter(final LocalDateTime timestamp, final Integer page) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE modified > ? ORDER BY modified ASC LIMIT ? " +
-                            "OFFSET ?");
-
-            statement.setTimestamp(1, Timestamp.valueOf(timestamp));
-            statement.setInt(2, PAGE_SIZE);
-            statement.setInt(3, page * PAGE_SIZE);
+            PreparedStatement statement = modifiedAfterQuery("*", timestamp, null, page * PAGE_SIZE, PAGE_SIZE)
+                .prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
 
@@ -443,14 +569,8 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
     @Override
     public final List<T> getModifiedAfter(final LocalDateTime timestamp, final String modifiedBy, final Integer page) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE modified > ? AND modifiedby = ? ORDER BY " +
-                            "modified ASC LIMIT ? OFFSET ?");
-
-            statement.setTimestamp(1, Timestamp.valueOf(timestamp));
-            statement.setString(2, modifiedBy);
-            statement.setInt(3, PAGE_SIZE);
-            statement.setInt(4, page * PAGE_SIZE);
+            PreparedStatement statement = modifiedAfterQuery("*", timestamp, modifiedBy, page * PAGE_SIZE, PAGE_SIZE)
+                .prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
 
@@ -470,6 +590,264 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
         }
     }
 
+    /**
+     * Returns page of items modified after timestamp followed by the first item of the next page, if there is any.
+     *
+     * @param timestamp
+     *         items modified after this timestamp will be returned
+     * @param modifiedBy
+     *         "author" of the change or null for any author
+     * @param page
+     *         order of the page in the result
+     * @param pageSize
+     *         number of items per page
+     *
+     * @return items of the page followed by the first item of the next page
+     */
+    public final List<T> getModifiedAfter(final LocalDateTime timestamp, final String modifiedBy, final Integer page,
+            final Integer pageSize) {
+        long offset = PageUtils.getOffset(page, pageSize);
+
+        List<T> result = new ArrayList<T>();
+        stream(modifiedAfterQuery("*", timestamp, modifiedBy, offset, pageSize + 1), result::add);
+
+        return result;
+    }
+
+    /**
+     * Hands over the page of items modified after timestamp to the consumer one by one, as they are read from the
+     * database cursor. See {@link #stream(JdbcQuery, Consumer)}.
+     *
+     * @param timestamp
+     *         items modified after this timestamp will be returned
+     * @param modifiedBy
+     *         "author" of the change or null for any author
+     * @param page
+     *         order of the page in the result
+     * @param pageSize
+     *         number of items per page
+     * @param consumer
+     *         consumer of the items
+     */
+    public final void streamModifiedAfter(final LocalDateTime timestamp, final String modifiedBy,
+            final Integer page, final Integer pageSize, final Consumer<T> consumer) {
+        long offset = PageUtils.getOffset(page, pageSize);
+        stream(modifiedAfterQuery("*", timestamp, modifiedBy, offset, pageSize), consumer);
+    }
+
+    /**
+     * Hands over the page of items for the country to the consumer one by one, as they are read from the database
+     * cursor. See {@link #stream(JdbcQuery, Consumer)}.
+     *
+     * @param countryCode
+     *         country code
+     * @param page
+     *         page
+     * @param pageSize
+     *         number of items per page
+     * @param consumer
+     *         consumer of the items
+     */
+    public final void streamByCountry(final String countryCode, final Integer page, final Integer pageSize,
+            final Consumer<T> consumer) {
+        long offset = PageUtils.getOffset(page, pageSize);
+        stream(byCountryQuery("*", countryCode, offset, pageSize), consumer);
+    }
+
+    /**
+     * Returns version of the page returned by {@link #getModifiedAfter(LocalDateTime, String, Integer, Integer)}. See
+     * {@link #getVersion(JdbcQuery, int)}.
+     *
+     * @param timestamp
+     *         items modified after this timestamp will be returned
+     * @param modifiedBy
+     *         "author" of the change or null for any author
+     * @param page
+     *         order of the page in the result
+     * @param pageSize
+     *         number of items per page
+     *
+     * @return version of the page
+     */
+    public final PageVersion getModifiedAfterVersion(final LocalDateTime timestamp, final String modifiedBy,
+            final Integer page, final Integer pageSize) {
+        long offset = PageUtils.getOffset(page, pageSize);
+        return getVersion(modifiedAfterQuery(getVersionColumns(), timestamp, modifiedBy, offset, pageSize + 1),
+            offset + pageSize);
+    }
+
+    /**
+     * Returns version of the page returned by {@link #getByCountry(String, Integer, Integer)}. See
+     * {@link #getVersion(JdbcQuery, int)}.
+     *
+     * @param countryCode
+     *         country code
+     * @param page
+     *         page
+     * @param pageSize
+     *         number of items per page
+     *
+     * @return version of the page
+     */
+    public final PageVersion getByCountryVersion(final String countryCode, final Integer page,
+            final Integer pageSize) {
+        long offset = PageUtils.getOffset(page, pageSize);
+        return getVersion(byCountryQuery(getVersionColumns(), countryCode, offset, pageSize + 1),
+            offset + pageSize);
+    }
+
+    /**
+     * Returns columns of the page read by the version queries: id and the row number (in the order of the page) which
+     * tells which rows belong to the page.
+     *
+     * @return selected columns
+     */
+    private String getVersionColumns() {
+        return "id, row_number() OVER (ORDER BY modified ASC) AS n";
+    }
+
+    /**
+     * Returns SQL expression of the time of the last change of the item as it is served, the version of the page is
+     * derived from it. The columns of the table have to be qualified by the table name (without schema), the
+     * expression may contain correlated subqueries, it is evaluated only for the rows of the page. It is the
+     * modification timestamp of the item by default, the DAOs of the items served together with other data (eg.
+     * populated bodies) include the timestamps of the data.
+     *
+     * @return SQL expression
+     */
+    protected String getChangedExpression() {
+        return "modified";
+    }
+
+    /**
+     * Returns version of the page selected by the query. The latest change timestamp and the digest of the ids and
+     * change timestamps are calculated by the database, only the id and change timestamp of the rows of the page are
+     * read. The query selects one row more than the page, the row isn't part of the version, it only tells that there
+     * is a next page. The page is selected first, by the same plain query as the page itself, so the change timestamps
+     * (see {@link #getChangedExpression()}) are calculated only for its rows, not for the skipped ones.
+     *
+     * @param page
+     *         query selecting {@link #getVersionColumns()} of the page and the first row of the next page
+     * @param last
+     *         row number of the last row of the page
+     *
+     * @return version of the page
+     */
+    private PageVersion getVersion(final JdbcQuery page, final long last) {
+        JdbcQuery query = new JdbcQuery("SELECT max(changed) FILTER (WHERE n <= ").value(last).append(") AS changed,"
+            + " md5(coalesce(string_agg(id || '@' || changed, ',' ORDER BY id) FILTER (WHERE n <= ").value(last)
+            .append("), '')) AS tag, bool_or(n > ").value(last).append(") AS hasmore FROM (SELECT id, n, "
+                + getChangedExpression() + " AS changed FROM (")
+            .append(page).append(") page JOIN " + getTableWithSchema() + " USING (id)) versions");
+
+        try (PreparedStatement statement = query.prepare(getConnection()); ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            Timestamp changed = rs.getTimestamp("changed");
+            return new PageVersion()
+                .setLastModified(changed == null ? null : changed.toLocalDateTime())
+                .setTag(rs.getString("tag"))
+                .setHasMore(rs.getBoolean("hasmore"));
+        } catch (SQLException e) {
+            logger.error("Unable to perform query, because of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
+    /**
+     * @param columns
+     *         selected columns
+     * @param timestamp
+     *         items modified after this timestamp will be returned
+     * @param modifiedBy
+     *         "author" of the change or null for any author
+     * @param offset
+     *         number of skipped items
+     * @param limit
+     *         maximum number of items
+     *
+     * @return query of the page of items modified after timestamp
+     */
+    private JdbcQuery modifiedAfterQuery(final String columns, final LocalDateTime timestamp, final String modifiedBy,
+            final long offset, final Integer limit) {
+        JdbcQuery query = new JdbcQuery("SELECT " + columns + " FROM " + getTableWithSchema())
+            .append(" WHERE modified > ").value(Timestamp.valueOf(timestamp));
+        if (modifiedBy != null) {
+            query.append(" AND modifiedby = ").value(modifiedBy);
+        }
+
+        return query.append(" ORDER BY modified ASC LIMIT ").value(limit).append(" OFFSET ").value(offset);
+    }
+
+    /**
+     * Hands over items following the given position in the order of modification timestamp and id.
+     *
+     * @param timestamp
+     *         items modified after this timestamp (or at this timestamp with greater id) will be returned
+     * @param id
+     *         id of the last item modified at the timestamp, null for items modified after the timestamp
+     * @param limit
+     *         maximum number of the items
+     * @param consumer
+     *         consumer of the items
+     */
+    public final void streamAfter(final LocalDateTime timestamp, final String id, final Integer limit,
+                                  final Consumer<T> consumer) {
+        JdbcQuery query = new JdbcQuery("SELECT * FROM " + getTableWithSchema());
+        if (id == null) {
+            query.append(" WHERE modified > ").value(Timestamp.valueOf(timestamp));
+        } else {
+            // row comparison is resolved by the (modified, id) index
+            query.append(" WHERE (modified, id) > (").value(Timestamp.valueOf(timestamp)).append(", ").value(id)
+                .append(")");
+        }
+
+        stream(query.append(" ORDER BY modified ASC, id ASC LIMIT ").value(limit), consumer);
+    }
+
+    /**
+     * @param columns
+     *         selected columns
+     * @param countryCode
+     *         country code
+     * @param offset
+     *         number of skipped items
+     * @param limit
+     *         maximum number of items
+     *
+     * @return query of the page of items for the country
+     */
+    private JdbcQuery byCountryQuery(final String columns, final String countryCode, final long offset,
+            final Integer limit) {
+        return new JdbcQuery("SELECT " + columns + " FROM " + getTableWithSchema())
+            .append(" WHERE data ->> 'country' = ").value(countryCode)
+            .append(" ORDER BY modified ASC LIMIT ").value(limit).append(" OFFSET ").value(offset);
+    }
+
+    /**
+     * Executes the query and hands over the items to the consumer one by one, as they are read. Within a transaction
+     * (autocommit disabled) the rows are fetched from the database cursor by {@link #STREAM_FETCH_SIZE}, so only a
+     * few rows are held in memory at once.
+     *
+     * @param query
+     *         query
+     * @param consumer
+     *         consumer of the items
+     */
+    protected final void stream(final JdbcQuery query, final Consumer<T> consumer) {
+        try (PreparedStatement statement = query.prepare(getConnection())) {
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(createFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Unable to perform query, because of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+    }
+
     /**
      * Creates item from result set.
      *
@@ -492,7 +870,7 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
 
         String data = rs.getString("data");
         try {
-            mapper.readerForUpdating(t).readValue(data);
+            JsonUtils.getStorageReader(t.getClass()).withValueToUpdate(t).readValue(data);
             logger.debug("Deserialized object {} with id {}", t, t.getId());
         } catch (IOException e) {
             logger.error("Unable to deserialize data from json exception {}", e);
@@ -504,23 +882,107 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
     }
 
     /**
-     * Prepares sql condition part for additional workers if there are any.
+     * Prepares sql condition which restricts the data to the ones modified by this worker or by one of the additional
+     * workers (and their versions). The values are bound as parameters by
+     * {@link #setWorkersParameters(PreparedStatement, int)}. The condition is the same for any number of additional
+     * workers.
+     *
+     * @return SQL statement condition
+     */
+    protected final String prepareWorkersCondition() {
+        return JdbcQuery.WORKERS_CONDITION;
+    }
+
+    /**
+     * Sets parameters of the condition prepared by {@link #prepareWorkersCondition()}.
+     *
+     * @param statement
+     *         statement
+     * @param index
+     *         index of the first parameter of the condition
+     *
+     * @return index of the first parameter following the condition
+     * @throws SQLException
+     *         in case that parameter can't be set
+     */
+    protected final int setWorkersParameters(final PreparedStatement statement, final int index)
+            throws SQLException {
+        return new JdbcQuery("").workers(workerName, workerVersion, additionalWorkers)
+            .bind(getConnection(), statement, index);
+    }
+
+    /**
+     * Returns whether the table has dedicated hash column. The column is maintained by trigger from the data (see
+     * migration 002_key_columns.sql) and indexed with B-tree, so it is used instead of jsonb containment.
+     *
+     * @return true if the table has hash column, false otherwise
+     */
+    protected boolean hasHashColumn() {
+        return false;
+    }
+
+    /**
+     * Returns whether the table has dedicated groupid column. The column is maintained by trigger from the data (see
+     * migration 002_key_columns.sql) and indexed with B-tree, so it is used instead of jsonb containment.
+     *
+     * @return true if the table has groupid column, false otherwise
+     */
+    protected boolean hasGroupIdColumn() {
+        return false;
+    }
+
+    /**
+     * @param property
+     *         json property (hash or groupId)
      *
-     * @return SQL statement condition part to use for filtering data modified by additional workers or empty string
-     * if no additional workers provided.
+     * @return true if the table has dedicated column for the given property
      */
-    protected final String prepareAdditionalWorkersCondition() {
-        if (additionalWorkers != null && !additionalWorkers.isEmpty()) {
-            StringBuilder additionalWorkersRestriction = new StringBuilder();
-            additionalWorkers.stream()
-                    .forEach(worker -> additionalWorkersRestriction.append(" OR (modifiedBy = '")
-                            .append(worker.getKey())
-                            .append("' AND modifiedByVersion = '")
-                            .append(worker.getValue())
-                            .append("')"));
-            return additionalWorkersRestriction.toString();
+    private boolean hasKeyColumn(final String property) {
+        return property.equals(HASH) ? hasHashColumn() : hasGroupIdColumn();
+    }
+
+    /**
+     * Returns condition on the given json property with one parameter. The parameter value has to be created with
+     * {@link #keyValue(String, String)}.
+     *
+     * @param property
+     *         json property (hash or groupId)
+     *
+     * @return SQL condition
+     */
+    private String keyCondition(final String property) {
+        return hasKeyColumn(property) ? property.toLowerCase() + " = ?" : "data @> ?::jsonb";
+    }
+
+    /**
+     * Returns parameter value of the condition created by {@link #keyCondition(String)}.
+     *
+     * @param property
+     *         json property (hash or groupId)
+     * @param value
+     *         searched value
+     *
+     * @return parameter value
+     */
+    private String keyValue(final String property, final String value) {
+        return hasKeyColumn(property) ? value : toJsonParameter(Collections.singletonMap(property, value));
+    }
+
+    /**
+     * Serializes the given value to json used as parameter of jsonb condition (eg. {@code data @> ?::jsonb}).
+     *
+     * @param value
+     *         value to be serialized
+     *
+     * @return json string
+     */
+    protected final String toJsonParameter(final Object value) {
+        try {
+            return JsonUtils.getMessageWriter().writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            logger.error("Unable to serialize query parameter {}", e);
+            throw new UnrecoverableException("Unable to serialize query parameter", e);
         }
-        return "";
     }
 
     /**
@@ -531,7 +993,7 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
      */
     protected final void disableIndexScan() {
         try {
-            PreparedStatement st = connection.prepareStatement("SET enable_indexscan TO 'off';");
+            PreparedStatement st = getConnection().prepareStatement("SET enable_indexscan TO 'off';");
 
             st.executeUpdate();
         } catch (Exception e) {
@@ -548,7 +1010,7 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
      */
     protected final void enableIndexScan() {
         try {
-            PreparedStatement st = connection.prepareStatement("SET enable_indexscan TO 'on';");
+            PreparedStatement st = getConnection().prepareStatement("SET enable_indexscan TO 'on';");
 
             st.executeUpdate();
         } catch (Exception e) {
@@ -565,7 +1027,7 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
      */
     protected final void disableSeqScan() {
         try {
-            PreparedStatement st = connection.prepareStatement("SET enable_seqscan TO 'off';");
+            PreparedStatement st = getConnection().prepareStatement("SET enable_seqscan TO 'off';");
 
             st.executeUpdate();
         } catch (Exception e) {
@@ -582,7 +1044,7 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
      */
     protected final void enableSeqScan() {
         try {
-            PreparedStatement st = connection.prepareStatement("SET enable_seqscan TO 'on';");
+            PreparedStatement st = getConnection().prepareStatement("SET enable_seqscan TO 'on';");
 
             st.executeUpdate();
         } catch (Exception e) {
@@ -617,12 +1079,9 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
         try {
             // sanitize the input first
             t.setData(null);
-            ObjectWriter objectWriter = mapper.writerWithDefaultPrettyPrinter();
-            byte[] tWritten = objectWriter.writeValueAsBytes(t);
-
-            // Written json
-            String jsonData = new String(tWritten, "UTF-8");
-            return jsonData;
+            // jsonb doesn't preserve formatting, so the compact form without empty values is stored
+            ObjectWriter objectWriter = JsonUtils.getCompactStorageWriter(t.getClass());
+            return objectWriter.writeValueAsString(t);
         } catch (Exception e) {
             logger.error("Unable to serialize data to json exception {}", e);
             throw new UnrecoverableException("Unable to serialize data to json", e);
@@ -632,7 +1091,7 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
     @Override
     public final Boolean removeById(final String id) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
+            PreparedStatement statement = getConnection().prepareStatement(
                     "DELETE FROM " + getTableWithSchema() + " WHERE id = ?");
 
             statement.setString(1, id);
@@ -650,7 +1109,7 @@ public abstract class GenericJdbcDAO<T extends StorableDTO> extends BaseJdbcDAO<
     @Override
     public final List<String> getIdsBySourceAndVersion(final String name, final String version) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
+            PreparedStatement statement = getConnection().prepareStatement(
                     "SELECT id FROM " + getTableWithSchema() + " WHERE modifiedby "
                             + "LIKE" + " ? AND modifiedbyversion LIKE ? ORDER BY id");
 
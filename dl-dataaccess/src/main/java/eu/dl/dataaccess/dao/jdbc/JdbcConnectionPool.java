@@ -0,0 +1,156 @@
+package eu.dl.dataaccess.dao.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.dl.core.RecoverableException;
+import eu.dl.core.UnrecoverableException;
+
+/**
+ * Pool of JDBC connections which are lent to one thread at a time. The number of lent connections is limited, so the
+ * pool bounds the number of concurrent database requests too. The thread which can't get a connection in time fails
+ * with {@link RecoverableException}, the request can be repeated later.
+ */
+public final class JdbcConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcConnectionPool.class);
+
+    private final ConnectionFactory factory;
+
+    private final Semaphore permits;
+
+    private final long timeout;
+
+    private final Deque<Connection> idle = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Opens new connection.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        /**
+         * @return new connection
+         * @throws SQLException
+         *         in case that connection can't be opened
+         */
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * Creates empty pool, the connections are opened when needed.
+     *
+     * @param factory
+     *         factory of the new connections
+     * @param maxSize
+     *         maximum number of connections lent at once
+     * @param timeout
+     *         maximum time in milliseconds to wait for the connection
+     */
+    public JdbcConnectionPool(final ConnectionFactory factory, final int maxSize, final long timeout) {
+        this.factory = factory;
+        this.permits = new Semaphore(maxSize, true);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Lends connection. The connection has to be returned by {@link #release(Connection, boolean)}.
+     *
+     * @return connection
+     * @throws RecoverableException
+     *         in case that all the connections are lent for longer than the timeout
+     */
+    public Connection acquire() {
+        try {
+            if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new RecoverableException("No database connection available in " + timeout + " ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RecoverableException("Interrupted while waiting for database connection.", e);
+        }
+
+        return take();
+    }
+
+    /**
+     * Lends connection only if it is available without waiting. The connection has to be returned by
+     * {@link #release(Connection, boolean)}.
+     *
+     * @return connection or null in case that all the connections are lent
+     */
+    public Connection tryAcquire() {
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+
+        return take();
+    }
+
+    /**
+     * Takes idle connection or opens new one, the permit has been already acquired.
+     *
+     * @return connection
+     */
+    private Connection take() {
+        Connection connection = idle.pollFirst();
+        if (connection != null) {
+            return connection;
+        }
+
+        try {
+            return factory.open();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            logger.error("Unable to establish db connection caused by {}", e);
+            throw new UnrecoverableException("Unable to establish db connection", e);
+        }
+    }
+
+    /**
+     * Returns lent connection to the pool.
+     *
+     * @param connection
+     *         connection returned by {@link #acquire()}
+     * @param broken
+     *         whether the connection failed, broken connection is closed instead of being lent again
+     */
+    public void release(final Connection connection, final boolean broken) {
+        try {
+            if (broken || connection.isClosed()) {
+                close(connection);
+            } else {
+                idle.offerFirst(connection);
+            }
+        } catch (SQLException e) {
+            close(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return number of connections which can be lent at the moment without waiting
+     */
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * @param connection
+     *         connection to be closed
+     */
+    private static void close(final Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Unable to close broken db connection caused by {}", e);
+        }
+    }
+}
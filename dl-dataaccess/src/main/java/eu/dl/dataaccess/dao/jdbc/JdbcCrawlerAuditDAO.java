@@ -65,7 +65,7 @@ public class JdbcCrawlerAuditDAO extends GenericJdbcDAO<BasicCrawlerAuditRecord>
      */
     private BasicCrawlerAuditRecord getByNameAndVersion() {
         try {
-            PreparedStatement statement = connection.prepareStatement(
+            PreparedStatement statement = getConnection().prepareStatement(
                     "SELECT * FROM " + getTableWithSchema() + " WHERE modifiedby = ? AND modifiedByVersion = ?");
 
             statement.setString(1, getWorkerName());
@@ -4,6 +4,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import eu.dl.core.UnrecoverableException;
@@ -19,6 +20,8 @@ public class JdbcEntityRelatedIndicatorDAO extends GenericJdbcDAO<BasicEntityRel
 
     private static final String TABLE_NAME = "indicator";
 
+    private static final String RELATED_ENTITY_ID = "relatedEntityId";
+
 
     @Override
     protected final String getTableWithSchema() {
@@ -33,10 +36,10 @@ public class JdbcEntityRelatedIndicatorDAO extends GenericJdbcDAO<BasicEntityRel
     @Override
     public final void delete(final String entityId, final String indicatorType) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "DELETE FROM " + getTableWithSchema()
-                            + " WHERE data @> '{ \"relatedEntityId\":\"" + sanitizeForJsonString(entityId) + "\"}' AND "
-                            + "data @> '{ \"type\":\"" + sanitizeForJsonString(indicatorType) + "\"}'");
+            PreparedStatement statement = new JdbcQuery("DELETE FROM " + getTableWithSchema())
+                    .append(" WHERE data @> ").json(Collections.singletonMap(RELATED_ENTITY_ID, entityId))
+                    .append(" AND data @> ").json(Collections.singletonMap("type", indicatorType))
+                    .prepare(getConnection());
 
             statement.executeUpdate();
 
@@ -48,12 +51,35 @@ public class JdbcEntityRelatedIndicatorDAO extends GenericJdbcDAO<BasicEntityRel
         }
     }
 
+    @Override
+    public final void replace(final String entityId, final Collection<String> indicatorTypes,
+        final List<BasicEntityRelatedIndicator> indicators) {
+        try {
+            if (indicatorTypes != null && !indicatorTypes.isEmpty()) {
+                PreparedStatement statement = getConnection().prepareStatement(
+                        "DELETE FROM " + getTableWithSchema()
+                                + " WHERE data @> ?::jsonb AND data ->> 'type' = ANY(?)");
+                statement.setString(1, toJsonParameter(Collections.singletonMap(RELATED_ENTITY_ID, entityId)));
+                statement.setArray(2, getConnection().createArrayOf("text", indicatorTypes.toArray()));
+
+                statement.executeUpdate();
+
+                statement.close();
+            }
+        } catch (Exception e) {
+            logger.error("Unable to perform query, because of of {}", e);
+            throw new UnrecoverableException("Unable to perform query.", e);
+        }
+
+        saveAll(indicators);
+    }
+
     @Override
     public final List<BasicEntityRelatedIndicator> getByEntityId(final String id) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() 
-                    + " WHERE data @> '{ \"relatedEntityId\":\"" + sanitizeForJsonString(id) + "\"}'");
+            PreparedStatement statement = new JdbcQuery("SELECT * FROM " + getTableWithSchema())
+                    .append(" WHERE data @> ").json(Collections.singletonMap(RELATED_ENTITY_ID, id))
+                    .prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
 
@@ -86,22 +112,21 @@ public class JdbcEntityRelatedIndicatorDAO extends GenericJdbcDAO<BasicEntityRel
             ArrayList<String> list = new ArrayList<String>(relatedEntityIds);
             
             while (counter < size) {      
-                String condition = new String();
-                
+                List<Object> values = new ArrayList<>();
                 for (String id : list.subList(counter, Integer.min(size, counter + pageSize))) {
                     if (id != null) {
-                        if (!condition.isEmpty()) {
-                            condition = condition + " OR ";
-                        } 
-                        
-                        condition = condition + "data @> '{ \"relatedEntityId\":\"" 
-                        + sanitizeForJsonString(id) + "\"}'";
+                        values.add(Collections.singletonMap(RELATED_ENTITY_ID, id));
                     }
                 }
-                
-                PreparedStatement statement = connection.prepareStatement(
-                        "SELECT * FROM " + getTableWithSchema() 
-                        + " WHERE " + condition + ";");
+
+                if (values.isEmpty()) {
+                    counter = counter + pageSize;
+                    continue;
+                }
+
+                PreparedStatement statement = new JdbcQuery("SELECT * FROM " + getTableWithSchema())
+                        .append(" WHERE data @> ANY(").jsonArray(values).append(")")
+                        .prepare(getConnection());
 
                 ResultSet rs = statement.executeQuery();
 
@@ -4,6 +4,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.List;
 
 import eu.dl.core.UnrecoverableException;
@@ -21,9 +22,10 @@ public class JdbcExhangeRatesDAO extends GenericJdbcDAO<ExchangeRates> implement
     @Override
     public final ExchangeRates getByDate(final LocalDate date) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE data @> '{ \"date\":\"" +
-                            sanitizeForJsonString(date.format(DateTimeFormatter.ISO_LOCAL_DATE)) + "\"}' ");
+            PreparedStatement statement = new JdbcQuery("SELECT * FROM " + getTableWithSchema())
+                    .append(" WHERE data @> ")
+                    .json(Collections.singletonMap("date", date.format(DateTimeFormatter.ISO_LOCAL_DATE)))
+                    .prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
 
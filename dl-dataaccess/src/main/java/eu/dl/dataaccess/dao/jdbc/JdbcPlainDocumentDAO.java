@@ -6,6 +6,7 @@ import eu.dl.dataaccess.dto.PlainDocument;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.Collections;
 
 /**
  * Jdbc DAO implementation for plain document.
@@ -26,11 +27,9 @@ public class JdbcPlainDocumentDAO extends GenericJdbcDAO<PlainDocument> implemen
     @Override
     public final PlainDocument getLastByHash(final String hash) {
         try {
-            PreparedStatement statement = connection.prepareStatement(
-                    "SELECT * FROM " + getTableWithSchema() + " WHERE data @> '{ \"hash\":\"" + sanitize(
-                            hash) + "\"}'");
-
-            statement.executeQuery();
+            PreparedStatement statement = new JdbcQuery("SELECT * FROM " + getTableWithSchema())
+                    .append(" WHERE data @> ").json(Collections.singletonMap("hash", hash))
+                    .prepare(getConnection());
 
             ResultSet rs = statement.executeQuery();
 
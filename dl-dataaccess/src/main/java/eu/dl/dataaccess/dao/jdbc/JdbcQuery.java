@@ -0,0 +1,307 @@
+package eu.dl.dataaccess.dao.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import eu.dl.core.UnrecoverableException;
+import eu.dl.dataaccess.utils.JsonUtils;
+
+/**
+ * SQL query with bind parameters. The searched values are never part of the SQL text, so the text depends only on
+ * the shape of the query and the server can reuse the statement and its plan for any values. Collections of values
+ * are bound as one array parameter, so the text doesn't depend on the number of values either.
+ */
+public final class JdbcQuery {
+
+    /**
+     * Condition which restricts the data to the ones modified by one of the given workers (and their versions). The
+     * worker names and versions are bound as two arrays, see {@link #workers(String, String, List)}.
+     */
+    public static final String WORKERS_CONDITION =
+        "(modifiedBy, modifiedByVersion) IN (SELECT * FROM unnest(?::text[], ?::text[]))";
+
+    private final StringBuilder sql;
+
+    private final List<Parameter> parameters = new ArrayList<>();
+
+    /**
+     * Binds value of one parameter.
+     */
+    @FunctionalInterface
+    private interface Parameter {
+        /**
+         * @param connection
+         *         connection used to create arrays
+         * @param statement
+         *         statement
+         * @param index
+         *         index of the parameter
+         * @throws SQLException
+         *         in case that parameter can't be set
+         */
+        void bind(Connection connection, PreparedStatement statement, int index) throws SQLException;
+    }
+
+    /**
+     * Creates query which starts with the given SQL.
+     *
+     * @param sql
+     *         beginning of the query without values
+     */
+    public JdbcQuery(final String sql) {
+        this.sql = new StringBuilder(sql);
+    }
+
+    /**
+     * Appends SQL text. The text mustn't contain any searched value, use the parameter methods instead.
+     *
+     * @param text
+     *         SQL text
+     *
+     * @return this instance for chaining
+     */
+    public JdbcQuery append(final String text) {
+        sql.append(text);
+        return this;
+    }
+
+    /**
+     * Appends SQL text and parameters of another query.
+     *
+     * @param query
+     *         appended query
+     *
+     * @return this instance for chaining
+     */
+    public JdbcQuery append(final JdbcQuery query) {
+        sql.append(query.sql);
+        parameters.addAll(query.parameters);
+        return this;
+    }
+
+    /**
+     * Appends string parameter.
+     *
+     * @param value
+     *         value or null
+     *
+     * @return this instance for chaining
+     */
+    public JdbcQuery value(final String value) {
+        return parameter("?", (c, s, i) -> s.setString(i, value));
+    }
+
+    /**
+     * Appends integer parameter.
+     *
+     * @param value
+     *         value or null
+     *
+     * @return this instance for chaining
+     */
+    public JdbcQuery value(final Integer value) {
+        return parameter("?", (c, s, i) -> {
+            if (value == null) {
+                s.setNull(i, Types.INTEGER);
+            } else {
+                s.setInt(i, value);
+            }
+        });
+    }
+
+    /**
+     * Appends long integer parameter.
+     *
+     * @param value
+     *         value or null
+     *
+     * @return this instance for chaining
+     */
+    public JdbcQuery value(final Long value) {
+        return parameter("?", (c, s, i) -> {
+            if (value == null) {
+                s.setNull(i, Types.BIGINT);
+            } else {
+                s.setLong(i, value);
+            }
+        });
+    }
+
+    /**
+     * Appends timestamp parameter.
+     *
+     * @param value
+     *         value or null
+     *
+     * @return this instance for chaining
+     */
+    public JdbcQuery value(final Timestamp value) {
+        return parameter("?", (c, s, i) -> s.setTimestamp(i, value));
+    }
+
+    /**
+     * Appends jsonb parameter, eg. the right side of {@code data @> }.
+     *
+     * @param value
+     *         value serialized to json
+     *
+     * @return this instance for chaining
+     */
+    public JdbcQuery json(final Object value) {
+        String json = toJson(value);
+        return parameter("?::jsonb", (c, s, i) -> s.setString(i, json));
+    }
+
+    /**
+     * Appends text array parameter, eg. the right side of {@code = ANY(...)}.
+     *
+     * @param values
+     *         values of the array
+     *
+     * @return this instance for chaining
+     */
+    public JdbcQuery array(final Collection<String> values) {
+        Object[] array = values.toArray();
+        return parameter("?::text[]", (c, s, i) -> s.setArray(i, c.createArrayOf("text", array)));
+    }
+
+    /**
+     * Appends jsonb array parameter, eg. the right side of {@code data @> ANY(...)}.
+     *
+     * @param values
+     *         values serialized to json one by one
+     *
+     * @return this instance for chaining
+     */
+    public JdbcQuery jsonArray(final Collection<?> values) {
+        Object[] array = values.stream().map(JdbcQuery::toJson).toArray();
+        return parameter("?::jsonb[]", (c, s, i) -> s.setArray(i, c.createArrayOf("text", array)));
+    }
+
+    /**
+     * Appends {@link #WORKERS_CONDITION} for the given worker and additional workers.
+     *
+     * @param name
+     *         worker name
+     * @param version
+     *         worker version
+     * @param additionalWorkers
+     *         additional workers (name and version) or null
+     *
+     * @return this instance for chaining
+     */
+    public JdbcQuery workers(final String name, final String version,
+                             final List<Pair<String, String>> additionalWorkers) {
+        List<String> names = new ArrayList<>();
+        List<String> versions = new ArrayList<>();
+        names.add(name);
+        versions.add(version);
+        if (additionalWorkers != null) {
+            for (Pair<String, String> worker : additionalWorkers) {
+                names.add(worker.getKey());
+                versions.add(worker.getValue());
+            }
+        }
+
+        Object[] namesArray = names.toArray();
+        Object[] versionsArray = versions.toArray();
+        sql.append(WORKERS_CONDITION);
+        parameters.add((c, s, i) -> s.setArray(i, c.createArrayOf("text", namesArray)));
+        parameters.add((c, s, i) -> s.setArray(i, c.createArrayOf("text", versionsArray)));
+
+        return this;
+    }
+
+    /**
+     * @return SQL text of the query
+     */
+    public String getSql() {
+        return sql.toString();
+    }
+
+    /**
+     * @return number of the parameters
+     */
+    public int getParameterCount() {
+        return parameters.size();
+    }
+
+    /**
+     * Prepares statement and binds all the parameters.
+     *
+     * @param connection
+     *         connection
+     *
+     * @return prepared statement
+     * @throws SQLException
+     *         in case that statement preparation fails
+     */
+    public PreparedStatement prepare(final Connection connection) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(getSql());
+        bind(connection, statement, 1);
+
+        return statement;
+    }
+
+    /**
+     * Binds all the parameters to the statement which contains this query.
+     *
+     * @param connection
+     *         connection used to create arrays
+     * @param statement
+     *         statement
+     * @param index
+     *         index of the first parameter of this query
+     *
+     * @return index of the first parameter following this query
+     * @throws SQLException
+     *         in case that parameter can't be set
+     */
+    public int bind(final Connection connection, final PreparedStatement statement, final int index)
+            throws SQLException {
+        int i = index;
+        for (Parameter parameter : parameters) {
+            parameter.bind(connection, statement, i++);
+        }
+
+        return i;
+    }
+
+    /**
+     * @param placeholder
+     *         placeholder appended to SQL
+     * @param parameter
+     *         parameter binder
+     *
+     * @return this instance for chaining
+     */
+    private JdbcQuery parameter(final String placeholder, final Parameter parameter) {
+        sql.append(placeholder);
+        parameters.add(parameter);
+        return this;
+    }
+
+    /**
+     * @param value
+     *         value to be serialized
+     *
+     * @return json string
+     */
+    private static String toJson(final Object value) {
+        try {
+            return JsonUtils.getMessageWriter().writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UnrecoverableException("Unable to serialize query parameter", e);
+        }
+    }
+}
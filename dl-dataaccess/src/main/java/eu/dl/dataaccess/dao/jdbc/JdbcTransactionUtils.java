@@ -3,6 +3,7 @@ package eu.dl.dataaccess.dao.jdbc;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,12 +13,24 @@ import eu.dl.core.config.Config;
 import eu.dl.dataaccess.dao.TransactionUtils;
 
 /**
- * Transaction handling for hibernate.
+ * Transaction handling for JDBC. By default all the DAOs share one connection. When "jdbc.pool.size" is configured,
+ * the connections are taken from {@link JdbcConnectionPool} instead, {@link #begin()} binds one of them to the current
+ * thread and {@link #commit()} or {@link #rollback()} returns it to the pool. This allows concurrent threads (eg. API
+ * requests) to work in isolated transactions.
  */
 public final class JdbcTransactionUtils implements TransactionUtils {
 
+    /**
+     * Default time in milliseconds to wait for a pooled connection.
+     */
+    private static final long DEFAULT_POOL_TIMEOUT = 10000;
+
     private Connection connection;
 
+    private JdbcConnectionPool pool;
+
+    private final ThreadLocal<Connection> boundConnection = new ThreadLocal<>();
+
     private static JdbcTransactionUtils instance;
 
     private Logger logger;
@@ -37,16 +50,34 @@ public final class JdbcTransactionUtils implements TransactionUtils {
 
             String url = config.getParam("jdbc.url");
 
-            connection = DriverManager.getConnection(url, config.getParam("jdbc.user"),
-                    config.getParam("jdbc.password"));
-
-            logger.info("Successfully established database connection to {}", url);
+            String poolSize = config.getParam("jdbc.pool.size");
+            if (poolSize == null) {
+                connection = openConnection(url);
+                logger.info("Successfully established database connection to {}", url);
+            } else {
+                String poolTimeout = config.getParam("jdbc.pool.timeout");
+                pool = new JdbcConnectionPool(() -> openPooledConnection(url), Integer.parseInt(poolSize.trim()),
+                    poolTimeout == null ? DEFAULT_POOL_TIMEOUT : Long.parseLong(poolTimeout.trim()));
+                logger.info("Successfully initialized pool of {} database connections to {}", poolSize, url);
+            }
         } catch (Exception e) {
             logger.error("Unable to establish db connection caused by {}", e);
             throw new UnrecoverableException("Unable to establish db connection because of", e);
         }
     }
 
+    /**
+     * Creates utils which take the connections from the given pool, eg. pool of the connections to a test database.
+     *
+     * @param pool
+     *            connection pool
+     */
+    public JdbcTransactionUtils(final JdbcConnectionPool pool) {
+        this.config = Config.getInstance();
+        this.logger = LoggerFactory.getLogger(this.getClass().getName());
+        this.pool = pool;
+    }
+
     /**
      * Returns initialised utils.
      * 
@@ -61,21 +92,60 @@ public final class JdbcTransactionUtils implements TransactionUtils {
     }
 
     /**
-     * Returns initialised entity manager.
+     * Returns connection of the current transaction. The pooled connection is available only between
+     * {@link #begin()} and {@link #commit()} or {@link #rollback()}.
      * 
-     * @return entity manager
+     * @return connection
      */
     public Connection getConnection() {
-        return connection;
+        if (pool == null) {
+            return connection;
+        }
+
+        Connection bound = boundConnection.get();
+        if (bound == null) {
+            throw new UnrecoverableException("No transaction has been begun in the current thread.");
+        }
+
+        return bound;
     }
 
     @Override
     public void begin() {
-        logger.debug("Transaction({}) is started by default.", connection.hashCode());
+        if (pool != null && boundConnection.get() == null) {
+            boundConnection.set(pool.acquire());
+        }
+
+        logger.debug("Transaction({}) is started by default.", getConnection().hashCode());
+    }
+
+    /**
+     * Begins transaction with a pooled connection of its own. Without the pool all the DAOs share one connection, so
+     * no transaction of its own can be begun.
+     *
+     * @return whether the transaction has been begun
+     */
+    @Override
+    public boolean tryBegin() {
+        if (pool == null || boundConnection.get() != null) {
+            return false;
+        }
+
+        Connection pooled = pool.tryAcquire();
+        if (pooled == null) {
+            return false;
+        }
+
+        boundConnection.set(pooled);
+        logger.debug("Transaction({}) is started with spare connection.", pooled.hashCode());
+
+        return true;
     }
 
     @Override
     public void commit() {
+        Connection connection = getConnection();
+        boolean broken = true;
         try {
             if (!connection.getAutoCommit()) {
                 connection.commit();
@@ -83,14 +153,19 @@ public final class JdbcTransactionUtils implements TransactionUtils {
             } else {
                 logger.trace("Transaction is in autocommit mode, no commmit.");
             }
+            broken = false;
         } catch (SQLException ex) {
             logger.error("Unable to commit transaction.");
             throw new UnrecoverableException("Unable to commit transaction", ex);
+        } finally {
+            release(broken);
         }
     }
 
     @Override
     public void rollback() {
+        Connection connection = getConnection();
+        boolean broken = true;
         try {
             if (!connection.getAutoCommit()) {
                 connection.rollback();
@@ -98,10 +173,65 @@ public final class JdbcTransactionUtils implements TransactionUtils {
             } else {
                 logger.trace("Transaction is in autocommit mode, no rollback needed.");
             }
+            broken = false;
         } catch (SQLException ex) {
             logger.error("Unable to rollback transaction.");
             throw new UnrecoverableException("Unable to rollback transaction", ex);
+        } finally {
+            release(broken);
+        }
+    }
+
+    /**
+     * Returns the connection bound to the current thread to the pool.
+     *
+     * @param broken
+     *            whether the connection failed
+     */
+    private void release(final boolean broken) {
+        if (pool != null) {
+            Connection bound = boundConnection.get();
+            boundConnection.remove();
+            pool.release(bound, broken);
         }
     }
 
+    /**
+     * @param url
+     *            database url
+     * @return new connection
+     * @throws SQLException
+     *             in case that connection can't be established
+     */
+    private Connection openConnection(final String url) throws SQLException {
+        return DriverManager.getConnection(url, config.getParam("jdbc.user"), config.getParam("jdbc.password"));
+    }
+
+    /**
+     * Opens connection for the pool. The pooled connections don't autocommit, so the transaction spans the whole
+     * request and the results can be read through a cursor. The optional "jdbc.statementTimeout" (milliseconds)
+     * makes the server cancel the queries which run too long.
+     *
+     * @param url
+     *            database url
+     * @return new connection
+     * @throws SQLException
+     *             in case that connection can't be established
+     */
+    private Connection openPooledConnection(final String url) throws SQLException {
+        Connection pooled = openConnection(url);
+        pooled.setAutoCommit(false);
+
+        String statementTimeout = config.getParam("jdbc.statementTimeout");
+        if (statementTimeout != null) {
+            try (Statement statement = pooled.createStatement()) {
+                statement.execute("SET statement_timeout = " + Integer.parseInt(statementTimeout.trim()));
+            }
+            pooled.commit();
+        }
+
+        logger.debug("Successfully established pooled database connection({}) to {}", pooled.hashCode(), url);
+
+        return pooled;
+    }
 }
@@ -1,6 +1,7 @@
 package eu.dl.dataaccess.dao.mongo;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -78,6 +79,25 @@ public abstract class GenericMongoDAO<T> implements MongoDAO<T> {
         return savedId;
     }
 
+    /**
+     * Saves all the given objects.
+     *
+     * @param items
+     *            objects to be saved
+     *
+     * @return list of saved ids in the order of the given objects
+     */
+    public final List<String> saveAll(final List<T> items) {
+        List<String> ids = new ArrayList<>();
+        if (items != null) {
+            for (T t : items) {
+                ids.add(save(t));
+            }
+        }
+
+        return ids;
+    }
+
     @Override
     public final T getById(final String id) {
         return collection.findOneById(id);
@@ -172,6 +192,25 @@ public abstract class GenericMongoDAO<T> implements MongoDAO<T> {
                 .toArray();
     }
 
+    /**
+     * Paging with the requested page size isn't supported yet.
+     *
+     * @param timestamp
+     *         items modified after this timestamp will be returned
+     * @param modifiedBy
+     *         "author" of the change or null for any author
+     * @param page
+     *         order of the page in the result
+     * @param pageSize
+     *         number of items per page
+     *
+     * @return nothing, always throws {@link UnsupportedOperationException}
+     */
+    public final List<T> getModifiedAfter(final LocalDateTime timestamp, final String modifiedBy, final Integer page,
+            final Integer pageSize) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
     /**
      * Populates the dto with metadata.
      *
@@ -0,0 +1,73 @@
+package eu.dl.dataaccess.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version of a page of stored items. The version is derived only from the ids and modification timestamps of the
+ * items on the page, so it can be found without reading of the items themselves. Any change of the page (item added,
+ * removed or modified) changes the tag. The version also tells whether the page is followed by a next page.
+ */
+public class PageVersion {
+    /**
+     * Latest modification timestamp of the items on the page, null for empty page.
+     */
+    private LocalDateTime lastModified;
+
+    /**
+     * Digest of the ids and modification timestamps of the items on the page.
+     */
+    private String tag;
+
+    /**
+     * Whether there is a next page.
+     */
+    private Boolean hasMore;
+
+    /**
+     * @return latest modification timestamp of the items on the page, null for empty page
+     */
+    public final LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @param lastModified the latest modification timestamp to set
+     * @return this for fluent interface
+     */
+    public final PageVersion setLastModified(final LocalDateTime lastModified) {
+        this.lastModified = lastModified;
+        return this;
+    }
+
+    /**
+     * @return digest of the ids and modification timestamps of the items on the page
+     */
+    public final String getTag() {
+        return tag;
+    }
+
+    /**
+     * @param tag the tag to set
+     * @return this for fluent interface
+     */
+    public final PageVersion setTag(final String tag) {
+        this.tag = tag;
+        return this;
+    }
+
+    /**
+     * @return whether there is a next page
+     */
+    public final Boolean getHasMore() {
+        return hasMore;
+    }
+
+    /**
+     * @param hasMore whether there is a next page
+     * @return this for fluent interface
+     */
+    public final PageVersion setHasMore(final Boolean hasMore) {
+        this.hasMore = hasMore;
+        return this;
+    }
+}
@@ -17,7 +17,7 @@ import eu.dl.dataaccess.dto.codetables.BodyType;
 import eu.dl.dataaccess.dto.codetables.BuyerActivityType;
 import eu.dl.dataaccess.dto.codetables.BuyerType;
 import eu.dl.dataaccess.dto.generic.Address;
-import eu.dl.dataaccess.utils.DigestUtils;
+import eu.dl.dataaccess.utils.StandardizedBody;
 import eu.dl.dataaccess.utils.WeightedHash;
 
 // TODO: Auto-generated Javadoc
@@ -135,6 +135,11 @@ public class MatchedBody extends BaseMatchedStorableDTO
     
     private List<WeightedHash> alternativeHashes;
 
+    /**
+     * Information about the group of the body loaded together with the body for matching, it isn't stored.
+     */
+    private MatchedGroupInfo groupInfo;
+
     /**
      * Creates empty matched body.
      */
@@ -167,12 +172,11 @@ public class MatchedBody extends BaseMatchedStorableDTO
         setIsSectoral(cleanBody.getIsSectoral());
         setIsSme(cleanBody.getIsSme());
 
-        String stdName = DigestUtils.standardizeName(cleanBody.getName());
-        String stdAddress = DigestUtils.standardizeAddress(cleanBody.getAddress());
+        StandardizedBody standardized = new StandardizedBody(this);
 
-        setStandardizedName(stdName);
-        setStandardizedAddress(stdAddress);
-        setDigest(DigestUtils.digest(this));
+        setStandardizedName(standardized.getStandardizedName());
+        setStandardizedAddress(standardized.getStandardizedAddress());
+        setDigest(standardized.getDigest());
 
         setRole(role);
     }
@@ -813,4 +817,24 @@ public class MatchedBody extends BaseMatchedStorableDTO
 	public final void setAlternativeHashes(final List<WeightedHash> alternativeHashes) {
 		this.alternativeHashes = alternativeHashes;
 	}
+
+    /**
+     * @return information about the group of the body loaded together with the body pool or null
+     */
+    @Transient
+    @JsonIgnore
+    public final MatchedGroupInfo getGroupInfo() {
+        return groupInfo;
+    }
+
+    /**
+     * @param groupInfo
+     *      information about the group of the body
+     * @return this instance for chaining
+     */
+    @JsonIgnore
+    public final MatchedBody setGroupInfo(final MatchedGroupInfo groupInfo) {
+        this.groupInfo = groupInfo;
+        return this;
+    }
 }
@@ -1,6 +1,11 @@
 package eu.dl.dataaccess.utils;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +22,12 @@ public final class ClassUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(ClassUtils.class);
 
+    /**
+     * No-arg constructors of the list classes resolved so far. Lookup is done only once per list class, all
+     * subsequent calls of {@link #removeNonsenses(java.util.List)} reuse the resolved constructor.
+     */
+    private static final ConcurrentMap<Class<?>, Constructor<?>> LIST_CONSTRUCTORS = new ConcurrentHashMap<>();
+
     /**
      * Supress default constructor for noninstatiability.
      */
@@ -56,18 +67,44 @@ public final class ClassUtils {
             return null;
         }
 
+        List newList = newListInstance(list);
+        for (T n : list) {
+            n = removeNonsenses(n);
+            if (n != null) {
+                newList.add(n);
+            }
+        }
+
+        return newList.isEmpty() ? null : newList;
+    }
+
+    /**
+     * Creates new empty instance of the same class as the given {@code list} has. {@link ArrayList} (the most common
+     * case) is created directly, the constructors of other list classes are resolved once and cached.
+     *
+     * @param list
+     *      template list
+     * @return new empty list of the same class
+     * @throws UnrecoverableException
+     *      in case that the list class can't be instantiated
+     */
+    private static List newListInstance(final List list) {
+        Class<?> listClass = list.getClass();
+        if (listClass == ArrayList.class) {
+            return new ArrayList<>(list.size());
+        }
+
         try {
-            List newList = list.getClass().newInstance();
-            for (T n : list) {
-                n = removeNonsenses(n);
-                if (n != null) {
-                    newList.add(n);
-                }
+            Constructor<?> constructor = LIST_CONSTRUCTORS.get(listClass);
+            if (constructor == null) {
+                constructor = listClass.getDeclaredConstructor();
+                LIST_CONSTRUCTORS.putIfAbsent(listClass, constructor);
             }
 
-            return newList.isEmpty() ? null : newList;
-        } catch (IllegalAccessException | InstantiationException ex) {
-            logger.error("Unable to get new instance of the {} because of", list.getClass(), ex);
+            return (List) constructor.newInstance();
+        } catch (NoSuchMethodException | IllegalAccessException | InstantiationException
+            | InvocationTargetException ex) {
+            logger.error("Unable to get new instance of the {} because of", listClass, ex);
             throw new UnrecoverableException("Unable to get new instance of the collection");
         }
     }
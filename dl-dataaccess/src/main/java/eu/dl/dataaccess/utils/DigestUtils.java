@@ -374,26 +374,29 @@ public final class DigestUtils {
             return null;
         }
 
-        List<BodyIdentifier> bodyIds = Collections.emptyList();
-        if (body.getBodyIds() != null) {
-            bodyIds = body.getBodyIds().stream()
-                //Only bodyIds that aren't ETALON_ID and such that have non-null scope and type.
-                .filter(bodyId -> bodyId.getScope() != null
-                    && !Objects.equals(bodyId.getType(), BodyIdentifier.Type.ETALON_ID))
-                .filter(distinct(n -> n.getScope().name() + standardize(n.getId())))
-                //Sort by scope and id
-                .sorted(sortBodyIdsForHash())
-                .collect(Collectors.toList());
+        return bodyHash(new StandardizedBody(body));
+    }
+
+    /**
+     * Generates hash for the given body from its standardized forms.
+     *
+     * @param body
+     *      standardized body
+     * @return body hash
+     */
+    public static String bodyHash(final StandardizedBody body) {
+        if (body == null) {
+            return null;
         }
 
-        if (body.getName() != null && !bodyIds.isEmpty()) {
+        List<String> bodyIds = body.getStandardizedBodyIds();
+
+        if (body.getBody().getName() != null && !bodyIds.isEmpty()) {
             final StringBuilder sb = new StringBuilder();
             
-            sb.append("name").append(standardizeName(body.getName()));
+            sb.append("name").append(body.getStandardizedName());
             
-            bodyIds.forEach((bodyId) -> sb
-                .append(bodyId.getScope().name())
-                .append(standardize(bodyId.getId())));
+            bodyIds.forEach(sb::append);
             
             return sha256Hex(sb.toString());
         } else {
@@ -401,6 +404,26 @@ public final class DigestUtils {
         }
     }
 
+    /**
+     * Returns body identifiers used in body hash as concatenation of scope and standardized id. Only body ids that
+     * aren't ETALON_ID and have non-null scope are used, they are distinct and sorted by scope and id.
+     *
+     * @param bodyIds
+     *      body identifiers
+     * @return list of standardized body identifiers
+     */
+    static List<String> standardizeBodyIdsForHash(final List<BodyIdentifier> bodyIds) {
+        return bodyIds.stream()
+            //Only bodyIds that aren't ETALON_ID and such that have non-null scope and type.
+            .filter(bodyId -> bodyId.getScope() != null
+                && !Objects.equals(bodyId.getType(), BodyIdentifier.Type.ETALON_ID))
+            .filter(distinct(n -> n.getScope().name() + standardize(n.getId())))
+            //Sort by scope and id
+            .sorted(sortBodyIdsForHash())
+            .map(bodyId -> bodyId.getScope().name() + standardize(bodyId.getId()))
+            .collect(Collectors.toList());
+    }
+
     /**
      * @return comparator for body ids sorting by scope and id
      */
@@ -548,21 +571,7 @@ public final class DigestUtils {
             return null;
         }
 
-        Address adr = body.getAddress();
-        String stdName = standardizeName(body.getName());
-        String digest = digest(stdName, standardizeAddress(adr));
-
-        if ((digest == null || digest.endsWith("|")) && adr != null) {
-            List<String> fields = Arrays.asList(adr.getStreet(), adr.getCity(), adr.getPostcode(), adr.getCountry());
-            
-            if (fields.stream().mapToInt(n -> n == null ? 0 : 1).sum() >= 2) {
-                String rawAddr = fields.stream().reduce("", (r, n) -> r + Optional.ofNullable(n).orElse(""));
-
-                return digest(stdName, standardizeAddress(new Address().setRawAddress(rawAddr)));
-            }
-        }
-
-        return digest;
+        return new StandardizedBody(body).getDigest();
     }
 
     /**
@@ -613,8 +622,17 @@ public final class DigestUtils {
      * @return hash or null if hash cannot be generated
      */
     public static WeightedHash nameAddressHash(final MatchedBody body) {
-    		String stdName = standardizeName(body.getName());
-    		String stdAddress = standardizeAddress(body.getAddress());
+        return nameAddressHash(new StandardizedBody(body));
+    }
+
+    /**
+     * Generates hash in form standardized_name|standardized_address.
+     * @param body standardized body
+     * @return hash or null if hash cannot be generated
+     */
+    public static WeightedHash nameAddressHash(final StandardizedBody body) {
+    		String stdName = body.getStandardizedName();
+    		String stdAddress = body.getStandardizedAddress();
     		
     		if (stdName != null && stdAddress != null) {
     			return new WeightedHash()
@@ -631,8 +649,18 @@ public final class DigestUtils {
      * @return hash or null if hash cannot be generated
      */
     public static List<WeightedHash> nameAddressIdHash(final MatchedBody body) {
-    		String stdName = standardizeName(body.getName());
-    		String stdAddress = standardizeAddress(body.getAddress());
+        return nameAddressIdHash(new StandardizedBody(body));
+    }
+
+    /**
+     * Generates hash in form standardized_name|standardized_address.
+     * @param standardizedBody standardized body
+     * @return hash or null if hash cannot be generated
+     */
+    public static List<WeightedHash> nameAddressIdHash(final StandardizedBody standardizedBody) {
+    		MatchedBody body = standardizedBody.getBody();
+    		String stdName = standardizedBody.getStandardizedName();
+    		String stdAddress = standardizedBody.getStandardizedAddress();
     		List<WeightedHash> result = new ArrayList<WeightedHash>();
     		if (stdName != null && stdAddress != null && body.getBodyIds() != null && !body.getBodyIds().isEmpty()) {
     			for (BodyIdentifier bodyId : body.getBodyIds()) {
@@ -678,10 +706,20 @@ public final class DigestUtils {
      * @return generated hashes
      */
     public static List<WeightedHash> generateAlternativeBodyHashes(final MatchedBody body) {
+        return generateAlternativeBodyHashes(new StandardizedBody(body));
+    }
+
+    /**
+     * Generates hash list relevant for given body. The hashes should be ordered by its priority.
+     *
+     * @param body standardized body to generate hases for
+     * @return generated hashes
+     */
+    public static List<WeightedHash> generateAlternativeBodyHashes(final StandardizedBody body) {
 		List<WeightedHash> hashes = new ArrayList<WeightedHash>();
 		List<WeightedHash> nameAddressIdHashes = nameAddressIdHash(body);
 		if (nameAddressIdHashes != null) {
-			hashes.addAll(nameAddressIdHash(body));
+			hashes.addAll(nameAddressIdHashes);
 		}
 		
 		WeightedHash nameAddressHash = nameAddressHash(body);
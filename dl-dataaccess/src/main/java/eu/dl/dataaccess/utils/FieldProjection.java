@@ -0,0 +1,96 @@
+package eu.dl.dataaccess.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set of requested properties of the public API output. The properties are given by their paths, the nested
+ * properties are separated by dots (eg. "lots.bids.price"), the items of the lists are addressed the same way as a
+ * single object. The requested property is serialized as a whole, its parents are serialized only with the requested
+ * properties. The projection is applied by the writer returned by {@link JsonUtils#getPublicApiWriter(FieldProjection)}
+ * during the serialization.
+ */
+public final class FieldProjection {
+
+    private static final String PATH_SEPARATOR = ".";
+
+    /**
+     * Requested child properties by name, empty map for the property requested as a whole.
+     */
+    private final Map<String, FieldProjection> children = new HashMap<>();
+
+    /**
+     * Whether the property is requested as a whole.
+     */
+    private boolean whole;
+
+    /**
+     * Use {@link #parse(String)} to create the projection.
+     */
+    private FieldProjection() {
+    }
+
+    /**
+     * Parses comma separated list of the property paths (eg. "id,title,lots.bids.price,buyers").
+     *
+     * @param fields
+     *      comma separated list of the property paths
+     * @return projection or null in case that the fields are null (no projection requested)
+     * @throws IllegalArgumentException
+     *      in case that the list or any of its paths is empty or contains empty property name
+     */
+    public static FieldProjection parse(final String fields) {
+        if (fields == null) {
+            return null;
+        }
+
+        FieldProjection root = new FieldProjection();
+        for (String path : fields.split(",", -1)) {
+            FieldProjection node = root;
+            for (String name : path.trim().split("\\" + PATH_SEPARATOR, -1)) {
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Invalid field path '" + path + "'");
+                }
+                node = node.children.computeIfAbsent(name, n -> new FieldProjection());
+            }
+            node.whole = true;
+        }
+
+        return root;
+    }
+
+    /**
+     * Checks whether the property is serialized. It is serialized when it is requested, when it is nested in
+     * a requested property or when any of its nested properties is requested.
+     *
+     * @param path
+     *      property path, nested properties separated by dots
+     * @return true in case that the property is serialized
+     */
+    public boolean includes(final String path) {
+        return includes(Arrays.asList(path.split("\\" + PATH_SEPARATOR)));
+    }
+
+    /**
+     * Checks whether the property is serialized, see {@link #includes(String)}.
+     *
+     * @param path
+     *      names of the property and its parents from the root, the last name is the name of the property
+     * @return true in case that the property is serialized
+     */
+    boolean includes(final List<String> path) {
+        FieldProjection node = this;
+        for (String name : path) {
+            node = node.children.get(name);
+            if (node == null) {
+                return false;
+            } else if (node.whole) {
+                return true;
+            }
+        }
+
+        return true;
+    }
+}
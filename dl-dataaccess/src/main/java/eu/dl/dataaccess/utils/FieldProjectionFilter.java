@@ -0,0 +1,66 @@
+package eu.dl.dataaccess.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+
+/**
+ * Serializes only the properties included in the {@link FieldProjection}. The path of the property is resolved from
+ * the output context of the generator (names of the parent properties, the lists are skipped), so the projected
+ * properties are simply not written and the omitted ones are never serialized.
+ */
+final class FieldProjectionFilter extends SimpleBeanPropertyFilter {
+
+    /**
+     * Id of the filter assigned to all the beans serialized by the public API writer.
+     */
+    static final String ID = "fieldProjection";
+
+    private final FieldProjection projection;
+
+    /**
+     * Creates filter.
+     *
+     * @param projection
+     *      requested properties
+     */
+    FieldProjectionFilter(final FieldProjection projection) {
+        this.projection = projection;
+    }
+
+    @Override
+    public void serializeAsField(final Object pojo, final JsonGenerator jgen, final SerializerProvider provider,
+        final PropertyWriter writer) throws Exception {
+        if (projection.includes(path(jgen.getOutputContext(), writer.getName()))) {
+            writer.serializeAsField(pojo, jgen, provider);
+        } else if (!jgen.canOmitFields()) {
+            writer.serializeAsOmittedField(pojo, jgen, provider);
+        }
+    }
+
+    /**
+     * @param context
+     *      output context of the object the property belongs to
+     * @param name
+     *      property name
+     * @return names of the property and its parents from the root
+     */
+    private static List<String> path(final JsonStreamContext context, final String name) {
+        List<String> path = new ArrayList<>();
+        path.add(name);
+        for (JsonStreamContext c = context; c.getParent() != null; c = c.getParent()) {
+            if (c.getParent().inObject()) {
+                path.add(c.getParent().getCurrentName());
+            }
+        }
+        Collections.reverse(path);
+
+        return path;
+    }
+}
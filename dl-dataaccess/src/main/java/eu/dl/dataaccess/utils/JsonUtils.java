@@ -0,0 +1,200 @@
+package eu.dl.dataaccess.utils;
+
+import java.text.SimpleDateFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Shared, preconfigured Jackson readers and writers. Construction of the {@link ObjectMapper} and warming up of its
+ * serializer caches is expensive, so the mappers are created only once and never exposed. Callers get immutable
+ * {@link ObjectReader} and {@link ObjectWriter} instances which are thread-safe and cached per type.
+ */
+public final class JsonUtils {
+
+    /**
+     * Mapper used for storing of the DTOs into the database and for the API output.
+     */
+    private static final ObjectMapper STORAGE_MAPPER = new ObjectMapper();
+
+    /**
+     * Mapper used for serialization of the messages sent between workers.
+     */
+    private static final ObjectMapper MESSAGE_MAPPER = new ObjectMapper();
+
+    /**
+     * Mapper used for storing of the DTOs into the jsonb columns. Configured the same way as the storage mapper, but
+     * empty values are omitted too.
+     */
+    private static final ObjectMapper COMPACT_STORAGE_MAPPER;
+
+    private static final ConcurrentMap<Class<?>, ObjectReader> STORAGE_READERS = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<Class<?>, ObjectWriter> STORAGE_WRITERS = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<Class<?>, ObjectWriter> COMPACT_STORAGE_WRITERS = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<Class<?>, ObjectReader> MESSAGE_READERS = new ConcurrentHashMap<>();
+
+    private static final ObjectWriter API_WRITER;
+
+    private static final ObjectWriter PUBLIC_API_WRITER;
+
+    private static final ObjectWriter MESSAGE_WRITER;
+
+    private static final ObjectReader MESSAGE_MAP_READER;
+
+    static {
+        STORAGE_MAPPER.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        STORAGE_MAPPER.registerModule(new JavaTimeModule());
+        STORAGE_MAPPER.setDateFormat(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"));
+        STORAGE_MAPPER.setSerializationInclusion(Include.NON_NULL);
+        STORAGE_MAPPER.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+        STORAGE_MAPPER.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        API_WRITER = STORAGE_MAPPER.writer();
+
+        ObjectMapper publicApiMapper = STORAGE_MAPPER.copy();
+        publicApiMapper.setSerializerFactory(publicApiMapper.getSerializerFactory()
+            .withSerializerModifier(new SystemPropertiesSerializerModifier()));
+        // all the beans get the projection filter, it serializes all the properties unless a projection is requested
+        publicApiMapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+            @Override
+            public Object findFilterId(final Annotated a) {
+                Object id = super.findFilterId(a);
+                return id == null && a instanceof AnnotatedClass ? FieldProjectionFilter.ID : id;
+            }
+        });
+        publicApiMapper.setFilterProvider(new SimpleFilterProvider()
+            .addFilter(FieldProjectionFilter.ID, SimpleBeanPropertyFilter.serializeAll()));
+        PUBLIC_API_WRITER = publicApiMapper.writer();
+
+        COMPACT_STORAGE_MAPPER = STORAGE_MAPPER.copy();
+        COMPACT_STORAGE_MAPPER.setSerializationInclusion(Include.NON_EMPTY);
+
+        // java time module must be registered to support java 8 date time classes
+        MESSAGE_MAPPER.registerModule(new JavaTimeModule());
+        MESSAGE_WRITER = MESSAGE_MAPPER.writer();
+        MESSAGE_MAP_READER = MESSAGE_MAPPER.readerFor(new TypeReference<Map<String, Object>>() {
+        });
+    }
+
+    /**
+     * Suppress default constructor for noninstantiability.
+     */
+    private JsonUtils() {
+    }
+
+    /**
+     * Returns reader of the stored DTOs. Unknown properties are ignored, floats are deserialized as BigDecimal.
+     *
+     * @param type
+     *      class of the DTO
+     * @return reader for the given type
+     */
+    public static ObjectReader getStorageReader(final Class<?> type) {
+        return STORAGE_READERS.computeIfAbsent(type, STORAGE_MAPPER::readerFor);
+    }
+
+    /**
+     * Returns writer of the DTOs to be stored. The output is pretty printed and null values are omitted.
+     *
+     * @param type
+     *      class of the DTO
+     * @return writer for the given type
+     */
+    public static ObjectWriter getStorageWriter(final Class<?> type) {
+        return STORAGE_WRITERS.computeIfAbsent(type, t -> STORAGE_MAPPER.writerFor(t).withDefaultPrettyPrinter());
+    }
+
+    /**
+     * Returns writer of the DTOs to be stored in jsonb columns. The output is compact, null and empty values (empty
+     * strings, collections and maps) are omitted. Such output is read by the {@link #getStorageReader(Class)} the same
+     * way as the output of {@link #getStorageWriter(Class)}, except that the omitted empty values are left unset.
+     *
+     * @param type
+     *      class of the DTO
+     * @return compact writer for the given type
+     */
+    public static ObjectWriter getCompactStorageWriter(final Class<?> type) {
+        return COMPACT_STORAGE_WRITERS.computeIfAbsent(type, COMPACT_STORAGE_MAPPER::writerFor);
+    }
+
+    /**
+     * Returns writer of the API output. It is configured the same way as the storage writer, but the output is not
+     * pretty printed.
+     *
+     * @return API writer
+     */
+    public static ObjectWriter getApiWriter() {
+        return API_WRITER;
+    }
+
+    /**
+     * Returns writer of the public API output. It is configured the same way as the API writer, but the system
+     * properties of {@link eu.dl.dataaccess.annotation.Transformable} classes (properties with setter annotated with
+     * {@link eu.dl.dataaccess.annotation.SystemProperty}) are omitted anywhere in the output, including the objects in
+     * maps. The output is the same as the output of the API writer for the objects with system properties set to
+     * null.
+     *
+     * @return public API writer
+     */
+    public static ObjectWriter getPublicApiWriter() {
+        return PUBLIC_API_WRITER;
+    }
+
+    /**
+     * Returns writer of the public API output which serializes only the requested properties. Otherwise it is the
+     * same as {@link #getPublicApiWriter()}, the system properties are omitted even if they are requested.
+     *
+     * @param projection
+     *      requested properties, null for all the properties
+     * @return public API writer
+     */
+    public static ObjectWriter getPublicApiWriter(final FieldProjection projection) {
+        if (projection == null) {
+            return PUBLIC_API_WRITER;
+        }
+
+        return PUBLIC_API_WRITER.with(new SimpleFilterProvider()
+            .addFilter(FieldProjectionFilter.ID, new FieldProjectionFilter(projection)));
+    }
+
+    /**
+     * @return writer of the worker messages
+     */
+    public static ObjectWriter getMessageWriter() {
+        return MESSAGE_WRITER;
+    }
+
+    /**
+     * @return reader of the whole worker message, returns Map&lt;String, Object&gt;
+     */
+    public static ObjectReader getMessageReader() {
+        return MESSAGE_MAP_READER;
+    }
+
+    /**
+     * Returns reader of the objects included in worker messages.
+     *
+     * @param type
+     *      class of the object
+     * @return reader for the given type
+     */
+    public static ObjectReader getMessageReader(final Class<?> type) {
+        return MESSAGE_READERS.computeIfAbsent(type, MESSAGE_MAPPER::readerFor);
+    }
+}
@@ -0,0 +1,134 @@
+package eu.dl.dataaccess.utils;
+
+import java.util.List;
+
+import eu.dl.dataaccess.dao.jdbc.BaseJdbcDAO;
+
+/**
+ * Paging of the stored items. The page size requested by a client is bounded, so one request can't make the database
+ * read an arbitrary number of rows. The paged methods with the page size read one item more than the page size, its
+ * presence tells whether there is a next page without counting of the items.
+ */
+public final class PageUtils {
+
+    /**
+     * Page size used when none is requested.
+     */
+    public static final int DEFAULT_PAGE_SIZE = BaseJdbcDAO.PAGE_SIZE;
+
+    /**
+     * Maximum page size.
+     */
+    public static final int MAX_PAGE_SIZE = 10000;
+
+    /**
+     * Utility class.
+     */
+    private PageUtils() {
+    }
+
+    /**
+     * Parses the requested page size.
+     *
+     * @param pageSize
+     *      page size, null for the default page size
+     * @return page size
+     * @throws IllegalArgumentException
+     *      in case that the page size isn't a number between 1 and {@link #MAX_PAGE_SIZE}
+     */
+    public static int parsePageSize(final String pageSize) {
+        if (pageSize == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        try {
+            return checkPageSize(Integer.parseInt(pageSize.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page size " + pageSize, e);
+        }
+    }
+
+    /**
+     * @param pageSize
+     *      page size
+     * @return the same page size
+     * @throws IllegalArgumentException
+     *      in case that the page size isn't between 1 and {@link #MAX_PAGE_SIZE}
+     */
+    public static int checkPageSize(final Integer pageSize) {
+        if (pageSize == null || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size " + pageSize + " out of range 1-" + MAX_PAGE_SIZE);
+        }
+
+        return pageSize;
+    }
+
+    /**
+     * Parses the requested page.
+     *
+     * @param page
+     *      order of the page, the first page is 0
+     * @return page
+     * @throws IllegalArgumentException
+     *      in case that the page isn't a non-negative number
+     */
+    public static int parsePage(final String page) {
+        try {
+            return checkPage(page == null ? null : Integer.parseInt(page.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page " + page, e);
+        }
+    }
+
+    /**
+     * @param page
+     *      order of the page
+     * @return the same page
+     * @throws IllegalArgumentException
+     *      in case that the page is negative
+     */
+    public static int checkPage(final Integer page) {
+        if (page == null || page < 0) {
+            throw new IllegalArgumentException("Page " + page + " is negative");
+        }
+
+        return page;
+    }
+
+    /**
+     * Returns number of the items preceding the page. The offset is long, the offsets of the far pages with large
+     * page size exceed integer.
+     *
+     * @param page
+     *      order of the page
+     * @param pageSize
+     *      page size
+     * @return offset of the page
+     * @throws IllegalArgumentException
+     *      in case that the page is negative or the page size is out of the range
+     */
+    public static long getOffset(final Integer page, final Integer pageSize) {
+        return (long) checkPage(page) * checkPageSize(pageSize);
+    }
+
+    /**
+     * Removes the extra item read after the page.
+     *
+     * @param items
+     *      items of the page followed by the first item of the next page, if there is any
+     * @param pageSize
+     *      page size
+     * @param <T>
+     *      item type
+     * @return true in case that there is a next page
+     */
+    public static <T> boolean trim(final List<T> items, final int pageSize) {
+        if (items == null || items.size() <= pageSize) {
+            return false;
+        }
+
+        items.subList(pageSize, items.size()).clear();
+
+        return true;
+    }
+}
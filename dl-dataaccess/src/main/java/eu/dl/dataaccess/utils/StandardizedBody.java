@@ -0,0 +1,127 @@
+package eu.dl.dataaccess.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import eu.dl.dataaccess.dto.generic.Address;
+import eu.dl.dataaccess.dto.matched.MatchedBody;
+
+/**
+ * Standardized forms of one body. The standardized name, standardized address, standardized body identifiers and
+ * digest are computed lazily, at most once, and all the body hashes in {@link DigestUtils} are derived from them.
+ *
+ * The standardized forms reflect the body at the time of their first use, so the body shouldn't be modified
+ * afterwards. Instances aren't thread safe.
+ */
+public final class StandardizedBody {
+
+    private final MatchedBody body;
+
+    private String standardizedName;
+
+    private boolean hasStandardizedName = false;
+
+    private String standardizedAddress;
+
+    private boolean hasStandardizedAddress = false;
+
+    private List<String> standardizedBodyIds;
+
+    private String digest;
+
+    private boolean hasDigest = false;
+
+    /**
+     * Creates standardized forms of the given body.
+     *
+     * @param body
+     *      matched body
+     */
+    public StandardizedBody(final MatchedBody body) {
+        this.body = body;
+    }
+
+    /**
+     * @return standardized body
+     */
+    public MatchedBody getBody() {
+        return body;
+    }
+
+    /**
+     * @see DigestUtils#standardizeName(String)
+     *
+     * @return standardized name or null
+     */
+    public String getStandardizedName() {
+        if (!hasStandardizedName) {
+            standardizedName = DigestUtils.standardizeName(body.getName());
+            hasStandardizedName = true;
+        }
+
+        return standardizedName;
+    }
+
+    /**
+     * @see DigestUtils#standardizeAddress(Address)
+     *
+     * @return standardized address or null
+     */
+    public String getStandardizedAddress() {
+        if (!hasStandardizedAddress) {
+            standardizedAddress = DigestUtils.standardizeAddress(body.getAddress());
+            hasStandardizedAddress = true;
+        }
+
+        return standardizedAddress;
+    }
+
+    /**
+     * Returns standardized body identifiers used in body hash. Each identifier is represented as concatenation of
+     * its scope and standardized id. Etalon ids and ids without scope are omitted, the identifiers are distinct and
+     * sorted by scope and id.
+     *
+     * @return list of standardized body identifiers or an empty list
+     */
+    public List<String> getStandardizedBodyIds() {
+        if (standardizedBodyIds == null) {
+            standardizedBodyIds = body.getBodyIds() == null
+                ? Collections.emptyList() : DigestUtils.standardizeBodyIdsForHash(body.getBodyIds());
+        }
+
+        return standardizedBodyIds;
+    }
+
+    /**
+     * Returns digest of the body. In case that the standardized address doesn't give address digest, attempts to
+     * compose raw address from at least two of street, city, postcode and country and uses its standardized form.
+     *
+     * @see DigestUtils#digest(String, String)
+     *
+     * @return combined digest such a name_digestSEPARATORaddress_digest
+     */
+    public String getDigest() {
+        if (!hasDigest) {
+            digest = DigestUtils.digest(getStandardizedName(), getStandardizedAddress());
+
+            Address adr = body.getAddress();
+            if ((digest == null || digest.endsWith("|")) && adr != null) {
+                List<String> fields = Arrays.asList(adr.getStreet(), adr.getCity(), adr.getPostcode(),
+                    adr.getCountry());
+
+                if (fields.stream().mapToInt(n -> n == null ? 0 : 1).sum() >= 2) {
+                    String rawAddr = fields.stream().reduce("", (r, n) -> r + Optional.ofNullable(n).orElse(""));
+
+                    digest = DigestUtils.digest(getStandardizedName(),
+                        DigestUtils.standardizeAddress(new Address().setRawAddress(rawAddr)));
+                }
+            }
+
+            hasDigest = true;
+        }
+
+        return digest;
+    }
+}
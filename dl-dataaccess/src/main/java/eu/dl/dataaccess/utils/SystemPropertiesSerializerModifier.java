@@ -0,0 +1,62 @@
+package eu.dl.dataaccess.utils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.util.BeanUtil;
+
+import eu.dl.dataaccess.annotation.SystemProperty;
+import eu.dl.dataaccess.annotation.Transformable;
+
+/**
+ * Omits system properties of {@link Transformable} classes from the output. The system property is a property whose
+ * setter is annotated with {@link SystemProperty}. Jackson builds the serializer once per class and caches it, so the
+ * properties are resolved only once for each class.
+ *
+ * The properties are omitted wherever the transformable object is in the output. The former cleaning of the API
+ * responses descended only through transformable objects and collections, so the system properties of the
+ * transformable objects inside maps or inside objects which aren't transformable were kept; they are omitted now.
+ */
+final class SystemPropertiesSerializerModifier extends BeanSerializerModifier {
+
+    @Override
+    public List<BeanPropertyWriter> changeProperties(final SerializationConfig config,
+        final BeanDescription beanDesc, final List<BeanPropertyWriter> beanProperties) {
+        if (!beanDesc.getBeanClass().isAnnotationPresent(Transformable.class)) {
+            return beanProperties;
+        }
+
+        // implicit names of the properties with annotated setter
+        Set<String> systemProperties = new HashSet<>();
+        for (AnnotatedMethod method : beanDesc.getClassInfo().memberMethods()) {
+            if (method.getParameterCount() == 1 && method.hasAnnotation(SystemProperty.class)) {
+                String name = BeanUtil.okNameForMutator(method, "set", false);
+                if (name != null) {
+                    systemProperties.add(name);
+                }
+            }
+        }
+
+        if (systemProperties.isEmpty()) {
+            return beanProperties;
+        }
+
+        Set<String> hidden = new HashSet<>();
+        for (BeanPropertyDefinition property : beanDesc.findProperties()) {
+            if (systemProperties.contains(property.getInternalName())) {
+                hidden.add(property.getName());
+            }
+        }
+
+        beanProperties.removeIf(n -> hidden.contains(n.getName()));
+
+        return beanProperties;
+    }
+}
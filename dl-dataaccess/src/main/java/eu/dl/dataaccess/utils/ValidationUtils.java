@@ -1,8 +1,6 @@
 package eu.dl.dataaccess.utils;
 
-import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,8 +36,10 @@ public final class ValidationUtils {
      *      logs warning message about removing.
      */
     public static <T, U> T getValid(final T o, final U... values) {
-        if (Arrays.asList(values).stream().anyMatch(n -> n != null)) {
-            return o;
+        for (U value : values) {
+            if (value != null) {
+                return o;
+            }
         }
 
         logger.warn("VALIDATION - invalid {} has been removed", o.getClass().getCanonicalName());
@@ -59,20 +59,16 @@ public final class ValidationUtils {
     public static <T> List<T> getValid(final List<T> list) {
         if (list != null) {
             int len = list.size();
-
-            String itemClass = list.stream()
-                .filter(Objects::nonNull)
-                .findFirst()
-                .map(n -> n.getClass().getCanonicalName())
-                .orElse("unknown");
+            // item class is resolved before the validation, because the validation can remove all items
+            Class<?> itemClass = getItemClass(list);
 
             List<T> newList = ClassUtils.removeNonsenses(list);
 
             if (newList == null) {
-                logger.warn("VALIDATION - whole List<{}> has been removed", itemClass);
+                logger.warn("VALIDATION - whole List<{}> has been removed", getClassName(itemClass));
             } else if (newList.size() < len) {
                 logger.warn("VALIDATION - " + (len - newList.size()) + " items have been removed from the List<{}>",
-                    itemClass);
+                    getClassName(itemClass));
             }
 
             return newList;
@@ -80,4 +76,28 @@ public final class ValidationUtils {
 
         return null;
     }
+
+    /**
+     * @param list
+     *      list
+     * @return class of the first non-null item of the list or null
+     */
+    private static Class<?> getItemClass(final List<?> list) {
+        for (Object item : list) {
+            if (item != null) {
+                return item.getClass();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param c
+     *      class
+     * @return canonical name of the class or "unknown" for null
+     */
+    private static String getClassName(final Class<?> c) {
+        return c == null ? "unknown" : c.getCanonicalName();
+    }
 }
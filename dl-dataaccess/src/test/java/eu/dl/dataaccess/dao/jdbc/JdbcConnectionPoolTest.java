@@ -0,0 +1,150 @@
+package eu.dl.dataaccess.dao.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import eu.dl.core.RecoverableException;
+
+/**
+ * Tests for JdbcConnectionPool class.
+ */
+public final class JdbcConnectionPoolTest {
+
+    private final AtomicInteger opened = new AtomicInteger();
+
+    /**
+     * @return connection stub which only knows whether it has been closed
+     */
+    private Connection open() {
+        opened.incrementAndGet();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        closed.set(true);
+                        return null;
+                    case "isClosed":
+                        return closed.get();
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    /**
+     * Concurrent threads never share a connection and at most the pool size of them hold a connection at once.
+     */
+    @Test
+    public void concurrentTest() throws Exception {
+        JdbcConnectionPool pool = new JdbcConnectionPool(this::open, 4, 5000);
+        Set<Connection> lent = ConcurrentHashMap.newKeySet();
+        AtomicInteger maxLent = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Callable<Long>> requests = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            requests.add(() -> {
+                long start = System.nanoTime();
+                Connection connection = pool.acquire();
+                long waited = (System.nanoTime() - start) / 1000000;
+                try {
+                    assertTrue("connection is lent to two threads", lent.add(connection));
+                    maxLent.accumulateAndGet(lent.size(), Math::max);
+                    Thread.sleep(10);
+                    lent.remove(connection);
+                } finally {
+                    pool.release(connection, false);
+                }
+                return waited;
+            });
+        }
+
+        long maxWait = 0;
+        for (Future<Long> request : executor.invokeAll(requests)) {
+            maxWait = Math.max(maxWait, request.get());
+        }
+        executor.shutdown();
+
+        assertTrue(maxLent.get() <= 4);
+        assertTrue(opened.get() <= 4);
+        assertEquals(4, pool.getAvailable());
+        // 16 threads share 4 connections held for 10 ms, nobody waits anywhere near the timeout
+        assertTrue("waited " + maxWait + " ms", maxWait < 2500);
+    }
+
+    /**
+     * The thread which doesn't get connection in time fails, the released connection is lent again.
+     */
+    @Test
+    public void timeoutTest() {
+        JdbcConnectionPool pool = new JdbcConnectionPool(this::open, 1, 50);
+        Connection connection = pool.acquire();
+
+        try {
+            pool.acquire();
+            fail("connection acquired from exhausted pool");
+        } catch (RecoverableException e) {
+            assertEquals(0, pool.getAvailable());
+        }
+
+        pool.release(connection, false);
+        assertSame(connection, pool.acquire());
+        assertEquals(1, opened.get());
+    }
+
+    /**
+     * The connection is lent without waiting only if it is available.
+     */
+    @Test
+    public void tryAcquireTest() {
+        JdbcConnectionPool pool = new JdbcConnectionPool(this::open, 1, 5000);
+        Connection connection = pool.tryAcquire();
+
+        long start = System.currentTimeMillis();
+        assertNull(pool.tryAcquire());
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertEquals(0, pool.getAvailable());
+
+        pool.release(connection, false);
+        assertSame(connection, pool.tryAcquire());
+        assertEquals(1, opened.get());
+    }
+
+    /**
+     * Broken connection is closed and replaced by a new one.
+     */
+    @Test
+    public void brokenTest() throws Exception {
+        JdbcConnectionPool pool = new JdbcConnectionPool(this::open, 1, 50);
+        Connection connection = pool.acquire();
+        pool.release(connection, true);
+
+        assertTrue(connection.isClosed());
+        assertNotSame(connection, pool.acquire());
+        assertEquals(2, opened.get());
+    }
+}
@@ -0,0 +1,107 @@
+package eu.dl.dataaccess.dao.jdbc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+
+/**
+ * Tests for JdbcQuery class.
+ */
+public final class JdbcQueryTest {
+
+    /**
+     * @param name
+     *      searched name
+     * @param ids
+     *      searched ids
+     * @param group
+     *      searched group
+     * @param additionalWorkers
+     *      additional workers
+     * @return query of the same shape as the DAOs use
+     */
+    private static JdbcQuery query(final String name, final List<String> ids, final String group,
+        final List<Pair<String, String>> additionalWorkers) {
+        return new JdbcQuery("SELECT * FROM schema.table WHERE ")
+            .workers("worker", "1", additionalWorkers)
+            .append(" AND (name = ").value(name)
+            .append(" OR id = ANY(").array(ids).append(")")
+            .append(" OR data @> ANY(").jsonArray(ids).append(")")
+            .append(" OR data @> ").json(Collections.singletonMap("groupId", group)).append(")")
+            .append(" LIMIT ").value(1000);
+    }
+
+    /**
+     * The statement text doesn't depend on the values, on the number of values or on the number of workers.
+     */
+    @Test
+    public void stableSqlTest() {
+        JdbcQuery query = query("name", Arrays.asList("1"), "group", null);
+
+        assertEquals("SELECT * FROM schema.table WHERE " + JdbcQuery.WORKERS_CONDITION
+            + " AND (name = ? OR id = ANY(?::text[]) OR data @> ANY(?::jsonb[]) OR data @> ?::jsonb) LIMIT ?",
+            query.getSql());
+        assertEquals(7, query.getParameterCount());
+
+        for (JdbcQuery other : Arrays.asList(
+            query("o'name \"quoted\"", Arrays.asList("1", "2", "3"), "' OR 1=1 --", null),
+            query(null, Collections.emptyList(), null, Collections.emptyList()),
+            query("name", Arrays.asList("1"), "group",
+                Arrays.asList(Pair.of("other", "2"), Pair.of("another", "3"))))) {
+            assertEquals(query.getSql(), other.getSql());
+            assertEquals(query.getParameterCount(), other.getParameterCount());
+        }
+    }
+
+    /**
+     * Values are bound as parameters in order of the query.
+     */
+    @Test
+    public void bindTest() throws SQLException {
+        Map<Integer, Object> bound = new HashMap<>();
+        List<String> arrayTypes = new ArrayList<>();
+
+        PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                bound.put((Integer) args[0], args[1]);
+                return null;
+            });
+        // arrays are represented by their elements
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                if (method.getName().equals("prepareStatement")) {
+                    return statement;
+                }
+                arrayTypes.add((String) args[0]);
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Array.class},
+                    (p, m, a) -> m.getName().equals("getArray") ? args[1] : null);
+            });
+
+        query("o'name", Arrays.asList("1", "2"), "group",
+            Collections.singletonList(Pair.of("other", "2"))).prepare(connection);
+
+        assertEquals(7, bound.size());
+        assertArrayEquals(new Object[] {"worker", "other"}, (Object[]) ((Array) bound.get(1)).getArray());
+        assertArrayEquals(new Object[] {"1", "2"}, (Object[]) ((Array) bound.get(2)).getArray());
+        assertEquals("o'name", bound.get(3));
+        assertArrayEquals(new Object[] {"1", "2"}, (Object[]) ((Array) bound.get(4)).getArray());
+        assertArrayEquals(new Object[] {"\"1\"", "\"2\""}, (Object[]) ((Array) bound.get(5)).getArray());
+        assertEquals("{\"groupId\":\"group\"}", bound.get(6));
+        assertEquals(1000, bound.get(7));
+        assertEquals(Arrays.asList("text", "text", "text", "text"), arrayTypes);
+    }
+}
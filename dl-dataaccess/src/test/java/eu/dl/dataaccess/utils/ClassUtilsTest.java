@@ -6,6 +6,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 
 import org.junit.Test;
@@ -81,4 +82,23 @@ public final class ClassUtilsTest {
 
         assertNull(body.getMainActivities());
     }
+
+    /**
+     * Test of {@link ClassUtils#removeNonsenses(java.util.List)} keeps the class of the list.
+     */
+    @Test
+    public void removeNonsencesListClassTest() {
+        List<String> arrayList = ClassUtils.removeNonsenses(new ArrayList<>(Arrays.asList("a", "", null, "b")));
+        assertEquals(ArrayList.class, arrayList.getClass());
+        assertEquals(Arrays.asList("a", "b"), arrayList);
+
+        // repeated call for the same list class uses the cached constructor
+        for (int i = 0; i < 2; i++) {
+            List<String> linkedList = ClassUtils.removeNonsenses(new LinkedList<>(Arrays.asList("", "c", null)));
+            assertEquals(LinkedList.class, linkedList.getClass());
+            assertEquals(Arrays.asList("c"), linkedList);
+        }
+
+        assertNull(ClassUtils.removeNonsenses(new LinkedList<>(Arrays.asList("", null))));
+    }
 }
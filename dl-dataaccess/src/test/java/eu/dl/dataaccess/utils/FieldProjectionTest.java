@@ -0,0 +1,133 @@
+package eu.dl.dataaccess.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
+import eu.dl.dataaccess.dto.generic.Address;
+import eu.dl.dataaccess.dto.master.MasterBody;
+
+/**
+ * Tests for FieldProjection class.
+ */
+public final class FieldProjectionTest {
+
+    /**
+     * @param name
+     *      body name
+     * @return body with nested object, list of nested objects and system properties
+     */
+    private static MasterBody body(final String name) {
+        MasterBody body = new MasterBody()
+            .setName(name)
+            .setAddress(new Address().setCity("Prague").setCountry("CZ"))
+            .setBodyIds(Arrays.asList(
+                new BodyIdentifier().setId("1").setScope(BodyIdentifier.Scope.CZ),
+                new BodyIdentifier().setId("2").setScope(BodyIdentifier.Scope.EU)))
+            .setIsPublic(true);
+        body.setId(name);
+        body.setModified(LocalDateTime.of(2016, 10, 1, 12, 30, 15));
+        body.setPersistentId("persistent");
+        HashMap<String, Object> metaData = new HashMap<>();
+        metaData.put("inputFingerprint", "abc");
+        body.setMetaData(metaData);
+
+        return body;
+    }
+
+    /**
+     * @param fields
+     *      requested fields
+     * @param value
+     *      serialized value
+     * @return projected JSON
+     * @throws Exception
+     *      in case of serialization failure
+     */
+    private static String write(final String fields, final Object value) throws Exception {
+        return JsonUtils.getPublicApiWriter(FieldProjection.parse(fields)).writeValueAsString(value);
+    }
+
+    /**
+     * The property is included when it is requested, nested in a requested property or parent of a requested one.
+     */
+    @Test
+    public void includesTest() {
+        FieldProjection projection = FieldProjection.parse("id, lots.bids.price,buyers");
+
+        assertTrue(projection.includes("id"));
+        assertTrue(projection.includes("lots"));
+        assertTrue(projection.includes("lots.bids"));
+        assertTrue(projection.includes("lots.bids.price"));
+        assertTrue(projection.includes("buyers.address.city"));
+        assertFalse(projection.includes("title"));
+        assertFalse(projection.includes("lots.title"));
+        assertFalse(projection.includes("lots.bids.bidders"));
+        assertFalse(projection.includes("indicators"));
+
+        assertNull(FieldProjection.parse(null));
+    }
+
+    /**
+     * Empty paths and property names are refused.
+     */
+    @Test
+    public void parseTest() {
+        for (String fields : new String[]{"", "id,", "lots..price", ".id", "id,,title"}) {
+            try {
+                FieldProjection.parse(fields);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            throw new AssertionError("Invalid fields '" + fields + "' accepted");
+        }
+    }
+
+    /**
+     * Only the requested properties are serialized, both in the list of the root objects and in the nested lists.
+     *
+     * @throws Exception
+     *      in case of serialization failure
+     */
+    @Test
+    public void nestedListTest() throws Exception {
+        List<MasterBody> bodies = Arrays.asList(body("a"), body("b"));
+
+        assertEquals("[{\"bodyIds\":[{\"id\":\"1\"},{\"id\":\"2\"}],\"id\":\"a\"},"
+            + "{\"bodyIds\":[{\"id\":\"1\"},{\"id\":\"2\"}],\"id\":\"b\"}]", write("id,bodyIds.id", bodies));
+
+        // whole nested object, the name of the nested property is the same as the name of the root one
+        assertEquals("[[{\"name\":\"a\",\"address\":{\"city\":\"Prague\",\"country\":\"CZ\"}}]]",
+            write("name,address", Arrays.asList(Arrays.asList(body("a")))));
+
+        // nested property of the nested object, unknown property is ignored
+        assertEquals("{\"address\":{\"country\":\"CZ\"}}", write("address.country,unknown", body("a")));
+    }
+
+    /**
+     * Hidden system properties stay hidden even if they are requested, the writer without projection serializes all
+     * the public properties.
+     *
+     * @throws Exception
+     *      in case of serialization failure
+     */
+    @Test
+    public void systemPropertiesTest() throws Exception {
+        assertEquals("{\"id\":\"a\"}", write("id,persistentId,metaData.inputFingerprint", body("a")));
+
+        assertSame(JsonUtils.getPublicApiWriter(), JsonUtils.getPublicApiWriter(null));
+        String json = JsonUtils.getPublicApiWriter().writeValueAsString(body("a"));
+        assertTrue(json.contains("\"name\":\"a\"") && json.contains("\"bodyIds\"") && json.contains("\"modified\""));
+        assertFalse(json.contains("persistent") || json.contains("inputFingerprint"));
+    }
+}
@@ -0,0 +1,286 @@
+package eu.dl.dataaccess.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import eu.dl.dataaccess.dto.clean.CleanBody;
+import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
+import eu.dl.dataaccess.dto.codetables.BodyType;
+import eu.dl.dataaccess.dto.codetables.BuyerActivityType;
+import eu.dl.dataaccess.dto.codetables.BuyerType;
+import eu.dl.dataaccess.dto.generic.Address;
+import eu.dl.dataaccess.dto.generic.Price;
+import eu.dl.dataaccess.dto.indicator.BasicEntityRelatedIndicator;
+import eu.dl.dataaccess.dto.master.MasterBody;
+import eu.dl.dataaccess.dto.matched.MatchedBody;
+import eu.dl.dataaccess.dto.parsed.ParsedAddress;
+import eu.dl.dataaccess.dto.parsed.ParsedBody;
+
+/**
+ * Tests for JsonUtils class.
+ */
+public final class JsonUtilsTest {
+
+    /**
+     * @return mapper configured the same way as the DAOs were configured before the shared mappers were introduced
+     */
+    private static ObjectMapper legacyStorageMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        mapper.registerModule(new JavaTimeModule());
+        mapper.setDateFormat(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"));
+        mapper.setSerializationInclusion(Include.NON_NULL);
+        mapper.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return mapper;
+    }
+
+    /**
+     * @return body with dates, decimals, enums and nested objects
+     */
+    private static MasterBody body() {
+        MasterBody body = new MasterBody()
+            .setName("Ministry of Finance")
+            .setAddress(new Address().setCity("Prague").setCountry("CZ").setStreet("Letenska 15"))
+            .setBodyIds(Arrays.asList(new BodyIdentifier().setId("00006947")
+                .setScope(BodyIdentifier.Scope.CZ).setType(BodyIdentifier.Type.ORGANIZATION_ID)))
+            .setBuyerType(BuyerType.NATIONAL_AGENCY)
+            .setIsPublic(true)
+            .setGroupId("group");
+        body.setId("id");
+        body.setModified(LocalDateTime.of(2016, 10, 1, 12, 30, 15));
+
+        return body;
+    }
+
+    /**
+     * Storage writer produces exactly the same bytes as the legacy DAO mapper.
+     *
+     * @throws Exception
+     *      in case of serialization failure
+     */
+    @Test
+    public void storageWriterCompatibilityTest() throws Exception {
+        MasterBody body = body();
+
+        assertEquals(legacyStorageMapper().writerWithDefaultPrettyPrinter().writeValueAsString(body),
+            JsonUtils.getStorageWriter(MasterBody.class).writeValueAsString(body));
+
+        assertEquals(legacyStorageMapper().writeValueAsString(body),
+            JsonUtils.getApiWriter().writeValueAsString(body));
+
+        Price price = new Price().setNetAmount(new BigDecimal("1234.50")).setCurrency(Currency.getInstance("EUR"));
+        assertEquals(legacyStorageMapper().writerWithDefaultPrettyPrinter().writeValueAsString(price),
+            JsonUtils.getStorageWriter(Price.class).writeValueAsString(price));
+    }
+
+    /**
+     * Storage reader reads stored data back into equal object and ignores unknown properties.
+     *
+     * @throws Exception
+     *      in case of (de)serialization failure
+     */
+    @Test
+    public void storageReaderTest() throws Exception {
+        String json = JsonUtils.getStorageWriter(MasterBody.class).writeValueAsString(body());
+
+        MasterBody read = JsonUtils.getStorageReader(MasterBody.class).readValue(json);
+        assertEquals(json, JsonUtils.getStorageWriter(MasterBody.class).writeValueAsString(read));
+
+        Price price = JsonUtils.getStorageReader(Price.class).readValue("{\"netAmount\":1.5,\"unknown\":1}");
+        assertEquals(new BigDecimal("1.5"), price.getNetAmount());
+    }
+
+    /**
+     * @return DTOs of all the stored kinds, some of them with empty values
+     */
+    private static List<Object> storedDtos() {
+        MatchedBody matched = new MatchedBody()
+            .setName("Ministry of Finance")
+            .setAddress(new Address().setCity("Prague").setNuts(new ArrayList<>()))
+            .setMainActivities(Arrays.asList(BuyerActivityType.GENERAL_PUBLIC_SERVICES))
+            .setBodyIds(new ArrayList<>())
+            .setEmail("")
+            .setHash("hash")
+            .setDigest("digest")
+            .setCompletenessScore(0.5)
+            .setPublicationDate(LocalDate.of(2016, 10, 1))
+            .setRole(BodyType.BUYERS)
+            .setIsPreferred(false);
+        matched.setMetaData(new HashMap<>());
+
+        CleanBody clean = new CleanBody()
+            .setName("Ministry of Finance")
+            .setBodyIds(new ArrayList<>())
+            .setIsLeader(false)
+            .setAddress(new Address().setCity("Prague").setCountry("CZ"));
+        clean.setParsedObjectId("parsed");
+
+        ParsedBody parsed = new ParsedBody()
+            .setName("Ministry of Finance")
+            .setIsPublic("")
+            .setAddress(new ParsedAddress().setCity("Prague").addNuts("CZ010"));
+
+        BasicEntityRelatedIndicator indicator = new BasicEntityRelatedIndicator();
+        indicator.setType("INTEGRITY_TAX_HAVEN");
+        indicator.setRelatedEntityId("id");
+        indicator.setMetaData(new HashMap<>());
+        indicator.getMetaData().put("years", new ArrayList<>());
+
+        return Arrays.asList(body(), matched, clean, parsed, indicator,
+            new Price().setNetAmount(new BigDecimal("1234.50")).setCurrency(Currency.getInstance("EUR")));
+    }
+
+    /**
+     * DTOs stored in the legacy (pretty printed) format and in the compact format read back the same way.
+     *
+     * @throws Exception
+     *      in case of (de)serialization failure
+     */
+    @Test
+    public void compactStorageWriterRoundTripTest() throws Exception {
+        for (Object dto : storedDtos()) {
+            Class<?> type = dto.getClass();
+            String legacy = JsonUtils.getStorageWriter(type).writeValueAsString(dto);
+            String compact = JsonUtils.getCompactStorageWriter(type).writeValueAsString(dto);
+
+            Object fromLegacy = JsonUtils.getStorageReader(type).readValue(legacy);
+            Object fromCompact = JsonUtils.getStorageReader(type).readValue(compact);
+
+            // rows stored in the legacy format keep reading back identically
+            assertEquals(legacy, JsonUtils.getStorageWriter(type).writeValueAsString(fromLegacy));
+            // both formats read back to the same object
+            assertEquals(compact, JsonUtils.getCompactStorageWriter(type).writeValueAsString(fromLegacy));
+            assertEquals(compact, JsonUtils.getCompactStorageWriter(type).writeValueAsString(fromCompact));
+
+            assertTrue(type.getSimpleName(), compact.length() < legacy.length());
+        }
+    }
+
+    /**
+     * Compact storage writer omits null and empty values only.
+     *
+     * @throws Exception
+     *      in case of (de)serialization failure
+     */
+    @Test
+    public void compactStorageWriterTest() throws Exception {
+        CleanBody body = new CleanBody()
+            .setName("")
+            .setBodyIds(new ArrayList<>())
+            .setIsLeader(false)
+            .setAddress(new Address().setCity("Prague"));
+
+        String compact = JsonUtils.getCompactStorageWriter(CleanBody.class).writeValueAsString(body);
+        assertFalse(compact.contains("\n"));
+        assertFalse(compact.contains("name"));
+        assertFalse(compact.contains("bodyIds"));
+        assertTrue(compact.contains("\"isLeader\":false"));
+        assertTrue(compact.contains("\"city\":\"Prague\""));
+
+        CleanBody read = JsonUtils.getStorageReader(CleanBody.class).readValue(compact);
+        assertNull(read.getName());
+        assertNull(read.getBodyIds());
+        assertEquals(false, read.getIsLeader());
+        assertEquals("Prague", read.getAddress().getCity());
+    }
+
+    /**
+     * Public API writer omits system properties, the output is the same as the output of API writer for the objects
+     * with system properties set to null.
+     *
+     * @throws Exception
+     *      in case of serialization failure
+     */
+    @Test
+    public void publicApiWriterTest() throws Exception {
+        List<MasterBody> bodies = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            MasterBody body = body();
+            body.setCreatedBy("master");
+            body.setCreatedByVersion("1");
+            body.setModifiedBy("master");
+            body.setModifiedByVersion("2");
+            body.setPersistentId("persistent" + i);
+            HashMap<String, Object> metaData = new HashMap<>();
+            metaData.put("inputFingerprint", "abc");
+            body.setMetaData(metaData);
+            bodies.add(body);
+        }
+
+        String json = JsonUtils.getPublicApiWriter().writeValueAsString(bodies);
+        assertTrue(json.contains("\"createdBy\":\"master\""));
+        assertFalse(json.contains("persistent"));
+        assertFalse(json.contains("Version"));
+
+        for (MasterBody body : bodies) {
+            body.setCreatedByVersion(null);
+            body.setModifiedByVersion(null);
+            body.setPersistentId(null);
+            body.setMetaData(null);
+        }
+        assertEquals(JsonUtils.getApiWriter().writeValueAsString(bodies), json);
+    }
+
+    /**
+     * Public API writer omits system properties of the transformable objects nested in maps too.
+     *
+     * @throws Exception
+     *      in case of serialization failure
+     */
+    @Test
+    public void publicApiWriterMapTest() throws Exception {
+        MasterBody body = body();
+        body.setCreatedBy("master");
+        body.setPersistentId("persistent");
+        HashMap<String, Object> metaData = new HashMap<>();
+        metaData.put("inputFingerprint", "abc");
+        body.setMetaData(metaData);
+
+        HashMap<String, Object> wrapper = new HashMap<>();
+        wrapper.put("body", body);
+        wrapper.put("bodies", Arrays.asList(body));
+
+        String json = JsonUtils.getPublicApiWriter().writeValueAsString(wrapper);
+        assertTrue(json.contains("\"createdBy\":\"master\""));
+        assertFalse(json.contains("persistent"));
+        assertFalse(json.contains("inputFingerprint"));
+
+        body.setPersistentId(null);
+        body.setMetaData(null);
+        assertEquals(JsonUtils.getApiWriter().writeValueAsString(wrapper), json);
+    }
+
+    /**
+     * Readers and writers are cached per type.
+     */
+    @Test
+    public void cacheTest() {
+        assertSame(JsonUtils.getStorageReader(MasterBody.class), JsonUtils.getStorageReader(MasterBody.class));
+        assertSame(JsonUtils.getStorageWriter(MasterBody.class), JsonUtils.getStorageWriter(MasterBody.class));
+        assertSame(JsonUtils.getCompactStorageWriter(MasterBody.class),
+            JsonUtils.getCompactStorageWriter(MasterBody.class));
+        assertSame(JsonUtils.getMessageReader(MasterBody.class), JsonUtils.getMessageReader(MasterBody.class));
+    }
+}
@@ -0,0 +1,91 @@
+package eu.dl.dataaccess.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for PageUtils class.
+ */
+public final class PageUtilsTest {
+
+    /**
+     * The page size is between 1 and the maximum, the default is used when none is requested.
+     */
+    @Test
+    public void parsePageSizeTest() {
+        assertEquals(PageUtils.DEFAULT_PAGE_SIZE, PageUtils.parsePageSize(null));
+        assertEquals(1, PageUtils.parsePageSize("1"));
+        assertEquals(PageUtils.MAX_PAGE_SIZE, PageUtils.parsePageSize(String.valueOf(PageUtils.MAX_PAGE_SIZE)));
+
+        for (String invalid : Arrays.asList("0", "-1", String.valueOf(PageUtils.MAX_PAGE_SIZE + 1), "", "ten",
+            "99999999999")) {
+            try {
+                PageUtils.parsePageSize(invalid);
+                fail("page size " + invalid + " accepted");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * The page is non-negative and its offset doesn't overflow even for the far pages of the maximum page size.
+     */
+    @Test
+    public void offsetTest() {
+        assertEquals(0, PageUtils.parsePage("0"));
+        assertEquals(Integer.MAX_VALUE, PageUtils.parsePage(String.valueOf(Integer.MAX_VALUE)));
+        assertEquals(0L, PageUtils.getOffset(0, 10));
+        assertEquals(30L, PageUtils.getOffset(3, 10));
+        assertEquals(214749L * PageUtils.MAX_PAGE_SIZE, PageUtils.getOffset(214749, PageUtils.MAX_PAGE_SIZE));
+
+        for (String invalid : Arrays.asList("-1", "", "first", "99999999999", null)) {
+            try {
+                PageUtils.parsePage(invalid);
+                fail("page " + invalid + " accepted");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+
+        try {
+            PageUtils.getOffset(-1, 10);
+            fail("negative page accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Only the item after the page is removed, it signals the next page.
+     */
+    @Test
+    public void trimTest() {
+        List<Integer> items = new ArrayList<>(Arrays.asList(1, 2));
+        assertFalse(PageUtils.trim(items, 3));
+        assertEquals(Arrays.asList(1, 2), items);
+
+        items = new ArrayList<>(Arrays.asList(1, 2, 3));
+        assertFalse(PageUtils.trim(items, 3));
+        assertEquals(Arrays.asList(1, 2, 3), items);
+
+        items = new ArrayList<>(Arrays.asList(1, 2, 3, 4));
+        assertTrue(PageUtils.trim(items, 3));
+        assertEquals(Arrays.asList(1, 2, 3), items);
+
+        items = new ArrayList<>(Arrays.asList(1, 2));
+        assertTrue(PageUtils.trim(items, 1));
+        assertEquals(Arrays.asList(1), items);
+
+        assertFalse(PageUtils.trim(new ArrayList<>(), 1));
+        assertFalse(PageUtils.trim(null, 1));
+    }
+}
@@ -0,0 +1,138 @@
+package eu.dl.dataaccess.utils;
+
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.dl.dataaccess.dto.clean.CleanBody;
+import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
+import eu.dl.dataaccess.dto.codetables.BodyType;
+import eu.dl.dataaccess.dto.generic.Address;
+import eu.dl.dataaccess.dto.matched.MatchedBody;
+
+/**
+ * Tests for StandardizedBody class.
+ */
+public final class StandardizedBodyTest {
+
+    /**
+     * SHA-256 of all the hashes of the corpus bodies, see {@link #hashes(MatchedBody)}. The values were computed by
+     * the implementation which standardized the body for each hash separately.
+     */
+    private static final List<String> EXPECTED = Arrays.asList(
+        "df1dc7baed61c011ad3410d62f5b30952bee6c40c3e70b44cea5ee1857243dde",
+        "cde0fd5bec25fc5890d2659366fbc2ebb000da9010d3eb27f61676b2026258a6",
+        "9e3cbd02fea5ee78d18ae362f5d4356ff0b7ff876fa99c4be2723a965628afdb",
+        "18ba030fa9d434f85c95da015cc7a93261b78d5cbbbb000e0e987c3c8d7a90d8",
+        "e57a793aa0e7d09be5b057e0c1e84e5df6eeb91e46dc3a7319fc895b3179ed78",
+        "00447e4f4551eda80d0add2c38c744f517766af391c879416c607fbd8e61a038",
+        "801ca6a7cb1b2b25b06fff834c1ff888653d400398aa7e28026d5a779c67c882",
+        "e052fcf8d0f5efa65951f236f97116120779a71e35d3e51dbe6f30f94b7bf960");
+
+    /**
+     * @return fixture corpus of bodies
+     */
+    private static List<MatchedBody> corpus() {
+        BodyIdentifier ico = new BodyIdentifier().setId(" 123 456 ").setScope(BodyIdentifier.Scope.CZ)
+            .setType(BodyIdentifier.Type.ORGANIZATION_ID);
+        BodyIdentifier vat = new BodyIdentifier().setId("CZ123456").setScope(BodyIdentifier.Scope.CZ)
+            .setType(BodyIdentifier.Type.VAT);
+        BodyIdentifier etalon = new BodyIdentifier().setId("42").setScope(BodyIdentifier.Scope.ETALON_ID)
+            .setType(BodyIdentifier.Type.ETALON_ID);
+        BodyIdentifier noScope = new BodyIdentifier().setId("1").setType(BodyIdentifier.Type.VAT);
+        BodyIdentifier sk = new BodyIdentifier().setId("123456").setScope(BodyIdentifier.Scope.SK)
+            .setType(BodyIdentifier.Type.HEADER_ICO);
+
+        return Arrays.asList(
+            new MatchedBody().setName("Ministerstvo Financí ČR").setAddress(new Address().setStreet("Letenská 15")
+                .setCity("Praha 1").setCountry("CZ")).setBodyIds(Arrays.asList(vat, ico, etalon)),
+            new MatchedBody().setName("Stavby a.s.").setAddress(new Address().setRawAddress("Hlavní 1, Brno"))
+                .setBodyIds(Arrays.asList(ico, ico, sk, noScope)),
+            new MatchedBody().setName("  Name spol. s.r.o. ").setAddress(new Address().setStreet("Street")
+                .setPostcode("11000")).setBodyIds(Arrays.asList(sk)),
+            new MatchedBody().setName("Société Générale S A R L").setAddress(new Address().setCity("Paris")
+                .setCountry("FR").setPostcode("75001")).setBodyIds(Arrays.asList(ico)),
+            new MatchedBody().setName("Gemeinde Wien g m b h").setBodyIds(Arrays.asList(vat)),
+            new MatchedBody().setAddress(new Address().setStreet("Wall Street 1").setCity("New York"))
+                .setBodyIds(Arrays.asList(ico, vat)),
+            new MatchedBody().setName("X").setAddress(new Address().setCountry("US")).setBodyIds(Arrays.asList(sk)),
+            new MatchedBody().setName("Agency of Ireland").setAddress(new Address().setStreet("Main street 5")
+                .setCity("Dublin")).setBodyIds(Arrays.asList(etalon)));
+    }
+
+    /**
+     * @param body
+     *      matched body
+     * @return all the hashes and standardized forms of the body joined
+     */
+    private static String hashes(final MatchedBody body) {
+        StringBuilder sb = new StringBuilder()
+            .append(DigestUtils.standardizeName(body.getName())).append('|')
+            .append(DigestUtils.standardizeAddress(body.getAddress())).append('|')
+            .append(DigestUtils.digest(body)).append('|');
+        if (body.getName() != null && body.getBodyIds().stream().anyMatch(n -> n.getScope() != null
+            && n.getType() != BodyIdentifier.Type.ETALON_ID)) {
+            sb.append(DigestUtils.bodyHash(body));
+        }
+        sb.append('|').append(DigestUtils.nameAddressHash(body) == null ? null
+            : DigestUtils.nameAddressHash(body).getHash());
+        DigestUtils.generateAlternativeBodyHashes(body).forEach(n -> sb.append('|').append(n.getHash())
+            .append(':').append(n.getWeight()));
+
+        return sb.toString();
+    }
+
+    /**
+     * @param standardized
+     *      standardized body
+     * @return all the hashes and standardized forms of the body joined, computed from the standardized body
+     */
+    private static String hashes(final StandardizedBody standardized) {
+        MatchedBody body = standardized.getBody();
+        StringBuilder sb = new StringBuilder()
+            .append(standardized.getStandardizedName()).append('|')
+            .append(standardized.getStandardizedAddress()).append('|')
+            .append(standardized.getDigest()).append('|');
+        if (body.getName() != null && body.getBodyIds().stream().anyMatch(n -> n.getScope() != null
+            && n.getType() != BodyIdentifier.Type.ETALON_ID)) {
+            sb.append(DigestUtils.bodyHash(standardized));
+        }
+        sb.append('|').append(DigestUtils.nameAddressHash(standardized) == null ? null
+            : DigestUtils.nameAddressHash(standardized).getHash());
+        DigestUtils.generateAlternativeBodyHashes(standardized).forEach(n -> sb.append('|').append(n.getHash())
+            .append(':').append(n.getWeight()));
+
+        return sb.toString();
+    }
+
+    /**
+     * All the hashes of the corpus bodies are the same as before.
+     */
+    @Test
+    public void corpusHashesTest() {
+        List<MatchedBody> corpus = corpus();
+        for (int i = 0; i < corpus.size(); i++) {
+            assertEquals(EXPECTED.get(i), sha256Hex(hashes(corpus.get(i))));
+            assertEquals(EXPECTED.get(i), sha256Hex(hashes(new StandardizedBody(corpus.get(i)))));
+        }
+    }
+
+    /**
+     * Matched body created from clean body gets the standardized forms and digest.
+     */
+    @Test
+    public void matchedBodyFromCleanBodyTest() {
+        for (MatchedBody body : corpus()) {
+            MatchedBody matched = new MatchedBody(new CleanBody().setName(body.getName())
+                .setAddress(body.getAddress()).setBodyIds(body.getBodyIds()), BodyType.BUYERS);
+
+            assertEquals(DigestUtils.standardizeName(body.getName()), matched.getStandardizedName());
+            assertEquals(DigestUtils.standardizeAddress(body.getAddress()), matched.getStandardizedAddress());
+            assertEquals(DigestUtils.digest(body), matched.getDigest());
+        }
+    }
+}
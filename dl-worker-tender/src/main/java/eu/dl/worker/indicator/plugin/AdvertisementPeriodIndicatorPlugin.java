@@ -11,12 +11,57 @@ import eu.dl.dataaccess.dto.master.MasterTender;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * This plugin calculates advertisement period length.
  */
 public class AdvertisementPeriodIndicatorPlugin implements IndicatorPlugin<MasterTender> {
 
+    private static final Pattern MISSING_PATTERN = Pattern.compile("indicator\\.(.+)\\.advertisementPeriod\\.missing");
+
+    private static final Pattern LENGTH_PATTERN = Pattern.compile("indicator\\.(.+)\\.advertisementPeriod\\.length");
+
+    /**
+     * Countries where the missing bid deadline is considered as red flag.
+     */
+    private final Set<String> missingBidDeadlineRedFlags;
+
+    /**
+     * Map of country codes and problematic advertisement period lengths (eg. "0-10;15-20").
+     */
+    private final Map<String, String> periods;
+
+    /**
+     * Creates plugin configured from the application config. The configuration is read from the parameters
+     * "indicator.[country].advertisementPeriod.missing" (value "1" means red flag) and
+     * "indicator.[country].advertisementPeriod.length".
+     */
+    public AdvertisementPeriodIndicatorPlugin() {
+        this(IndicatorUtils.getCountryValues(Config.getInstance(), MISSING_PATTERN).entrySet().stream()
+                .filter(n -> "1".equals(n.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet()),
+            IndicatorUtils.getCountryValues(Config.getInstance(), LENGTH_PATTERN));
+    }
+
+    /**
+     * Creates plugin with the given configuration.
+     *
+     * @param missingBidDeadlineRedFlags
+     *      countries where the missing bid deadline is considered as red flag
+     * @param periods
+     *      map of country codes and problematic advertisement period lengths (eg. "0-10;15-20")
+     */
+    public AdvertisementPeriodIndicatorPlugin(final Set<String> missingBidDeadlineRedFlags,
+        final Map<String, String> periods) {
+        this.missingBidDeadlineRedFlags = missingBidDeadlineRedFlags;
+        this.periods = periods;
+    }
+
     @Override
     public final Indicator evaulate(final MasterTender tender) {
         if (tender == null || tender.getCountry() == null) {
@@ -78,11 +123,7 @@ public class AdvertisementPeriodIndicatorPlugin implements IndicatorPlugin<Maste
      * @return true if missing bid deadline is considered red flag
      */
     private Boolean isMissingBidDeadlineRedFlag(final String countryCode) {
-        // get configuration for given country
-        String value = Config.getInstance().getParam(
-                "indicator." + countryCode + ".advertisementPeriod.missing");
-
-        return value != null && value.equals("1");
+        return missingBidDeadlineRedFlags.contains(countryCode);
     }
 
     /**
@@ -94,9 +135,6 @@ public class AdvertisementPeriodIndicatorPlugin implements IndicatorPlugin<Maste
      * @return true if the decision period length is considered problematic
      */
     private Boolean checkAdvertisementPeriod(final String countryCode, final Long advertisementPeriodLength) {
-        String value = Config.getInstance().getParam(
-                "indicator." + countryCode + ".advertisementPeriod.length");
-
-        return IndicatorUtils.isValueInPeriod(value, advertisementPeriodLength);
+        return IndicatorUtils.isValueInPeriod(periods.get(countryCode), advertisementPeriodLength);
     }
 }
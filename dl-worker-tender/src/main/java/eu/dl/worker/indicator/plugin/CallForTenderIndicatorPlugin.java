@@ -18,9 +18,27 @@ import static eu.dl.dataaccess.dto.indicator.TenderIndicatorType.CORRUPTION_PRIO
 public class CallForTenderIndicatorPlugin implements IndicatorPlugin<MasterTender> {
 
     /**
-     * Application config instance.
+     * Countries where the missing call for tender is considered as red flag.
      */
-    private static final Config config = Config.getInstance();
+    private final Set<String> redFlagCountries;
+
+    /**
+     * Creates plugin configured from the application config. The countries are read from the comma separated
+     * parameter "indicator.priorInformationNotice.redFlag".
+     */
+    public CallForTenderIndicatorPlugin() {
+        this(Config.getInstance().getParamValueAsList("indicator.priorInformationNotice.redFlag", ",", HashSet.class));
+    }
+
+    /**
+     * Creates plugin with the given configuration.
+     *
+     * @param redFlagCountries
+     *      countries where the missing call for tender is considered as red flag
+     */
+    public CallForTenderIndicatorPlugin(final Set<String> redFlagCountries) {
+        this.redFlagCountries = redFlagCountries;
+    }
 
     @Override
     public final Indicator evaulate(final MasterTender tender) {
@@ -28,10 +46,7 @@ public class CallForTenderIndicatorPlugin implements IndicatorPlugin<MasterTende
             return null;
         }
 
-        Set<String> countries = config.getParamValueAsList("indicator.priorInformationNotice.redFlag",
-                ",", HashSet.class);
-
-        if (countries.contains(tender.getCountry())) {
+        if (redFlagCountries.contains(tender.getCountry())) {
             Boolean publicationFound = false;
 
             if (tender.getPublications() != null && !tender.getPublications().isEmpty()) {
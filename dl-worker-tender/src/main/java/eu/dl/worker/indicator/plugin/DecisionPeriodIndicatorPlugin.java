@@ -10,12 +10,57 @@ import eu.dl.dataaccess.dto.master.MasterTenderLot;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * This plugin calculates decision period length.
  */
 public class DecisionPeriodIndicatorPlugin implements IndicatorPlugin<MasterTender> {
 
+    private static final Pattern MISSING_PATTERN = Pattern.compile("indicator\\.(.+)\\.decisionPeriod\\.missing");
+
+    private static final Pattern LENGTH_PATTERN = Pattern.compile("indicator\\.(.+)\\.decisionPeriod\\.length");
+
+    /**
+     * Countries where the missing bid deadline is considered as red flag.
+     */
+    private final Set<String> missingBidDeadlineRedFlags;
+
+    /**
+     * Map of country codes and problematic decision period lengths (eg. "0-10;15-20").
+     */
+    private final Map<String, String> periods;
+
+    /**
+     * Creates plugin configured from the application config. The configuration is read from the parameters
+     * "indicator.[country].decisionPeriod.missing" (value "1" means red flag) and
+     * "indicator.[country].decisionPeriod.length".
+     */
+    public DecisionPeriodIndicatorPlugin() {
+        this(IndicatorUtils.getCountryValues(Config.getInstance(), MISSING_PATTERN).entrySet().stream()
+                .filter(n -> "1".equals(n.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet()),
+            IndicatorUtils.getCountryValues(Config.getInstance(), LENGTH_PATTERN));
+    }
+
+    /**
+     * Creates plugin with the given configuration.
+     *
+     * @param missingBidDeadlineRedFlags
+     *      countries where the missing bid deadline is considered as red flag
+     * @param periods
+     *      map of country codes and problematic decision period lengths (eg. "0-10;15-20")
+     */
+    public DecisionPeriodIndicatorPlugin(final Set<String> missingBidDeadlineRedFlags,
+        final Map<String, String> periods) {
+        this.missingBidDeadlineRedFlags = missingBidDeadlineRedFlags;
+        this.periods = periods;
+    }
+
     @Override
     public final Indicator evaulate(final MasterTender tender) {
         if (tender == null || tender.getCountry() == null) {
@@ -72,11 +117,7 @@ public class DecisionPeriodIndicatorPlugin implements IndicatorPlugin<MasterTend
      * @return true if missing bid deadline is considered red flag
      */
     private Boolean isMissingBidDeadlineRedFlag(final String countryCode) {
-        // get configuration for given country
-        String value = Config.getInstance().getParam(
-                "indicator." + countryCode + ".decisionPeriod.missing");
-
-        return value != null && value.equals("1");
+        return missingBidDeadlineRedFlags.contains(countryCode);
     }
 
     /**
@@ -88,9 +129,6 @@ public class DecisionPeriodIndicatorPlugin implements IndicatorPlugin<MasterTend
      * @return true if the decision period length is considered problematic
      */
     private Boolean checkDecisionPeriod(final String countryCode, final Long decisionPeriodLength) {
-        String value = Config.getInstance().getParam(
-                "indicator." + countryCode + ".decisionPeriod.length");
-
-        return IndicatorUtils.isValueInPeriod(value, decisionPeriodLength);
+        return IndicatorUtils.isValueInPeriod(periods.get(countryCode), decisionPeriodLength);
     }
 }
@@ -1,5 +1,13 @@
 package eu.dl.worker.indicator.plugin;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import eu.dl.core.config.Config;
 import eu.dl.core.config.MisconfigurationException;
 
 /**
@@ -40,4 +48,52 @@ public final class IndicatorUtils {
 
         return false;
     }
+
+    /**
+     * Reads per-country configuration values. The {@code pattern} has to include exactly one capturing group which
+     * matches the country code, eg. "indicator\\.(.+)\\.decisionPeriod\\.length".
+     *
+     * @param config
+     *      configuration
+     * @param pattern
+     *      pattern of the parameter name
+     * @return map of country codes and parameter values
+     */
+    public static Map<String, String> getCountryValues(final Config config, final Pattern pattern) {
+        Map<String, String> result = new HashMap<>();
+        for (Map.Entry<String, String> param : config.getParamsMatching(pattern).entrySet()) {
+            Matcher matcher = pattern.matcher(param.getKey());
+            matcher.matches();
+            result.put(matcher.group(1), param.getValue());
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads per-country flags. The {@code pattern} has to include exactly two capturing groups, the first matches the
+     * country code and the second one the flagged item, eg. "indicator\\.(.+)\\.taxHaven\\.(.+)". Only the
+     * parameters with value equal to {@code flagValue} are taken into account.
+     *
+     * @param config
+     *      configuration
+     * @param pattern
+     *      pattern of the parameter name
+     * @param flagValue
+     *      value which means that the flag is set
+     * @return map of country codes and sets of flagged items
+     */
+    public static Map<String, Set<String>> getCountryFlags(final Config config, final Pattern pattern,
+        final String flagValue) {
+        Map<String, Set<String>> result = new HashMap<>();
+        for (Map.Entry<String, String> param : config.getParamsMatching(pattern).entrySet()) {
+            if (flagValue.equals(param.getValue())) {
+                Matcher matcher = pattern.matcher(param.getKey());
+                matcher.matches();
+                result.computeIfAbsent(matcher.group(1), k -> new HashSet<>()).add(matcher.group(2));
+            }
+        }
+
+        return result;
+    }
 }
@@ -1,5 +1,9 @@
 package eu.dl.worker.indicator.plugin;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
 import eu.dl.core.config.Config;
 import eu.dl.dataaccess.dto.indicator.BasicEntityRelatedIndicator;
 import eu.dl.dataaccess.dto.indicator.Indicator;
@@ -11,26 +15,52 @@ import eu.dl.dataaccess.dto.master.MasterTender;
  */
 public class ProcedureTypeIndicatorPlugin implements IndicatorPlugin<MasterTender> {
 
-	/**
-     * Application config instance.
+    private static final Pattern PROCEDURE_TYPE_PATTERN =
+        Pattern.compile("indicator\\.(.+)\\.procedureType\\.(.+)");
+
+    /**
+     * Value used in configuration for the missing procedure type.
+     */
+    private static final String MISSING = "missing";
+
+    /**
+     * Map of country codes and procedure types (including "missing") considered as red flag.
+     */
+    private final Map<String, Set<String>> redFlagProcedureTypes;
+
+    /**
+     * Creates plugin configured from the application config. The red flag procedure types are read from the
+     * parameters "indicator.[country].procedureType.[procedure type]" with value "YES".
+     */
+    public ProcedureTypeIndicatorPlugin() {
+        this(IndicatorUtils.getCountryFlags(Config.getInstance(), PROCEDURE_TYPE_PATTERN, "YES"));
+    }
+
+    /**
+     * Creates plugin with the given configuration.
+     *
+     * @param redFlagProcedureTypes
+     *      map of country codes and procedure types (including "missing") considered as red flag
      */
-    private static final Config config = Config.getInstance();
-    
+    public ProcedureTypeIndicatorPlugin(final Map<String, Set<String>> redFlagProcedureTypes) {
+        this.redFlagProcedureTypes = redFlagProcedureTypes;
+    }
+
     @Override
     public final Indicator evaulate(final MasterTender tender) {
         if (tender == null || tender.getCountry() == null) {
             return null;
         }
 
-        String configKey = "indicator." + tender.getCountry();
-        
+        String procedureType;
         if (tender.getProcedureType() == null || tender.getProcedureType().toString().isEmpty()) {
-        	configKey = configKey + ".procedureType.missing";
+        	procedureType = MISSING;
         } else {
-        	configKey = configKey + ".procedureType." + tender.getProcedureType();        	
+        	procedureType = tender.getProcedureType().toString();
         }
-        
-        if (config.getParam(configKey) != null && config.getParam(configKey).equals("YES")) {
+
+        Set<String> redFlags = redFlagProcedureTypes.get(tender.getCountry());
+        if (redFlags != null && redFlags.contains(procedureType)) {
 	        Indicator indicator = new BasicEntityRelatedIndicator();
 	        indicator.setType(getType());
 	        return indicator;
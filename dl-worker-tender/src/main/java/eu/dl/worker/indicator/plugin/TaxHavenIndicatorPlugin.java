@@ -1,6 +1,9 @@
 package eu.dl.worker.indicator.plugin;
 
 import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import eu.dl.core.config.Config;
 import eu.dl.dataaccess.dto.codetables.PublicationFormType;
@@ -18,11 +21,31 @@ import eu.dl.dataaccess.dto.master.MasterTenderLot;
  */
 public class TaxHavenIndicatorPlugin implements IndicatorPlugin<MasterTender> {
 
-	/**
-     * Application config instance.
+    private static final Pattern TAX_HAVEN_PATTERN = Pattern.compile("indicator\\.(.+)\\.taxHaven\\.(.+)");
+
+    /**
+     * Tax havens, map of country codes and years for which is the country considered as tax haven.
+     */
+    private final Map<String, Set<String>> taxHavens;
+
+    /**
+     * Creates plugin configured from the application config. The tax havens are read from the parameters
+     * "indicator.[country].taxHaven.[year]" with value "YES".
+     */
+    public TaxHavenIndicatorPlugin() {
+        this(IndicatorUtils.getCountryFlags(Config.getInstance(), TAX_HAVEN_PATTERN, "YES"));
+    }
+
+    /**
+     * Creates plugin with the given configuration.
+     *
+     * @param taxHavens
+     *      map of country codes and years for which is the country considered as tax haven
      */
-    private static final Config config = Config.getInstance();
-    
+    public TaxHavenIndicatorPlugin(final Map<String, Set<String>> taxHavens) {
+        this.taxHavens = taxHavens;
+    }
+
     @Override
     public final Indicator evaulate(final MasterTender tender) {
         if (tender == null || tender.getLots() == null || tender.getPublications() == null) {
@@ -42,17 +65,15 @@ public class TaxHavenIndicatorPlugin implements IndicatorPlugin<MasterTender> {
         }
         
         if (publicationDate != null) {
+        	String publicationYear = String.valueOf(publicationDate.getYear());
         	for (MasterTenderLot lot : tender.getLots()) {
         		if (lot.getBids() != null) {
         			for (MasterBid bid : lot.getBids()) {
         				if (bid.getBidders() != null && !bid.getBidders().isEmpty()) {
         					for (MasterBody bidder : bid.getBidders()) {
 	        					if (bidder.getAddress() != null && bidder.getAddress().getCountry() != null) {
-	        						String configKey = "indicator." 
-	        								+ bidder.getAddress().getCountry() 
-	        								+ ".taxHaven." + publicationDate.getYear();
-	        						if (config.getParam(configKey) != null 
-	        								&& config.getParam(configKey).equals("YES")) {
+	        						Set<String> years = taxHavens.get(bidder.getAddress().getCountry());
+	        						if (years != null && years.contains(publicationYear)) {
 	        							Indicator indicator = new BasicEntityRelatedIndicator();
 	        							indicator.setType(getType());
 	        					
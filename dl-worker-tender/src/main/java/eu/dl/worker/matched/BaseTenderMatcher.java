@@ -23,12 +23,14 @@ import eu.dl.dataaccess.dao.ManualMatchDAO;
 import eu.dl.dataaccess.dao.MatchedBodyDAO;
 import eu.dl.dataaccess.dao.MatchedTenderDAO;
 import eu.dl.dataaccess.dto.clean.CleanTender;
+import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
 import eu.dl.dataaccess.dto.generic.Publication;
 import eu.dl.dataaccess.dto.matched.MatchedBid;
 import eu.dl.dataaccess.dto.matched.MatchedBody;
 import eu.dl.dataaccess.dto.matched.MatchedTender;
 import eu.dl.dataaccess.dto.matched.MatchedTenderLot;
 import eu.dl.dataaccess.utils.BodyUtils;
+import eu.dl.dataaccess.utils.StandardizedBody;
 import eu.dl.dataaccess.utils.WeightedHash;
 import eu.dl.worker.Message;
 import eu.dl.worker.MessageFactory;
@@ -93,6 +95,17 @@ public abstract class BaseTenderMatcher extends BaseMatcher {
      */
     private static final long PLUGIN_TIME_THRESHOLD = 100;
 
+    /**
+     * Matched bodies of the currently processed tender waiting to be saved, each with the plain body which references
+     * it in the matched tender.
+     */
+    private final List<Pair<MatchedBody, MatchedBody>> unsavedBodies = new ArrayList<>();
+
+    /**
+     * Messages (with their tags) about the currently processed tender, published after the transaction commit.
+     */
+    private final List<Pair<Message, String>> unpublishedMessages = new ArrayList<>();
+
     protected final Cache<String, String> bodyHashCache = new Cache2kBuilder<String, String>() {}
     		.name("bodyHashCache")
     		.eternal(true)
@@ -136,6 +149,9 @@ public abstract class BaseTenderMatcher extends BaseMatcher {
 
 	@Override
     public final void doWork(final Message message) {
+        unsavedBodies.clear();
+        unpublishedMessages.clear();
+
         getTransactionUtils().begin();
         final String cleanTenderId = message.getValue("id");
         ThreadContext.put("clean_tender_id", cleanTenderId);
@@ -150,6 +166,8 @@ public abstract class BaseTenderMatcher extends BaseMatcher {
         logger.info("Matching tender {}", cleanTenderId);
         matchTender(matchedTender);
         getTransactionUtils().commit();
+
+        publishMessages();
     }
 
     /**
@@ -210,6 +228,9 @@ public abstract class BaseTenderMatcher extends BaseMatcher {
             }
             matchedTender.setLots(lots);
         }
+
+        saveBodies();
+
         return matchedTender;
     }
 
@@ -274,8 +295,11 @@ public abstract class BaseTenderMatcher extends BaseMatcher {
                 metaData = body.getMetaData();
             }
 
+            // standardized forms are computed once and shared by all the body hashes
+            StandardizedBody standardized = new StandardizedBody(body);
+
             // generate body hash
-            String mainBodyHash = generateBodyHash(body);
+            String mainBodyHash = generateBodyHash(standardized);
 
             if (mainBodyHash == null) {
                 logger.error("Unable to generate body hash. Body is skipped.");
@@ -289,7 +313,7 @@ public abstract class BaseTenderMatcher extends BaseMatcher {
             logger.debug("Calculated full hash {} for body {}.", fullHash, body.getName());
             body.setFullHash(fullHash);
 
-            body.setAlternativeHashes(generateAlternativeBodyHashes(body));
+            body.setAlternativeHashes(generateAlternativeBodyHashes(standardized));
             
             // search for potential matches in cache
             long pluginStartTime = System.currentTimeMillis();
@@ -310,6 +334,12 @@ public abstract class BaseTenderMatcher extends BaseMatcher {
                 body.setMatchedBy(HASH);
                 metaData.put("matchedBy", HASH);
             } else {
+                // the pool plugins search the stored bodies and refer to the best one by its id, so the bodies of
+                // this tender which may be in the pool have to be saved first
+                if (mayBeInPool(body)) {
+                    saveBodies();
+                }
+
                 Boolean matched = false;
                 // try all registered plugins for potential match
                 for (Entry<String, MatchingPlugin<MatchedBody>> entry : bodyPluginRegistry.getPlugins().entrySet()) {
@@ -368,22 +398,20 @@ public abstract class BaseTenderMatcher extends BaseMatcher {
             metaData.put("matchingTimes", matchingTimes);
             
             body.setMetaData(metaData);
-            matchedBodyDao.save(body);
 
-            // we don't store the whole body, only the "plain", reference body
+            // we don't store the whole body, only the "plain", reference body. Its id is set when the body is saved.
             MatchedBody plainBody = new MatchedBody();
-            plainBody.setId(body.getId());
             plainBody.setGroupId(body.getGroupId());
             plainBody.setCompletenessScore(completenessScore);
 
             matchedBodies.add(plainBody);
+            unsavedBodies.add(Pair.of(body, plainBody));
 
-            // publish message
+            // message is published after commit
             final Message outgoingMessage = MessageFactory.getMessage();
-            final String tag = getBodyMessagingTag();
             outgoingMessage.setValue("groupId", body.getGroupId());
-            publishMessage(outgoingMessage, tag);
-            logger.info("Body matching finished, published message '{}' with tag '{}'", outgoingMessage, tag);
+            unpublishedMessages.add(Pair.of(outgoingMessage, getBodyMessagingTag()));
+            logger.debug("Body matching finished, message '{}' is going to be published", outgoingMessage);
         }
 
         if (matchedBodies != null && !matchedBodies.isEmpty()) {
@@ -394,6 +422,104 @@ public abstract class BaseTenderMatcher extends BaseMatcher {
     }
 
     
+    /**
+     * Saves all the unsaved matched bodies at once and sets ids of the saved bodies to the plain bodies referencing
+     * them.
+     */
+    private void saveBodies() {
+        if (unsavedBodies.isEmpty()) {
+            return;
+        }
+
+        List<MatchedBody> bodies = new ArrayList<>();
+        for (Pair<MatchedBody, MatchedBody> unsaved : unsavedBodies) {
+            bodies.add(unsaved.getLeft());
+        }
+
+        List<String> ids = matchedBodyDao.saveAll(bodies);
+        for (int i = 0; i < unsavedBodies.size(); i++) {
+            unsavedBodies.get(i).getRight().setId(ids.get(i));
+        }
+
+        logger.debug("Saved {} matched bodies", bodies.size());
+        unsavedBodies.clear();
+    }
+
+    /**
+     * Checks whether any of the unsaved bodies may be in the pool of the given body, ie. it has the same standardized
+     * name, standardized address, digest or some of the body identifiers (see ExactMatchBodyDAO and
+     * ApproximateMatchBodyDAO). Only then the unsaved bodies are saved before the plugins run, otherwise all the
+     * bodies of the tender are saved at once after the tender is matched.
+     *
+     * @param body
+     *         matched body
+     *
+     * @return true if the body pool may include some unsaved body
+     */
+    private boolean mayBeInPool(final MatchedBody body) {
+        for (Pair<MatchedBody, MatchedBody> unsaved : unsavedBodies) {
+            MatchedBody other = unsaved.getLeft();
+            if (equalsNotNull(body.getStandardizedName(), other.getStandardizedName())
+                || equalsNotNull(body.getStandardizedAddress(), other.getStandardizedAddress())
+                || equalsNotNull(body.getDigest(), other.getDigest())
+                || haveCommonBodyId(body, other)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param value
+     *         value
+     * @param other
+     *         other value
+     *
+     * @return true if the values are not null and equal
+     */
+    private static boolean equalsNotNull(final String value, final String other) {
+        return value != null && value.equals(other);
+    }
+
+    /**
+     * @param body
+     *         body
+     * @param other
+     *         other body
+     *
+     * @return true if the bodies have a body identifier with the same id and scope
+     */
+    private static boolean haveCommonBodyId(final MatchedBody body, final MatchedBody other) {
+        if (body.getBodyIds() == null || other.getBodyIds() == null) {
+            return false;
+        }
+
+        for (BodyIdentifier id : body.getBodyIds()) {
+            for (BodyIdentifier otherId : other.getBodyIds()) {
+                if (id != null && otherId != null && id.getScope() != null && id.getScope() == otherId.getScope()
+                    && equalsNotNull(id.getId(), otherId.getId())) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Publishes all the messages about the matched tender and its bodies.
+     */
+    private void publishMessages() {
+        for (Pair<Message, String> message : unpublishedMessages) {
+            publishMessage(message.getLeft(), message.getRight());
+            logger.info("Matching finished, published message '{}' with tag '{}'", message.getLeft(),
+                message.getRight());
+        }
+
+        unpublishedMessages.clear();
+    }
+
     /**
      * Puts values with matching result to cache.
      * 
@@ -510,11 +636,11 @@ public abstract class BaseTenderMatcher extends BaseMatcher {
         // save the result
         matchedTenderDao.save(matchedTender);
 
+        // message is published after commit
         final Message outgoingMessage = MessageFactory.getMessage();
-        final String tag = getTenderMessagingTag();
         outgoingMessage.setValue("groupId", matchedTender.getGroupId());
-        publishMessage(outgoingMessage, tag);
-        logger.info("Tender matching finished, published message '{}' with tag '{}'", outgoingMessage, tag);
+        unpublishedMessages.add(Pair.of(outgoingMessage, getTenderMessagingTag()));
+        logger.debug("Tender matching finished, message '{}' is going to be published", outgoingMessage);
     }
 
     @Override
@@ -598,12 +724,12 @@ public abstract class BaseTenderMatcher extends BaseMatcher {
      * necessarily "equal"/"the same" in all their fields - only the relevant
      * fields counts. For example name and ICO.
      *
-     * @param matchedBody
-     *         matched body used to generate hash
+     * @param standardizedBody
+     *         standardized forms of the matched body used to generate hash
      *
      * @return hash
      */
-    protected abstract String generateBodyHash(MatchedBody matchedBody);
+    protected abstract String generateBodyHash(StandardizedBody standardizedBody);
 
     /**
      * This methods generates the hash for the tender. This hash is used to
@@ -7,11 +7,12 @@ import static org.junit.Assert.assertNull;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
-import org.junit.Before;
 import org.junit.Test;
 
-import eu.dl.core.config.Config;
 import eu.dl.core.config.MisconfigurationException;
 import eu.dl.dataaccess.dto.codetables.PublicationFormType;
 import eu.dl.dataaccess.dto.generic.Publication;
@@ -79,14 +80,18 @@ public final class AdvertisementPeriodIndicatorPluginTest {
                     new Publication().setFormType(PublicationFormType.CONTRACT_NOTICE)
                             .setPublicationDate(LocalDate.now())));
 
-    private final AdvertisementPeriodIndicatorPlugin plugin = new AdvertisementPeriodIndicatorPlugin();
+    private final AdvertisementPeriodIndicatorPlugin plugin = new AdvertisementPeriodIndicatorPlugin(
+            Collections.singleton("CZ"), periods());
 
     /**
-     * Test initialization.
+     * @return problematic period lengths per country
      */
-    @Before
-    public void init() {
-        Config.getInstance().setConfigFile(Arrays.asList("unit_test"));
+    private static Map<String, String> periods() {
+        Map<String, String> periods = new HashMap<>();
+        periods.put("CZ", "0-10;15-20");
+        periods.put("SK", "0-10");
+        periods.put("DE", "0");
+        return periods;
     }
 
     /**
@@ -4,11 +4,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import java.util.Arrays;
+import java.util.HashSet;
 
-import org.junit.Before;
 import org.junit.Test;
 
-import eu.dl.core.config.Config;
 import eu.dl.dataaccess.dto.codetables.PublicationFormType;
 import eu.dl.dataaccess.dto.generic.Publication;
 import eu.dl.dataaccess.dto.indicator.TenderIndicatorType;
@@ -44,15 +43,9 @@ public final class CallForTenderIndicatorPluginTest {
                     new Publication().setFormType(PublicationFormType.CONTRACT_IMPLEMENTATION)));
 
 
-    private final CallForTenderIndicatorPlugin plugin = new CallForTenderIndicatorPlugin();
-
-    /**
-     * Test initialization.
-     */
-    @Before
-    public void init() {
-        Config.getInstance().setConfigFile(Arrays.asList("unit_test"));
-    }
+    private final CallForTenderIndicatorPlugin plugin = new CallForTenderIndicatorPlugin(
+            new HashSet<>(Arrays.asList("AT", "BE", "CY", "CZ", "DE", "FI", "FR", "GR", "HR", "HU", "IE", "IT", "LU",
+                "LV", "NL", "NO", "PL", "PT", "RO", "SE", "SI", "SK", "UK", "MT")));
 
     /**
      * Test of correct tender address.
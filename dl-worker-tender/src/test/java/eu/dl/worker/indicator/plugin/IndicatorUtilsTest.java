@@ -0,0 +1,70 @@
+package eu.dl.worker.indicator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.dl.core.config.Config;
+
+/**
+ * Test of indicator utils.
+ */
+public final class IndicatorUtilsTest {
+
+    /**
+     * Test initialization.
+     */
+    @Before
+    public void init() {
+        Config.getInstance().setConfigFile(Arrays.asList("unit_test"));
+    }
+
+    /**
+     * Test of reading per-country flags from configuration.
+     */
+    @Test
+    public void getCountryFlagsTest() {
+        assertEquals(Collections.singletonMap("CZ", Collections.singleton("2017")),
+            IndicatorUtils.getCountryFlags(Config.getInstance(),
+                Pattern.compile("indicator\\.(.+)\\.taxHaven\\.(.+)"), "YES"));
+
+        // values other than YES are ignored
+        assertEquals(Collections.singletonMap("AT", new HashSet<>(Arrays.asList("NEGOTIATED_WITH_PUBLICATION",
+                "missing"))),
+            IndicatorUtils.getCountryFlags(Config.getInstance(),
+                Pattern.compile("indicator\\.(.+)\\.procedureType\\.(.+)"), "YES"));
+    }
+
+    /**
+     * Test of reading per-country values from configuration.
+     */
+    @Test
+    public void getCountryValuesTest() {
+        Map<String, String> periods = IndicatorUtils.getCountryValues(Config.getInstance(),
+            Pattern.compile("indicator\\.(.+)\\.decisionPeriod\\.length"));
+
+        assertEquals(3, periods.size());
+        assertEquals("0-10;15-20", periods.get("CZ"));
+        assertEquals("0-10", periods.get("SK"));
+        assertEquals("0-", periods.get("DE"));
+    }
+
+    /**
+     * Test of period check.
+     */
+    @Test
+    public void isValueInPeriodTest() {
+        assertTrue(IndicatorUtils.isValueInPeriod("0-10;15-20", 17L));
+        assertFalse(IndicatorUtils.isValueInPeriod("0-10;15-20", 12L));
+        assertFalse(IndicatorUtils.isValueInPeriod(null, 12L));
+    }
+}
@@ -4,11 +4,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 
-import org.junit.Before;
 import org.junit.Test;
 
-import eu.dl.core.config.Config;
 import eu.dl.dataaccess.dto.codetables.TenderProcedureType;
 import eu.dl.dataaccess.dto.indicator.TenderIndicatorType;
 import eu.dl.dataaccess.dto.master.MasterTender;
@@ -36,15 +36,8 @@ public final class ProcedureTypeIndicatorPluginTest {
             .setCountry("AT")
             .setProcedureType(TenderProcedureType.NEGOTIATED_WITH_PUBLICATION);
 
-    private final ProcedureTypeIndicatorPlugin plugin = new ProcedureTypeIndicatorPlugin();
-
-    /**
-     * Test initialization.
-     */
-    @Before
-    public void init() {
-        Config.getInstance().setConfigFile(Arrays.asList("unit_test"));
-    }
+    private final ProcedureTypeIndicatorPlugin plugin = new ProcedureTypeIndicatorPlugin(
+            Collections.singletonMap("AT", new HashSet<>(Arrays.asList("NEGOTIATED_WITH_PUBLICATION", "missing"))));
     
     /**
      * Test of correct tender address.
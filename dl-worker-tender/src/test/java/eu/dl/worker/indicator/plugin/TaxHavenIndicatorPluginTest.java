@@ -5,11 +5,10 @@ import static org.junit.Assert.assertNull;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 
-import org.junit.Before;
 import org.junit.Test;
 
-import eu.dl.core.config.Config;
 import eu.dl.dataaccess.dto.codetables.PublicationFormType;
 import eu.dl.dataaccess.dto.generic.Address;
 import eu.dl.dataaccess.dto.generic.Publication;
@@ -56,15 +55,8 @@ public final class TaxHavenIndicatorPluginTest {
 				)
 			);
 
-    private final TaxHavenIndicatorPlugin plugin = new TaxHavenIndicatorPlugin();
-
-    /**
-     * Test initialization.
-     */
-    @Before
-    public void init() {
-        Config.getInstance().setConfigFile(Arrays.asList("unit_test"));
-    }
+    private final TaxHavenIndicatorPlugin plugin = new TaxHavenIndicatorPlugin(
+            Collections.singletonMap("CZ", Collections.singleton("2017")));
     
     /**
      * Test of correct tender address.
@@ -0,0 +1,314 @@
+package eu.dl.worker.matched;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+
+import eu.dl.core.config.Config;
+import eu.dl.dataaccess.dao.CleanTenderDAO;
+import eu.dl.dataaccess.dao.EtalonBodyDAO;
+import eu.dl.dataaccess.dao.ManualMatchDAO;
+import eu.dl.dataaccess.dao.MatchedBodyDAO;
+import eu.dl.dataaccess.dao.MatchedTenderDAO;
+import eu.dl.dataaccess.dao.TransactionUtils;
+import eu.dl.dataaccess.dto.clean.CleanBody;
+import eu.dl.dataaccess.dto.clean.CleanTender;
+import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
+import eu.dl.dataaccess.dto.matched.MatchedBody;
+import eu.dl.dataaccess.dto.matched.MatchedTender;
+import eu.dl.dataaccess.utils.StandardizedBody;
+import eu.dl.worker.BaseWorker;
+import eu.dl.worker.Message;
+import eu.dl.worker.MessageFactory;
+import eu.dl.worker.matched.plugin.MatchingPlugin;
+import eu.dl.worker.matched.plugin.MatchingResult;
+import eu.dl.worker.utils.BasicPluginRegistry;
+
+/**
+ * Tests for BaseTenderMatcher class.
+ */
+public final class BaseTenderMatcherTest {
+
+    private static final CleanTenderDAO CLEAN_TENDER_DAO = mock(CleanTenderDAO.class);
+
+    private static final MatchedBodyDAO MATCHED_BODY_DAO = mock(MatchedBodyDAO.class);
+
+    private static final MatchedTenderDAO MATCHED_TENDER_DAO = mock(MatchedTenderDAO.class);
+
+    private static final ManualMatchDAO MANUAL_MATCH_DAO = mock(ManualMatchDAO.class);
+
+    private static final EtalonBodyDAO ETALON_BODY_DAO = mock(EtalonBodyDAO.class);
+
+    private static final TransactionUtils TRANSACTION_UTILS = mock(TransactionUtils.class);
+
+    private static final Channel CHANNEL = mock(Channel.class);
+
+    /**
+     * Bodies "stored" by the matched body DAO mock.
+     */
+    private static final List<MatchedBody> STORED_BODIES = new ArrayList<>();
+
+    /**
+     * Matcher is created only once, because it creates named caches.
+     */
+    private static TestMatcher matcher;
+
+    /**
+     * Matcher used in tests. Bodies are hashed by name, the only body matching plugin matches bodies with the same
+     * body identifier stored in the database, as the pool plugins do.
+     */
+    private static final class TestMatcher extends BaseTenderMatcher {
+        @Override
+        protected void registerTenderPlugins() {
+        }
+
+        @Override
+        protected void registerBodyPlugins() {
+            bodyPluginRegistry = new BasicPluginRegistry<>();
+            bodyPluginRegistry.registerPlugin("bodyId", new MatchingPlugin<MatchedBody>() {
+                @Override
+                public MatchingResult match(final MatchedBody item) {
+                    MatchingResult result = new MatchingResult();
+                    result.setMatched(false);
+                    for (MatchedBody stored : STORED_BODIES) {
+                        if (stored.getBodyIds() != null && item.getBodyIds() != null
+                            && stored.getBodyIds().get(0).getId().equals(item.getBodyIds().get(0).getId())) {
+                            result.setMatched(true);
+                            result.setGroupId(stored.getGroupId());
+                            result.setMatchedBy("bodyId");
+                            break;
+                        }
+                    }
+                    return result;
+                }
+            });
+        }
+
+        @Override
+        protected String generateBodyHash(final StandardizedBody standardizedBody) {
+            return "hash_" + standardizedBody.getBody().getName();
+        }
+
+        @Override
+        protected String generateTenderHash(final MatchedTender matchedTender) {
+            return "tender_hash";
+        }
+
+        @Override
+        protected CleanTenderDAO getCleanTenderDAO() {
+            return CLEAN_TENDER_DAO;
+        }
+
+        @Override
+        protected MatchedTenderDAO getMatchedTenderDAO(final List<Pair<String, String>> additionalMatchers) {
+            return MATCHED_TENDER_DAO;
+        }
+
+        @Override
+        protected MatchedBodyDAO getMatchedBodyDAO(final List<Pair<String, String>> additionalMatchers) {
+            return MATCHED_BODY_DAO;
+        }
+
+        @Override
+        protected ManualMatchDAO getManualMatchDAO() {
+            return MANUAL_MATCH_DAO;
+        }
+
+        @Override
+        protected String getTenderMessagingTag() {
+            return "tender";
+        }
+
+        @Override
+        protected String getBodyMessagingTag() {
+            return "body";
+        }
+
+        @Override
+        protected EtalonBodyDAO getEtalonBodyDAO() {
+            return ETALON_BODY_DAO;
+        }
+
+        @Override
+        protected String getVersion() {
+            return "1";
+        }
+
+        @Override
+        protected TransactionUtils getTransactionUtils() {
+            return TRANSACTION_UTILS;
+        }
+    }
+
+    /**
+     * Creates matcher with mocked outgoing channel.
+     *
+     * @throws Exception
+     *      in case that the channel can't be set
+     */
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Config.getInstance().setConfigFile(Arrays.asList("unit_test"));
+        matcher = new TestMatcher();
+
+        Field channel = BaseWorker.class.getDeclaredField("outgoingChannel");
+        channel.setAccessible(true);
+        channel.set(matcher, CHANNEL);
+    }
+
+    /**
+     * Resets mocks and stored data.
+     */
+    @Before
+    public void setUp() {
+        reset(CLEAN_TENDER_DAO, MATCHED_BODY_DAO, MATCHED_TENDER_DAO, TRANSACTION_UTILS, CHANNEL);
+        STORED_BODIES.clear();
+
+        when(MATCHED_BODY_DAO.saveAll(any(List.class))).then(invocation -> {
+            List<MatchedBody> bodies = (List<MatchedBody>) invocation.getArguments()[0];
+            List<String> ids = new ArrayList<>();
+            for (MatchedBody body : bodies) {
+                body.setId("id_" + STORED_BODIES.size());
+                STORED_BODIES.add(body);
+                ids.add(body.getId());
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * Bodies of one tender are saved at once, unless a body may be in the pool of a later body. Bodies matching each
+     * other within the tender get the same group and all the messages are published after commit.
+     *
+     * @throws Exception
+     *      in case of publishing failure
+     */
+    @Test
+    public void batchedSaveAndPublishTest() throws Exception {
+        CleanTender cleanTender = new CleanTender()
+            .setCandidates(Arrays.asList(
+                new CleanBody().setName("Ministry").setBodyIds(bodyIds("12345")),
+                new CleanBody().setName("Ministry")))
+            .setBuyers(Arrays.asList(
+                new CleanBody().setName("Ministry of Finance").setBodyIds(bodyIds("12345")),
+                new CleanBody().setName("Agency")));
+        cleanTender.setId("clean");
+        when(CLEAN_TENDER_DAO.getById("clean")).thenReturn(cleanTender);
+
+        Message message = MessageFactory.getMessage();
+        message.setValue("id", "clean");
+        matcher.doWork(message);
+
+        // candidates are matched before buyers. The second candidate has the same hash as the first one, so it isn't
+        // searched in the database. The first buyer has the same identifier as the candidates, so they are saved
+        // before the plugins search the database, the other bodies are saved at once at the end
+        ArgumentCaptor<List> saved = ArgumentCaptor.forClass(List.class);
+        verify(MATCHED_BODY_DAO, times(2)).saveAll(saved.capture());
+        assertEquals(Arrays.asList(2, 2),
+            saved.getAllValues().stream().map(List::size).collect(Collectors.toList()));
+        verify(MATCHED_BODY_DAO, times(0)).save(any(MatchedBody.class));
+
+        // database state
+        String ministryGroup = "group_test_body_hash_Ministry";
+        assertEquals(4, STORED_BODIES.size());
+        assertEquals(ministryGroup, STORED_BODIES.get(0).getGroupId());
+        assertEquals(ministryGroup, STORED_BODIES.get(1).getGroupId());
+        assertEquals("hash", STORED_BODIES.get(1).getMatchedBy());
+        assertEquals(ministryGroup, STORED_BODIES.get(2).getGroupId());
+        assertEquals("bodyId", STORED_BODIES.get(2).getMatchedBy());
+        assertEquals("group_test_body_hash_Agency", STORED_BODIES.get(3).getGroupId());
+        for (MatchedBody body : STORED_BODIES) {
+            assertEquals("clean", body.getCleanObjectId());
+        }
+
+        // the tender references the saved bodies
+        ArgumentCaptor<MatchedTender> tender = ArgumentCaptor.forClass(MatchedTender.class);
+        verify(MATCHED_TENDER_DAO).save(tender.capture());
+        assertEquals("id_0", tender.getValue().getCandidates().get(0).getId());
+        assertEquals("id_1", tender.getValue().getCandidates().get(1).getId());
+        assertEquals("id_2", tender.getValue().getBuyers().get(0).getId());
+        assertEquals("id_3", tender.getValue().getBuyers().get(1).getId());
+        assertNotNull(tender.getValue().getBuyers().get(1).getCompletenessScore());
+
+        // messages are published after commit
+        InOrder order = inOrder(TRANSACTION_UTILS, MATCHED_TENDER_DAO, CHANNEL);
+        order.verify(MATCHED_TENDER_DAO).save(any(MatchedTender.class));
+        order.verify(TRANSACTION_UTILS).commit();
+        ArgumentCaptor<byte[]> published = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<String> tags = ArgumentCaptor.forClass(String.class);
+        order.verify(CHANNEL, times(5)).basicPublish(anyString(), tags.capture(), any(AMQP.BasicProperties.class),
+            published.capture());
+
+        List<String> groups = new ArrayList<>();
+        for (byte[] body : published.getAllValues()) {
+            groups.add(MessageFactory.getMessage(new String(body)).getValue("groupId"));
+        }
+        assertEquals(Arrays.asList(ministryGroup, ministryGroup, ministryGroup, "group_test_body_hash_Agency",
+            "group_test_tender_tender_hash"), groups);
+        assertEquals(Arrays.asList("body", "body", "body", "body", "tender"),
+            tags.getAllValues().stream().map(t -> t.substring(t.lastIndexOf('_') + 1))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Bodies which can't be in the pools of each other are saved by one batch, even though none of them is found by
+     * hash.
+     */
+    @Test
+    public void singleBatchTest() {
+        List<CleanBody> bidders = new ArrayList<>();
+        List<String> names = Arrays.asList("Alpha", "Bravo", "Charlie", "Delta", "Echo", "Foxtrot", "Golf", "Hotel",
+            "India", "Juliett");
+        for (int i = 0; i < names.size(); i++) {
+            bidders.add(new CleanBody().setName(names.get(i)).setBodyIds(bodyIds("id" + i)));
+        }
+        CleanTender cleanTender = new CleanTender().setCandidates(bidders);
+        cleanTender.setId("clean");
+        when(CLEAN_TENDER_DAO.getById("clean")).thenReturn(cleanTender);
+
+        Message message = MessageFactory.getMessage();
+        message.setValue("id", "clean");
+        matcher.doWork(message);
+
+        ArgumentCaptor<List> saved = ArgumentCaptor.forClass(List.class);
+        verify(MATCHED_BODY_DAO, times(1)).saveAll(saved.capture());
+        assertEquals(10, saved.getValue().size());
+        for (MatchedBody body : STORED_BODIES) {
+            assertEquals("unmatched", body.getMetaData().get("matchedBy"));
+        }
+    }
+
+    /**
+     * @param id
+     *      organization id
+     *
+     * @return body identifiers with the given organization id
+     */
+    private static List<BodyIdentifier> bodyIds(final String id) {
+        return Arrays.asList(new BodyIdentifier().setId(id).setType(BodyIdentifier.Type.ORGANIZATION_ID)
+            .setScope(BodyIdentifier.Scope.CZ));
+    }
+}
@@ -6,7 +6,6 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
@@ -18,13 +17,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import eu.dl.core.UnrecoverableException;
 import eu.dl.dataaccess.dao.ExchangeRatesDAO;
 import eu.dl.dataaccess.dao.jdbc.JdbcExhangeRatesDAO;
 import eu.dl.dataaccess.dto.ExchangeRates;
+import eu.dl.dataaccess.utils.JsonUtils;
 
 /**
  * Provides functionality related currency and its conversions.
@@ -188,11 +186,9 @@ public class BasicCurrencyService implements CurrencyService {
 
             logger.debug("Retrieved connection rates from API");
             
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
-            mapper.registerModule(new JavaTimeModule());
-            mapper.setDateFormat(new SimpleDateFormat("yyyy-MM-dd"));
-            ExchangeRates exchangeRates = mapper.readValue(response, ExchangeRates.class);
+            ExchangeRates exchangeRates = JsonUtils.getStorageReader(ExchangeRates.class)
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(response);
             
             // in some cases the api does not contain actual rates and returns a nonsense insted
             // we should ignore such results
@@ -4,17 +4,14 @@
 package eu.dl.worker;
 
 import java.util.HashMap;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import eu.dl.core.UnrecoverableException;
+import eu.dl.dataaccess.utils.JsonUtils;
 import java.io.IOException;
 
 /**
@@ -31,16 +28,11 @@ public class SimpleMessage implements Message {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass().getName());
 
-    private final ObjectMapper mapper;
-
     /**
      * Public Constructor.
      */
     public SimpleMessage() {
         super();
-        mapper = new ObjectMapper();
-        // java time module must be registered to support java 8 date time classes
-        mapper.registerModule(new JavaTimeModule());
     }
 
     @Override
@@ -52,7 +44,7 @@ public class SimpleMessage implements Message {
     @Override
     public final String toJson() {
         try {
-            return mapper.writeValueAsString(data);
+            return JsonUtils.getMessageWriter().writeValueAsString(data);
         } catch (final JsonProcessingException e) {
             logger.error("Unable to serialize message to be send");
             throw new UnrecoverableException("Unable to serialize message", e);
@@ -67,8 +59,7 @@ public class SimpleMessage implements Message {
     @Override
     public final void init(final String json) {
         try {
-            data = mapper.readValue(json, new TypeReference<Map<String, Object>>() {
-            });
+            data = JsonUtils.getMessageReader().readValue(json);
         } catch (final Exception ex) {
             logger.error("Unable to create from json", ex);
             logger.error("Message body: {}", json);
@@ -96,8 +87,8 @@ public class SimpleMessage implements Message {
         
         String json = null;
         try {
-            json = mapper.writeValueAsString(data.get(key));
-            return (T) mapper.readValue(json, cls);
+            json = JsonUtils.getMessageWriter().writeValueAsString(data.get(key));
+            return (T) JsonUtils.getMessageReader(cls).readValue(json);
         } catch (JsonProcessingException ex) {
             logger.error("Unable to create json from {}", data.get(key), ex);
             throw new UnrecoverableException("Unable to create json from message property", ex);
@@ -9,6 +9,7 @@ import eu.dl.worker.BaseWorker;
 import eu.dl.worker.Message;
 import eu.dl.worker.MessageFactory;
 import eu.dl.worker.clean.plugin.CleaningPlugin;
+import eu.dl.worker.clean.utils.BodyUtils;
 import eu.dl.worker.utils.BasicPluginRegistry;
 import eu.dl.worker.utils.PluginRegistry;
 import org.apache.logging.log4j.ThreadContext;
@@ -48,6 +49,8 @@ public abstract class BaseCleaner<T extends Parsable, V extends Cleanable> exten
 
     @Override
     protected final void doWork(final Message message) {
+        // the same bodies occur many times in one tender, clean each of them only once
+        BodyUtils.enableMemoization();
         try {
             getTransactionUtils().begin();
             final String id = message.getValue("id");
@@ -89,6 +92,8 @@ public abstract class BaseCleaner<T extends Parsable, V extends Cleanable> exten
             getTransactionUtils().rollback();
             logger.error("Cleaning failed with exception {}", e);
             throw new UnrecoverableException("Cleaning failed.", e);
+        } finally {
+            BodyUtils.disableMemoization();
         }
     }
 
@@ -1,13 +1,22 @@
 package eu.dl.worker.clean.utils;
 
 import eu.dl.worker.utils.ArrayUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 import eu.dl.dataaccess.dto.clean.CleanBody;
+import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
 import eu.dl.dataaccess.dto.codetables.BuyerActivityType;
 import eu.dl.dataaccess.dto.codetables.BuyerType;
+import eu.dl.dataaccess.dto.generic.Address;
 import eu.dl.dataaccess.dto.parsed.ParsedBody;
+import eu.dl.dataaccess.utils.JsonUtils;
 
 /**
  * This class provide method for body cleaning.
@@ -16,6 +25,12 @@ import eu.dl.dataaccess.dto.parsed.ParsedBody;
  */
 public final class BodyUtils {
 
+    /**
+     * Cleaned bodies of the current thread, active only between {@link #enableMemoization()} and
+     * {@link #disableMemoization()}.
+     */
+    private static final ThreadLocal<Map<MemoKey, CleanBody>> MEMO = new ThreadLocal<>();
+
     /**
      * Utility classes should not have default constructor.
      */
@@ -23,6 +38,23 @@ public final class BodyUtils {
 
     }
 
+    /**
+     * Enables memoization of the cleaned bodies for the current thread. The same body usually occurs many times in
+     * one tender (buyer, bidder in each lot, ...), so each distinct body is cleaned only once until
+     * {@link #disableMemoization()} is called. Each call of clean method still returns its own copy of the cleaned
+     * body.
+     */
+    public static void enableMemoization() {
+        MEMO.set(new HashMap<>());
+    }
+
+    /**
+     * Disables memoization of the cleaned bodies for the current thread and drops all memoized bodies.
+     */
+    public static void disableMemoization() {
+        MEMO.remove();
+    }
+
     /**
      * Cleans provided parsed body.
      *
@@ -41,8 +73,9 @@ public final class BodyUtils {
             return null;
         }
 
-        return cleanBodyWithoutAddress(parsedBody, buyerTypeMapping, buyerActivityTypeMapping)
-                .setAddress(AddressUtils.cleanAddress(parsedBody.getAddress()));
+        return memoize(parsedBody, Arrays.asList(buyerTypeMapping, buyerActivityTypeMapping),
+            () -> cleanBodyWithoutAddress(parsedBody, buyerTypeMapping, buyerActivityTypeMapping)
+                .setAddress(AddressUtils.cleanAddress(parsedBody.getAddress())));
     }
 
     /**
@@ -66,8 +99,125 @@ public final class BodyUtils {
             return null;
         }
 
-        return cleanBodyWithoutAddress(parsedBody, buyerTypeMapping, buyerActivityTypeMapping)
-                .setAddress(AddressUtils.cleanAddress(parsedBody.getAddress(), countryMapping));
+        return memoize(parsedBody, Arrays.asList(buyerTypeMapping, buyerActivityTypeMapping, countryMapping),
+            () -> cleanBodyWithoutAddress(parsedBody, buyerTypeMapping, buyerActivityTypeMapping)
+                .setAddress(AddressUtils.cleanAddress(parsedBody.getAddress(), countryMapping)));
+    }
+
+    /**
+     * Returns copy of the memoized clean body for the given parsed body and mappings. If the body isn't memoized yet
+     * or the memoization is disabled, the body is cleaned with the given cleaner.
+     *
+     * @param parsedBody
+     *          parsed body
+     * @param mappings
+     *          mappings used for cleaning, compared by identity
+     * @param cleaner
+     *          cleans the parsed body
+     * @return cleaned body
+     */
+    private static CleanBody memoize(final ParsedBody parsedBody, final List<Map<Enum, List<String>>> mappings,
+                                     final Supplier<CleanBody> cleaner) {
+        final Map<MemoKey, CleanBody> memo = MEMO.get();
+        if (memo == null) {
+            return cleaner.get();
+        }
+
+        final String content;
+        try {
+            content = JsonUtils.getMessageWriter().writeValueAsString(parsedBody);
+        } catch (final JsonProcessingException e) {
+            return cleaner.get();
+        }
+
+        return copy(memo.computeIfAbsent(new MemoKey(content, mappings), k -> cleaner.get()));
+    }
+
+    /**
+     * Creates deep copy of the clean body created by {@link #cleanBodyWithoutAddress(ParsedBody, Map, Map)}.
+     *
+     * @param body
+     *          clean body
+     * @return copy of the body
+     */
+    private static CleanBody copy(final CleanBody body) {
+        final Address address = body.getAddress();
+
+        return new CleanBody()
+                .setBodyIds(ArrayUtils.walk(body.getBodyIds(), bodyId -> new BodyIdentifier()
+                        .setId(bodyId.getId()).setType(bodyId.getType()).setScope(bodyId.getScope())))
+                .setBuyerType(body.getBuyerType())
+                .setContactName(body.getContactName())
+                .setContactPoint(body.getContactPoint())
+                .setEmail(body.getEmail())
+                .setIsLeader(body.getIsLeader())
+                .setIsPublic(body.getIsPublic())
+                .setIsSectoral(body.getIsSectoral())
+                .setIsSme(body.getIsSme())
+                .setIsSubsidized(body.getIsSubsidized())
+                .setMainActivities(body.getMainActivities() == null ? null
+                        : new ArrayList<>(body.getMainActivities()))
+                .setName(body.getName())
+                .setPhone(body.getPhone())
+                .setAddress(address == null ? null : new Address()
+                        .setStreet(address.getStreet())
+                        .setCity(address.getCity())
+                        .setPostcode(address.getPostcode())
+                        .setNuts(address.getNuts() == null ? null : new ArrayList<>(address.getNuts()))
+                        .setCountry(address.getCountry())
+                        .setRawAddress(address.getRawAddress())
+                        .setState(address.getState())
+                        .setUrl(address.getUrl()));
+    }
+
+    /**
+     * Key of the memoized clean body. Parsed body is compared by its serialized content, mappings by identity.
+     */
+    private static final class MemoKey {
+        private final String content;
+
+        private final List<Map<Enum, List<String>>> mappings;
+
+        /**
+         * @param content
+         *          serialized parsed body
+         * @param mappings
+         *          mappings used for cleaning
+         */
+        MemoKey(final String content, final List<Map<Enum, List<String>>> mappings) {
+            this.content = content;
+            this.mappings = mappings;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof MemoKey)) {
+                return false;
+            }
+
+            final MemoKey other = (MemoKey) o;
+            if (!content.equals(other.content) || mappings.size() != other.mappings.size()) {
+                return false;
+            }
+
+            for (int i = 0; i < mappings.size(); i++) {
+                if (mappings.get(i) != other.mappings.get(i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = content.hashCode();
+            for (Map<Enum, List<String>> mapping : mappings) {
+                hash = 31 * hash + System.identityHashCode(mapping);
+            }
+
+            return hash;
+        }
     }
 
     /**
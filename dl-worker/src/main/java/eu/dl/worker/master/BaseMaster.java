@@ -4,6 +4,7 @@ import eu.dl.core.UnrecoverableException;
 import eu.dl.dataaccess.dao.IndicatorDAO;
 import eu.dl.dataaccess.dao.MasterDAO;
 import eu.dl.dataaccess.dao.MatchedDAO;
+import eu.dl.dataaccess.dto.Storable;
 import eu.dl.dataaccess.dto.indicator.EntitySpecificIndicator;
 import eu.dl.dataaccess.dto.master.Masterable;
 import eu.dl.dataaccess.dto.matched.MasterablePart;
@@ -14,8 +15,11 @@ import eu.dl.worker.indicator.plugin.IndicatorPlugin;
 import eu.dl.worker.master.plugin.MasterPlugin;
 import eu.dl.worker.utils.BasicPluginRegistry;
 import eu.dl.worker.utils.PluginRegistry;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.logging.log4j.ThreadContext;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
@@ -23,6 +27,10 @@ import java.util.stream.Collectors;
 /**
  * Base class for all the masters.
  *
+ * Each master record holds fingerprint of the matched items it was mastered from (see
+ * {@link #getInputFingerprint(List, String, String)}). When the matched items of the group haven't changed since the
+ * last mastering, the mastering is skipped. The check can be bypassed with message value {@code force=true}.
+ *
  * @param <T>
  *            matched items
  * 
@@ -49,6 +57,11 @@ public abstract class BaseMaster<T extends Matchable & MasterablePart, V extends
      */
     private static final long WORKER_TIME_THRESHOLD = 1000;
 
+    /**
+     * Key of the master record meta data which holds fingerprint of the matched items.
+     */
+    public static final String INPUT_FINGERPRINT = "inputFingerprint";
+
     /**
      * Initializes this class to be used. Registers plugins etc.
      */
@@ -91,6 +104,15 @@ public abstract class BaseMaster<T extends Matchable & MasterablePart, V extends
             item = existingItems.get(0);
         }
 
+        final String fingerprint = getInputFingerprint(rawMatchedItems, getName(), getVersion());
+        if (!existingItems.isEmpty() && !"true".equals(message.getValue("force"))
+            && item.getMetaData() != null && fingerprint.equals(item.getMetaData().get(INPUT_FINGERPRINT))) {
+            logger.info("Matched items of group {} haven't changed since the last mastering, mastering skipped.",
+                groupId);
+            getTransactionUtils().commit();
+            return;
+        }
+
         item.setPersistentId(getPersistentId(matchedItems));
         
         // preprocess matched items before creating master
@@ -118,19 +140,29 @@ public abstract class BaseMaster<T extends Matchable & MasterablePart, V extends
                 
         item = sourceSpecificPostprocessData(item);
 
+        if (item.getMetaData() == null) {
+            item.setMetaData(new HashMap<>());
+        }
+        item.getMetaData().put(INPUT_FINGERPRINT, fingerprint);
+
         String savedId = masterDAO.save(item);
 
-        // iterate over all indicator plugins and execute them in a proper order
+        // iterate over all indicator plugins and execute them in a proper order, the indicators are stored at once
+        final List<String> indicatorTypes = new ArrayList<>();
+        final List<EntitySpecificIndicator> indicators = new ArrayList<>();
         for (Entry<String, IndicatorPlugin<V>> entry : indicatorPluginRegistry.getPlugins().entrySet()) {
             IndicatorPlugin<V> plugin = entry.getValue();
             EntitySpecificIndicator indicator = (EntitySpecificIndicator) plugin.evaulate(item);
-            indicatorDAO.delete(item.getId(), plugin.getType());
+            indicatorTypes.add(plugin.getType());
             if (indicator != null) {
                 // set entity id for which was the indicator calculated
                 indicator.setRelatedEntityId(item.getId());
-                indicatorDAO.save(indicator);
+                indicators.add(indicator);
             }
         }
+        indicatorDAO.replace(item.getId(), indicatorTypes, indicators);
+
+        postProcessStoredRecord(item);
 
         getTransactionUtils().commit();
         logger.info("Mastering finished for group id {} stored as {}", groupId, savedId);
@@ -141,6 +173,29 @@ public abstract class BaseMaster<T extends Matchable & MasterablePart, V extends
         }
     }
 
+    /**
+     * Returns fingerprint of the set of matched items. The fingerprint consists of ids and modification timestamps of
+     * the items and name and version of the master worker, it doesn't depend on the order of the items.
+     *
+     * @param items
+     *         matched items
+     * @param name
+     *         name of the master worker
+     * @param version
+     *         version of the master worker
+     *
+     * @return fingerprint
+     */
+    protected static String getInputFingerprint(final List<? extends Storable> items, final String name,
+                                                final String version) {
+        String inputs = items.stream()
+            .map(n -> n.getId() + "@" + n.getModified())
+            .sorted()
+            .collect(Collectors.joining(","));
+
+        return DigestUtils.sha256Hex(name + "|" + version + "|" + inputs);
+    }
+
     /**
      * This method is used for master item postProcessing before its saved to persistent storage. 
      * There can be additional values calculated etc.
@@ -152,6 +207,15 @@ public abstract class BaseMaster<T extends Matchable & MasterablePart, V extends
      */
     protected abstract V postProcessMasterRecord(V item, List<T> matchedItems);
 
+    /**
+     * This method is called after the master item and its indicators are stored, in the same transaction. There can
+     * be additional data derived from the stored item saved. Does nothing by default.
+     *
+     * @param item stored master item
+     */
+    protected void postProcessStoredRecord(final V item) {
+    }
+
     /**
      * Creates persistent ID for this item set. 
      * @param matchedItems set of items
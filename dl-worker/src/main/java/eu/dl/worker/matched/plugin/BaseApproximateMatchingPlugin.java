@@ -3,11 +3,17 @@ package eu.dl.worker.matched.plugin;
 import eu.dl.dataaccess.dao.mongo.ApproximateMatchBodyDAO;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
+import eu.dl.core.UnrecoverableException;
 import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
 import eu.dl.dataaccess.dto.matched.ApproximatellyMatchable;
 import eu.dl.dataaccess.dto.matched.EtalonBody;
@@ -41,6 +47,9 @@ import eu.dl.worker.utils.matched.MatchedUtils;
  *
  * If some S_i > 0.75 (arbitrary threshold, will be subject to change :D, this one has been set as rough equivalent of
  * two exact matches in 1), we take the match with max_i(S_i) and matching ends.
+ *
+ * Large pools are scored in parallel on a worker pool shared by all the plugins, small pools are scored on the calling
+ * thread. In both cases the similarities are returned in order of the pool, so the best match is selected the same way.
  * 
  * @param <T>
  *      class of the matched body
@@ -52,6 +61,28 @@ public abstract class BaseApproximateMatchingPlugin<T extends MatchedBody, U ext
         
     private static final float MATCH_LOWER_THRESHOLD = 0.75f;
 
+    /**
+     * Pools smaller than this size are scored on the calling thread, for them the scheduling would cost more than the
+     * scoring itself.
+     */
+    static final int PARALLEL_SCORING_THRESHOLD = 2000;
+
+    /**
+     * Number of pool bodies scored by one task of the parallel scoring.
+     */
+    private static final int SCORING_CHUNK_SIZE = 500;
+
+    /**
+     * Worker pool shared by all the plugins. It is bounded to the number of processors, the tasks of concurrent
+     * matchings wait in the queue.
+     */
+    private static final ExecutorService SCORING_EXECUTOR = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "approximate-matching-scoring");
+            thread.setDaemon(true);
+            return thread;
+        });
+
     /**
      * Constructor with body pool DAO initialization.
      *
@@ -64,9 +95,64 @@ public abstract class BaseApproximateMatchingPlugin<T extends MatchedBody, U ext
 
     @Override
     protected final Map<U, Float> getSimiliraties(final T item, final List<U> pool) {
-        final Map<U, Float> bodySimilarities = new HashMap<>();
+        final List<U> bodies = pool instanceof RandomAccess ? pool : new ArrayList<>(pool);
+        final float[] scores = new float[bodies.size()];
+
+        if (bodies.size() < PARALLEL_SCORING_THRESHOLD) {
+            score(item, bodies, scores, 0, bodies.size());
+        } else {
+            final List<Future<?>> tasks = new ArrayList<>();
+            for (int from = 0; from < bodies.size(); from += SCORING_CHUNK_SIZE) {
+                final int start = from;
+                final int end = Math.min(bodies.size(), from + SCORING_CHUNK_SIZE);
+                tasks.add(SCORING_EXECUTOR.submit(() -> score(item, bodies, scores, start, end)));
+            }
+
+            try {
+                for (Future<?> task : tasks) {
+                    task.get();
+                }
+            } catch (InterruptedException e) {
+                tasks.forEach(t -> t.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new UnrecoverableException("Scoring of the bodies pool was interrupted", e);
+            } catch (ExecutionException e) {
+                tasks.forEach(t -> t.cancel(true));
+                logger.error("Unable to score bodies pool because of exception {}", e.getCause());
+                throw new UnrecoverableException("Unable to score bodies pool", e.getCause());
+            }
+        }
+
+        // the order of the pool is kept, so the selection of the best match doesn't depend on the scoring
+        final Map<U, Float> bodySimilarities = new LinkedHashMap<>();
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] >= MATCH_LOWER_THRESHOLD) {
+                bodySimilarities.put(bodies.get(i), scores[i]);
+            }
+        }
+
+        return bodySimilarities;
+    }
+
+    /**
+     * Computes similarities of the given {@code item} with the pool bodies from index {@code from} (inclusive) to
+     * index {@code to} (exclusive) and stores them to the same indexes of the {@code scores} array.
+     *
+     * @param item
+     *      matched item
+     * @param pool
+     *      pool of bodies
+     * @param scores
+     *      array of scores
+     * @param from
+     *      index of the first scored body
+     * @param to
+     *      index following the last scored body
+     */
+    private void score(final T item, final List<U> pool, final float[] scores, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            final U body = pool.get(i);
 
-        pool.forEach((body) -> {
             float nameSim =
                 MatchedUtils.trigramSimilarity(item.getStandardizedName(), body.getStandardizedName());
 
@@ -80,20 +166,14 @@ public abstract class BaseApproximateMatchingPlugin<T extends MatchedBody, U ext
             final Float nutsSim =
                 getBestNutsSimilarity(item.getNuts(), body.getNuts(), (body instanceof EtalonBody ? 5 : 0));
 
-            float weightenedAverage = (
+            scores[i] = (
                 nameSim
                 + addrSim
                 + bodyIdSim
                 + postcodeSim * 0.2f
                 + nutsSim * 0.2f
                 ) / (1 + 1 + 1 + 0.2f + 0.2f);
-
-            if (weightenedAverage >= MATCH_LOWER_THRESHOLD) {
-                bodySimilarities.put(body, weightenedAverage);
-            }
-        });
-
-        return bodySimilarities;
+        }
     }
     
     /**
@@ -3,7 +3,9 @@ package eu.dl.worker.matched.plugin;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -125,7 +127,7 @@ public abstract class BaseBodiesPoolMatchingPlugin<T extends MatchedBody, U exte
         if (max.size() == 1) {
             return max.get(0);
         } else {
-            final Map<String, List<Map.Entry<U, Float>>> byGroups = new HashMap<>();
+            final Map<String, List<Map.Entry<U, Float>>> byGroups = new LinkedHashMap<>();
             max.forEach(n -> {
                 String gid = n.getKey().getGroupId();
 
@@ -140,7 +142,7 @@ public abstract class BaseBodiesPoolMatchingPlugin<T extends MatchedBody, U exte
                 return max.get(0);
             }
 
-            List<MatchedGroupInfo> info = poolDAO.getGroupsInfo(Arrays.asList(byGroups.keySet().toArray()));
+            List<MatchedGroupInfo> info = getGroupsInfo(byGroups);
 
             List<MatchedGroupInfo> bestGroups = getGroupsWithHighestScore(info);
 
@@ -164,6 +166,32 @@ public abstract class BaseBodiesPoolMatchingPlugin<T extends MatchedBody, U exte
         }
     }
 
+    /**
+     * Returns information about the given groups. The information loaded together with the pool bodies is used when
+     * it is available for all the groups, otherwise it is queried by {@link PoolBodyDAO#getGroupsInfo(List)}. The
+     * groups are ordered by size and group id as the query returns them.
+     *
+     * @param byGroups
+     *      best matches grouped by group id
+     * @return information about groups
+     */
+    private List<MatchedGroupInfo> getGroupsInfo(final Map<String, List<Map.Entry<U, Float>>> byGroups) {
+        final List<MatchedGroupInfo> info = new ArrayList<>();
+        for (List<Map.Entry<U, Float>> group : byGroups.values()) {
+            U body = group.get(0).getKey();
+            if (!(body instanceof MatchedBody) || ((MatchedBody) body).getGroupInfo() == null) {
+                return poolDAO.getGroupsInfo(Arrays.asList(byGroups.keySet().toArray()));
+            }
+
+            info.add(((MatchedBody) body).getGroupInfo());
+        }
+
+        info.sort(Comparator.comparing(MatchedGroupInfo::getSize).reversed()
+            .thenComparing(MatchedGroupInfo::getGroupId));
+
+        return info;
+    }
+
     /**
      * @see PoolBodyDAO#getGroupsInfo(java.util.List)
      * @see #groupsWithHighestScore()
@@ -1,7 +1,7 @@
 package eu.dl.worker.matched.plugin;
 
 import eu.dl.dataaccess.dao.ExactMatchBodyDAO;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -48,7 +48,7 @@ public abstract class BaseExactMatchingPlugin<T extends MatchedBody, U extends E
 
     @Override
     protected final Map<U, Float> getSimiliraties(final T item, final List<U> pool) {
-        final HashMap<U, Float> scoreBoard = new HashMap<>();
+        final Map<U, Float> scoreBoard = new LinkedHashMap<>();
 
         pool.forEach(body -> {
             float score = 0;
@@ -0,0 +1,113 @@
+package eu.dl.worker.clean.utils.body;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import eu.dl.dataaccess.dto.clean.CleanBody;
+import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
+import eu.dl.dataaccess.dto.codetables.BuyerActivityType;
+import eu.dl.dataaccess.dto.codetables.BuyerType;
+import eu.dl.dataaccess.dto.parsed.ParsedAddress;
+import eu.dl.dataaccess.dto.parsed.ParsedBody;
+import eu.dl.dataaccess.utils.JsonUtils;
+import eu.dl.worker.clean.utils.BodyUtils;
+
+/**
+ * Tests of memoization of cleaned bodies in BodyUtils.
+ */
+public final class CleanBodyMemoizationTest {
+
+    private final Map<Enum, List<String>> buyerTypeMapping = new HashMap<>();
+
+    private final Map<Enum, List<String>> buyerActivityMapping = new HashMap<>();
+
+    /**
+     * Creates mappings.
+     */
+    public CleanBodyMemoizationTest() {
+        buyerTypeMapping.put(BuyerType.NATIONAL_AGENCY, Collections.singletonList("agency"));
+        buyerActivityMapping.put(BuyerActivityType.EDUCATION, Collections.singletonList("education"));
+    }
+
+    /**
+     * Disables memoization after each test.
+     */
+    @After
+    public void tearDown() {
+        BodyUtils.disableMemoization();
+    }
+
+    /**
+     * @return parsed body with all the cleaned attributes
+     */
+    private static ParsedBody parsedBody() {
+        return new ParsedBody()
+            .setName(" Ministry  of Education ")
+            .setBuyerType("agency")
+            .addMainActivity("education")
+            .setIsPublic("true")
+            .setEmail("info@example.com")
+            .addBodyId(new BodyIdentifier().setId("00022985").setScope(BodyIdentifier.Scope.CZ))
+            .setAddress(new ParsedAddress().setCity("Praha").setStreet("Karmelitska 7").addNuts("CZ010")
+                .setCountry("CZ"));
+    }
+
+    /**
+     * Memoized cleaning returns the same bodies as the cleaning without memoization, each of them is separate
+     * instance.
+     *
+     * @throws Exception
+     *      in case of serialization failure
+     */
+    @Test
+    public void sameResultTest() throws Exception {
+        CleanBody expected = BodyUtils.cleanBody(parsedBody(), buyerTypeMapping, buyerActivityMapping);
+
+        BodyUtils.enableMemoization();
+        CleanBody first = BodyUtils.cleanBody(parsedBody(), buyerTypeMapping, buyerActivityMapping);
+        CleanBody second = BodyUtils.cleanBody(parsedBody(), buyerTypeMapping, buyerActivityMapping);
+
+        String json = JsonUtils.getApiWriter().writeValueAsString(expected);
+        assertEquals(json, JsonUtils.getApiWriter().writeValueAsString(first));
+        assertEquals(json, JsonUtils.getApiWriter().writeValueAsString(second));
+
+        assertNotSame(first, second);
+        assertNotSame(first.getAddress(), second.getAddress());
+        assertNotSame(first.getBodyIds().get(0), second.getBodyIds().get(0));
+
+        // changes of one occurrence don't affect the others
+        first.getAddress().setCity("Brno");
+        first.getMainActivities().add(BuyerActivityType.HEALTH);
+        CleanBody third = BodyUtils.cleanBody(parsedBody(), buyerTypeMapping, buyerActivityMapping);
+        assertEquals(json, JsonUtils.getApiWriter().writeValueAsString(third));
+    }
+
+    /**
+     * Different bodies and different mappings are cleaned separately.
+     */
+    @Test
+    public void differentInputTest() {
+        BodyUtils.enableMemoization();
+        CleanBody body = BodyUtils.cleanBody(parsedBody(), buyerTypeMapping, buyerActivityMapping);
+
+        assertNotEquals(body.getName(),
+            BodyUtils.cleanBody(parsedBody().setName("Ministry of Finance"), buyerTypeMapping, buyerActivityMapping)
+                .getName());
+
+        assertEquals(BuyerType.NATIONAL_AGENCY, body.getBuyerType());
+        assertNull(BodyUtils.cleanBody(parsedBody(), null, buyerActivityMapping).getBuyerType());
+
+        assertEquals(Arrays.asList(BuyerActivityType.EDUCATION), body.getMainActivities());
+    }
+}
@@ -0,0 +1,317 @@
+package eu.dl.worker.master;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import eu.dl.core.config.Config;
+import eu.dl.dataaccess.dao.IndicatorDAO;
+import eu.dl.dataaccess.dao.MasterDAO;
+import eu.dl.dataaccess.dao.MatchedDAO;
+import eu.dl.dataaccess.dao.TransactionUtils;
+import eu.dl.dataaccess.dto.indicator.BasicEntityRelatedIndicator;
+import eu.dl.dataaccess.dto.indicator.Indicator;
+import eu.dl.dataaccess.dto.master.MasterBody;
+import eu.dl.dataaccess.dto.matched.MatchedBody;
+import eu.dl.worker.Message;
+import eu.dl.worker.MessageFactory;
+import eu.dl.worker.indicator.plugin.IndicatorPlugin;
+
+/**
+ * Tests for BaseMaster class.
+ */
+public final class BaseMasterTest {
+
+    private static final MatchedDAO<MatchedBody> MATCHED_DAO = mock(MatchedDAO.class);
+
+    private static final MasterDAO<MasterBody> MASTER_DAO = mock(MasterDAO.class);
+
+    private static final IndicatorDAO<MasterBody> INDICATOR_DAO = mock(IndicatorDAO.class);
+
+    private static final TransactionUtils TRANSACTION_UTILS = mock(TransactionUtils.class);
+
+    private static final LocalDateTime MODIFIED = LocalDateTime.of(2017, 5, 1, 10, 0, 0);
+
+    private static TestMaster master;
+
+    /**
+     * Master without plugins used in tests.
+     */
+    private static final class TestMaster extends BaseMaster<MatchedBody, MasterBody> {
+        @Override
+        protected MasterBody postProcessMasterRecord(final MasterBody item, final List<MatchedBody> matchedItems) {
+            return item;
+        }
+
+        @Override
+        protected String getPersistentId(final List<MatchedBody> matchedItems) {
+            return "persistent";
+        }
+
+        @Override
+        protected MatchedDAO<MatchedBody> getMatchedDAO() {
+            return MATCHED_DAO;
+        }
+
+        @Override
+        protected MasterDAO<MasterBody> getMasterDAO() {
+            return MASTER_DAO;
+        }
+
+        @Override
+        protected IndicatorDAO<MasterBody> getIndicatorDAO() {
+            return INDICATOR_DAO;
+        }
+
+        @Override
+        protected void registerCommonPlugins() {
+        }
+
+        @Override
+        protected void registerProjectSpecificPlugins() {
+        }
+
+        @Override
+        protected void registerSpecificPlugins() {
+        }
+
+        @Override
+        protected void registerIndicatorPlugins() {
+            indicatorPluginRegistry.registerPlugin("flag", new IndicatorPlugin<MasterBody>() {
+                @Override
+                public Indicator evaulate(final MasterBody item) {
+                    BasicEntityRelatedIndicator indicator = new BasicEntityRelatedIndicator();
+                    indicator.setType(getType());
+                    return indicator;
+                }
+
+                @Override
+                public String getType() {
+                    return "FLAG";
+                }
+            });
+            indicatorPluginRegistry.registerPlugin("empty", new IndicatorPlugin<MasterBody>() {
+                @Override
+                public Indicator evaulate(final MasterBody item) {
+                    return null;
+                }
+
+                @Override
+                public String getType() {
+                    return "EMPTY";
+                }
+            });
+        }
+
+        @Override
+        protected List<MatchedBody> generalPreprocessData(final List<MatchedBody> items) {
+            return items;
+        }
+
+        @Override
+        protected List<MatchedBody> sourceSpecificPreprocessData(final List<MatchedBody> items) {
+            return items;
+        }
+
+        @Override
+        protected MasterBody sourceSpecificPostprocessData(final MasterBody item) {
+            return item;
+        }
+
+        @Override
+        protected String getVersion() {
+            return "1";
+        }
+
+        @Override
+        protected String getIncomingQueueName() {
+            return "test";
+        }
+
+        @Override
+        protected TransactionUtils getTransactionUtils() {
+            return TRANSACTION_UTILS;
+        }
+    }
+
+    /**
+     * Creates master.
+     */
+    @BeforeClass
+    public static void setUpClass() {
+        Config.getInstance().setConfigFile(Collections.emptyList());
+        master = new TestMaster();
+    }
+
+    /**
+     * Resets mocks.
+     */
+    @Before
+    public void setUp() {
+        reset(MATCHED_DAO, MASTER_DAO, INDICATOR_DAO, TRANSACTION_UTILS);
+        when(MASTER_DAO.getEmptyInstance()).thenReturn(new MasterBody());
+    }
+
+    /**
+     * @param id
+     *      body id
+     * @param modified
+     *      modification timestamp
+     * @return matched body
+     */
+    private static MatchedBody matched(final String id, final LocalDateTime modified) {
+        MatchedBody body = new MatchedBody().setName("Body " + id);
+        body.setId(id);
+        body.setModified(modified);
+        return body;
+    }
+
+    /**
+     * @param force
+     *      whether the mastering should be forced
+     * @return message for the test group
+     */
+    private static Message message(final boolean force) {
+        Message message = MessageFactory.getMessage();
+        message.setValue("groupId", "group");
+        if (force) {
+            message.setValue("force", "true");
+        }
+        return message;
+    }
+
+    /**
+     * Masters the test group and returns the saved master record or null if nothing was saved.
+     *
+     * @param matched
+     *      matched items of the group
+     * @param existing
+     *      existing master record or null
+     * @param force
+     *      whether the mastering should be forced
+     * @return saved master record or null
+     */
+    private static MasterBody master(final List<MatchedBody> matched, final MasterBody existing,
+        final boolean force) {
+        reset(MASTER_DAO);
+        when(MASTER_DAO.getEmptyInstance()).thenReturn(new MasterBody());
+        when(MATCHED_DAO.getByGroupId("group")).thenReturn(new ArrayList<>(matched));
+        when(MASTER_DAO.getByGroupId("group")).thenReturn(existing == null
+            ? Collections.emptyList() : Collections.singletonList(existing));
+
+        master.doWork(message(force));
+
+        ArgumentCaptor<MasterBody> saved = ArgumentCaptor.forClass(MasterBody.class);
+        verify(MASTER_DAO, atMost(1)).save(saved.capture());
+        return saved.getAllValues().isEmpty() ? null : saved.getValue();
+    }
+
+    /**
+     * Test of the fingerprint of matched items.
+     */
+    @Test
+    public void inputFingerprintTest() {
+        List<MatchedBody> items = Arrays.asList(matched("1", MODIFIED), matched("2", MODIFIED));
+        String fingerprint = BaseMaster.getInputFingerprint(items, "master", "1");
+
+        // order of the items doesn't matter
+        assertEquals(fingerprint, BaseMaster.getInputFingerprint(
+            Arrays.asList(matched("2", MODIFIED), matched("1", MODIFIED)), "master", "1"));
+
+        // modification, added or removed item, other worker or version
+        assertNotEquals(fingerprint, BaseMaster.getInputFingerprint(
+            Arrays.asList(matched("1", MODIFIED), matched("2", MODIFIED.plusNanos(1000000))), "master", "1"));
+        assertNotEquals(fingerprint, BaseMaster.getInputFingerprint(
+            Arrays.asList(matched("1", MODIFIED), matched("2", MODIFIED), matched("3", MODIFIED)), "master", "1"));
+        assertNotEquals(fingerprint, BaseMaster.getInputFingerprint(
+            Arrays.asList(matched("1", MODIFIED)), "master", "1"));
+        assertNotEquals(fingerprint, BaseMaster.getInputFingerprint(items, "master", "2"));
+        assertNotEquals(fingerprint, BaseMaster.getInputFingerprint(items, "other", "1"));
+
+        // replaced item with the same timestamp
+        assertNotEquals(fingerprint, BaseMaster.getInputFingerprint(
+            Arrays.asList(matched("1", MODIFIED), matched("3", MODIFIED)), "master", "1"));
+
+        // missing timestamp and empty group
+        assertNotEquals(fingerprint, BaseMaster.getInputFingerprint(
+            Arrays.asList(matched("1", MODIFIED), matched("2", null)), "master", "1"));
+        assertNotEquals(BaseMaster.getInputFingerprint(Collections.emptyList(), "master", "1"),
+            BaseMaster.getInputFingerprint(Collections.emptyList(), "master", "2"));
+    }
+
+    /**
+     * Mastering is skipped only when the matched items haven't changed and the mastering isn't forced.
+     */
+    @Test
+    public void skipUnchangedTest() {
+        List<MatchedBody> matched = Arrays.asList(matched("1", MODIFIED), matched("2", MODIFIED));
+
+        // first mastering stores the fingerprint
+        MasterBody first = master(matched, null, false);
+        String fingerprint = (String) first.getMetaData().get(BaseMaster.INPUT_FINGERPRINT);
+        assertEquals(BaseMaster.getInputFingerprint(matched, TestMaster.class.getName(), "1"), fingerprint);
+
+        // unchanged items
+        assertEquals(null, master(matched, first, false));
+        verify(TRANSACTION_UTILS, times(2)).commit();
+
+        // forced mastering
+        assertEquals(fingerprint, master(matched, first, true).getMetaData().get(BaseMaster.INPUT_FINGERPRINT));
+
+        // modified item, the existing master record is updated
+        List<MatchedBody> modified = Arrays.asList(matched("1", MODIFIED), matched("2", MODIFIED.plusSeconds(1)));
+        MasterBody second = master(modified, first, false);
+        assertNotEquals(fingerprint, second.getMetaData().get(BaseMaster.INPUT_FINGERPRINT));
+        assertEquals(null, master(modified, second, false));
+
+        // master record without fingerprint (mastered before the fingerprints were introduced)
+        MasterBody legacy = new MasterBody();
+        legacy.setId("legacy");
+        assertEquals("legacy", master(matched, legacy, false).getId());
+        verify(INDICATOR_DAO, never()).save(any());
+    }
+
+    /**
+     * Indicators of all the plugins are replaced at once, including types without calculated indicator.
+     */
+    @Test
+    public void indicatorsReplacedTest() {
+        MasterBody existing = new MasterBody();
+        existing.setId("master");
+        master(Arrays.asList(matched("1", MODIFIED)), existing, false);
+
+        ArgumentCaptor<List> indicators = ArgumentCaptor.forClass(List.class);
+        verify(INDICATOR_DAO).replace(eq("master"), eq(Arrays.asList("FLAG", "EMPTY")), indicators.capture());
+        assertEquals(1, indicators.getValue().size());
+        BasicEntityRelatedIndicator indicator = (BasicEntityRelatedIndicator) indicators.getValue().get(0);
+        assertEquals("FLAG", indicator.getType());
+        assertEquals("master", indicator.getRelatedEntityId());
+
+        verify(INDICATOR_DAO, never()).delete(any(), any());
+        verify(INDICATOR_DAO, never()).save(any());
+
+        // indicators of skipped mastering aren't touched
+        reset(INDICATOR_DAO);
+        master(Arrays.asList(matched("1", MODIFIED)), existing, false);
+        verify(INDICATOR_DAO, never()).replace(any(), any(), any());
+    }
+}
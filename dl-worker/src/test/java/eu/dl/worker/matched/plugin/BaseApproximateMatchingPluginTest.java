@@ -0,0 +1,170 @@
+package eu.dl.worker.matched.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import eu.dl.dataaccess.dao.MatchedBodyDAO;
+import eu.dl.dataaccess.dto.codetables.BodyIdentifier;
+import eu.dl.dataaccess.dto.generic.Address;
+import eu.dl.dataaccess.dto.matched.MatchedBody;
+import eu.dl.dataaccess.dto.matched.MatchedGroupInfo;
+
+/**
+ * Tests of parallel scoring of the pool in BaseApproximateMatchingPlugin.
+ */
+public final class BaseApproximateMatchingPluginTest {
+
+    /**
+     * @param size
+     *      size of the pool
+     * @return pool of similar bodies spread to several groups
+     */
+    private static List<MatchedBody> pool(final int size) {
+        List<MatchedBody> pool = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            MatchedBody body = new MatchedBody()
+                .setStandardizedName("municipality " + (i % 37))
+                .setStandardizedAddress("main street " + (i % 11))
+                .setBodyIds(Arrays.asList(new BodyIdentifier()
+                    .setId(String.valueOf(1000 + i % 7))
+                    .setScope(BodyIdentifier.Scope.CZ)
+                    .setType(BodyIdentifier.Type.ORGANIZATION_ID)))
+                .setAddress(new Address().addNuts("CZ04" + (i % 5)).setPostcode("1234" + (i % 10)))
+                .setGroupId("group" + (i % 13));
+            body.setId("id" + i);
+            pool.add(body);
+        }
+
+        return pool;
+    }
+
+    /**
+     * @return matched item similar to a part of the pool
+     */
+    private static MatchedBody item() {
+        return new MatchedBody()
+            .setStandardizedName("municipality 1")
+            .setStandardizedAddress("main street 1")
+            .setBodyIds(Arrays.asList(new BodyIdentifier()
+                .setId("1001")
+                .setScope(BodyIdentifier.Scope.CZ)
+                .setType(BodyIdentifier.Type.ORGANIZATION_ID)))
+            .setAddress(new Address().addNuts("CZ041").setPostcode("12341"));
+    }
+
+    /**
+     * Large pool scored in parallel gives the same similarities in the same order as the pool scored sequentially.
+     */
+    @Test
+    public void parallelScoringTest() {
+        ApproximateMatchingPlugin<MatchedBody> plugin = new ApproximateMatchingPlugin<>(mock(MatchedBodyDAO.class));
+        List<MatchedBody> pool = pool(BaseApproximateMatchingPlugin.PARALLEL_SCORING_THRESHOLD * 5 + 17);
+
+        Map<MatchedBody, Float> expected = new LinkedHashMap<>();
+        for (int from = 0; from < pool.size(); from += 100) {
+            expected.putAll(plugin.getSimiliraties(item(), pool.subList(from, Math.min(pool.size(), from + 100))));
+        }
+
+        Map<MatchedBody, Float> parallel = plugin.getSimiliraties(item(), pool);
+
+        assertTrue(expected.size() > 0);
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(parallel.entrySet()));
+    }
+
+    /**
+     * The best match of large pool is selected deterministically, ties of the groups are broken by groups info.
+     */
+    @Test
+    public void deterministicBestMatchTest() {
+        // all the bodies have the same score
+        List<MatchedBody> pool = new ArrayList<>();
+        for (int i = 0; i < BaseApproximateMatchingPlugin.PARALLEL_SCORING_THRESHOLD * 2; i++) {
+            MatchedBody body = item().setGroupId("group" + (i % 3));
+            body.setId("id" + i);
+            pool.add(body);
+        }
+
+        MatchedBodyDAO dao = mock(MatchedBodyDAO.class);
+        when(dao.getApproximateMatchBodiesPool(anyString(), anyString(), anyList(), any(String.class)))
+            .thenReturn(pool);
+        // the same size and no etalon, the first group wins
+        when(dao.getGroupsInfo(anyList())).thenReturn(Arrays.asList(
+            new MatchedGroupInfo().setGroupId("group2").setSize(5).setHasEtalon(false),
+            new MatchedGroupInfo().setGroupId("group1").setSize(5).setHasEtalon(false)));
+
+        ApproximateMatchingPlugin<MatchedBody> plugin = new ApproximateMatchingPlugin<>(dao);
+        for (int i = 0; i < 5; i++) {
+            MatchingResult result = plugin.match(item());
+            assertEquals("group2", result.getGroupId());
+            assertEquals("id2", result.getMatchedBody().getId());
+        }
+
+        // groups with the best score are passed in order of the pool
+        verify(dao, times(5)).getGroupsInfo(Arrays.asList("group0", "group1", "group2"));
+    }
+
+    /**
+     * Ties of the groups are broken the same way with the groups info loaded together with the pool as with the
+     * groups info queried separately.
+     */
+    @Test
+    public void poolGroupsInfoTest() {
+        // group sizes as returned by the groups info query (ordered by size and group id)
+        List<MatchedGroupInfo> info = Arrays.asList(
+            new MatchedGroupInfo().setGroupId("group1").setSize(7).setHasEtalon(false),
+            new MatchedGroupInfo().setGroupId("group2").setSize(7).setHasEtalon(false),
+            new MatchedGroupInfo().setGroupId("group0").setSize(3).setHasEtalon(false));
+        Map<String, MatchedGroupInfo> byGroup = new LinkedHashMap<>();
+        info.forEach(n -> byGroup.put(n.getGroupId(), n));
+
+        List<MatchedBody> pool = new ArrayList<>();
+        List<MatchedBody> poolWithInfo = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            // group2 comes first in the pool
+            MatchedBody body = item().setGroupId("group" + (2 - i % 3));
+            body.setId("id" + i);
+            pool.add(body);
+
+            MatchedBody bodyWithInfo = item().setGroupId(body.getGroupId())
+                .setGroupInfo(byGroup.get(body.getGroupId()));
+            bodyWithInfo.setId(body.getId());
+            poolWithInfo.add(bodyWithInfo);
+        }
+
+        MatchedBodyDAO dao = mock(MatchedBodyDAO.class);
+        when(dao.getApproximateMatchBodiesPool(anyString(), anyString(), anyList(), any(String.class)))
+            .thenReturn(pool);
+        when(dao.getGroupsInfo(anyList())).thenReturn(info);
+        MatchingResult expected = new ApproximateMatchingPlugin<>(dao).match(item());
+
+        MatchedBodyDAO daoWithInfo = mock(MatchedBodyDAO.class);
+        when(daoWithInfo.getApproximateMatchBodiesPool(anyString(), anyString(), anyList(), any(String.class)))
+            .thenReturn(poolWithInfo);
+        MatchingResult result = new ApproximateMatchingPlugin<>(daoWithInfo).match(item());
+
+        assertEquals("group1", expected.getGroupId());
+        assertEquals(expected.getGroupId(), result.getGroupId());
+        assertEquals(expected.getMatchedBody().getId(), result.getMatchedBody().getId());
+        verify(daoWithInfo, never()).getGroupsInfo(anyList());
+
+        // group with etalon wins regardless of the size
+        poolWithInfo.get(2).setGroupInfo(new MatchedGroupInfo().setGroupId("group0").setSize(3).setHasEtalon(true));
+        assertEquals("group0", new ApproximateMatchingPlugin<>(daoWithInfo).match(item()).getGroupId());
+    }
+}